@@ -0,0 +1,55 @@
+package com.minecraftclone;
+
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.World;
+import com.minecraftclone.world.WorldPregenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Offline pre-generation of a hosted world: ./gradlew pregen --args="world.save 1000" covers 2000 x 2000 blocks
+// around spawn. Run it again after an interruption and it picks up from its last checkpoint.
+public final class Pregenerate {
+    private static final long REPORT_INTERVAL_NANOS = 1_000_000_000L;
+
+    private Pregenerate() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: Pregenerate <save file> <radius in blocks> [seed, default " + World.DEFAULT_SEED
+                    + "] [threads, default all cores]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[0]);
+        int radiusChunks = (Integer.parseInt(args[1]) + Chunk.SIZE - 1) / Chunk.SIZE;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : World.DEFAULT_SEED;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        if (seed != World.DEFAULT_SEED) {
+            System.out.println("note: the game generates with seed " + World.DEFAULT_SEED
+                    + "; terrain past this save will not line up with it");
+        }
+        if (Files.exists(WorldPregenerator.checkpointFile(file))) {
+            System.out.println("resuming from " + WorldPregenerator.checkpointFile(file));
+        }
+        System.out.printf("%s: %d chunks within %d chunks of spawn, seed %d, %d thread(s)%n", file,
+                WorldPregenerator.chunkCount(radiusChunks), radiusChunks, seed, threads);
+
+        long[] lastReport = {0L};
+        long start = System.nanoTime();
+        long bytes = new WorldPregenerator(seed, radiusChunks, threads).run(file, progress -> {
+            long now = System.nanoTime();
+            if (now - lastReport[0] < REPORT_INTERVAL_NANOS && progress.ringsDone() < progress.rings()) {
+                return;
+            }
+            lastReport[0] = now;
+            long eta = progress.etaNanos() / 1_000_000_000L;
+            System.out.printf("ring %d/%d  %,d/%,d chunks  %.0f chunks/s  ETA %d:%02d%n", progress.ringsDone(),
+                    progress.rings(), progress.chunksDone(), progress.chunks(), progress.chunksPerSecond(), eta / 60,
+                    eta % 60);
+        });
+        System.out.printf("wrote %s: %.1f MB in %.1f s%n", file, bytes / (1024.0 * 1024.0),
+                (System.nanoTime() - start) / 1.0e9);
+    }
+}
@@ -0,0 +1,218 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.world.Autosaver;
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.ChunkMeshData;
+import com.minecraftclone.world.EditJournal;
+import com.minecraftclone.world.World;
+import com.minecraftclone.world.WorldSnapshot;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+public final class AutosaveBenchmark {
+    private static final int RADIUS = 16;
+    private static final int SIDE = RADIUS * 2 + 1;
+    private static final int FRAMES = 600;
+    private static final int SAVE_EVERY_FRAMES = 120;
+    private static final int EDITS_PER_FRAME = 64;
+    private static final int REMESHES_PER_FRAME = 2;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final BlockType[] WRITTEN_TYPES = {BlockType.STONE, BlockType.GLASS, BlockType.DIRT, BlockType.AIR};
+
+    private enum Mode {
+        NONE("no save"),
+        COPY_ON_WRITE("autosave (copy-on-write)"),
+        BLOCKING("blocking save on frame");
+
+        private final String label;
+
+        Mode(String label) {
+            this.label = label;
+        }
+    }
+
+    private AutosaveBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("autosave");
+        try {
+            World world = new World();
+            world.setIdleSeconds(Float.MAX_VALUE);
+            world.ensureChunksAround(0, 0, RADIUS);
+            world.getGenerator().clear();
+            System.out.printf("%d x %d chunks loaded (%d), %d edits + %d remeshes per frame, save every %d frames, %d core(s)%n",
+                    SIDE, SIDE, world.getResidentChunkCount(), EDITS_PER_FRAME, REMESHES_PER_FRAME, SAVE_EVERY_FRAMES,
+                    Runtime.getRuntime().availableProcessors());
+
+            Random random = new Random(11L);
+            Path file = directory.resolve("bench.save");
+            runFrames(world, random, Mode.NONE, file);
+            // Wall time includes whatever the writer thread takes from the game thread's core; CPU time is the frame's own work.
+            System.out.printf("%-26s %9s %9s %9s %11s %11s %7s %14s %10s%n", "mode", "wall mean", "wall p50", "wall p99",
+                    "cpu mean ms", "cpu p99 ms", "saves", "pause max ms", "write ms");
+            for (Mode mode : Mode.values()) {
+                System.gc();
+                print(mode, runFrames(world, random, mode, file));
+            }
+            world.cleanup();
+
+            if (!checkRoundTrip(directory)) {
+                System.exit(1);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private static Result runFrames(World world, Random random, Mode mode, Path file) throws IOException {
+        Autosaver autosaver = new Autosaver(world, file);
+        autosaver.setIntervalSeconds(Float.MAX_VALUE);
+        long[] frames = new long[FRAMES];
+        long[] cpu = new long[FRAMES];
+        long maxPause = 0L;
+        long writeNanos = 0L;
+        int saves = 0;
+        CompletableFuture<Autosaver.SaveResult> pending = null;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            long start = System.nanoTime();
+            long cpuStart = THREADS.getCurrentThreadCpuTime();
+            if (frame % SAVE_EVERY_FRAMES == SAVE_EVERY_FRAMES / 2) {
+                if (mode == Mode.COPY_ON_WRITE && (pending == null || pending.isDone())) {
+                    pending = autosaver.saveAsync();
+                    maxPause = Math.max(maxPause, autosaver.lastSnapshotNanos());
+                    saves++;
+                } else if (mode == Mode.BLOCKING) {
+                    WorldSnapshot snapshot = world.snapshot();
+                    snapshot.writeTo(file);
+                    long pause = System.nanoTime() - start;
+                    maxPause = Math.max(maxPause, pause);
+                    writeNanos += pause;
+                    saves++;
+                }
+            }
+            simulateFrame(world, random);
+            frames[frame] = System.nanoTime() - start;
+            cpu[frame] = THREADS.getCurrentThreadCpuTime() - cpuStart;
+            if (pending != null && pending.isDone()) {
+                writeNanos += pending.join().writeNanos();
+                pending = null;
+            }
+        }
+        if (pending != null) {
+            writeNanos += pending.join().writeNanos();
+        }
+        return new Result(frames, cpu, saves, maxPause, saves == 0 ? 0L : writeNanos / saves);
+    }
+
+    // A stand-in for the game thread: scattered edits, as a player and the fluid/tick systems make, plus remeshing.
+    private static void simulateFrame(World world, Random random) {
+        int span = SIDE * Chunk.SIZE;
+        for (int i = 0; i < EDITS_PER_FRAME; i++) {
+            int x = random.nextInt(span) - RADIUS * Chunk.SIZE;
+            int z = random.nextInt(span) - RADIUS * Chunk.SIZE;
+            world.setBlock(x, 40 + random.nextInt(24), z, WRITTEN_TYPES[random.nextInt(WRITTEN_TYPES.length)]);
+        }
+        for (int i = 0; i < REMESHES_PER_FRAME; i++) {
+            Chunk chunk = world.getLoadedChunk(random.nextInt(SIDE) - RADIUS, random.nextInt(SIDE) - RADIUS);
+            ChunkMeshData data = chunk.buildMesh(world);
+            data.release();
+        }
+    }
+
+    private static boolean checkRoundTrip(Path directory) throws IOException {
+        Path file = directory.resolve("roundtrip.save");
+        Path journalFile = directory.resolve("roundtrip.journal");
+        World world = new World();
+        world.setIdleSeconds(Float.MAX_VALUE);
+        world.ensureChunksAround(0, 0, RADIUS);
+        EditJournal journal = EditJournal.open(journalFile, EditJournal.SyncPolicy.NEVER);
+        world.setEditJournal(journal);
+        Random random = new Random(5L);
+        for (int frame = 0; frame < 50; frame++) {
+            simulateFrame(world, random);
+        }
+        // Keep two distant chunks compressed so the save covers both tiers.
+        world.setIdleSeconds(0.0f);
+        world.setDemotionsPerUpdate(2);
+        world.demoteIdleChunks(0, 0, System.nanoTime() + 1L);
+        world.setIdleSeconds(Float.MAX_VALUE);
+
+        long atSnapshot = checksum(world);
+        Autosaver autosaver = new Autosaver(world, file);
+        CompletableFuture<Autosaver.SaveResult> save = autosaver.saveAsync();
+        // Keep editing while the writer encodes; none of this may leak into the save, all of it must be journaled.
+        for (int frame = 0; frame < 50; frame++) {
+            simulateFrame(world, random);
+        }
+        Autosaver.SaveResult result = save.join();
+        for (int frame = 0; frame < 20; frame++) {
+            simulateFrame(world, random);
+        }
+        long atEnd = checksum(world);
+        long journalRecords = journal.lastSequence();
+        world.setEditJournal(null);
+        journal.close();
+        world.cleanup();
+
+        World loaded = new World();
+        int loadedChunks = loaded.loadSave(file);
+        long fromSave = checksum(loaded);
+        EditJournal reopened = EditJournal.open(journalFile, EditJournal.SyncPolicy.NEVER);
+        EditJournal.ReplayResult replay = reopened.replay(loaded);
+        reopened.close();
+        long fromSaveAndJournal = checksum(loaded);
+        loaded.cleanup();
+
+        System.out.printf("save: %d chunks, %d KB, snapshot %.3f ms, write %.1f ms; journal %d -> %d records after compaction%n",
+                result.chunks(), result.bytes() / 1024, result.snapshotNanos() / 1.0e6, result.writeNanos() / 1.0e6,
+                journalRecords, result.journalRecordsKept());
+        System.out.printf("round trip: %d chunks loaded, save matches snapshot point: %s, save + %d replayed edits match final world: %s%n",
+                loadedChunks, fromSave == atSnapshot ? "yes" : "NO", replay.records(), fromSaveAndJournal == atEnd ? "yes" : "NO");
+        return fromSave == atSnapshot && fromSaveAndJournal == atEnd;
+    }
+
+    private static long checksum(World world) {
+        CRC32 crc = new CRC32();
+        byte[] column = new byte[Chunk.HEIGHT * 2];
+        for (int x = -RADIUS * Chunk.SIZE; x < (RADIUS + 1) * Chunk.SIZE; x++) {
+            for (int z = -RADIUS * Chunk.SIZE; z < (RADIUS + 1) * Chunk.SIZE; z++) {
+                for (int y = 0; y < Chunk.HEIGHT; y++) {
+                    column[y * 2] = (byte) world.getBlock(x, y, z).id();
+                    column[y * 2 + 1] = (byte) world.getFluidLevel(x, y, z);
+                }
+                crc.update(column);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static void print(Mode mode, Result result) {
+        long[] frames = result.frameNanos.clone();
+        long[] cpu = result.cpuNanos.clone();
+        Arrays.sort(frames);
+        Arrays.sort(cpu);
+        System.out.printf("%-26s %9.3f %9.3f %9.3f %11.3f %11.3f %7d %14.3f %10.1f%n", mode.label,
+                Arrays.stream(frames).average().orElse(0.0) / 1.0e6, frames[frames.length / 2] / 1.0e6,
+                frames[frames.length * 99 / 100] / 1.0e6, Arrays.stream(cpu).average().orElse(0.0) / 1.0e6,
+                cpu[cpu.length * 99 / 100] / 1.0e6, result.saves, result.maxPauseNanos / 1.0e6, result.meanWriteNanos / 1.0e6);
+    }
+
+    private record Result(long[] frameNanos, long[] cpuNanos, int saves, long maxPauseNanos, long meanWriteNanos) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.graphics.VertexWriter;
+import com.minecraftclone.world.BlockRegistry;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.ChunkMeshData;
+import com.minecraftclone.world.TextureLayers;
+import com.minecraftclone.world.World;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+// Prints the texture layer every block face resolved to, times decoding the tiles, and compares the terrain's vertex
+// bytes against the previous layout of position, normal and RGBA color as ten floats.
+public final class BlockTextureBenchmark {
+    private static final int LOADED_RADIUS = 4;
+    private static final int COLOR_VERTEX_BYTES = 10 * Float.BYTES;
+    private static final String[] FACE_NAMES = {"-x", "+x", "-y", "+y", "-z", "+z"};
+
+    private BlockTextureBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        BlockRegistry registry = BlockRegistry.defaults();
+        TextureLayers layers = TextureLayers.defaults();
+        for (int id = 1; id < registry.size(); id++) {
+            StringBuilder line = new StringBuilder(String.format("%-10s", registry.byId(id).name()));
+            for (int face = 0; face < FACE_NAMES.length; face++) {
+                TextureLayers.Layer layer = layers.layers().get(layers.layer(id, face));
+                line.append(String.format(" %s=%d:%s%s", FACE_NAMES[face], layers.layer(id, face), layer.texture(),
+                        layer.found() ? "" : "(flat)"));
+            }
+            System.out.println(line);
+        }
+        long start = System.nanoTime();
+        List<ByteBuffer> images = layers.loadImages();
+        System.out.printf("%d layers, %d KB of tiles decoded in %.1f ms%n", layers.layerCount(),
+                images.stream().mapToInt(ByteBuffer::remaining).sum() / 1024, (System.nanoTime() - start) / 1.0e6);
+
+        World world = new World();
+        world.ensureChunksAround(0, 0, LOADED_RADIUS);
+        long vertices = 0L;
+        long buildNanos = 0L;
+        int chunks = 0;
+        for (int chunkX = -LOADED_RADIUS + 1; chunkX < LOADED_RADIUS; chunkX++) {
+            for (int chunkZ = -LOADED_RADIUS + 1; chunkZ < LOADED_RADIUS; chunkZ++) {
+                Chunk chunk = world.getLoadedChunk(chunkX, chunkZ);
+                start = System.nanoTime();
+                ChunkMeshData data = chunk.buildMesh(world);
+                buildNanos += System.nanoTime() - start;
+                vertices += data.opaqueVertexCount() + data.translucentQuadCount() * 4L;
+                data.release();
+                chunks++;
+            }
+        }
+        System.out.printf("%d chunks: %.0f vertices/chunk, %.1f KB/chunk at %d B/vertex vs %.1f KB/chunk at %d B/vertex, %.3f ms/mesh%n",
+                chunks, (double) vertices / chunks, vertices * VertexWriter.VERTEX_BYTES / 1024.0 / chunks,
+                VertexWriter.VERTEX_BYTES, vertices * COLOR_VERTEX_BYTES / 1024.0 / chunks, COLOR_VERTEX_BYTES,
+                buildNanos / 1.0e6 / chunks);
+        world.cleanup();
+    }
+}
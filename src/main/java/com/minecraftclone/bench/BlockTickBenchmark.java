@@ -0,0 +1,124 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.world.BlockTickScheduler;
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.World;
+
+public final class BlockTickBenchmark {
+    private static final int DROP_HEIGHT = Chunk.HEIGHT - 4;
+    private static final int RANDOM_TICK_SAMPLES = 200;
+    private static final int REPEATS = 3;
+
+    private BlockTickBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        // Warm up the tick paths before measuring anything.
+        runFallingSand(4, 1024);
+        runRandomTicks(4);
+
+        System.out.println("Falling sand, fixed active set (1024 blocks), growing loaded area");
+        System.out.printf("%8s %8s %10s %14s%n", "radius", "chunks", "ticks", "us/tick");
+        for (int radius : new int[]{2, 4, 8, 16}) {
+            Result result = runFallingSand(radius, 1024);
+            System.out.printf("%8d %8d %10d %14.1f%n", radius, result.chunks, result.ticks, result.microsPerTick());
+        }
+
+        System.out.println();
+        System.out.println("Falling sand, fixed loaded area (radius 8), growing active set");
+        System.out.printf("%8s %10s %14s %16s%n", "blocks", "ticks", "us/tick", "ns/block-tick");
+        for (int blocks : new int[]{256, 1024, 4096, 16384}) {
+            Result result = runFallingSand(8, blocks);
+            double nanosPerBlockTick = (double) result.nanos / result.ticks / blocks;
+            System.out.printf("%8d %10d %14.1f %16.1f%n", blocks, result.ticks, result.microsPerTick(), nanosPerBlockTick);
+        }
+
+        System.out.println();
+        System.out.printf("Random ticks (%d per section), only sections holding tickable blocks are sampled%n",
+                BlockTickScheduler.DEFAULT_RANDOM_TICKS_PER_SECTION);
+        System.out.printf("%8s %8s %16s %16s %14s%n", "radius", "chunks", "loaded sections", "ticked sections", "us/tick");
+        for (int radius : new int[]{2, 4, 8, 16}) {
+            Result result = runRandomTicks(radius);
+            System.out.printf("%8d %8d %16d %16d %14.1f%n", radius, result.chunks, result.chunks * Chunk.SECTION_COUNT,
+                    result.sections, result.microsPerTick());
+        }
+    }
+
+    private static Result runFallingSand(int radius, int blocks) {
+        Result best = null;
+        for (int i = 0; i < REPEATS; i++) {
+            Result result = runFallingSandOnce(radius, blocks);
+            if (best == null || result.nanos < best.nanos) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    private static Result runRandomTicks(int radius) {
+        Result best = null;
+        for (int i = 0; i < REPEATS; i++) {
+            Result result = runRandomTicksOnce(radius);
+            if (best == null || result.nanos < best.nanos) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    private static Result runFallingSandOnce(int radius, int blocks) {
+        World world = new World();
+        world.ensureChunksAround(0, 0, radius);
+        BlockTickScheduler ticks = world.getBlockTicks();
+        ticks.setRandomTicksPerSection(0);
+
+        int side = (int) Math.ceil(Math.sqrt(blocks));
+        int placed = 0;
+        for (int x = 0; x < side && placed < blocks; x++) {
+            for (int z = 0; z < side && placed < blocks; z++) {
+                world.setBlock(x - side / 2, DROP_HEIGHT, z - side / 2, BlockType.SAND);
+                placed++;
+            }
+        }
+
+        System.gc();
+        long start = System.nanoTime();
+        int tickCount = 0;
+        do {
+            world.tick();
+            tickCount++;
+        } while (ticks.pendingScheduledTicks() > 0 || ticks.lastNeighborUpdates() > 0);
+        long elapsed = System.nanoTime() - start;
+        world.cleanup();
+        return new Result(countChunks(radius), tickCount, elapsed, 0);
+    }
+
+    private static Result runRandomTicksOnce(int radius) {
+        World world = new World();
+        world.ensureChunksAround(0, 0, radius);
+        world.tick();
+
+        System.gc();
+        long start = System.nanoTime();
+        int sections = 0;
+        for (int i = 0; i < RANDOM_TICK_SAMPLES; i++) {
+            world.tick();
+            sections = world.getBlockTicks().lastRandomTickSections();
+        }
+        long elapsed = System.nanoTime() - start;
+        world.cleanup();
+        return new Result(countChunks(radius), RANDOM_TICK_SAMPLES, elapsed, sections);
+    }
+
+    private static int countChunks(int radius) {
+        int side = radius * 2 + 1;
+        return side * side;
+    }
+
+    private record Result(int chunks, int ticks, long nanos, int sections) {
+        double microsPerTick() {
+            return nanos / 1_000.0 / ticks;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.ChunkLoadScheduler;
+import com.minecraftclone.world.World;
+
+public final class ChunkLoadReplay {
+    private static final float FRAME_SECONDS = 1.0f / 60.0f;
+    private static final float WALK_SPEED = 6.0f;
+    private static final float SPRINT_SPEED = WALK_SPEED * 1.6f;
+    private static final float HALF_FOV_RADIANS = (float) Math.toRadians(55.0);
+    private static final int LOADS_PER_FRAME = 1;
+    private static final int VIEW_DISTANCE = World.DEFAULT_VIEW_DISTANCE_CHUNKS;
+
+    private static final Segment[] FLIGHT_PATH = {
+            new Segment(4.0f, 0.0f, WALK_SPEED, false),
+            new Segment(8.0f, 0.0f, SPRINT_SPEED, true),
+            new Segment(3.0f, 90.0f, SPRINT_SPEED, true),
+            new Segment(2.0f, 135.0f, WALK_SPEED, false),
+            new Segment(6.0f, 200.0f, 24.0f, true),
+            new Segment(1.0f, 200.0f, 0.0f, false),
+            new Segment(5.0f, 290.0f, 32.0f, true),
+            new Segment(6.0f, 20.0f, SPRINT_SPEED, true),
+            new Segment(4.0f, 110.0f, 40.0f, true)
+    };
+
+    private ChunkLoadReplay() {
+    }
+
+    public static void main(String[] args) {
+        run(Strategy.RASTER, false);
+
+        float seconds = 0.0f;
+        for (Segment segment : FLIGHT_PATH) {
+            seconds += segment.seconds();
+        }
+        System.out.printf("Flight path: %d segments, %.0f s at 60 fps, view distance %d chunks, %d chunk load(s) per frame%n",
+                FLIGHT_PATH.length, seconds, VIEW_DISTANCE, LOADS_PER_FRAME);
+        System.out.printf("%-30s %12s %14s %12s %12s %12s %14s%n",
+                "strategy", "miss frames", "missed chunks", "loaded", "cancelled", "max/frame", "max load ms");
+        for (Strategy strategy : Strategy.values()) {
+            print(strategy, run(strategy, true));
+        }
+    }
+
+    private static Result run(Strategy strategy, boolean measure) {
+        World world = new World();
+        world.ensureChunksAround(0, 0, VIEW_DISTANCE);
+        ChunkLoadScheduler scheduler = world.getChunkLoader();
+        scheduler.setLoadsPerUpdate(LOADS_PER_FRAME);
+        scheduler.setDirectionWeight(strategy == Strategy.PREDICTIVE ? ChunkLoadScheduler.DEFAULT_DIRECTION_WEIGHT : 0.0f);
+        scheduler.setPrefetchSeconds(strategy == Strategy.PREDICTIVE ? ChunkLoadScheduler.DEFAULT_PREFETCH_SECONDS : 0.0f);
+        System.gc();
+
+        float x = 0.5f;
+        float z = 0.5f;
+        int missFrames = 0;
+        long missedChunks = 0;
+        long loaded = 0;
+        int maxLoadsPerFrame = 0;
+        long maxLoadNanos = 0;
+        for (Segment segment : FLIGHT_PATH) {
+            float headingX = (float) Math.cos(Math.toRadians(segment.headingDegrees()));
+            float headingZ = (float) Math.sin(Math.toRadians(segment.headingDegrees()));
+            int frames = Math.round(segment.seconds() / FRAME_SECONDS);
+            for (int frame = 0; frame < frames; frame++) {
+                float velocityX = headingX * segment.speed();
+                float velocityZ = headingZ * segment.speed();
+                x += velocityX * FRAME_SECONDS;
+                z += velocityZ * FRAME_SECONDS;
+
+                long start = System.nanoTime();
+                int loadedThisFrame;
+                if (strategy == Strategy.RASTER_UNBUDGETED) {
+                    loadedThisFrame = loadRaster(world, x, z, Integer.MAX_VALUE);
+                } else if (strategy == Strategy.RASTER) {
+                    loadedThisFrame = loadRaster(world, x, z, LOADS_PER_FRAME);
+                } else {
+                    loadedThisFrame = scheduler.update(world, x, z, velocityX, velocityZ,
+                            headingX, headingZ, segment.sprinting(), VIEW_DISTANCE);
+                }
+                maxLoadNanos = Math.max(maxLoadNanos, System.nanoTime() - start);
+                maxLoadsPerFrame = Math.max(maxLoadsPerFrame, loadedThisFrame);
+                loaded += loadedThisFrame;
+
+                int missing = countVisibleMissing(world, x, z, headingX, headingZ);
+                if (missing > 0) {
+                    missFrames++;
+                    missedChunks += missing;
+                }
+            }
+        }
+        long cancelled = scheduler.totalCancelled();
+        world.cleanup();
+        return measure ? new Result(missFrames, missedChunks, loaded, cancelled, maxLoadsPerFrame, maxLoadNanos / 1_000_000.0) : null;
+    }
+
+    private static int loadRaster(World world, float x, float z, int budget) {
+        int centerChunkX = Math.floorDiv((int) Math.floor(x), Chunk.SIZE);
+        int centerChunkZ = Math.floorDiv((int) Math.floor(z), Chunk.SIZE);
+        int loaded = 0;
+        for (int dz = -VIEW_DISTANCE; dz <= VIEW_DISTANCE && loaded < budget; dz++) {
+            for (int dx = -VIEW_DISTANCE; dx <= VIEW_DISTANCE && loaded < budget; dx++) {
+                if (world.getLoadedChunk(centerChunkX + dx, centerChunkZ + dz) == null) {
+                    world.ensureChunksAround(centerChunkX + dx, centerChunkZ + dz, 0);
+                    loaded++;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private static int countVisibleMissing(World world, float x, float z, float viewX, float viewZ) {
+        int centerChunkX = Math.floorDiv((int) Math.floor(x), Chunk.SIZE);
+        int centerChunkZ = Math.floorDiv((int) Math.floor(z), Chunk.SIZE);
+        float cosHalfFov = (float) Math.cos(HALF_FOV_RADIANS);
+        int missing = 0;
+        for (int dz = -VIEW_DISTANCE; dz <= VIEW_DISTANCE; dz++) {
+            for (int dx = -VIEW_DISTANCE; dx <= VIEW_DISTANCE; dx++) {
+                int chunkX = centerChunkX + dx;
+                int chunkZ = centerChunkZ + dz;
+                if (world.getLoadedChunk(chunkX, chunkZ) != null) {
+                    continue;
+                }
+                // Test the chunk's nearest point so chunks straddling the frustum edge count as visible.
+                float nearestX = Math.max(chunkX * Chunk.SIZE, Math.min(x, (chunkX + 1) * Chunk.SIZE)) - x;
+                float nearestZ = Math.max(chunkZ * Chunk.SIZE, Math.min(z, (chunkZ + 1) * Chunk.SIZE)) - z;
+                float centerX = chunkX * Chunk.SIZE + Chunk.SIZE * 0.5f - x;
+                float centerZ = chunkZ * Chunk.SIZE + Chunk.SIZE * 0.5f - z;
+                float nearestLength = (float) Math.sqrt(nearestX * nearestX + nearestZ * nearestZ);
+                float centerLength = (float) Math.sqrt(centerX * centerX + centerZ * centerZ);
+                boolean nearestVisible = nearestLength < 1.0e-3f || (nearestX * viewX + nearestZ * viewZ) / nearestLength >= cosHalfFov;
+                boolean centerVisible = (centerX * viewX + centerZ * viewZ) / centerLength >= cosHalfFov;
+                if (nearestVisible || centerVisible) {
+                    missing++;
+                }
+            }
+        }
+        return missing;
+    }
+
+    private static void print(Strategy strategy, Result result) {
+        System.out.printf("%-30s %12d %14d %12d %12d %12d %14.2f%n", strategy.label, result.missFrames,
+                result.missedChunks, result.loaded, result.cancelled, result.maxLoadsPerFrame, result.maxLoadMillis);
+    }
+
+    private enum Strategy {
+        RASTER_UNBUDGETED("raster, unbudgeted (old)"),
+        RASTER("raster, budgeted"),
+        DISTANCE("distance only"),
+        PREDICTIVE("predictive + sprint prefetch");
+
+        private final String label;
+
+        Strategy(String label) {
+            this.label = label;
+        }
+    }
+
+    private record Segment(float seconds, float headingDegrees, float speed, boolean sprinting) {
+    }
+
+    private record Result(int missFrames, long missedChunks, long loaded, long cancelled,
+                          int maxLoadsPerFrame, double maxLoadMillis) {
+    }
+}
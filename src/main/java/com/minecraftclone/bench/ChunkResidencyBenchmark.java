@@ -0,0 +1,133 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.ChunkMeshData;
+import com.minecraftclone.world.World;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public final class ChunkResidencyBenchmark {
+    private static final int RADIUS = 8;
+    private static final int SIDE = RADIUS * 2 + 1;
+    private static final int FAR_AWAY = 10_000;
+    private static final int WATER_POOLS = 40;
+
+    private ChunkResidencyBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        long baseline = usedHeap();
+        World world = new World();
+        world.setIdleSeconds(0.0f);
+        world.setDemotionsPerUpdate(Integer.MAX_VALUE);
+        world.ensureChunksAround(0, 0, RADIUS);
+        Random random = new Random(3L);
+        for (int i = 0; i < WATER_POOLS; i++) {
+            int x = random.nextInt(SIDE * Chunk.SIZE) - RADIUS * Chunk.SIZE;
+            int z = random.nextInt(SIDE * Chunk.SIZE) - RADIUS * Chunk.SIZE;
+            int y = world.getSurfaceHeight(x, z) + 1;
+            world.setBlock(x, y, z, BlockType.WATER);
+            world.setBlock(x + 1, y, z, BlockType.GLASS);
+        }
+        world.getGenerator().clear();
+        int chunkCount = SIDE * SIDE;
+        long meshBytes = 0;
+        for (int chunkZ = -RADIUS; chunkZ <= RADIUS; chunkZ++) {
+            for (int chunkX = -RADIUS; chunkX <= RADIUS; chunkX++) {
+                ChunkMeshData data = world.getLoadedChunk(chunkX, chunkZ).buildMesh(world);
+                meshBytes += data.opaqueVertices().remaining() + data.translucentVertices().remaining();
+                data.release();
+            }
+        }
+        long residentHeap = usedHeap() - baseline;
+        byte[] expected = snapshot(world);
+
+        long start = System.nanoTime();
+        int demoted = world.demoteIdleChunks(FAR_AWAY, FAR_AWAY, System.nanoTime());
+        long demoteNanos = System.nanoTime() - start;
+        long compressedHeap = usedHeap() - baseline - expected.length;
+        long payload = world.getCompressedBytes();
+
+        System.out.printf("%d x %d chunks (%d), %d edited water/glass pairs%n", SIDE, SIDE, chunkCount, WATER_POOLS);
+        System.out.printf("%-28s %14s %14s%n", "tier", "heap KB/chunk", "GPU KB/chunk");
+        System.out.printf("%-28s %14.1f %14.1f%n", "resident (meshed)", residentHeap / 1024.0 / chunkCount, meshBytes / 1024.0 / chunkCount);
+        System.out.printf("%-28s %14.1f %14.1f%n", "compressed (RLE columns)", compressedHeap / 1024.0 / chunkCount, 0.0);
+        System.out.printf("compressed payload %.2f KB/chunk, ratio %.0fx; demoted %d chunks in %.1f ms (%.3f ms each)%n",
+                payload / 1024.0 / chunkCount, residentHeap / (double) compressedHeap, demoted,
+                demoteNanos / 1.0e6, demoteNanos / 1.0e6 / demoted);
+
+        List<int[]> order = new ArrayList<>();
+        for (int chunkZ = -RADIUS; chunkZ <= RADIUS; chunkZ++) {
+            for (int chunkX = -RADIUS; chunkX <= RADIUS; chunkX++) {
+                order.add(new int[]{chunkX, chunkZ});
+            }
+        }
+        Collections.shuffle(order, random);
+        long[] latencies = new long[order.size()];
+        for (int i = 0; i < latencies.length; i++) {
+            int[] position = order.get(i);
+            int x = position[0] * Chunk.SIZE + 5;
+            int z = position[1] * Chunk.SIZE + 9;
+            // Alternate read and write promotions; the write goes back to what was there.
+            start = System.nanoTime();
+            if ((i & 1) == 0) {
+                world.getBlock(x, 20, z);
+            } else {
+                world.setBlock(x, Chunk.HEIGHT - 1, z, BlockType.AIR);
+            }
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("promotion on getBlock/setBlock: mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms (%d promotions)%n",
+                Arrays.stream(latencies).average().orElse(0.0) / 1.0e6, latencies[latencies.length / 2] / 1.0e6,
+                latencies[latencies.length * 99 / 100] / 1.0e6, latencies[latencies.length - 1] / 1.0e6, world.getPromotions());
+
+        world.demoteIdleChunks(FAR_AWAY, FAR_AWAY, System.nanoTime());
+        start = System.nanoTime();
+        world.ensureChunksAround(0, 0, RADIUS);
+        long reentryNanos = System.nanoTime() - start;
+        System.out.printf("re-entering view: %d chunks promoted in %.1f ms%n", chunkCount, reentryNanos / 1.0e6);
+
+        int mismatches = 0;
+        byte[] actual = snapshot(world);
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] != actual[i]) {
+                mismatches++;
+            }
+        }
+        System.out.printf("round-trip mismatches (blocks + fluid levels): %d, resident %d, compressed %d%n",
+                mismatches, world.getResidentChunkCount(), world.getCompressedChunkCount());
+        world.cleanup();
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static byte[] snapshot(World world) {
+        int span = SIDE * Chunk.SIZE;
+        byte[] cells = new byte[span * span * Chunk.HEIGHT * 2];
+        int offset = 0;
+        for (int x = -RADIUS * Chunk.SIZE; x < (RADIUS + 1) * Chunk.SIZE; x++) {
+            for (int z = -RADIUS * Chunk.SIZE; z < (RADIUS + 1) * Chunk.SIZE; z++) {
+                for (int y = 0; y < Chunk.HEIGHT; y++) {
+                    cells[offset++] = (byte) world.getBlock(x, y, z).id();
+                    cells[offset++] = (byte) world.getFluidLevel(x, y, z);
+                }
+            }
+        }
+        return cells;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
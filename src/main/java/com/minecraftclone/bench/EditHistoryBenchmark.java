@@ -0,0 +1,120 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.world.BlockBox;
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.EditHistory;
+import com.minecraftclone.world.RegionEditor;
+import com.minecraftclone.world.World;
+
+import java.util.Random;
+
+// Bytes an undo step holds for single-block edits and for region operations up to a million blocks, against keeping
+// every changed cell (index plus old and new id, 8 bytes) or a before and after copy of every chunk touched.
+public final class EditHistoryBenchmark {
+    private static final int SINGLE_EDITS = 20_000;
+    private static final int SPAN = 96;
+    private static final int BUDGETED_EDITS = 100_000;
+    private static final long SMALL_BUDGET_BYTES = 256L << 10;
+    private static final long SPARSE_BYTES_PER_CELL = 8L;
+    private static final long CHUNK_COPY_BYTES = 2L * Chunk.SIZE * Chunk.SIZE * Chunk.HEIGHT * Short.BYTES;
+
+    private EditHistoryBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        World world = new World();
+        world.ensureChunksAround(0, 0, 4);
+        single(world);
+        budget(world);
+
+        RegionEditor editor = new RegionEditor(world);
+        System.out.printf("%-28s %9s %9s %10s %10s %12s %12s %9s %9s %9s%n", "operation", "cells", "chunks",
+                "step B", "B/cell", "sparse B", "copies B", "edit ms", "undo ms", "redo ms");
+        region("fill 125x64x125 glass", world, editor, BlockBox.of(-60, 16, -60, 64, 79, 64),
+                () -> editor.fill(BlockBox.of(-60, 16, -60, 64, 79, 64), BlockType.GLASS));
+        region("sphere r=50 air", world, editor, BlockBox.of(-50, 0, -50, 50, 95, 50),
+                () -> editor.fillSphere(0, 45, 0, 50, BlockType.AIR));
+        region("replace stone->dirt 125^2", world, editor, BlockBox.of(-60, 0, -60, 64, 95, 64),
+                () -> editor.replace(BlockBox.of(-60, 0, -60, 64, 95, 64), BlockType.STONE, BlockType.DIRT));
+        world.cleanup();
+    }
+
+    private static void single(World world) {
+        EditHistory history = new EditHistory(world, 1L << 30);
+        Random random = new Random(3L);
+        long start = System.nanoTime();
+        for (int i = 0; i < SINGLE_EDITS; i++) {
+            int x = random.nextInt(SPAN) - SPAN / 2;
+            int z = random.nextInt(SPAN) - SPAN / 2;
+            int y = world.getSurfaceHeight(x, z) + 1;
+            history.setBlock(x, y, z, (i & 1) == 0 ? BlockType.STONE : BlockType.GLASS);
+        }
+        long recordNanos = System.nanoTime() - start;
+        int steps = history.undoSteps();
+        long bytes = history.usedBytes();
+        start = System.nanoTime();
+        int conflicts = 0;
+        while (history.undoSteps() > 0) {
+            conflicts += history.undo().conflicts();
+        }
+        System.out.printf("single-block edits: %d steps, %.1f B/step, %.2f us/edit recorded, %.2f us/undo, %d conflicts%n",
+                steps, (double) bytes / steps, recordNanos / 1.0e3 / SINGLE_EDITS,
+                (System.nanoTime() - start) / 1.0e3 / steps, conflicts);
+    }
+
+    private static void budget(World world) {
+        EditHistory history = new EditHistory(world, SMALL_BUDGET_BYTES);
+        Random random = new Random(4L);
+        for (int i = 0; i < BUDGETED_EDITS; i++) {
+            int x = random.nextInt(SPAN) - SPAN / 2;
+            int z = random.nextInt(SPAN) - SPAN / 2;
+            history.setBlock(x, world.getSurfaceHeight(x, z) + 1, z, BlockType.STONE);
+        }
+        System.out.printf("%d edits under a %d KB budget: %d steps kept, %d dropped, %d bytes held%n", BUDGETED_EDITS,
+                SMALL_BUDGET_BYTES >> 10, history.undoSteps(), history.droppedSteps(), history.usedBytes());
+        while (history.undoSteps() > 0) {
+            history.undo();
+        }
+    }
+
+    private static void region(String label, World world, RegionEditor editor, BlockBox box, Runnable operation) {
+        EditHistory history = new EditHistory(world, 1L << 30);
+        editor.setHistory(history);
+        long before = checksum(world, box);
+        long start = System.nanoTime();
+        operation.run();
+        long editNanos = System.nanoTime() - start;
+        long stepBytes = history.usedBytes();
+        long after = checksum(world, box);
+
+        start = System.nanoTime();
+        EditHistory.Result undone = history.undo();
+        long undoNanos = System.nanoTime() - start;
+        if (checksum(world, box) != before || undone.conflicts() != 0) {
+            throw new IllegalStateException(label + ": undo did not restore the region");
+        }
+        start = System.nanoTime();
+        EditHistory.Result redone = history.redo();
+        long redoNanos = System.nanoTime() - start;
+        if (checksum(world, box) != after || redone.cells() != undone.cells()) {
+            throw new IllegalStateException(label + ": redo did not repeat the edit");
+        }
+        history.undo();
+        System.out.printf("%-28s %9d %9d %10d %10.3f %12d %12d %9.1f %9.1f %9.1f%n", label, undone.cells(),
+                undone.chunks(), stepBytes, (double) stepBytes / undone.cells(), undone.cells() * SPARSE_BYTES_PER_CELL,
+                undone.chunks() * CHUNK_COPY_BYTES, editNanos / 1.0e6, undoNanos / 1.0e6, redoNanos / 1.0e6);
+    }
+
+    private static long checksum(World world, BlockBox box) {
+        long sum = 0L;
+        for (int x = box.minX(); x <= box.maxX(); x++) {
+            for (int z = box.minZ(); z <= box.maxZ(); z++) {
+                for (int y = box.minY(); y <= box.maxY(); y++) {
+                    sum = sum * 31L + world.getBlock(x, y, z).id();
+                }
+            }
+        }
+        return sum;
+    }
+}
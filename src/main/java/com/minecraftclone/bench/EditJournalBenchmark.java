@@ -0,0 +1,177 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.world.BlockPos;
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.EditJournal;
+import com.minecraftclone.world.World;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public final class EditJournalBenchmark {
+    private static final int LOADED_RADIUS = 3;
+    private static final int EDIT_MIN = -LOADED_RADIUS * Chunk.SIZE;
+    private static final int EDIT_SPAN = LOADED_RADIUS * Chunk.SIZE * 2;
+    private static final int EDIT_MIN_Y = 50;
+    private static final int EDIT_HEIGHT = 16;
+    private static final long RUN_NANOS = 1_500_000_000L;
+    private static final BlockType[] WRITTEN_TYPES = {BlockType.STONE, BlockType.GLASS, BlockType.DIRT, BlockType.AIR};
+
+    private EditJournalBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("edit-journal");
+        try {
+            run(directory, null, 1, false);
+            System.out.printf("%-24s %8s %12s %12s %10s %12s%n", "durability", "threads", "edits", "edits/s", "fsyncs", "journal KB");
+            print("in memory (no journal)", 1, run(directory, null, 1, true));
+            for (EditJournal.SyncPolicy policy : EditJournal.SyncPolicy.values()) {
+                print(policy.name(), 1, run(directory, policy, 1, true));
+                if (policy == EditJournal.SyncPolicy.EVERY_EDIT) {
+                    print(policy.name(), 4, run(directory, policy, 4, true));
+                }
+            }
+            if (!checkRecovery(directory)) {
+                System.exit(1);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static Result run(Path directory, EditJournal.SyncPolicy policy, int threads, boolean measure) throws Exception {
+        World world = new World();
+        world.ensureChunksAround(0, 0, LOADED_RADIUS);
+        Path file = directory.resolve("run.journal");
+        Files.deleteIfExists(file);
+        EditJournal journal = policy == null ? null : EditJournal.open(file, policy);
+        world.setEditJournal(journal);
+
+        long[] counts = new long[threads];
+        List<Thread> workers = new ArrayList<>();
+        long deadline = System.nanoTime() + (measure ? RUN_NANOS : RUN_NANOS / 3);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int lane = t;
+            Thread worker = new Thread(() -> {
+                Random random = new Random(lane);
+                long edits = 0;
+                while (System.nanoTime() < deadline) {
+                    world.setBlock(EDIT_MIN + random.nextInt(EDIT_SPAN), EDIT_MIN_Y + random.nextInt(EDIT_HEIGHT),
+                            EDIT_MIN + random.nextInt(EDIT_SPAN), WRITTEN_TYPES[(int) (edits++ & 3)]);
+                }
+                counts[lane] = edits;
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1.0e9;
+        long edits = 0;
+        for (long count : counts) {
+            edits += count;
+        }
+        long fsyncs = 0;
+        long bytes = 0;
+        if (journal != null) {
+            journal.close();
+            fsyncs = journal.syncs();
+            bytes = Files.size(file);
+        }
+        world.cleanup();
+        return new Result(edits, edits / seconds, fsyncs, bytes);
+    }
+
+    private static boolean checkRecovery(Path directory) throws IOException {
+        Path file = directory.resolve("recovery.journal");
+        World world = new World();
+        world.ensureChunksAround(0, 0, LOADED_RADIUS);
+        EditJournal journal = EditJournal.open(file, EditJournal.SyncPolicy.GROUP);
+        world.setEditJournal(journal);
+        Random random = new Random(42L);
+        Map<Long, BlockType> expected = new HashMap<>();
+        int edits = 50_000;
+        for (int i = 0; i < edits; i++) {
+            int x = EDIT_MIN + random.nextInt(EDIT_SPAN);
+            int y = EDIT_MIN_Y + random.nextInt(EDIT_HEIGHT);
+            int z = EDIT_MIN + random.nextInt(EDIT_SPAN);
+            BlockType type = WRITTEN_TYPES[random.nextInt(WRITTEN_TYPES.length)];
+            world.setBlock(x, y, z, type);
+            expected.put(BlockPos.pack(x, y, z), type);
+        }
+        journal.close();
+        world.cleanup();
+        long fullSize = Files.size(file);
+
+        // Simulate a crash in the middle of a write: half a record of garbage after the last full commit.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13}));
+        }
+        World recovered = new World();
+        EditJournal reopened = EditJournal.open(file, EditJournal.SyncPolicy.GROUP);
+        long start = System.nanoTime();
+        EditJournal.ReplayResult replay = reopened.replay(recovered);
+        double replayMillis = (System.nanoTime() - start) / 1.0e6;
+        int mismatches = mismatches(recovered, expected);
+        recovered.cleanup();
+
+        start = System.nanoTime();
+        int kept = reopened.compact(chunk -> false);
+        double compactMillis = (System.nanoTime() - start) / 1.0e6;
+        long compactedSize = reopened.sizeBytes();
+        reopened.close();
+        World afterCompaction = new World();
+        EditJournal compacted = EditJournal.open(file, EditJournal.SyncPolicy.GROUP);
+        compacted.replay(afterCompaction);
+        int compactedMismatches = mismatches(afterCompaction, expected);
+        afterCompaction.cleanup();
+
+        // Once every chunk is persisted elsewhere, compaction leaves an empty journal.
+        int keptAfterPersist = compacted.compact(chunk -> true);
+        compacted.close();
+
+        System.out.printf("recovery: %d edits journaled, torn tail of %d bytes dropped, replayed %d records in %.1f ms, %d conflicts, %d mismatches%n",
+                edits, replay.truncatedBytes(), replay.records(), replayMillis, replay.conflicts(), mismatches);
+        System.out.printf("compaction: %d KB -> %d KB (%d net edits) in %.1f ms, %d mismatches after replay; %d records left once all chunks persist%n",
+                fullSize / 1024, compactedSize / 1024, kept, compactMillis, compactedMismatches, keptAfterPersist);
+        return mismatches == 0 && compactedMismatches == 0 && replay.truncatedBytes() > 0 && keptAfterPersist == 0;
+    }
+
+    private static int mismatches(World world, Map<Long, BlockType> expected) {
+        int mismatches = 0;
+        for (Map.Entry<Long, BlockType> entry : expected.entrySet()) {
+            long position = entry.getKey();
+            if (world.getBlock(BlockPos.unpackX(position), BlockPos.unpackY(position), BlockPos.unpackZ(position)) != entry.getValue()) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    private static void print(String label, int threads, Result result) {
+        System.out.printf("%-24s %8d %12d %12.0f %10d %12d%n", label, threads, result.edits, result.editsPerSecond,
+                result.fsyncs, result.journalBytes / 1024);
+    }
+
+    private record Result(long edits, double editsPerSecond, long fsyncs, long journalBytes) {
+    }
+}
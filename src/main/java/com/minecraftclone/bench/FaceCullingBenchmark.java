@@ -0,0 +1,218 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.graphics.BufferPool;
+import com.minecraftclone.graphics.VertexWriter;
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.ChunkMeshData;
+import com.minecraftclone.world.FluidSimulator;
+import com.minecraftclone.world.TextureLayers;
+import com.minecraftclone.world.World;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public final class FaceCullingBenchmark {
+    private static final int TERRAIN_RADIUS = 3;
+    private static final int NOISE_CHUNK = 200;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 15;
+    private static final int OPAQUE_QUAD_BYTES = 6 * VertexWriter.VERTEX_BYTES;
+    private static final int TRANSLUCENT_QUAD_BYTES = 4 * VertexWriter.VERTEX_BYTES;
+    private static final BlockType[] NOISE_TYPES = {BlockType.STONE, BlockType.DIRT, BlockType.GLASS, BlockType.WATER};
+
+    // The per-cell culling loop the mesher used before column bitmasks, kept as the reference.
+    private static final int[][] FACE_NORMALS = {{-1, 0, 0}, {1, 0, 0}, {0, -1, 0}, {0, 1, 0}, {0, 0, -1}, {0, 0, 1}};
+    private static final float[][][] FACE_VERTICES = {
+            {{0.0f, 0.0f, 0.0f}, {0.0f, 0.0f, 1.0f}, {0.0f, 1.0f, 1.0f}, {0.0f, 1.0f, 0.0f}},
+            {{1.0f, 0.0f, 1.0f}, {1.0f, 0.0f, 0.0f}, {1.0f, 1.0f, 0.0f}, {1.0f, 1.0f, 1.0f}},
+            {{0.0f, 0.0f, 1.0f}, {0.0f, 0.0f, 0.0f}, {1.0f, 0.0f, 0.0f}, {1.0f, 0.0f, 1.0f}},
+            {{0.0f, 1.0f, 0.0f}, {0.0f, 1.0f, 1.0f}, {1.0f, 1.0f, 1.0f}, {1.0f, 1.0f, 0.0f}},
+            {{1.0f, 0.0f, 0.0f}, {0.0f, 0.0f, 0.0f}, {0.0f, 1.0f, 0.0f}, {1.0f, 1.0f, 0.0f}},
+            {{0.0f, 0.0f, 1.0f}, {1.0f, 0.0f, 1.0f}, {1.0f, 1.0f, 1.0f}, {0.0f, 1.0f, 1.0f}}
+    };
+    private static final int[] QUAD_INDICES = {0, 1, 2, 0, 2, 3};
+
+    private FaceCullingBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        World world = new World();
+        world.ensureChunksAround(0, 0, TERRAIN_RADIUS);
+        List<Chunk> terrain = new ArrayList<>();
+        for (int chunkX = -TERRAIN_RADIUS + 1; chunkX < TERRAIN_RADIUS; chunkX++) {
+            for (int chunkZ = -TERRAIN_RADIUS + 1; chunkZ < TERRAIN_RADIUS; chunkZ++) {
+                terrain.add(world.getLoadedChunk(chunkX, chunkZ));
+            }
+        }
+        List<Chunk> noise = fillNoise(world);
+
+        System.out.printf("%-26s %8s %14s %14s %9s %12s %10s%n",
+                "chunks", "count", "per-cell ms", "bitmask ms", "speedup", "quads/chunk", "identical");
+        int mismatches = 0;
+        mismatches += run(world, "terrain", terrain);
+        mismatches += run(world, "noise (50% air, 4 types)", noise);
+        world.cleanup();
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Worst case for culling: every other cell on average is exposed, with translucent and fluid cells mixed in.
+    private static List<Chunk> fillNoise(World world) {
+        Random random = new Random(9L);
+        List<Chunk> chunks = new ArrayList<>();
+        for (int chunkX = NOISE_CHUNK - 1; chunkX <= NOISE_CHUNK + 1; chunkX++) {
+            for (int chunkZ = NOISE_CHUNK - 1; chunkZ <= NOISE_CHUNK + 1; chunkZ++) {
+                for (int x = 0; x < Chunk.SIZE; x++) {
+                    for (int z = 0; z < Chunk.SIZE; z++) {
+                        for (int y = 0; y < Chunk.HEIGHT; y++) {
+                            BlockType type = random.nextBoolean() ? BlockType.AIR : NOISE_TYPES[random.nextInt(NOISE_TYPES.length)];
+                            world.setBlock(chunkX * Chunk.SIZE + x, y, chunkZ * Chunk.SIZE + z, type);
+                        }
+                    }
+                }
+                chunks.add(world.getLoadedChunk(chunkX, chunkZ));
+            }
+        }
+        return List.of(chunks.get(4));
+    }
+
+    private static int run(World world, String label, List<Chunk> chunks) {
+        BufferPool pool = BufferPool.shared();
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (Chunk chunk : chunks) {
+                chunk.buildMesh(world).release();
+                Reference reference = perCell(world, chunk, pool);
+                reference.opaque.release();
+                reference.translucent.release();
+            }
+        }
+
+        long perCellNanos = 0L;
+        long bitmaskNanos = 0L;
+        long quads = 0L;
+        int mismatches = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (Chunk chunk : chunks) {
+                long start = System.nanoTime();
+                Reference reference = perCell(world, chunk, pool);
+                perCellNanos += System.nanoTime() - start;
+                start = System.nanoTime();
+                ChunkMeshData data = chunk.buildMesh(world);
+                bitmaskNanos += System.nanoTime() - start;
+                if (round == 0) {
+                    quads += data.opaqueVertexCount() / 6 + data.translucentQuadCount();
+                    if (!sameQuads(reference.opaque.contents(), data.opaqueVertices(), OPAQUE_QUAD_BYTES)
+                            || !sameQuads(reference.translucent.contents(), data.translucentVertices(), TRANSLUCENT_QUAD_BYTES)) {
+                        mismatches++;
+                    }
+                }
+                data.release();
+                reference.opaque.release();
+                reference.translucent.release();
+            }
+        }
+        double perCellMillis = perCellNanos / 1.0e6 / ROUNDS / chunks.size();
+        double bitmaskMillis = bitmaskNanos / 1.0e6 / ROUNDS / chunks.size();
+        System.out.printf("%-26s %8d %14.3f %14.3f %8.2fx %12d %10s%n", label, chunks.size(), perCellMillis, bitmaskMillis,
+                perCellMillis / bitmaskMillis, quads / chunks.size(), mismatches == 0 ? "yes" : "NO (" + mismatches + ")");
+        return mismatches;
+    }
+
+    // The mesher now emits column by column, so compare the quads as a multiset rather than in order.
+    private static boolean sameQuads(ByteBuffer expected, ByteBuffer actual, int quadBytes) {
+        if (expected.remaining() != actual.remaining()) {
+            return false;
+        }
+        byte[][] left = quads(expected, quadBytes);
+        byte[][] right = quads(actual, quadBytes);
+        Arrays.sort(left, Arrays::compare);
+        Arrays.sort(right, Arrays::compare);
+        return Arrays.deepEquals(left, right);
+    }
+
+    private static byte[][] quads(ByteBuffer vertices, int quadBytes) {
+        byte[][] quads = new byte[vertices.remaining() / quadBytes][quadBytes];
+        for (byte[] quad : quads) {
+            vertices.get(quad);
+        }
+        return quads;
+    }
+
+    private static Reference perCell(World world, Chunk chunk, BufferPool pool) {
+        VertexWriter opaque = new VertexWriter(pool, 4096);
+        VertexWriter translucent = new VertexWriter(pool, 1024);
+        Chunk west = world.getLoadedChunk(chunk.chunkX() - 1, chunk.chunkZ());
+        Chunk east = world.getLoadedChunk(chunk.chunkX() + 1, chunk.chunkZ());
+        Chunk north = world.getLoadedChunk(chunk.chunkX(), chunk.chunkZ() - 1);
+        Chunk south = world.getLoadedChunk(chunk.chunkX(), chunk.chunkZ() + 1);
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int y = 0; y < Chunk.HEIGHT; y++) {
+                if (y % Chunk.SECTION_HEIGHT == 0 && chunk.isSectionEmpty(y / Chunk.SECTION_HEIGHT)) {
+                    y += Chunk.SECTION_HEIGHT - 1;
+                    continue;
+                }
+                for (int z = 0; z < Chunk.SIZE; z++) {
+                    BlockType block = chunk.getBlock(x, y, z);
+                    if (block == BlockType.AIR) {
+                        continue;
+                    }
+                    float topHeight = 1.0f;
+                    if (block.isFluid() && chunk.getBlock(x, y + 1, z) != block) {
+                        topHeight = chunk.getFluidLevel(x, y, z) / (float) (FluidSimulator.SOURCE_LEVEL + 1);
+                    }
+                    for (int face = 0; face < FACE_NORMALS.length; face++) {
+                        int nx = FACE_NORMALS[face][0];
+                        int ny = FACE_NORMALS[face][1];
+                        int nz = FACE_NORMALS[face][2];
+                        BlockType neighbor = neighborBlock(chunk, west, east, north, south, x + nx, y + ny, z + nz);
+                        if (neighbor.isOpaque() || neighbor == block) {
+                            continue;
+                        }
+                        float[][] vertices = FACE_VERTICES[face];
+                        int layer = TextureLayers.defaults().layer(block.id(), face);
+                        if (block.isTranslucent()) {
+                            for (float[] v : vertices) {
+                                translucent.vertex(x + v[0], y + v[1] * topHeight, z + v[2], face, layer);
+                            }
+                            continue;
+                        }
+                        for (int index : QUAD_INDICES) {
+                            float[] v = vertices[index];
+                            opaque.vertex(x + v[0], y + v[1] * topHeight, z + v[2], face, layer);
+                        }
+                    }
+                }
+            }
+        }
+        return new Reference(opaque, translucent);
+    }
+
+    private static BlockType neighborBlock(Chunk chunk, Chunk west, Chunk east, Chunk north, Chunk south, int x, int y, int z) {
+        if (y < 0) {
+            return BlockType.BEDROCK;
+        }
+        Chunk owner = chunk;
+        if (x < 0) {
+            owner = west;
+            x += Chunk.SIZE;
+        } else if (x >= Chunk.SIZE) {
+            owner = east;
+            x -= Chunk.SIZE;
+        } else if (z < 0) {
+            owner = north;
+            z += Chunk.SIZE;
+        } else if (z >= Chunk.SIZE) {
+            owner = south;
+            z -= Chunk.SIZE;
+        }
+        return owner == null ? BlockType.AIR : owner.getBlock(x, y, z);
+    }
+
+    private record Reference(VertexWriter opaque, VertexWriter translucent) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.FluidSimulator;
+import com.minecraftclone.world.World;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class FluidBenchmark {
+    private static final int CAVE_HALF_SIZE = 64;
+    private static final int CAVE_FLOOR = 8;
+    private static final int CAVE_CEILING = 20;
+    private static final int PILLAR_SPACING = 9;
+    private static final int SOURCE_SPACING = 12;
+    private static final int MAX_TICKS = 20_000;
+
+    private FluidBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        for (int i = 0; i < 3; i++) {
+            run(FluidSimulator.DEFAULT_CELL_BUDGET, false);
+        }
+
+        System.out.printf("Flooding a %dx%dx%d cavity from a grid of sources, then draining it%n",
+                CAVE_HALF_SIZE * 2, CAVE_CEILING - CAVE_FLOOR, CAVE_HALF_SIZE * 2);
+        System.out.printf("%8s %8s %8s %12s %12s %14s %12s%n",
+                "budget", "phase", "ticks", "processed", "changed", "cells/s", "max ms/tick");
+        for (int budget : new int[]{1024, 4096, 16384}) {
+            run(budget, true);
+        }
+    }
+
+    private static void run(int budget, boolean print) {
+        World world = new World();
+        world.ensureChunksAround(0, 0, 5);
+        world.getBlockTicks().setRandomTicksPerSection(0);
+        carveCavity(world);
+        world.tick();
+
+        FluidSimulator fluids = world.getFluids();
+        fluids.setCellBudget(budget);
+
+        List<int[]> sources = new ArrayList<>();
+        for (int x = -CAVE_HALF_SIZE + 4; x < CAVE_HALF_SIZE; x += SOURCE_SPACING) {
+            for (int z = -CAVE_HALF_SIZE + 4; z < CAVE_HALF_SIZE; z += SOURCE_SPACING) {
+                world.setBlock(x, CAVE_CEILING - 1, z, BlockType.WATER);
+                sources.add(new int[]{x, z});
+            }
+        }
+        Phase flood = simulate(world, fluids);
+
+        for (int[] source : sources) {
+            world.setBlock(source[0], CAVE_CEILING - 1, source[1], BlockType.AIR);
+        }
+        Phase drain = simulate(world, fluids);
+        world.cleanup();
+
+        if (print) {
+            flood.print(budget, "flood");
+            drain.print(budget, "drain");
+        }
+    }
+
+    private static void carveCavity(World world) {
+        for (int x = -CAVE_HALF_SIZE; x < CAVE_HALF_SIZE; x++) {
+            for (int z = -CAVE_HALF_SIZE; z < CAVE_HALF_SIZE; z++) {
+                boolean pillar = Math.floorMod(x, PILLAR_SPACING) == 0 && Math.floorMod(z, PILLAR_SPACING) == 0;
+                if (pillar) {
+                    continue;
+                }
+                for (int y = CAVE_FLOOR; y < CAVE_CEILING; y++) {
+                    world.setBlock(x, y, z, BlockType.AIR);
+                }
+            }
+        }
+    }
+
+    private static Phase simulate(World world, FluidSimulator fluids) {
+        long processedBefore = fluids.totalProcessedCells();
+        long changedBefore = fluids.totalChangedCells();
+        long maxTickNanos = 0;
+        int ticks = 0;
+        System.gc();
+        long start = System.nanoTime();
+        do {
+            long tickStart = System.nanoTime();
+            world.tick();
+            maxTickNanos = Math.max(maxTickNanos, System.nanoTime() - tickStart);
+            ticks++;
+        } while (fluids.activeCellCount() > 0 && ticks < MAX_TICKS);
+        long elapsed = System.nanoTime() - start;
+        return new Phase(ticks, fluids.totalProcessedCells() - processedBefore,
+                fluids.totalChangedCells() - changedBefore, elapsed, maxTickNanos);
+    }
+
+    private record Phase(int ticks, long processed, long changed, long nanos, long maxTickNanos) {
+        void print(int budget, String name) {
+            double cellsPerSecond = processed / (nanos / 1_000_000_000.0);
+            System.out.printf("%8d %8s %8d %12d %12d %14.0f %12.2f%n",
+                    budget, name, ticks, processed, changed, cellsPerSecond, maxTickNanos / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.engine.InputQueue;
+import com.minecraftclone.engine.InputTrace;
+import com.minecraftclone.engine.PerfReport;
+import com.minecraftclone.engine.RenderState;
+import com.minecraftclone.engine.Simulation;
+import com.minecraftclone.graphics.Camera;
+import com.minecraftclone.player.Player;
+import com.minecraftclone.world.World;
+import org.joml.Vector3f;
+import org.lwjgl.glfw.GLFW;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Headless replay of an input trace; with no arguments it records a scripted session first and replays it twice.
+public final class InputReplayBenchmark {
+    private static final int SCRIPTED_STEPS = 1800;
+    private static final int JUMP_EVERY_STEPS = 24;
+    private static final int CLICK_EVERY_STEPS = 90;
+    private static final int TURN_FROM_STEP = 600;
+    private static final int TURN_UNTIL_STEP = 900;
+    private static final float TURN_PIXELS_PER_STEP = 4.0f;
+    private static final float STEP_SECONDS = Simulation.DEFAULT_STEP_NANOS / 1.0e9f;
+
+    private InputReplayBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0) {
+            PerfReport report = replay(Path.of(args[0]));
+            if (args.length > 1) {
+                report.write(Path.of(args[1]));
+            }
+            return;
+        }
+        Path trace = Files.createTempFile("session", ".trace");
+        try {
+            Vector3f recorded = record(trace);
+            System.out.printf("recorded %d scripted steps to a %d byte trace, ended at %s%n",
+                    SCRIPTED_STEPS, Files.size(trace), recorded);
+            PerfReport baseline = replay(trace);
+            PerfReport current = replay(trace);
+            // Two replays of one trace on one build: the gate should pass, showing the noise it has to tolerate.
+            if (PerfGate.compare(baseline, current, 15.0) == 2) {
+                System.exit(1);
+            }
+        } finally {
+            Files.deleteIfExists(trace);
+        }
+    }
+
+    private static Vector3f record(Path trace) throws IOException {
+        World world = new World();
+        InputQueue inputs = new InputQueue();
+        Simulation simulation = spawn(world, inputs);
+        try (InputTrace.Writer writer = InputTrace.create(trace, new InputTrace.Header(world.getGenerator().seed(),
+                Simulation.DEFAULT_STEP_NANOS, world.getViewDistance()))) {
+            simulation.setRecorder(writer);
+            inputs.postCursorCaptured(true);
+            inputs.postKey(GLFW.GLFW_KEY_W, GLFW.GLFW_PRESS);
+            inputs.postKey(GLFW.GLFW_KEY_LEFT_SHIFT, GLFW.GLFW_PRESS);
+            for (int step = 0; step < SCRIPTED_STEPS; step++) {
+                if (step % JUMP_EVERY_STEPS == 0) {
+                    inputs.postKey(GLFW.GLFW_KEY_SPACE, GLFW.GLFW_PRESS);
+                } else if (step % JUMP_EVERY_STEPS == 1) {
+                    inputs.postKey(GLFW.GLFW_KEY_SPACE, GLFW.GLFW_RELEASE);
+                }
+                int button = (step / CLICK_EVERY_STEPS) % 2 == 0 ? GLFW.GLFW_MOUSE_BUTTON_2 : GLFW.GLFW_MOUSE_BUTTON_1;
+                if (step % CLICK_EVERY_STEPS == 0) {
+                    inputs.postMouseButton(button, GLFW.GLFW_PRESS);
+                } else if (step % CLICK_EVERY_STEPS == 1) {
+                    inputs.postMouseButton(button, GLFW.GLFW_RELEASE);
+                }
+                if (step >= TURN_FROM_STEP && step < TURN_UNTIL_STEP) {
+                    // Several small moves per step, as a real mouse reports them.
+                    inputs.postMouseMove(TURN_PIXELS_PER_STEP * 0.5f, 0.0f);
+                    inputs.postMouseMove(TURN_PIXELS_PER_STEP * 0.5f, 0.25f);
+                }
+                simulation.step(STEP_SECONDS);
+                discard(simulation.takeLatest());
+            }
+            Vector3f end = simulation.playerPosition();
+            writer.finish(end);
+            return end;
+        } finally {
+            world.cleanup();
+        }
+    }
+
+    private static PerfReport replay(Path trace) throws IOException {
+        System.gc();
+        World world = new World();
+        try (InputTrace.Reader reader = InputTrace.open(trace)) {
+            world.setViewDistance(reader.header().viewDistance());
+            Simulation simulation = spawn(world, new InputQueue());
+            simulation.setReplay(reader);
+            long[] frames = new long[SCRIPTED_STEPS];
+            int frameCount = 0;
+            PerfReport.AllocationCounter allocations = new PerfReport.AllocationCounter();
+            while (true) {
+                long start = System.nanoTime();
+                simulation.step(0.0f);
+                if (simulation.isReplayFinished()) {
+                    break;
+                }
+                discard(simulation.takeLatest());
+                if (frameCount == frames.length) {
+                    frames = Arrays.copyOf(frames, frameCount * 2);
+                }
+                frames[frameCount++] = System.nanoTime() - start;
+            }
+            PerfReport report = PerfReport.of(reader.steps(), STEP_SECONDS, frames, frameCount,
+                    world.getChunkLoader().totalLoaded(), world.getChunkLoader().totalLoadNanos(),
+                    allocations.allocatedBytes());
+            Vector3f expected = reader.finalPosition();
+            Vector3f actual = simulation.playerPosition();
+            System.out.printf("replayed %d steps: step p50 %.3f ms, p99 %.3f ms, %d chunks at %.2f ms each, %.1f MB/s allocated, %s%n",
+                    report.steps(), report.frameP50Millis(), report.frameP99Millis(), report.chunksLoaded(),
+                    report.chunkGenMillisPerChunk(), report.allocatedMegabytesPerSecond(),
+                    expected == null ? "no recorded end position"
+                            : expected.equals(actual) ? "end position matches" : "DIVERGED at " + actual + " vs " + expected);
+            if (expected != null && !expected.equals(actual)) {
+                System.exit(1);
+            }
+            return report;
+        } finally {
+            world.cleanup();
+        }
+    }
+
+    // Same spawn as Engine.init, including the first step that meshes the spawn area.
+    private static Simulation spawn(World world, InputQueue inputs) {
+        world.ensureChunksAround(0, 0, World.DEFAULT_VIEW_DISTANCE_CHUNKS);
+        Player player = new Player(new Vector3f(0.5f, world.getSurfaceHeight(0, 0) + 1.0f, 0.5f));
+        Camera camera = new Camera((float) Math.toRadians(70.0f), 16.0f / 9.0f, 0.1f, 500.0f);
+        camera.setPosition(player.getEyePosition());
+        camera.setRotation(0.0f, 0.0f);
+        return new Simulation(world, player, camera, null, inputs);
+    }
+
+    private static void discard(RenderState state) {
+        if (state != null) {
+            state.meshes().discard();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.graphics.BufferPool;
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.ChunkMeshData;
+import com.minecraftclone.world.World;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class MeshAllocationBenchmark {
+    private static final int LOADED_RADIUS = 6;
+    private static final int ROUNDS = 8;
+    private static final int WARMUP_ROUNDS = 3;
+
+    private MeshAllocationBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        World world = new World();
+        world.ensureChunksAround(0, 0, LOADED_RADIUS);
+        for (int x = -24; x < 24; x++) {
+            for (int z = -24; z < 24; z++) {
+                world.setBlock(x, 50, z, ((x + z) & 1) == 0 ? BlockType.GLASS : BlockType.WATER);
+            }
+        }
+        List<Chunk> chunks = new ArrayList<>();
+        for (int chunkX = -LOADED_RADIUS; chunkX <= LOADED_RADIUS; chunkX++) {
+            for (int chunkZ = -LOADED_RADIUS; chunkZ <= LOADED_RADIUS; chunkZ++) {
+                chunks.add(world.getLoadedChunk(chunkX, chunkZ));
+            }
+        }
+
+        BufferPool pool = BufferPool.shared();
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            storm(world, chunks);
+        }
+
+        System.out.printf("Remesh storm: %d chunks rebuilt per round%n", chunks.size());
+        System.out.printf("%-8s %16s %14s %14s %14s%n", "round", "heap KB/remesh", "ms/remesh", "pool acquires", "pool misses");
+        long threadId = Thread.currentThread().getId();
+        for (int round = 0; round < ROUNDS; round++) {
+            System.gc();
+            long acquiresBefore = pool.acquires();
+            long missesBefore = pool.misses();
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            storm(world, chunks);
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            System.out.printf("%-8d %16.1f %14.3f %14d %14d%n", round,
+                    allocated / 1024.0 / chunks.size(), elapsed / 1_000_000.0 / chunks.size(),
+                    pool.acquires() - acquiresBefore, pool.misses() - missesBefore);
+        }
+        System.out.printf("Pooled off-heap bytes retained: %d KB, outstanding buffers: %d%n",
+                pool.pooledBytes() / 1024, pool.outstandingBuffers());
+    }
+
+    private static void storm(World world, List<Chunk> chunks) {
+        for (Chunk chunk : chunks) {
+            ChunkMeshData data = chunk.buildMesh(world);
+            data.release();
+        }
+    }
+}
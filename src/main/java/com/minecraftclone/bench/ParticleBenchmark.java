@@ -0,0 +1,137 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.ParticleSystem;
+import com.minecraftclone.world.World;
+import org.joml.Vector3f;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Steps a full particle pool over loaded terrain, refilling it with break bursts as particles expire, against a
+// reference that keeps one object per particle and asks the world about every axis of every move.
+public final class ParticleBenchmark {
+    private static final int[] POPULATIONS = {10_000, 25_000, 50_000, 100_000};
+    private static final int LOADED_RADIUS = 3;
+    private static final int BURST = 24;
+    private static final int WARMUP_STEPS = 120;
+    private static final int STEPS = 300;
+    private static final float STEP_SECONDS = 1.0f / 60.0f;
+    private static final int SPAN = (LOADED_RADIUS * 2 + 1) * Chunk.SIZE;
+    private static final int ORIGIN = -LOADED_RADIUS * Chunk.SIZE;
+
+    private ParticleBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        World world = new World();
+        world.ensureChunksAround(0, 0, LOADED_RADIUS);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        System.out.printf("%9s %12s %12s %14s %12s %14s %9s%n", "particles", "update ms", "ns/particle",
+                "publish ms", "alloc B/step", "reference ms", "speedup");
+        for (int population : POPULATIONS) {
+            ParticleSystem particles = new ParticleSystem(population, 3L);
+            Random random = new Random(17L);
+            for (int step = 0; step < WARMUP_STEPS; step++) {
+                refill(particles, world, random);
+                particles.update(world, STEP_SECONDS);
+                particles.publish();
+            }
+            System.gc();
+            long updateNanos = 0L;
+            long publishNanos = 0L;
+            long simulated = 0L;
+            long allocated = 0L;
+            for (int step = 0; step < STEPS; step++) {
+                refill(particles, world, random);
+                simulated += particles.count();
+                long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                particles.update(world, STEP_SECONDS);
+                long updated = System.nanoTime();
+                particles.publish();
+                publishNanos += System.nanoTime() - updated;
+                updateNanos += updated - start;
+                allocated += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            }
+            double referenceMillis = reference(world, population);
+            double updateMillis = updateNanos / 1.0e6 / STEPS;
+            System.out.printf("%9d %12.3f %12.1f %14.3f %12d %14.3f %8.1fx%n", population, updateMillis,
+                    (double) updateNanos / simulated, publishNanos / 1.0e6 / STEPS, allocated / STEPS, referenceMillis,
+                    referenceMillis / updateMillis);
+        }
+        world.cleanup();
+    }
+
+    // Bursts on random surface blocks until the pool is full, as if that many blocks were broken at once.
+    private static void refill(ParticleSystem particles, World world, Random random) {
+        while (particles.count() + BURST <= particles.capacity()) {
+            int x = ORIGIN + random.nextInt(SPAN);
+            int z = ORIGIN + random.nextInt(SPAN);
+            particles.spawnBurst(x, world.getSurfaceHeight(x, z) + 1, z, BlockType.DIRT, BURST);
+        }
+    }
+
+    private static double reference(World world, int population) {
+        List<Particle> live = new ArrayList<>(population);
+        Random random = new Random(17L);
+        long nanos = 0L;
+        for (int step = 0; step < WARMUP_STEPS + STEPS; step++) {
+            while (live.size() + BURST <= population) {
+                int x = ORIGIN + random.nextInt(SPAN);
+                int z = ORIGIN + random.nextInt(SPAN);
+                int y = world.getSurfaceHeight(x, z) + 1;
+                for (int i = 0; i < BURST; i++) {
+                    Vector3f position = new Vector3f(x + random.nextFloat(), y + random.nextFloat(), z + random.nextFloat());
+                    live.add(new Particle(position, new Vector3f((position.x - x - 0.5f) * 3.0f,
+                            (position.y - y) * 3.0f, (position.z - z - 0.5f) * 3.0f), 0.6f + random.nextFloat() * 0.8f));
+                }
+            }
+            long start = System.nanoTime();
+            live.removeIf(particle -> !particle.update(world));
+            if (step >= WARMUP_STEPS) {
+                nanos += System.nanoTime() - start;
+            }
+        }
+        return nanos / 1.0e6 / STEPS;
+    }
+
+    private static final class Particle {
+        private final Vector3f position;
+        private final Vector3f velocity;
+        private float life;
+
+        private Particle(Vector3f position, Vector3f velocity, float life) {
+            this.position = position;
+            this.velocity = velocity;
+            this.life = life;
+        }
+
+        private boolean update(World world) {
+            life -= STEP_SECONDS;
+            if (life <= 0.0f) {
+                return false;
+            }
+            velocity.y -= 20.0f * STEP_SECONDS;
+            velocity.mul(0.98f);
+            Vector3f next = new Vector3f(velocity).mul(STEP_SECONDS).add(position);
+            if (world.isCollidableBlock((int) Math.floor(position.x), (int) Math.floor(next.y), (int) Math.floor(position.z))) {
+                next.y = position.y;
+                velocity.y *= -0.3f;
+            }
+            if (world.isCollidableBlock((int) Math.floor(next.x), (int) Math.floor(next.y), (int) Math.floor(position.z))) {
+                next.x = position.x;
+                velocity.x *= -0.3f;
+            }
+            if (world.isCollidableBlock((int) Math.floor(next.x), (int) Math.floor(next.y), (int) Math.floor(next.z))) {
+                next.z = position.z;
+                velocity.z *= -0.3f;
+            }
+            position.set(next);
+            return true;
+        }
+    }
+}
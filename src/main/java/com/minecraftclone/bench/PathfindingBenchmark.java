@@ -0,0 +1,215 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.player.Player;
+import com.minecraftclone.world.BlockPos;
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.NavPath;
+import com.minecraftclone.world.Pathfinder;
+import com.minecraftclone.world.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+// Paths between surface points 256 blocks apart, through a loaded area just large enough to hold them.
+public final class PathfindingBenchmark {
+    private static final int LOADED_RADIUS = 10;
+    private static final int PATH_DISTANCE = 256;
+    private static final int PATHS = 400;
+    private static final int FLAT_PATHS = 12;
+    private static final int EDITS_BETWEEN_ROUNDS = 40;
+    private static final int FLAT_MAX_EXPANSIONS = 3_000_000;
+    private static final int MAX_DROP_BLOCKS = 3;
+
+    private PathfindingBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        World world = new World();
+        long loadStart = System.nanoTime();
+        world.ensureChunksAround(0, 0, LOADED_RADIUS);
+        System.out.printf("loaded %d chunks in %.0f ms; %d paths of %d blocks on %d worker thread(s)%n",
+                world.getResidentChunkCount(), (System.nanoTime() - loadStart) / 1.0e6, PATHS, PATH_DISTANCE, threads);
+        List<BlockPos[]> pairs = pairs(world, new Random(5L), PATHS);
+
+        try (Pathfinder pathfinder = new Pathfinder(world, threads)) {
+            round("cold graphs", pathfinder, pairs);
+            round("cached graphs", pathfinder, pairs);
+            Random random = new Random(9L);
+            int span = LOADED_RADIUS * Chunk.SIZE;
+            for (int i = 0; i < EDITS_BETWEEN_ROUNDS; i++) {
+                int x = random.nextInt(span * 2) - span;
+                int z = random.nextInt(span * 2) - span;
+                world.setBlock(x, world.getSurfaceHeight(x, z) + 1, z, BlockType.STONE);
+            }
+            System.out.printf("%d edits left %d of the cached graphs%n", EDITS_BETWEEN_ROUNDS, pathfinder.cachedGraphs());
+            round("after edits", pathfinder, pairs);
+
+            // The flat search is the reference: same movement rules, one cell at a time over World.isCollidableBlock.
+            long hierarchicalNanos = 0L;
+            long flatNanos = 0L;
+            long hierarchicalCost = 0L;
+            long flatCost = 0L;
+            int compared = 0;
+            for (int i = 0; i < FLAT_PATHS; i++) {
+                BlockPos[] pair = pairs.get(i);
+                long start = System.nanoTime();
+                NavPath path = pathfinder.search(pair[0], pair[1]);
+                hierarchicalNanos += System.nanoTime() - start;
+                start = System.nanoTime();
+                int flat = flatSearch(world, pair[0], pair[1]);
+                flatNanos += System.nanoTime() - start;
+                if (path.isFound() && flat >= 0) {
+                    hierarchicalCost += path.cost();
+                    flatCost += flat;
+                    compared++;
+                }
+            }
+            System.out.printf("flat A* on %d pairs: %.1f paths/s vs hierarchical %.1f paths/s (%.0fx); hierarchical paths cost %.1f%% more than optimal%n",
+                    FLAT_PATHS, FLAT_PATHS * 1.0e9 / flatNanos, FLAT_PATHS * 1.0e9 / hierarchicalNanos,
+                    (double) flatNanos / hierarchicalNanos,
+                    compared == 0 ? 0.0 : (hierarchicalCost - flatCost) * 100.0 / flatCost);
+        } finally {
+            world.cleanup();
+        }
+    }
+
+    private static void round(String label, Pathfinder pathfinder, List<BlockPos[]> pairs) {
+        long builds = pathfinder.graphBuilds();
+        long buildNanos = pathfinder.graphBuildNanos();
+        long start = System.nanoTime();
+        List<CompletableFuture<NavPath>> futures = new ArrayList<>(pairs.size());
+        for (BlockPos[] pair : pairs) {
+            futures.add(pathfinder.findPath(pair[0], pair[1]));
+        }
+        int found = 0;
+        long steps = 0L;
+        long expanded = 0L;
+        for (CompletableFuture<NavPath> future : futures) {
+            NavPath path = future.join();
+            if (path.isFound()) {
+                found++;
+                steps += path.blocks().size();
+            }
+            expanded += path.expandedEntrances();
+        }
+        long elapsed = System.nanoTime() - start;
+        long built = pathfinder.graphBuilds() - builds;
+        System.out.printf("%-14s %8.1f paths/s  %d/%d found, %.0f steps and %.0f entrances expanded per path, %d graphs built at %.2f ms each%n",
+                label, pairs.size() * 1.0e9 / elapsed, found, pairs.size(), found == 0 ? 0.0 : (double) steps / found,
+                (double) expanded / pairs.size(), built,
+                built == 0 ? 0.0 : (pathfinder.graphBuildNanos() - buildNanos) / 1.0e6 / built);
+    }
+
+    // Opposite points on a circle of PATH_DISTANCE diameter, each standing on the ground; a tree top has no way down.
+    private static List<BlockPos[]> pairs(World world, Random random, int count) {
+        List<BlockPos[]> pairs = new ArrayList<>(count);
+        while (pairs.size() < count) {
+            double angle = random.nextDouble() * Math.PI * 2.0;
+            int dx = (int) Math.round(Math.cos(angle) * PATH_DISTANCE * 0.5);
+            int dz = (int) Math.round(Math.sin(angle) * PATH_DISTANCE * 0.5);
+            int offsetX = random.nextInt(17) - 8;
+            int offsetZ = random.nextInt(17) - 8;
+            BlockPos from = surface(world, offsetX + dx, offsetZ + dz);
+            BlockPos to = surface(world, offsetX - dx, offsetZ - dz);
+            if (isTreeTop(world, from) || isTreeTop(world, to)) {
+                continue;
+            }
+            pairs.add(new BlockPos[]{from, to});
+        }
+        return pairs;
+    }
+
+    private static BlockPos surface(World world, int x, int z) {
+        return new BlockPos(x, world.getSurfaceHeight(x, z) + 1, z);
+    }
+
+    private static boolean isTreeTop(World world, BlockPos feet) {
+        BlockType below = world.getBlock(feet.x(), feet.y() - 1, feet.z());
+        return below == BlockType.LEAVES || below == BlockType.LOG;
+    }
+
+    private static int flatSearch(World world, BlockPos start, BlockPos goal) {
+        BlockPos from = standable(world, start);
+        BlockPos to = standable(world, goal);
+        if (from == null || to == null) {
+            return -1;
+        }
+        Map<Long, Integer> costs = new HashMap<>();
+        PriorityQueue<long[]> open = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        costs.put(from.pack(), 0);
+        open.add(new long[]{estimate(from, to), from.pack()});
+        int expansions = 0;
+        int[][] sides = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+        while (!open.isEmpty() && expansions++ < FLAT_MAX_EXPANSIONS) {
+            long[] entry = open.poll();
+            BlockPos at = BlockPos.unpack(entry[1]);
+            int cost = costs.get(entry[1]);
+            if (entry[0] > cost + estimate(at, to)) {
+                continue;
+            }
+            if (at.equals(to)) {
+                return cost;
+            }
+            for (int[] side : sides) {
+                int x = at.x() + side[0];
+                int z = at.z() + side[1];
+                for (int y = at.y() + Player.CLIMB_BLOCKS; y >= at.y() - MAX_DROP_BLOCKS; y--) {
+                    if (!canStand(world, x, y, z) || !canMove(world, at, x, y, z)) {
+                        continue;
+                    }
+                    BlockPos next = new BlockPos(x, y, z);
+                    int nextCost = cost + 1 + Math.abs(y - at.y());
+                    Integer known = costs.get(next.pack());
+                    if (known == null || nextCost < known) {
+                        costs.put(next.pack(), nextCost);
+                        open.add(new long[]{nextCost + estimate(next, to), next.pack()});
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static BlockPos standable(World world, BlockPos feet) {
+        for (int y = feet.y(); y >= feet.y() - MAX_DROP_BLOCKS; y--) {
+            if (canStand(world, feet.x(), y, feet.z())) {
+                return new BlockPos(feet.x(), y, feet.z());
+            }
+        }
+        return null;
+    }
+
+    private static boolean canStand(World world, int x, int y, int z) {
+        if (y < 0 || y >= Chunk.HEIGHT || world.getLoadedChunk(Math.floorDiv(x, Chunk.SIZE), Math.floorDiv(z, Chunk.SIZE)) == null) {
+            return false;
+        }
+        return (y == 0 || world.isCollidableBlock(x, y - 1, z)) && isClear(world, x, z, y, y + Player.CLEARANCE_BLOCKS - 1);
+    }
+
+    private static boolean canMove(World world, BlockPos from, int x, int y, int z) {
+        if (y > from.y()) {
+            return isClear(world, from.x(), from.z(), from.y() + Player.CLEARANCE_BLOCKS, y + Player.CLEARANCE_BLOCKS - 1);
+        }
+        return isClear(world, x, z, y + Player.CLEARANCE_BLOCKS, from.y() + Player.CLEARANCE_BLOCKS - 1);
+    }
+
+    private static boolean isClear(World world, int x, int z, int fromY, int toY) {
+        for (int y = fromY; y <= toY; y++) {
+            if (world.isCollidableBlock(x, y, z)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int estimate(BlockPos from, BlockPos to) {
+        return Math.abs(from.x() - to.x()) + Math.abs(from.y() - to.y()) + Math.abs(from.z() - to.z());
+    }
+}
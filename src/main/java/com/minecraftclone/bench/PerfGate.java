@@ -0,0 +1,64 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.engine.PerfReport;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Exit status 1 when the current replay regressed against the baseline, 2 when the two reports are not comparable.
+public final class PerfGate {
+    private static final double DEFAULT_MAX_REGRESSION_PERCENT = 15.0;
+    // Below these absolute changes a relative jump is timer noise, not a regression.
+    private static final double FRAME_FLOOR_MILLIS = 0.5;
+    private static final double CHUNK_GEN_FLOOR_MILLIS = 0.1;
+    private static final double ALLOCATION_FLOOR_MEGABYTES = 2.0;
+
+    private PerfGate() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: PerfGate <baseline report> <current report> [max regression %, default "
+                    + DEFAULT_MAX_REGRESSION_PERCENT + "]");
+            System.exit(2);
+        }
+        PerfReport baseline = PerfReport.read(Path.of(args[0]));
+        PerfReport current = PerfReport.read(Path.of(args[1]));
+        double maxRegression = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_MAX_REGRESSION_PERCENT;
+        System.exit(compare(baseline, current, maxRegression));
+    }
+
+    public static int compare(PerfReport baseline, PerfReport current, double maxRegressionPercent) {
+        if (baseline.steps() != current.steps()) {
+            System.out.printf("not comparable: baseline replayed %d steps, current %d; record a new baseline for this trace%n",
+                    baseline.steps(), current.steps());
+            return 2;
+        }
+        System.out.printf("%-26s %12s %12s %9s  %s%n", "metric", "baseline", "current", "change", "verdict");
+        int regressions = 0;
+        regressions += check("p99 frame ms", baseline.frameP99Millis(), current.frameP99Millis(),
+                FRAME_FLOOR_MILLIS, maxRegressionPercent);
+        regressions += check("chunk gen ms/chunk", baseline.chunkGenMillisPerChunk(), current.chunkGenMillisPerChunk(),
+                CHUNK_GEN_FLOOR_MILLIS, maxRegressionPercent);
+        regressions += check("allocation MB/s", baseline.allocatedMegabytesPerSecond(),
+                current.allocatedMegabytesPerSecond(), ALLOCATION_FLOOR_MEGABYTES, maxRegressionPercent);
+        System.out.printf("%-26s %12.2f %12.2f %9s  %s%n", "p50 frame ms", baseline.frameP50Millis(),
+                current.frameP50Millis(), change(baseline.frameP50Millis(), current.frameP50Millis()), "info");
+        System.out.printf("%-26s %12d %12d %9s  %s%n", "chunks loaded", baseline.chunksLoaded(), current.chunksLoaded(),
+                "", baseline.chunksLoaded() == current.chunksLoaded() ? "info" : "info (replay diverged?)");
+        System.out.printf("%s: %d regression(s) beyond %.1f%%%n", regressions == 0 ? "PASS" : "FAIL", regressions,
+                maxRegressionPercent);
+        return regressions == 0 ? 0 : 1;
+    }
+
+    private static int check(String metric, double baseline, double current, double floor, double maxRegressionPercent) {
+        boolean regressed = current - baseline > floor && current > baseline * (1.0 + maxRegressionPercent / 100.0);
+        System.out.printf("%-26s %12.2f %12.2f %9s  %s%n", metric, baseline, current, change(baseline, current),
+                regressed ? "REGRESSED" : "ok");
+        return regressed ? 1 : 0;
+    }
+
+    private static String change(double baseline, double current) {
+        return baseline == 0.0 ? "n/a" : String.format("%+.1f%%", (current - baseline) * 100.0 / baseline);
+    }
+}
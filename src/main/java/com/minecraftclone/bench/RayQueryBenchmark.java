@@ -0,0 +1,188 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.RayBatch;
+import com.minecraftclone.world.RayQueries;
+import com.minecraftclone.world.World;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// Batches of look rays (random directions from eye height) and line-of-sight pairs (eye to eye) at three ranges,
+// through a loaded area large enough that the longest rays stay inside it. The rays are kept alongside each batch so
+// the per-voxel reference can walk the same ones.
+public final class RayQueryBenchmark {
+    private static final int LOADED_RADIUS = 17;
+    private static final int ORIGIN_SPREAD = 16;
+    private static final int[] RANGES = {16, 64, 256};
+    private static final int RAYS = 200_000;
+    private static final int REFERENCE_RAYS = 20_000;
+    private static final int ROUNDS = 3;
+    private static final float EYE_HEIGHT = 1.6f;
+    private static final int RAY_STRIDE = 7;
+
+    private RayQueryBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        World world = new World();
+        long loadStart = System.nanoTime();
+        world.ensureChunksAround(0, 0, LOADED_RADIUS);
+        System.out.printf("loaded %d chunks in %.0f ms; %d rays per batch on %d worker thread(s)%n",
+                world.getResidentChunkCount(), (System.nanoTime() - loadStart) / 1.0e6, RAYS, threads);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            RayQueries queries = new RayQueries(world, pool);
+            for (int range : RANGES) {
+                Random random = new Random(range);
+                float[] lookRays = new float[RAYS * RAY_STRIDE];
+                float[] sightRays = new float[RAYS * RAY_STRIDE];
+                for (int i = 0; i < RAYS; i++) {
+                    float[] from = eye(world, random, 0, 0);
+                    double angle = random.nextDouble() * Math.PI * 2.0;
+                    float[] to = eye(world, random, (int) Math.round(from[0] + Math.cos(angle) * range),
+                            (int) Math.round(from[2] + Math.sin(angle) * range));
+                    float dy = (float) (random.nextDouble() * 2.0 - 1.0);
+                    float horizontal = (float) Math.sqrt(1.0 - dy * dy);
+                    set(lookRays, i, from, (float) Math.cos(angle) * horizontal, dy, (float) Math.sin(angle) * horizontal,
+                            range);
+                    set(sightRays, i, from, to[0] - from[0], to[1] - from[1], to[2] - from[2],
+                            (float) Math.sqrt(sq(to[0] - from[0]) + sq(to[1] - from[1]) + sq(to[2] - from[2])));
+                }
+                measure("look", range, queries, batch(lookRays), lookRays, world);
+                measure("sight", range, queries, batch(sightRays), sightRays, world);
+            }
+        } finally {
+            pool.shutdown();
+            world.cleanup();
+        }
+    }
+
+    private static void measure(String label, int range, RayQueries queries, RayBatch batch, float[] rays, World world) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            queries.cast(batch);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        int hits = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.isHit(i)) {
+                hits++;
+            }
+        }
+
+        // The reference walks the same cells one at a time over World.isCollidableBlock, with no skipping.
+        int[] reference = new int[RayBatch.RESULT_STRIDE];
+        int mismatches = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < REFERENCE_RAYS; i++) {
+            int base = i * RayBatch.RESULT_STRIDE;
+            boolean hit = referenceCast(world, rays, i, reference);
+            if (hit != batch.isHit(i)) {
+                mismatches++;
+            } else if (hit) {
+                for (int field = 0; field < RayBatch.RESULT_STRIDE; field++) {
+                    if (reference[field] != batch.results()[base + field]) {
+                        mismatches++;
+                        break;
+                    }
+                }
+            }
+        }
+        long referenceNanos = System.nanoTime() - start;
+        double rate = batch.size() * 1.0e9 / best;
+        double referenceRate = REFERENCE_RAYS * 1.0e9 / referenceNanos;
+        System.out.printf("%-5s %3d blocks: %,12.0f rays/s vs %,10.0f rays/s per voxel (%.1fx), %4.1f%% hit, %d/%d differ%n",
+                label, range, rate, referenceRate, rate / referenceRate, hits * 100.0 / batch.size(), mismatches,
+                REFERENCE_RAYS);
+    }
+
+    private static void set(float[] rays, int index, float[] origin, float dx, float dy, float dz, float maxDistance) {
+        int base = index * RAY_STRIDE;
+        rays[base] = origin[0];
+        rays[base + 1] = origin[1];
+        rays[base + 2] = origin[2];
+        rays[base + 3] = dx;
+        rays[base + 4] = dy;
+        rays[base + 5] = dz;
+        rays[base + 6] = maxDistance;
+    }
+
+    private static RayBatch batch(float[] rays) {
+        RayBatch batch = new RayBatch(RAYS);
+        for (int base = 0; base < rays.length; base += RAY_STRIDE) {
+            batch.add(rays[base], rays[base + 1], rays[base + 2], rays[base + 3], rays[base + 4], rays[base + 5],
+                    rays[base + 6]);
+        }
+        return batch;
+    }
+
+    private static float sq(float value) {
+        return value * value;
+    }
+
+    private static float[] eye(World world, Random random, int centerX, int centerZ) {
+        int x = centerX + random.nextInt(ORIGIN_SPREAD * 2 + 1) - ORIGIN_SPREAD;
+        int z = centerZ + random.nextInt(ORIGIN_SPREAD * 2 + 1) - ORIGIN_SPREAD;
+        return new float[]{x + random.nextFloat(), world.getSurfaceHeight(x, z) + 1 + EYE_HEIGHT, z + random.nextFloat()};
+    }
+
+    private static boolean referenceCast(World world, float[] rays, int index, int[] out) {
+        int base = index * RAY_STRIDE;
+        double ox = rays[base];
+        double oy = rays[base + 1];
+        double oz = rays[base + 2];
+        double length = Math.sqrt(rays[base + 3] * (double) rays[base + 3] + rays[base + 4] * (double) rays[base + 4]
+                + rays[base + 5] * (double) rays[base + 5]);
+        double dx = rays[base + 3] / length;
+        double dy = rays[base + 4] / length;
+        double dz = rays[base + 5] / length;
+        double max = rays[base + 6];
+        int x = (int) Math.floor(ox);
+        int y = (int) Math.floor(oy);
+        int z = (int) Math.floor(oz);
+        int stepX = (int) Math.signum(dx);
+        int stepY = (int) Math.signum(dy);
+        int stepZ = (int) Math.signum(dz);
+        double deltaX = stepX == 0 ? Double.POSITIVE_INFINITY : 1.0 / Math.abs(dx);
+        double deltaY = stepY == 0 ? Double.POSITIVE_INFINITY : 1.0 / Math.abs(dy);
+        double deltaZ = stepZ == 0 ? Double.POSITIVE_INFINITY : 1.0 / Math.abs(dz);
+        double tMaxX = stepX > 0 ? (x + 1.0 - ox) * deltaX : stepX < 0 ? (ox - x) * deltaX : Double.POSITIVE_INFINITY;
+        double tMaxY = stepY > 0 ? (y + 1.0 - oy) * deltaY : stepY < 0 ? (oy - y) * deltaY : Double.POSITIVE_INFINITY;
+        double tMaxZ = stepZ > 0 ? (z + 1.0 - oz) * deltaZ : stepZ < 0 ? (oz - z) * deltaZ : Double.POSITIVE_INFINITY;
+        while (true) {
+            int previousX = x;
+            int previousY = y;
+            int previousZ = z;
+            double t;
+            if (tMaxX <= tMaxY && tMaxX <= tMaxZ) {
+                t = tMaxX;
+                x += stepX;
+                tMaxX += deltaX;
+            } else if (tMaxY <= tMaxZ) {
+                t = tMaxY;
+                y += stepY;
+                tMaxY += deltaY;
+            } else {
+                t = tMaxZ;
+                z += stepZ;
+                tMaxZ += deltaZ;
+            }
+            if (t > max) {
+                return false;
+            }
+            if (y >= 0 && y < Chunk.HEIGHT && world.isCollidableBlock(x, y, z)) {
+                out[0] = x;
+                out[1] = y;
+                out[2] = z;
+                out[3] = previousX;
+                out[4] = previousY;
+                out[5] = previousZ;
+                out[6] = world.getBlock(x, y, z).id();
+                return true;
+            }
+        }
+    }
+}
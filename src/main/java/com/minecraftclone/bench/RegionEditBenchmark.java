@@ -0,0 +1,102 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.world.BlockBox;
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.Clipboard;
+import com.minecraftclone.world.RegionEditor;
+import com.minecraftclone.world.Schematic;
+import com.minecraftclone.world.World;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+public final class RegionEditBenchmark {
+    private static final BlockBox FILL_BOX = new BlockBox(-128, 0, -128, 127, Chunk.HEIGHT - 1, 127);
+    private static final int LOADED_RADIUS = 8;
+
+    private RegionEditBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < 3; i++) {
+            runEditor(new ForkJoinPool(cores), false);
+        }
+
+        System.out.printf("Fill box %dx%dx%d (%d cells)%n", FILL_BOX.sizeX(), FILL_BOX.sizeY(), FILL_BOX.sizeZ(), FILL_BOX.volume());
+        World world = new World();
+        world.ensureChunksAround(0, 0, LOADED_RADIUS);
+        long start = System.nanoTime();
+        for (int x = FILL_BOX.minX(); x <= FILL_BOX.maxX(); x++) {
+            for (int y = FILL_BOX.minY(); y <= FILL_BOX.maxY(); y++) {
+                for (int z = FILL_BOX.minZ(); z <= FILL_BOX.maxZ(); z++) {
+                    world.setBlock(x, y, z, BlockType.STONE);
+                }
+            }
+        }
+        System.out.printf("%-34s %10.1f ms%n", "World.setBlock per cell", millisSince(start));
+        world.cleanup();
+
+        for (int threads : cores > 1 ? new int[]{1, cores} : new int[]{1}) {
+            System.out.printf("%nRegionEditor, fork-join parallelism %d%n", threads);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            runEditor(pool, true);
+            pool.shutdown();
+        }
+    }
+
+    private static void runEditor(ForkJoinPool pool, boolean print) throws IOException {
+        World world = new World();
+        world.ensureChunksAround(0, 0, LOADED_RADIUS);
+        RegionEditor editor = new RegionEditor(world, pool);
+        System.gc();
+
+        long start = System.nanoTime();
+        int changed = editor.fill(FILL_BOX, BlockType.STONE);
+        report(print, "fill box (stone)", start, changed);
+
+        start = System.nanoTime();
+        changed = editor.replace(FILL_BOX, BlockType.STONE, BlockType.DIRT);
+        report(print, "replace stone -> dirt", start, changed);
+
+        start = System.nanoTime();
+        changed = editor.fillSphere(0, 48, 0, 47, BlockType.AIR);
+        report(print, "fill sphere r=47 (air)", start, changed);
+
+        BlockBox copyBox = new BlockBox(-64, 0, -64, 63, Chunk.HEIGHT - 1, 63);
+        start = System.nanoTime();
+        Clipboard clipboard = editor.copy(copyBox);
+        report(print, "copy 128x96x128", start, clipboard.volume());
+
+        start = System.nanoTime();
+        changed = editor.paste(clipboard, 200, 0, 200, true);
+        report(print, "paste into unloaded chunks", start, changed);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        start = System.nanoTime();
+        Schematic.write(clipboard, bytes);
+        report(print, "schematic export", start, clipboard.volume());
+
+        start = System.nanoTime();
+        Clipboard imported = Schematic.read(new ByteArrayInputStream(bytes.toByteArray()));
+        report(print, "schematic import", start, imported.volume());
+        if (print) {
+            System.out.printf("%-34s %10d bytes (%.3f bytes/cell)%n", "schematic size", bytes.size(),
+                    bytes.size() / (double) clipboard.volume());
+        }
+        world.cleanup();
+    }
+
+    private static void report(boolean print, String name, long start, long cells) {
+        if (print) {
+            System.out.printf("%-34s %10.1f ms %12d cells%n", name, millisSince(start), cells);
+        }
+    }
+
+    private static double millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,160 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.engine.InputQueue;
+import com.minecraftclone.engine.RenderState;
+import com.minecraftclone.engine.Simulation;
+import com.minecraftclone.graphics.Camera;
+import com.minecraftclone.player.Player;
+import com.minecraftclone.world.ChunkMeshData;
+import com.minecraftclone.world.World;
+import org.joml.Vector3f;
+import org.lwjgl.glfw.GLFW;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+public final class RenderThreadBenchmark {
+    private static final int VIEW_DISTANCE = 8;
+    private static final long RUN_NANOS = 8_000_000_000L;
+    private static final long VSYNC_NANOS = 1_000_000_000L / 60L;
+    private static final long DRAW_NANOS_PER_CHUNK = 5_000L;
+    private static final int JUMP_EVERY_FRAMES = 24;
+    private static final int STAGING_BYTES = 8 << 20;
+
+    private RenderThreadBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        ByteBuffer staging = ByteBuffer.allocateDirect(STAGING_BYTES);
+        System.out.printf("player sprinting and jumping away from spawn, view distance %d, %d ms vsync, %d core(s)%n",
+                VIEW_DISTANCE, VSYNC_NANOS / 1_000_000, Runtime.getRuntime().availableProcessors());
+        run(false, staging);
+        System.out.printf("%-32s %7s %7s %8s %8s %8s %8s %8s %9s %10s%n", "loop", "frames", "loads", "remeshes",
+                "p50 ms", "p90 ms", "p99 ms", "max ms", "missed %", "step ms");
+        print("serial (sim + render, 1 thread)", run(false, staging));
+        print("split (sim thread + GL thread)", run(true, staging));
+    }
+
+    private static Result run(boolean split, ByteBuffer staging) {
+        System.gc();
+        World world = new World();
+        world.setViewDistance(VIEW_DISTANCE);
+        world.ensureChunksAround(0, 0, VIEW_DISTANCE);
+        Player player = new Player(new Vector3f(0.5f, world.getSurfaceHeight(0, 0) + 1.0f, 0.5f));
+        Camera camera = new Camera((float) Math.toRadians(70.0f), 16.0f / 9.0f, 0.1f, 500.0f);
+        InputQueue inputs = new InputQueue();
+        Simulation simulation = new Simulation(world, player, camera, null, inputs);
+        inputs.postCursorCaptured(true);
+        inputs.postKey(GLFW.GLFW_KEY_W, GLFW.GLFW_PRESS);
+        inputs.postKey(GLFW.GLFW_KEY_LEFT_SHIFT, GLFW.GLFW_PRESS);
+        // The spawn area is meshed before timing starts, as Engine.init does.
+        simulation.step(0.0f);
+        RenderState state = simulation.takeLatest();
+        state.meshes().discard();
+
+        long[] frames = new long[(int) (RUN_NANOS / VSYNC_NANOS) * 2];
+        int frameCount = 0;
+        int loads = 0;
+        int remeshes = 0;
+        int steps = 0;
+        long stepNanos = 0L;
+        if (split) {
+            simulation.start(Simulation.DEFAULT_STEP_NANOS);
+        }
+        long start = System.nanoTime();
+        long lastPresent = start;
+        long lastStep = start;
+        long vsync = start;
+        while (lastPresent - start < RUN_NANOS && frameCount < frames.length) {
+            simulation.checkFailure();
+            if (frameCount % JUMP_EVERY_FRAMES == 0) {
+                inputs.postKey(GLFW.GLFW_KEY_SPACE, GLFW.GLFW_PRESS);
+            } else if (frameCount % JUMP_EVERY_FRAMES == 1) {
+                inputs.postKey(GLFW.GLFW_KEY_SPACE, GLFW.GLFW_RELEASE);
+            }
+            if (!split) {
+                long now = System.nanoTime();
+                simulation.step((now - lastStep) / 1_000_000_000.0f);
+                lastStep = now;
+            }
+            RenderState next = simulation.takeLatest();
+            if (next != null) {
+                upload(next, staging);
+                state = next;
+                loads += next.chunkLoads();
+                remeshes += next.remeshes();
+                steps += next.steps();
+                stepNanos += next.simulationNanos();
+            }
+            draw(state);
+
+            // swapBuffers with a swap interval of 1: wait for the next refresh after the frame's work is done.
+            long now = System.nanoTime();
+            while (vsync <= now) {
+                vsync += VSYNC_NANOS;
+            }
+            long wait;
+            while ((wait = vsync - System.nanoTime()) > 0L) {
+                LockSupport.parkNanos(wait);
+            }
+            long present = System.nanoTime();
+            frames[frameCount++] = present - lastPresent;
+            lastPresent = present;
+        }
+        simulation.stop();
+        RenderState unconsumed = simulation.takeLatest();
+        if (unconsumed != null) {
+            unconsumed.meshes().discard();
+        }
+        world.cleanup();
+        return new Result(Arrays.copyOf(frames, frameCount), loads, remeshes, steps == 0 ? 0L : stepNanos / steps);
+    }
+
+    // Stands in for glBufferData: the driver copies every vertex byte out of the mesh buffer.
+    private static void upload(RenderState state, ByteBuffer staging) {
+        for (ChunkMeshData data : state.meshes().meshes()) {
+            copy(data.opaqueVertices(), staging);
+            copy(data.translucentVertices(), staging);
+        }
+        state.meshes().discard();
+    }
+
+    private static void copy(ByteBuffer source, ByteBuffer staging) {
+        ByteBuffer bytes = source.duplicate();
+        if (bytes.remaining() > staging.capacity()) {
+            bytes.limit(bytes.position() + staging.capacity());
+        }
+        staging.clear();
+        staging.put(bytes);
+    }
+
+    // Draw submission is CPU time in the driver; the GPU side overlaps with the vsync wait.
+    private static void draw(RenderState state) {
+        long end = System.nanoTime() + state.visibleChunks().size() * DRAW_NANOS_PER_CHUNK;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void print(String label, Result result) {
+        long[] sorted = result.frames.clone();
+        Arrays.sort(sorted);
+        int missed = 0;
+        for (long frame : sorted) {
+            if (frame > VSYNC_NANOS * 3 / 2) {
+                missed++;
+            }
+        }
+        System.out.printf("%-32s %7d %7d %8d %8.2f %8.2f %8.2f %8.2f %9.1f %10.2f%n", label, sorted.length,
+                result.loads, result.remeshes, percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                sorted[sorted.length - 1] / 1.0e6, missed * 100.0 / sorted.length, result.stepNanos / 1.0e6);
+    }
+
+    private static double percentile(long[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)] / 1.0e6;
+    }
+
+    private record Result(long[] frames, int loads, int remeshes, long stepNanos) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.server.ShardClient;
+import com.minecraftclone.server.ShardCoordinator;
+import com.minecraftclone.server.ShardMap;
+import com.minecraftclone.server.ShardServer;
+import com.minecraftclone.world.BlockType;
+import org.joml.Vector3f;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_SPACE;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_W;
+import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
+import static org.lwjgl.glfw.GLFW.GLFW_RELEASE;
+
+// Starts a coordinator here and 1, 2 and 4 shard processes over loopback, then has simulated players walk and hop in circles
+// across region edges as fast as the shards answer, placing a block now and then. Every step is a round trip, so
+// steps/s is the cluster's throughput. Shards run unthrottled; with a core per shard and one left for the players,
+// each shard is pinned to a core of its own with taskset, and otherwise they share the machine's cores, so the
+// speedup there is what the extra processes cost rather than scaling.
+public final class ShardLoadTest {
+    private static final int[] SHARD_COUNTS = {1, 2, 4};
+    private static final int DEFAULT_PLAYERS = 32;
+    private static final long DEFAULT_MEASURE_MILLIS = 10_000L;
+    // Lets every shard JVM compile its hot paths before the measured window.
+    private static final long WARMUP_MILLIS = 3_000L;
+    private static final float STEP_SECONDS = 1.0f / 20.0f;
+    // At walking speed this turn rate makes circles about 80 blocks across, so players keep crossing region edges
+    // without wandering into ever more new chunks.
+    private static final float TURN_PER_STEP = 5.4f;
+    private static final int SPAWN_SPREAD = 192;
+    private static final int STEPS_PER_EDIT = 50;
+    // Jumping every few steps gets players over the one-block rises they would otherwise walk into for good.
+    private static final int STEPS_PER_JUMP = 8;
+    private static final String SHARD_HEAP = "-Xmx768m";
+    private static final Path TASKSET = Path.of("/usr/bin/taskset");
+
+    private ShardLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PLAYERS;
+        long measureMillis = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_MEASURE_MILLIS;
+        System.out.printf("%d players, %.0f s per run, regions of %d chunks, %d core(s)%n", players,
+                measureMillis / 1000.0, ShardMap.DEFAULT_REGION_CHUNKS, Runtime.getRuntime().availableProcessors());
+        double baseline = 0.0;
+        for (int shards : SHARD_COUNTS) {
+            double rate = run(shards, players, measureMillis);
+            if (baseline == 0.0) {
+                baseline = rate;
+            }
+            System.out.printf("  -> %.2fx the single shard%n", rate / baseline);
+        }
+    }
+
+    private static boolean pinned(int shards) {
+        return Runtime.getRuntime().availableProcessors() > shards && Files.isExecutable(TASKSET);
+    }
+
+    private static double run(int shards, int players, long measureMillis) throws Exception {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        List<Process> processes = new ArrayList<>();
+        try (ShardCoordinator coordinator = new ShardCoordinator(new ShardMap(shards, ShardMap.DEFAULT_REGION_CHUNKS))) {
+            coordinator.start();
+            String java = ProcessHandle.current().info().command().orElse("java");
+            boolean pinned = pinned(shards);
+            for (int shard = 0; shard < shards; shard++) {
+                List<String> command = new ArrayList<>();
+                if (pinned) {
+                    command.addAll(List.of(TASKSET.toString(), "-c", Integer.toString(shard)));
+                }
+                command.addAll(List.of(java, SHARD_HEAP, "-cp", System.getProperty("java.class.path"),
+                        ShardServer.class.getName(), Integer.toString(coordinator.port()), Integer.toString(shard)));
+                processes.add(new ProcessBuilder(command).inheritIO().start());
+            }
+            ShardCoordinator.Directory directory = ShardCoordinator.directory(host, coordinator.port());
+
+            AtomicLong steps = new AtomicLong();
+            AtomicLong handoffs = new AtomicLong();
+            AtomicLong edits = new AtomicLong();
+            AtomicLong failures = new AtomicLong();
+            CountDownLatch joined = new CountDownLatch(players);
+            AtomicLong deadline = new AtomicLong();
+            List<Thread> threads = new ArrayList<>();
+            Random spawns = new Random(shards);
+            for (int player = 0; player < players; player++) {
+                long playerId = player + 1L;
+                float x = spawns.nextInt(SPAWN_SPREAD * 2) - SPAWN_SPREAD + 0.5f;
+                float z = spawns.nextInt(SPAWN_SPREAD * 2) - SPAWN_SPREAD + 0.5f;
+                Thread thread = new Thread(() -> play(host, directory, playerId, x, z, joined, deadline, steps, handoffs,
+                        edits, failures), "player-" + playerId);
+                threads.add(thread);
+                thread.start();
+            }
+            joined.await();
+            Thread.sleep(WARMUP_MILLIS);
+            // Joining generates every spawn area; only steps after everyone is in and warmed up count.
+            long countedFrom = steps.get();
+            long handoffsFrom = handoffs.get();
+            long start = System.nanoTime();
+            deadline.set(start + measureMillis * 1_000_000L);
+            Thread.sleep(measureMillis);
+            long counted = steps.get() - countedFrom;
+            long elapsed = System.nanoTime() - start;
+            long handedOff = handoffs.get() - handoffsFrom;
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            StringBuilder perShard = new StringBuilder();
+            long mirrors = 0L;
+            for (int shard = 0; shard < shards; shard++) {
+                ShardServer.Stats stats = ShardServer.stats(host, directory.ports()[shard]);
+                mirrors += stats.mirrorsFetched();
+                perShard.append(String.format(" [%d: %d steps, %d chunks + %d compressed, %d mirrored in, %d dropped]",
+                        shard, stats.steps(), stats.residentChunks(), stats.compressedChunks(), stats.mirrorsFetched(),
+                        stats.mirrorsDropped()));
+            }
+            double rate = counted * 1.0e9 / elapsed;
+            System.out.printf("%d shard(s) %s: %,10.0f steps/s, %d handoffs, %d mirrors, %d edits, %d failed"
+                            + " players%n%s%n", shards, pinned ? "on a core each" : "sharing the cores", rate, handedOff,
+                    mirrors, edits.get(), failures.get(), perShard);
+            return rate;
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+            for (Process process : processes) {
+                process.waitFor();
+            }
+        }
+    }
+
+    private static void play(InetAddress host, ShardCoordinator.Directory directory, long playerId, float x, float z,
+                             CountDownLatch joined, AtomicLong deadline, AtomicLong steps, AtomicLong handoffs,
+                             AtomicLong edits, AtomicLong failures) {
+        ShardClient client = null;
+        try {
+            try {
+                client = ShardClient.join(host, directory, playerId, x, z);
+            } finally {
+                joined.countDown();
+            }
+            client.captureCursor(true);
+            client.key(GLFW_KEY_W, GLFW_PRESS);
+            long step = 0L;
+            // Zero until everyone has joined; players already in keep walking meanwhile.
+            while (deadline.get() == 0L || System.nanoTime() < deadline.get()) {
+                client.mouseMove(TURN_PER_STEP, 0.0f);
+                if (step % STEPS_PER_JUMP == 0L) {
+                    client.key(GLFW_KEY_SPACE, GLFW_PRESS);
+                } else if (step % STEPS_PER_JUMP == 1L) {
+                    client.key(GLFW_KEY_SPACE, GLFW_RELEASE);
+                }
+                if (++step % STEPS_PER_EDIT == 0L) {
+                    Vector3f at = client.position();
+                    client.edit((int) Math.floor(at.x), (int) Math.floor(at.y) - 1, (int) Math.floor(at.z),
+                            BlockType.STONE.id());
+                    edits.incrementAndGet();
+                }
+                long before = client.handoffs();
+                client.step(STEP_SECONDS);
+                steps.incrementAndGet();
+                handoffs.addAndGet(client.handoffs() - before);
+            }
+        } catch (IOException e) {
+            failures.incrementAndGet();
+            System.err.println("player " + playerId + ": " + e);
+        } finally {
+            if (client != null) {
+                try {
+                    client.close();
+                } catch (IOException ignored) {
+                    // Nothing left to do with this connection.
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.graphics.TranslucentMesh;
+import com.minecraftclone.world.BlockPos;
+import com.minecraftclone.world.Chunk;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+public final class TranslucentSortBenchmark {
+    private static final int FRAMES = 1200;
+    private static final float BLOCKS_PER_FRAME = 0.1f;
+    private static final int LAKE_RADIUS = 2;
+
+    private TranslucentSortBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        float[] lake = lakeSurface();
+        float[] glass = glassCheckerboard();
+
+        for (int i = 0; i < 3; i++) {
+            run(lake, true, false);
+            run(glass, false, false);
+        }
+
+        int chunks = (LAKE_RADIUS * 2 + 1) * (LAKE_RADIUS * 2 + 1);
+        System.out.printf("Camera walking %.1f blocks/frame for %d frames over %d translucent chunks%n",
+                BLOCKS_PER_FRAME, FRAMES, chunks);
+        System.out.printf("%-28s %-14s %12s %14s %14s%n", "scene", "strategy", "sorts/frame", "avg us/frame", "max us/frame");
+        print("lake (" + lake.length / 3 + " quads/chunk)", "block key", run(lake, true, true));
+        print("lake (" + lake.length / 3 + " quads/chunk)", "every frame", run(lake, false, true));
+        print("glass (" + glass.length / 3 + " quads/chunk)", "block key", run(glass, true, true));
+        print("glass (" + glass.length / 3 + " quads/chunk)", "every frame", run(glass, false, true));
+    }
+
+    private static Result run(float[] centers, boolean useSortKey, boolean measure) {
+        int quads = centers.length / 3;
+        int side = LAKE_RADIUS * 2 + 1;
+        int chunkCount = side * side;
+        long[] sortKeys = new long[chunkCount];
+        Arrays.fill(sortKeys, Long.MIN_VALUE);
+        long[] scratch = new long[quads];
+        IntBuffer indices = IntBuffer.allocate(quads * TranslucentMesh.INDICES_PER_QUAD);
+
+        long sorts = 0;
+        long totalNanos = 0;
+        long maxNanos = 0;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            float cameraX = -LAKE_RADIUS * Chunk.SIZE + frame * BLOCKS_PER_FRAME;
+            float cameraY = 44.0f + (float) Math.sin(frame * 0.05) * 2.0f;
+            float cameraZ = -LAKE_RADIUS * Chunk.SIZE + frame * BLOCKS_PER_FRAME * 0.5f;
+            long cameraKey = BlockPos.pack((int) Math.floor(cameraX), (int) Math.floor(cameraY), (int) Math.floor(cameraZ));
+
+            long start = System.nanoTime();
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                if (useSortKey && sortKeys[chunk] == cameraKey) {
+                    continue;
+                }
+                sortKeys[chunk] = cameraKey;
+                float offsetX = (chunk % side - LAKE_RADIUS) * Chunk.SIZE;
+                float offsetZ = (chunk / side - LAKE_RADIUS) * Chunk.SIZE;
+                TranslucentMesh.sortBackToFront(centers, quads, cameraX - offsetX, cameraY, cameraZ - offsetZ, scratch, indices);
+                sorts++;
+            }
+            long elapsed = System.nanoTime() - start;
+            totalNanos += elapsed;
+            maxNanos = Math.max(maxNanos, elapsed);
+        }
+        return measure ? new Result(sorts / (double) FRAMES, totalNanos / 1_000.0 / FRAMES, maxNanos / 1_000.0) : null;
+    }
+
+    private static float[] lakeSurface() {
+        float[] centers = new float[Chunk.SIZE * Chunk.SIZE * 3];
+        int offset = 0;
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                centers[offset++] = x + 0.5f;
+                centers[offset++] = 40.0f + 8.0f / 9.0f;
+                centers[offset++] = z + 0.5f;
+            }
+        }
+        return centers;
+    }
+
+    private static float[] glassCheckerboard() {
+        int blocks = Chunk.SIZE * Chunk.SIZE * Chunk.SECTION_HEIGHT / 2;
+        float[] centers = new float[blocks * 6 * 3];
+        int offset = 0;
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int y = 0; y < Chunk.SECTION_HEIGHT; y++) {
+                for (int z = 0; z < Chunk.SIZE; z++) {
+                    if (((x + y + z) & 1) != 0) {
+                        continue;
+                    }
+                    float centerX = x + 0.5f;
+                    float centerY = 36 + y + 0.5f;
+                    float centerZ = z + 0.5f;
+                    float[][] faceOffsets = {{-0.5f, 0, 0}, {0.5f, 0, 0}, {0, -0.5f, 0}, {0, 0.5f, 0}, {0, 0, -0.5f}, {0, 0, 0.5f}};
+                    for (float[] face : faceOffsets) {
+                        centers[offset++] = centerX + face[0];
+                        centers[offset++] = centerY + face[1];
+                        centers[offset++] = centerZ + face[2];
+                    }
+                }
+            }
+        }
+        return centers;
+    }
+
+    private static void print(String scene, String strategy, Result result) {
+        System.out.printf("%-28s %-14s %12.2f %14.1f %14.1f%n",
+                scene, strategy, result.sortsPerFrame, result.avgMicros, result.maxMicros);
+    }
+
+    private record Result(double sortsPerFrame, double avgMicros, double maxMicros) {
+    }
+}
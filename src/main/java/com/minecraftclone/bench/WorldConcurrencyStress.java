@@ -0,0 +1,206 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.graphics.BufferPool;
+import com.minecraftclone.world.BlockPos;
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.ChunkMeshData;
+import com.minecraftclone.world.World;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class WorldConcurrencyStress {
+    private static final int LOADED_RADIUS = 4;
+    private static final int LOADER_MAX_RADIUS = 9;
+    private static final int EDIT_MIN = -LOADED_RADIUS * Chunk.SIZE;
+    private static final int EDIT_SPAN = LOADED_RADIUS * Chunk.SIZE * 2;
+    private static final int EDIT_MIN_Y = 50;
+    private static final int EDIT_HEIGHT = 20;
+    private static final int DEMOTIONS_PER_PASS = 8;
+    private static final int FAR_AWAY = 10_000;
+    private static final BlockType[] WRITTEN_TYPES = {BlockType.STONE, BlockType.GLASS, BlockType.BEDROCK, BlockType.AIR};
+
+    private WorldConcurrencyStress() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long durationMillis = args.length > 0 ? Long.parseLong(args[0]) : 3000L;
+        int writers = 4;
+        int readers = 4;
+        int meshers = 2;
+
+        World world = new World();
+        world.ensureChunksAround(0, 0, LOADED_RADIUS);
+        world.setIdleSeconds(0.0f);
+        world.setDemotionsPerUpdate(DEMOTIONS_PER_PASS);
+
+        AtomicLong writes = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+        AtomicLong freshMeshes = new AtomicLong();
+        AtomicLong staleMeshes = new AtomicLong();
+        AtomicLong ticks = new AtomicLong();
+        AtomicLong loadedChunks = new AtomicLong();
+        AtomicLong demotedChunks = new AtomicLong();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Map<Long, BlockType>> expected = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + durationMillis * 1_000_000L;
+
+        for (int w = 0; w < writers; w++) {
+            int lane = w;
+            Map<Long, BlockType> owned = new HashMap<>();
+            expected.add(owned);
+            threads.add(worker("writer-" + w, start, failures, () -> {
+                Random random = new Random(lane);
+                while (System.nanoTime() < deadline) {
+                    // Each writer owns the x columns in its lane, so the final state is checkable.
+                    int x = EDIT_MIN + random.nextInt(EDIT_SPAN / writers) * writers + lane;
+                    int y = EDIT_MIN_Y + random.nextInt(EDIT_HEIGHT);
+                    int z = EDIT_MIN + random.nextInt(EDIT_SPAN);
+                    BlockType type = WRITTEN_TYPES[random.nextInt(WRITTEN_TYPES.length)];
+                    world.setBlock(x, y, z, type);
+                    owned.put(BlockPos.pack(x, y, z), type);
+                    writes.incrementAndGet();
+                }
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            int seed = 100 + r;
+            threads.add(worker("reader-" + r, start, failures, () -> {
+                Random random = new Random(seed);
+                int span = LOADER_MAX_RADIUS * Chunk.SIZE * 2;
+                while (System.nanoTime() < deadline) {
+                    int x = random.nextInt(span) - span / 2;
+                    int z = random.nextInt(span) - span / 2;
+                    int y = random.nextInt(Chunk.HEIGHT);
+                    if (world.getBlock(x, y, z) == null || world.getFluidLevel(x, y, z) < 0) {
+                        throw new IllegalStateException("Torn read at " + x + "," + y + "," + z);
+                    }
+                    reads.incrementAndGet();
+                }
+            }));
+        }
+        for (int m = 0; m < meshers; m++) {
+            int seed = 200 + m;
+            threads.add(worker("mesher-" + m, start, failures, () -> {
+                Random random = new Random(seed);
+                while (System.nanoTime() < deadline) {
+                    Chunk chunk = world.getLoadedChunk(random.nextInt(LOADED_RADIUS * 2 + 1) - LOADED_RADIUS,
+                            random.nextInt(LOADED_RADIUS * 2 + 1) - LOADED_RADIUS);
+                    if (chunk == null) {
+                        continue;
+                    }
+                    ChunkMeshData data = chunk.buildMesh(world);
+                    if (chunk.isCurrent(data)) {
+                        freshMeshes.incrementAndGet();
+                    } else {
+                        staleMeshes.incrementAndGet();
+                    }
+                    data.release();
+                }
+            }));
+        }
+        threads.add(worker("loader", start, failures, () -> {
+            for (int radius = LOADED_RADIUS + 1; radius <= LOADER_MAX_RADIUS && System.nanoTime() < deadline; radius++) {
+                world.ensureChunksAround(0, 0, radius);
+                loadedChunks.set((2L * radius + 1) * (2L * radius + 1));
+            }
+        }));
+        threads.add(worker("demoter", start, failures, () -> {
+            // Compresses chunks under the writers' feet; their edits must survive the round trip.
+            while (System.nanoTime() < deadline) {
+                demotedChunks.addAndGet(world.demoteIdleChunks(FAR_AWAY, FAR_AWAY, System.nanoTime()));
+                Thread.sleep(2L);
+            }
+        }));
+        threads.add(worker("ticker", start, failures, () -> {
+            while (System.nanoTime() < deadline) {
+                world.tick();
+                ticks.incrementAndGet();
+                Thread.sleep(5L);
+            }
+        }));
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - began) / 1_000_000_000.0;
+
+        int mismatches = 0;
+        for (Map<Long, BlockType> owned : expected) {
+            for (Map.Entry<Long, BlockType> entry : owned.entrySet()) {
+                long position = entry.getKey();
+                BlockType actual = world.getBlock(BlockPos.unpackX(position), BlockPos.unpackY(position), BlockPos.unpackZ(position));
+                if (actual != entry.getValue()) {
+                    mismatches++;
+                }
+            }
+        }
+        int staleAfterQuiesce = 0;
+        world.ensureChunksAround(0, 0, LOADED_RADIUS);
+        for (int chunkX = -LOADED_RADIUS; chunkX <= LOADED_RADIUS; chunkX++) {
+            for (int chunkZ = -LOADED_RADIUS; chunkZ <= LOADED_RADIUS; chunkZ++) {
+                Chunk chunk = world.getLoadedChunk(chunkX, chunkZ);
+                ChunkMeshData data = chunk.buildMesh(world);
+                if (!chunk.isCurrent(data)) {
+                    staleAfterQuiesce++;
+                }
+                data.release();
+            }
+        }
+
+        System.out.printf("%d writers, %d readers, %d meshers, 1 loader, 1 demoter, 1 ticker for %.2f s on %d cores%n",
+                writers, readers, meshers, seconds, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-28s %14s %14s%n", "operation", "count", "per second");
+        print("setBlock", writes.get(), seconds);
+        print("getBlock + getFluidLevel", reads.get(), seconds);
+        print("mesh builds (current)", freshMeshes.get(), seconds);
+        print("mesh builds (stale, dropped)", staleMeshes.get(), seconds);
+        print("world ticks", ticks.get(), seconds);
+        System.out.printf("chunks loaded concurrently: %d, demotions: %d, promotions: %d%n",
+                loadedChunks.get(), demotedChunks.get(), world.getPromotions());
+        System.out.printf("final-state mismatches: %d, stale after quiesce: %d, leaked buffers: %d, thread failures: %d%n",
+                mismatches, staleAfterQuiesce, BufferPool.shared().outstandingBuffers(), failures.size());
+        for (Throwable failure : failures) {
+            failure.printStackTrace();
+        }
+        if (mismatches > 0 || staleAfterQuiesce > 0 || !failures.isEmpty() || BufferPool.shared().outstandingBuffers() > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Thread worker(String name, CountDownLatch start, List<Throwable> failures, Task task) {
+        Thread thread = new Thread(() -> {
+            try {
+                start.await();
+                task.run();
+            } catch (Throwable failure) {
+                failures.add(failure);
+            }
+        }, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void print(String operation, long count, double seconds) {
+        System.out.printf("%-28s %14d %14.0f%n", operation, count, count / seconds);
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,118 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.WorldGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+
+public final class WorldGenBenchmark {
+    private static final long SEED = 1337L;
+    private static final int RADIUS = 6;
+    private static final int SIDE = RADIUS * 2 + 1;
+    private static final int CHUNK_BYTES = Chunk.SIZE * Chunk.HEIGHT * Chunk.SIZE;
+
+    private WorldGenBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] threadCounts = {1, 2, 4, Math.max(8, cores)};
+
+        byte[] baseline = generate(1, false).blocks;
+        for (int i = 0; i < 2; i++) {
+            generate(Math.max(2, cores), true);
+        }
+
+        System.out.printf("%d x %d chunks, seed %d, %d core(s) available%n", SIDE, SIDE, SEED, cores);
+        System.out.printf("%-8s %-10s %12s %12s %10s %14s %10s%n",
+                "threads", "order", "ms", "chunks/s", "scaling", "crc32", "identical");
+        double singleThreaded = 0.0;
+        int mismatches = 0;
+        for (int threads : threadCounts) {
+            for (boolean shuffled : new boolean[]{false, true}) {
+                Result result = generate(threads, shuffled);
+                boolean identical = Arrays.equals(baseline, result.blocks);
+                if (!identical) {
+                    mismatches++;
+                }
+                double chunksPerSecond = SIDE * SIDE / (result.nanos / 1.0e9);
+                if (threads == 1 && !shuffled) {
+                    singleThreaded = chunksPerSecond;
+                }
+                System.out.printf("%-8d %-10s %12.1f %12.1f %9.2fx %14s %10s%n", threads, shuffled ? "shuffled" : "raster",
+                        result.nanos / 1.0e6, chunksPerSecond, chunksPerSecond / singleThreaded,
+                        Long.toHexString(result.checksum), identical ? "yes" : "NO");
+            }
+        }
+        printFeatures(baseline);
+        if (mismatches > 0) {
+            System.out.printf("%d run(s) differed from the single-threaded output%n", mismatches);
+            System.exit(1);
+        }
+    }
+
+    private static Result generate(int threads, boolean shuffled) {
+        List<int[]> order = new ArrayList<>();
+        for (int chunkZ = -RADIUS; chunkZ <= RADIUS; chunkZ++) {
+            for (int chunkX = -RADIUS; chunkX <= RADIUS; chunkX++) {
+                order.add(new int[]{chunkX, chunkZ});
+            }
+        }
+        if (shuffled) {
+            Collections.shuffle(order, new Random(threads));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        System.gc();
+        long start = System.nanoTime();
+        WorldGenerator generator = new WorldGenerator(SEED, pool);
+        List<CompletableFuture<Chunk>> pending = new ArrayList<>();
+        for (int[] position : order) {
+            pending.add(generator.generate(position[0], position[1]));
+        }
+        Chunk[] chunks = new Chunk[SIDE * SIDE];
+        for (CompletableFuture<Chunk> future : pending) {
+            Chunk chunk = future.join();
+            chunks[(chunk.chunkZ() + RADIUS) * SIDE + chunk.chunkX() + RADIUS] = chunk;
+        }
+        long nanos = System.nanoTime() - start;
+        pool.shutdown();
+
+        // Serialize in fixed coordinate order so the bytes only depend on what was generated.
+        byte[] blocks = new byte[chunks.length * CHUNK_BYTES];
+        int offset = 0;
+        for (Chunk chunk : chunks) {
+            for (int x = 0; x < Chunk.SIZE; x++) {
+                for (int y = 0; y < Chunk.HEIGHT; y++) {
+                    for (int z = 0; z < Chunk.SIZE; z++) {
+                        blocks[offset++] = (byte) chunk.getBlock(x, y, z).id();
+                    }
+                }
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(blocks);
+        return new Result(nanos, blocks, crc.getValue());
+    }
+
+    private static void printFeatures(byte[] blocks) {
+        int[] counts = new int[256];
+        for (byte block : blocks) {
+            counts[block & 0xff]++;
+        }
+        System.out.printf("features: %d log, %d leaves, %d coal ore, %d iron ore blocks%n",
+                counts[BlockType.LOG.id()], counts[BlockType.LEAVES.id()],
+                counts[BlockType.COAL_ORE.id()], counts[BlockType.IRON_ORE.id()]);
+    }
+
+    private record Result(long nanos, byte[] blocks, long checksum) {
+    }
+}
@@ -0,0 +1,223 @@
+package com.minecraftclone.bench;
+
+import com.minecraftclone.world.BlockPos;
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.World;
+
+import java.util.Random;
+
+public final class WorldQueryBenchmark {
+    private static final int LOADED_RADIUS = 6;
+    private static final int SPAN = (LOADED_RADIUS * 2 + 1) * Chunk.SIZE;
+    private static final int ORIGIN = -LOADED_RADIUS * Chunk.SIZE;
+    private static final int SURFACE_QUERIES = 200_000;
+    private static final int NEAREST_QUERIES = 400;
+    private static final int NEAREST_RADIUS = 24;
+    private static final int RANDOM_EDITS = 20_000;
+    private static final int MARKER_BLOCKS = 60;
+
+    private WorldQueryBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        World world = new World();
+        world.ensureChunksAround(0, 0, LOADED_RADIUS);
+        Random random = new Random(7L);
+        for (int i = 0; i < RANDOM_EDITS; i++) {
+            int x = ORIGIN + random.nextInt(SPAN);
+            int z = ORIGIN + random.nextInt(SPAN);
+            int surface = world.getSurfaceHeight(x, z);
+            // Mix digging the top block out with stacking on top, so both heightmap paths run.
+            if (random.nextBoolean() && surface > 1) {
+                world.setBlock(x, surface, z, BlockType.AIR);
+            } else {
+                world.setBlock(x, surface + 1, z, random.nextBoolean() ? BlockType.STONE : BlockType.WATER);
+            }
+        }
+        for (int i = 0; i < MARKER_BLOCKS; i++) {
+            int x = ORIGIN + random.nextInt(SPAN);
+            int z = ORIGIN + random.nextInt(SPAN);
+            world.setBlock(x, 55 + random.nextInt(20), z, BlockType.GLASS);
+        }
+
+        int mismatches = verify(world, random);
+        for (int i = 0; i < 3; i++) {
+            run(world, false);
+        }
+        System.out.printf("%d x %d loaded chunks after %d random edits, %d glass markers, index/naive mismatches: %d%n",
+                LOADED_RADIUS * 2 + 1, LOADED_RADIUS * 2 + 1, RANDOM_EDITS, MARKER_BLOCKS, mismatches);
+        System.out.printf("%-34s %14s %14s %10s%n", "query", "index ns/op", "naive ns/op", "speedup");
+        run(world, true);
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void run(World world, boolean print) {
+        Random random = new Random(11L);
+        int[] columns = new int[SURFACE_QUERIES * 2];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = ORIGIN + random.nextInt(SPAN);
+        }
+        int[] points = new int[NEAREST_QUERIES * 3];
+        for (int i = 0; i < NEAREST_QUERIES; i++) {
+            points[i * 3] = ORIGIN + random.nextInt(SPAN);
+            points[i * 3 + 1] = 40 + random.nextInt(40);
+            points[i * 3 + 2] = ORIGIN + random.nextInt(SPAN);
+        }
+        long sink = 0;
+
+        System.gc();
+        long start = System.nanoTime();
+        for (int i = 0; i < SURFACE_QUERIES; i++) {
+            sink += world.getSurfaceHeight(columns[i * 2], columns[i * 2 + 1]);
+        }
+        long indexSurface = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < SURFACE_QUERIES; i++) {
+            sink += naiveSurfaceHeight(world, columns[i * 2], columns[i * 2 + 1]);
+        }
+        long naiveSurface = System.nanoTime() - start;
+
+        int sections = (LOADED_RADIUS * 2 + 1) * (LOADED_RADIUS * 2 + 1) * Chunk.SECTION_COUNT;
+        start = System.nanoTime();
+        for (int chunkX = -LOADED_RADIUS; chunkX <= LOADED_RADIUS; chunkX++) {
+            for (int chunkZ = -LOADED_RADIUS; chunkZ <= LOADED_RADIUS; chunkZ++) {
+                for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+                    sink += world.isSectionEmpty(chunkX, section, chunkZ) ? 1 : 0;
+                }
+            }
+        }
+        long indexEmpty = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int chunkX = -LOADED_RADIUS; chunkX <= LOADED_RADIUS; chunkX++) {
+            for (int chunkZ = -LOADED_RADIUS; chunkZ <= LOADED_RADIUS; chunkZ++) {
+                for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+                    sink += naiveSectionEmpty(world, chunkX, section, chunkZ) ? 1 : 0;
+                }
+            }
+        }
+        long naiveEmpty = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < NEAREST_QUERIES; i++) {
+            BlockPos found = world.findNearestBlock(BlockType.GLASS, points[i * 3], points[i * 3 + 1], points[i * 3 + 2], NEAREST_RADIUS);
+            sink += found == null ? 0 : found.y();
+        }
+        long indexNearest = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < NEAREST_QUERIES; i++) {
+            BlockPos found = naiveNearest(world, BlockType.GLASS, points[i * 3], points[i * 3 + 1], points[i * 3 + 2], NEAREST_RADIUS);
+            sink += found == null ? 0 : found.y();
+        }
+        long naiveNearest = System.nanoTime() - start;
+
+        if (print) {
+            print("surface height", indexSurface / (double) SURFACE_QUERIES, naiveSurface / (double) SURFACE_QUERIES);
+            print("is section empty", indexEmpty / (double) sections, naiveEmpty / (double) sections);
+            print("nearest glass within " + NEAREST_RADIUS, indexNearest / (double) NEAREST_QUERIES, naiveNearest / (double) NEAREST_QUERIES);
+            System.out.printf("(checksum %d)%n", sink);
+        }
+    }
+
+    private static int verify(World world, Random random) {
+        int mismatches = 0;
+        for (int x = ORIGIN; x < ORIGIN + SPAN; x++) {
+            for (int z = ORIGIN; z < ORIGIN + SPAN; z++) {
+                if (world.getSurfaceHeight(x, z) != naiveSurfaceHeight(world, x, z)) {
+                    mismatches++;
+                }
+                if (world.getHighestOpaqueY(x, z) != naiveHighestOpaque(world, x, z)) {
+                    mismatches++;
+                }
+            }
+        }
+        for (int chunkX = -LOADED_RADIUS; chunkX <= LOADED_RADIUS; chunkX++) {
+            for (int chunkZ = -LOADED_RADIUS; chunkZ <= LOADED_RADIUS; chunkZ++) {
+                for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+                    if (world.isSectionEmpty(chunkX, section, chunkZ) != naiveSectionEmpty(world, chunkX, section, chunkZ)) {
+                        mismatches++;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            int x = ORIGIN + random.nextInt(SPAN);
+            int y = 40 + random.nextInt(40);
+            int z = ORIGIN + random.nextInt(SPAN);
+            BlockPos indexed = world.findNearestBlock(BlockType.GLASS, x, y, z, NEAREST_RADIUS);
+            BlockPos naive = naiveNearest(world, BlockType.GLASS, x, y, z, NEAREST_RADIUS);
+            if (distanceSquared(indexed, x, y, z) != distanceSquared(naive, x, y, z)) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    private static long distanceSquared(BlockPos position, int x, int y, int z) {
+        if (position == null) {
+            return -1L;
+        }
+        long dx = position.x() - x;
+        long dy = position.y() - y;
+        long dz = position.z() - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static int naiveSurfaceHeight(World world, int x, int z) {
+        for (int y = Chunk.HEIGHT - 1; y >= 0; y--) {
+            if (world.getBlock(x, y, z).isCollidable()) {
+                return y;
+            }
+        }
+        return -1;
+    }
+
+    private static int naiveHighestOpaque(World world, int x, int z) {
+        for (int y = Chunk.HEIGHT - 1; y >= 0; y--) {
+            if (world.getBlock(x, y, z).isOpaque()) {
+                return y;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean naiveSectionEmpty(World world, int chunkX, int section, int chunkZ) {
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int y = 0; y < Chunk.SECTION_HEIGHT; y++) {
+                for (int z = 0; z < Chunk.SIZE; z++) {
+                    if (world.getBlock(chunkX * Chunk.SIZE + x, section * Chunk.SECTION_HEIGHT + y, chunkZ * Chunk.SIZE + z) != BlockType.AIR) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static BlockPos naiveNearest(World world, BlockType type, int x, int y, int z, int radius) {
+        long bestDistanceSquared = (long) radius * radius + 1L;
+        BlockPos best = null;
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dy = -radius; dy <= radius; dy++) {
+                int blockY = y + dy;
+                if (blockY < 0 || blockY >= Chunk.HEIGHT) {
+                    continue;
+                }
+                for (int dz = -radius; dz <= radius; dz++) {
+                    long distanceSquared = (long) dx * dx + (long) dy * dy + (long) dz * dz;
+                    if (distanceSquared < bestDistanceSquared && world.getBlock(x + dx, blockY, z + dz) == type) {
+                        bestDistanceSquared = distanceSquared;
+                        best = new BlockPos(x + dx, blockY, z + dz);
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static void print(String query, double indexNanos, double naiveNanos) {
+        System.out.printf("%-34s %14.1f %14.1f %9.1fx%n", query, indexNanos, naiveNanos, naiveNanos / indexNanos);
+    }
+}
@@ -1,30 +1,72 @@
 package com.minecraftclone.engine;
 
+import com.minecraftclone.graphics.BufferPool;
 import com.minecraftclone.graphics.Camera;
+import com.minecraftclone.graphics.FrameUniforms;
+import com.minecraftclone.graphics.GlCalls;
+import com.minecraftclone.graphics.Mesh;
+import com.minecraftclone.graphics.ParticleRenderer;
 import com.minecraftclone.graphics.ShaderProgram;
+import com.minecraftclone.graphics.TextureArray;
+import com.minecraftclone.world.Autosaver;
 import com.minecraftclone.player.Player;
-import com.minecraftclone.world.BlockType;
-import com.minecraftclone.world.RayCastResult;
-import com.minecraftclone.world.Raycaster;
+import com.minecraftclone.world.EditJournal;
+import com.minecraftclone.world.ParticleSystem;
+import com.minecraftclone.world.TextureLayers;
 import com.minecraftclone.world.World;
-import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.lwjgl.glfw.GLFW;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.minecraftclone.graphics.GlCalls.glBlendFunc;
+import static com.minecraftclone.graphics.GlCalls.glClear;
+import static com.minecraftclone.graphics.GlCalls.glClearColor;
+import static com.minecraftclone.graphics.GlCalls.glCullFace;
+import static com.minecraftclone.graphics.GlCalls.glDepthMask;
+import static com.minecraftclone.graphics.GlCalls.glDisable;
+import static com.minecraftclone.graphics.GlCalls.glEnable;
 import static org.lwjgl.opengl.GL11.*;
 
 public final class Engine {
     private static final float FIELD_OF_VIEW = (float) Math.toRadians(70.0f);
     private static final float Z_NEAR = 0.1f;
     private static final float Z_FAR = 500.0f;
-    private static final float BLOCK_ACTION_COOLDOWN = 0.18f;
+    private static final float FOG_START_FRACTION = 0.55f;
+    private static final long SHADER_CHECK_NANOS = 500_000_000L;
+    private static final int BLOCK_TEXTURE_UNIT = 0;
 
     private final Window window;
     private ShaderProgram chunkShader;
+    private ShaderProgram.Vec3Uniform chunkOffset;
+    private ShaderProgram.IntUniform blockTextureSampler;
+    private TextureArray blockTextures;
+    private ShaderProgram particleShader;
+    private ParticleRenderer particleRenderer;
+    private FrameUniforms frameUniforms;
+    private long lastShaderCheck;
     private Camera camera;
     private World world;
-    private Player player;
-    private float elapsedSinceBlockAction;
+    private Simulation simulation;
+    private RenderState renderState;
+    private long simulationStepNanos;
+    private final FrameStats frameStats = new FrameStats(Boolean.getBoolean("minecraftclone.frameStats"));
+    private ViewDistanceController viewDistance;
+    private EditJournal editJournal;
+    private Autosaver autosaver;
+    private InputTrace.Writer recording;
+    private InputTrace.Reader replay;
+    private Path replayReport;
+    private PerfReport.AllocationCounter replayAllocations;
+    private long[] replayFrameNanos;
+    private int replayFrames;
 
     public Engine(String title, int width, int height) {
         this.window = new Window(title, width, height);
@@ -40,6 +82,9 @@ public final class Engine {
     }
 
     private void init() {
+        // Decoded while the window opens and the spawn chunks generate; only the upload needs the GL thread.
+        TextureLayers textureLayers = TextureLayers.defaults();
+        CompletableFuture<List<ByteBuffer>> blockImages = CompletableFuture.supplyAsync(textureLayers::loadImages);
         window.init();
         window.setCursorCaptured(true);
 
@@ -50,46 +95,139 @@ public final class Engine {
 
         camera = new Camera(FIELD_OF_VIEW, window.getAspectRatio(), Z_NEAR, Z_FAR);
         world = new World();
-        player = new Player(new Vector3f(0.5f, 45.0f, 0.5f));
-        
-        // Initialize camera at player position
-        camera.setPosition(player.getEyePosition());
-        camera.setRotation(0.0f, 0.0f);
+        String recordPath = System.getProperty("minecraftclone.record");
+        String replayPath = System.getProperty("minecraftclone.replay");
+        // A trace only reproduces from the seed world: recording and replay skip the save and the journal.
+        if (recordPath == null && replayPath == null) {
+            loadWorldSave();
+            openEditJournal();
+        }
+        world.ensureChunksAround(0, 0, World.DEFAULT_VIEW_DISTANCE_CHUNKS);
+        Player player = new Player(new Vector3f(0.5f, world.getSurfaceHeight(0, 0) + 1.0f, 0.5f));
+        viewDistance = new ViewDistanceController(world,
+                Double.parseDouble(System.getProperty("minecraftclone.targetFrameMs",
+                        Double.toString(ViewDistanceController.DEFAULT_TARGET_FRAME_MILLIS))),
+                !Boolean.getBoolean("minecraftclone.quietViewDistance"));
 
-        chunkShader = ShaderProgram.createChunkShader();
-        chunkShader.bind();
-        chunkShader.setUniform("projection", camera.getProjectionMatrix());
-        chunkShader.unbind();
+        // The simulation moves its own camera; this one only carries the projection for the GL thread.
+        Camera simulationCamera = new Camera(FIELD_OF_VIEW, window.getAspectRatio(), Z_NEAR, Z_FAR);
+        simulationCamera.setPosition(player.getEyePosition());
+        simulationCamera.setRotation(0.0f, 0.0f);
+        InputQueue inputs = new InputQueue();
+        simulation = new Simulation(world, player, simulationCamera, autosaver, inputs);
+        if (replayPath != null) {
+            openReplay(Path.of(replayPath));
+        } else {
+            window.forwardInput(inputs);
+            if (recordPath != null) {
+                openRecording(Path.of(recordPath));
+            }
+        }
+
+        // Pointing this at src/main/resources/shaders makes edits there reload while the game runs.
+        String shaderDirectory = System.getProperty("minecraftclone.shaderDir");
+        chunkShader = shaderDirectory == null ? ShaderProgram.createChunkShader()
+                : ShaderProgram.load("chunk", Path.of(shaderDirectory));
+        chunkShader.bindUniformBlock(FrameUniforms.BLOCK_NAME, FrameUniforms.BINDING);
+        chunkOffset = chunkShader.vec3Uniform("chunkOffset");
+        blockTextureSampler = chunkShader.intUniform("blockTextures");
+        blockTextures = new TextureArray(TextureLayers.TILE_SIZE, blockImages.join());
+        particleShader = ShaderProgram.load("particle", shaderDirectory == null ? null : Path.of(shaderDirectory));
+        particleShader.bindUniformBlock(FrameUniforms.BLOCK_NAME, FrameUniforms.BINDING);
+        particleRenderer = new ParticleRenderer(simulation.particles().capacity());
+        frameUniforms = new FrameUniforms();
+        frameUniforms.setProjection(camera.getProjectionMatrix());
+
+        // The first step runs here so the first frame already has the spawn chunks' meshes to upload.
+        simulation.step(0.0f);
+        simulation.start(Simulation.DEFAULT_STEP_NANOS);
+        if (replay != null) {
+            replayAllocations = new PerfReport.AllocationCounter();
+        }
+    }
+
+    private void openRecording(Path path) {
+        try {
+            recording = InputTrace.create(path, new InputTrace.Header(world.getGenerator().seed(),
+                    Simulation.DEFAULT_STEP_NANOS, world.getViewDistance()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create input trace " + path, e);
+        }
+        simulation.setRecorder(recording);
+        System.out.printf("[trace] recording input to %s%n", path);
+    }
+
+    private void openReplay(Path path) {
+        try {
+            replay = InputTrace.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open input trace " + path, e);
+        }
+        InputTrace.Header header = replay.header();
+        if (header.seed() != world.getGenerator().seed() || header.stepNanos() != Simulation.DEFAULT_STEP_NANOS) {
+            throw new IllegalStateException("Input trace " + path + " was recorded with seed " + header.seed()
+                    + " and a " + header.stepNanos() + " ns step; this build uses seed " + world.getGenerator().seed()
+                    + " and " + Simulation.DEFAULT_STEP_NANOS + " ns");
+        }
+        world.setViewDistance(header.viewDistance());
+        simulation.setReplay(replay);
+        replayReport = Path.of(System.getProperty("minecraftclone.replayReport", path + ".report"));
+        replayFrameNanos = new long[4096];
+        System.out.printf("[trace] replaying %s; live input is ignored%n", path);
     }
 
     private void loop() {
-        long lastTime = System.nanoTime();
         while (!window.shouldClose()) {
+            simulation.checkFailure();
             window.beginFrame();
 
             long now = System.nanoTime();
-            float deltaTime = (now - lastTime) / 1_000_000_000.0f;
-            lastTime = now;
 
             if (window.wasResized()) {
                 window.applyResize();
                 camera.setAspectRatio(window.getAspectRatio());
-                chunkShader.bind();
-                chunkShader.setUniform("projection", camera.getProjectionMatrix());
-                chunkShader.unbind();
+                frameUniforms.setProjection(camera.getProjectionMatrix());
+            }
+            if (now - lastShaderCheck >= SHADER_CHECK_NANOS) {
+                lastShaderCheck = now;
+                chunkShader.reloadIfChanged();
+                particleShader.reloadIfChanged();
             }
 
             window.pollEvents();
 
             handleGlobalInputs();
 
-            player.update(window, world, deltaTime, camera);
-            world.update(player.getPosition());
-
-            handleBlockInteractions(deltaTime);
+            RenderState next = simulation.takeLatest();
+            if (next != null) {
+                next.meshes().apply();
+                renderState = next;
+                simulationStepNanos = next.averageStepNanos();
+                frameStats.add(FrameStats.Counter.SIMULATION_NANOS, next.simulationNanos());
+                frameStats.add(FrameStats.Counter.CHUNK_LOADS, next.chunkLoads());
+                frameStats.add(FrameStats.Counter.REMESHES, next.remeshes());
+                frameStats.add(FrameStats.Counter.AUTOSAVE_SNAPSHOT_NANOS, next.autosaveSnapshotNanos());
+            }
 
             render();
+            long workNanos = System.nanoTime() - now;
             window.swapBuffers();
+            long frameNanos = System.nanoTime() - now;
+            frameStats.add(FrameStats.Counter.GL_CALLS, GlCalls.drain());
+            frameStats.endFrame(frameNanos);
+            if (replay != null) {
+                if (replayFrames == replayFrameNanos.length) {
+                    replayFrameNanos = Arrays.copyOf(replayFrameNanos, replayFrames * 2);
+                }
+                replayFrameNanos[replayFrames++] = frameNanos;
+                if (simulation.isReplayFinished()) {
+                    window.requestClose();
+                }
+            } else if (recording == null) {
+                // Either thread running over budget is a reason to shrink the view. Traces keep it fixed.
+                viewDistance.onFrame(frameNanos, Math.max(workNanos, simulationStepNanos),
+                        renderState.pendingChunkWork(), System.nanoTime());
+            }
         }
     }
 
@@ -105,58 +243,165 @@ public final class Engine {
         if (!window.isCursorCaptured() && window.getInput().isMousePressed(GLFW.GLFW_MOUSE_BUTTON_1)) {
             window.setCursorCaptured(true);
         }
+        if (input.isKeyPressed(GLFW.GLFW_KEY_GRAVE_ACCENT)) {
+            window.requestClose();
+        }
+        if (input.isKeyPressed(GLFW.GLFW_KEY_F5) && chunkShader.isReloadable()) {
+            chunkShader.reload();
+            particleShader.reload();
+        }
     }
 
-    private void handleBlockInteractions(float deltaTime) {
-        elapsedSinceBlockAction += deltaTime;
-        if (elapsedSinceBlockAction < BLOCK_ACTION_COOLDOWN) {
-            return;
-        }
+    private void render() {
+        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
 
-        Window.Input input = window.getInput();
-        if (!window.isCursorCaptured()) {
-            return;
-        }
+        RenderState state = renderState;
+        float renderDistance = state.renderDistance();
+        frameUniforms.setView(state.view());
+        frameUniforms.setCameraPosition(state.cameraPosition());
+        frameUniforms.setFog(renderDistance * FOG_START_FRACTION, renderDistance);
+        frameUniforms.upload();
+        chunkShader.bind();
+        // The only texture bind of the frame: every chunk, opaque and translucent, samples the same array.
+        blockTextures.bind(BLOCK_TEXTURE_UNIT);
+        blockTextureSampler.set(BLOCK_TEXTURE_UNIT);
+        world.render(state.visibleChunks(), chunkOffset);
 
-        Vector3f eyePos = player.getEyePosition();
-        Vector3f viewDir = player.getViewDirection();
-        RayCastResult hit = Raycaster.raycast(world, eyePos, viewDir, 5.0f);
+        // Opaque like the terrain, and drawn before the translucent pass so water in front still covers them.
+        ParticleSystem.Frame particles = simulation.particles().acquireFrame();
+        particleRenderer.render(particleShader, particles.data(), particles.count());
+        frameStats.add(FrameStats.Counter.PARTICLES, particles.count());
+        chunkShader.bind();
+
+        glEnable(GL_BLEND);
+        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+        glDepthMask(false);
+        glDisable(GL_CULL_FACE);
+        world.renderTranslucent(state.visibleChunks(), chunkOffset, state.cameraPosition());
+        glEnable(GL_CULL_FACE);
+        glDepthMask(true);
+        glDisable(GL_BLEND);
+        Mesh.unbind();
+        chunkShader.unbind();
 
-        if (!hit.isHit()) {
-            return;
+        frameStats.add(FrameStats.Counter.TRANSLUCENT_SORTS, world.getLastTranslucentSorts());
+        frameStats.add(FrameStats.Counter.TRANSLUCENT_SORT_NANOS, world.getLastTranslucentSortNanos());
+    }
+
+    private void finishTrace() {
+        if (recording != null) {
+            try {
+                recording.finish(simulation.playerPosition());
+                System.out.printf("[trace] recorded %d steps%n", recording.steps());
+            } catch (IOException e) {
+                System.err.println("Failed to finish input trace: " + e.getMessage());
+            }
         }
+        if (replay != null) {
+            PerfReport report = PerfReport.of(replay.steps(), Simulation.DEFAULT_STEP_NANOS / 1.0e9f, replayFrameNanos,
+                    replayFrames, world.getChunkLoader().totalLoaded(), world.getChunkLoader().totalLoadNanos(),
+                    replayAllocations == null ? 0L : replayAllocations.allocatedBytes());
+            Vector3f expected = replay.finalPosition();
+            Vector3f actual = simulation.playerPosition();
+            System.out.printf("[trace] replayed %d steps in %d frames: p99 frame %.2f ms, chunk gen %.2f ms/chunk, %.1f MB/s allocated; %s%n",
+                    report.steps(), report.frames(), report.frameP99Millis(), report.chunkGenMillisPerChunk(),
+                    report.allocatedMegabytesPerSecond(), !simulation.isReplayFinished() ? "closed before the trace ended"
+                            : expected == null ? "recording has no end position"
+                            : expected.equals(actual) ? "ended where the recording did"
+                            : "DIVERGED: ended at " + actual + ", recording ended at " + expected);
+            try {
+                report.write(replayReport);
+                replay.close();
+            } catch (IOException e) {
+                System.err.println("Failed to write replay report: " + e.getMessage());
+            }
+        }
+    }
 
-        if (input.isMousePressed(GLFW.GLFW_MOUSE_BUTTON_1)) {
-            world.setBlock(hit.blockX(), hit.blockY(), hit.blockZ(), BlockType.AIR);
-            elapsedSinceBlockAction = 0.0f;
-        } else if (input.isMousePressed(GLFW.GLFW_MOUSE_BUTTON_2)) {
-            int targetX = hit.adjacentX();
-            int targetY = hit.adjacentY();
-            int targetZ = hit.adjacentZ();
-            if (!player.intersectsBlock(targetX, targetY, targetZ)) {
-                world.setBlock(targetX, targetY, targetZ, BlockType.STONE);
-                elapsedSinceBlockAction = 0.0f;
+    private void loadWorldSave() {
+        Path path = Path.of(System.getProperty("minecraftclone.save", "world.save"));
+        if (Files.exists(path)) {
+            try {
+                System.out.printf("[save] %s: loaded %d chunks%n", path, world.loadSave(path));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load world save " + path, e);
             }
         }
+        autosaver = new Autosaver(world, path);
+        autosaver.setIntervalSeconds(Float.parseFloat(System.getProperty("minecraftclone.autosaveSeconds",
+                Float.toString(Autosaver.DEFAULT_INTERVAL_SECONDS))));
     }
 
-    private void render() {
-        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+    private void openEditJournal() {
+        Path path = Path.of(System.getProperty("minecraftclone.journal", "world.journal"));
+        EditJournal.SyncPolicy policy = EditJournal.SyncPolicy.valueOf(
+                System.getProperty("minecraftclone.journalSync", EditJournal.SyncPolicy.GROUP.name()));
+        try {
+            editJournal = EditJournal.open(path, policy);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open edit journal " + path, e);
+        }
+        // Saved chunks come back from the save and the rest from the seed; the journal restores edits made since.
+        EditJournal.ReplayResult replayed = editJournal.replay(world);
+        world.setEditJournal(editJournal);
+        System.out.printf("[journal] %s: replayed %d edits (%d conflicts, %d torn bytes dropped), sync %s%n",
+                path, replayed.records(), replayed.conflicts(), replayed.truncatedBytes(), policy);
+    }
 
-        chunkShader.bind();
-        chunkShader.setUniform("view", camera.getViewMatrix());
-        chunkShader.setUniform("cameraPosition", camera.getPosition());
-        world.render(chunkShader, camera.getPosition());
-        chunkShader.unbind();
+    private void closeEditJournal() {
+        world.setEditJournal(null);
+        try {
+            editJournal.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close edit journal: " + e.getMessage());
+        }
     }
 
     private void cleanup() {
+        if (simulation != null) {
+            simulation.stop();
+            // GL work the render thread never picked up; the simulation is stopped, so nothing new can arrive.
+            RenderState unconsumed = simulation.takeLatest();
+            if (unconsumed != null) {
+                unconsumed.meshes().apply();
+            }
+            world.setMeshQueue(null);
+            finishTrace();
+        }
         if (chunkShader != null) {
             chunkShader.cleanup();
         }
+        if (blockTextures != null) {
+            blockTextures.cleanup();
+        }
+        if (particleRenderer != null) {
+            particleRenderer.cleanup();
+        }
+        if (particleShader != null) {
+            particleShader.cleanup();
+        }
+        if (frameUniforms != null) {
+            frameUniforms.cleanup();
+        }
+        if (autosaver != null) {
+            try {
+                // Saves with the journal still attached, so the journal is compacted against this final save.
+                autosaver.close();
+            } catch (RuntimeException e) {
+                System.err.println("Final save failed: " + e.getMessage());
+            }
+        }
+        if (editJournal != null) {
+            closeEditJournal();
+        }
         if (world != null) {
             world.cleanup();
         }
+        int leakedBuffers = BufferPool.shared().reportLeaks();
+        if (leakedBuffers > 0) {
+            System.err.println(leakedBuffers + " pooled mesh buffers were never released");
+        }
+        BufferPool.shared().trim();
         window.cleanup();
     }
 }
@@ -0,0 +1,87 @@
+package com.minecraftclone.engine;
+
+import java.util.Arrays;
+
+public final class FrameStats {
+    private static final long REPORT_INTERVAL_NANOS = 1_000_000_000L;
+
+    public enum Counter {
+        SIMULATION_NANOS("simulation", true),
+        TRANSLUCENT_SORTS("translucent sorts", false),
+        TRANSLUCENT_SORT_NANOS("translucent sort", true),
+        CHUNK_LOADS("chunk loads", false),
+        REMESHES("remeshes", false),
+        AUTOSAVE_SNAPSHOT_NANOS("autosave snapshot", true),
+        PARTICLES("particles", false),
+        GL_CALLS("GL calls", false);
+
+        private final String label;
+        private final boolean nanos;
+
+        Counter(String label, boolean nanos) {
+            this.label = label;
+            this.nanos = nanos;
+        }
+    }
+
+    private final boolean logging;
+    private final long[] frameCounters;
+    private final long[] windowCounters;
+    private long windowStart;
+    private int windowFrames;
+    private long windowFrameNanos;
+    private long windowMaxFrameNanos;
+
+    public FrameStats(boolean logging) {
+        this.logging = logging;
+        this.frameCounters = new long[Counter.values().length];
+        this.windowCounters = new long[Counter.values().length];
+        this.windowStart = System.nanoTime();
+    }
+
+    public void add(Counter counter, long amount) {
+        frameCounters[counter.ordinal()] += amount;
+    }
+
+    public long get(Counter counter) {
+        return frameCounters[counter.ordinal()];
+    }
+
+    public void endFrame(long frameNanos) {
+        windowFrames++;
+        windowFrameNanos += frameNanos;
+        windowMaxFrameNanos = Math.max(windowMaxFrameNanos, frameNanos);
+        for (int i = 0; i < frameCounters.length; i++) {
+            windowCounters[i] += frameCounters[i];
+            frameCounters[i] = 0L;
+        }
+
+        long now = System.nanoTime();
+        if (now - windowStart >= REPORT_INTERVAL_NANOS) {
+            if (logging) {
+                report();
+            }
+            windowStart = now;
+            windowFrames = 0;
+            windowFrameNanos = 0L;
+            windowMaxFrameNanos = 0L;
+            Arrays.fill(windowCounters, 0L);
+        }
+    }
+
+    private void report() {
+        double frames = Math.max(1, windowFrames);
+        StringBuilder line = new StringBuilder();
+        line.append(String.format("[frame] %d fps, avg %.2f ms, max %.2f ms",
+                windowFrames, windowFrameNanos / frames / 1_000_000.0, windowMaxFrameNanos / 1_000_000.0));
+        for (Counter counter : Counter.values()) {
+            double perFrame = windowCounters[counter.ordinal()] / frames;
+            if (counter.nanos) {
+                line.append(String.format(" | %s %.3f ms/frame", counter.label, perFrame / 1_000_000.0));
+            } else {
+                line.append(String.format(" | %s %.2f/frame", counter.label, perFrame));
+            }
+        }
+        System.out.println(line);
+    }
+}
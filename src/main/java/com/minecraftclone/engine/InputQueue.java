@@ -0,0 +1,55 @@
+package com.minecraftclone.engine;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// GLFW callbacks post from the main thread; the simulation drains everything that arrived since its last step.
+public final class InputQueue {
+    static final int KEY = 0;
+    static final int MOUSE_BUTTON = 1;
+    static final int MOUSE_MOVE = 2;
+    static final int CURSOR_CAPTURE = 3;
+
+    private final ConcurrentLinkedQueue<Event> events = new ConcurrentLinkedQueue<>();
+
+    public void postKey(int key, int action) {
+        events.offer(new Event(KEY, key, action, 0.0f, 0.0f));
+    }
+
+    public void postMouseButton(int button, int action) {
+        events.offer(new Event(MOUSE_BUTTON, button, action, 0.0f, 0.0f));
+    }
+
+    public void postMouseMove(float deltaX, float deltaY) {
+        events.offer(new Event(MOUSE_MOVE, 0, 0, deltaX, deltaY));
+    }
+
+    public void postCursorCaptured(boolean captured) {
+        events.offer(new Event(CURSOR_CAPTURE, captured ? 1 : 0, 0, 0.0f, 0.0f));
+    }
+
+    int drainInto(Window.Input input, InputTrace.Writer recorder) {
+        int drained = 0;
+        Event event;
+        while ((event = events.poll()) != null) {
+            apply(input, event.kind, event.code, event.action, event.deltaX, event.deltaY);
+            if (recorder != null) {
+                recorder.event(event.kind, event.code, event.action, event.deltaX, event.deltaY);
+            }
+            drained++;
+        }
+        return drained;
+    }
+
+    static void apply(Window.Input input, int kind, int code, int action, float deltaX, float deltaY) {
+        switch (kind) {
+            case KEY -> input.onKey(code, action);
+            case MOUSE_BUTTON -> input.onMouseButton(code, action);
+            case MOUSE_MOVE -> input.onMouseMoved(deltaX, deltaY);
+            case CURSOR_CAPTURE -> input.onCursorCaptured(code != 0);
+            default -> throw new IllegalStateException("Unknown input event " + kind);
+        }
+    }
+
+    private record Event(int kind, int code, int action, float deltaX, float deltaY) {
+    }
+}
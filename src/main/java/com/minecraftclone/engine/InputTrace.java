@@ -0,0 +1,188 @@
+package com.minecraftclone.engine;
+
+import org.joml.Vector3f;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Input as the simulation consumed it, one STEP record per fixed step; replaying it reproduces the session exactly.
+public final class InputTrace {
+    private static final int MAGIC = 0x4D434954;
+    private static final int VERSION = 1;
+    private static final int STEP = 4;
+    private static final int END = 5;
+
+    private InputTrace() {
+    }
+
+    public record Header(long seed, long stepNanos, int viewDistance) {
+    }
+
+    public static Writer create(Path file, Header header) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(header.seed());
+        out.writeLong(header.stepNanos());
+        out.writeShort(header.viewDistance());
+        return new Writer(out);
+    }
+
+    public static Reader open(Path file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not an input trace");
+            }
+            int version = in.readUnsignedShort();
+            if (version != VERSION) {
+                throw new IOException(file + ": unsupported trace version " + version);
+            }
+            return new Reader(in, new Header(in.readLong(), in.readLong(), in.readUnsignedShort()));
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    public static final class Writer implements AutoCloseable {
+        private final DataOutputStream out;
+        private float pendingDeltaX;
+        private float pendingDeltaY;
+        private boolean pendingMove;
+        private long steps;
+
+        private Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        // Mouse moves within a step are summed: Window.Input only ever sees their total.
+        void event(int kind, int code, int action, float deltaX, float deltaY) {
+            if (kind == InputQueue.MOUSE_MOVE) {
+                pendingDeltaX += deltaX;
+                pendingDeltaY += deltaY;
+                pendingMove = true;
+                return;
+            }
+            try {
+                out.writeByte(kind);
+                if (kind == InputQueue.CURSOR_CAPTURE) {
+                    out.writeByte(code);
+                } else {
+                    out.writeShort(code);
+                    out.writeByte(action);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void endStep(float deltaTime) {
+            try {
+                if (pendingMove) {
+                    out.writeByte(InputQueue.MOUSE_MOVE);
+                    out.writeFloat(pendingDeltaX);
+                    out.writeFloat(pendingDeltaY);
+                    pendingDeltaX = 0.0f;
+                    pendingDeltaY = 0.0f;
+                    pendingMove = false;
+                }
+                out.writeByte(STEP);
+                out.writeFloat(deltaTime);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            steps++;
+        }
+
+        public long steps() {
+            return steps;
+        }
+
+        // The final position lets a replay check that it ended where the recording did.
+        public void finish(Vector3f finalPosition) throws IOException {
+            out.writeByte(END);
+            out.writeFloat(finalPosition.x);
+            out.writeFloat(finalPosition.y);
+            out.writeFloat(finalPosition.z);
+            close();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    public static final class Reader implements AutoCloseable {
+        private final DataInputStream in;
+        private final Header header;
+        private Vector3f finalPosition;
+        private boolean ended;
+        private long steps;
+
+        private Reader(DataInputStream in, Header header) {
+            this.in = in;
+            this.header = header;
+        }
+
+        public Header header() {
+            return header;
+        }
+
+        // Applies one step's events and returns its delta time, or NaN once the trace is exhausted.
+        float nextStep(Window.Input input) {
+            if (ended) {
+                return Float.NaN;
+            }
+            try {
+                while (true) {
+                    int kind = in.readUnsignedByte();
+                    switch (kind) {
+                        case STEP -> {
+                            steps++;
+                            return in.readFloat();
+                        }
+                        case END -> {
+                            finalPosition = new Vector3f(in.readFloat(), in.readFloat(), in.readFloat());
+                            ended = true;
+                            return Float.NaN;
+                        }
+                        case InputQueue.MOUSE_MOVE -> InputQueue.apply(input, kind, 0, 0, in.readFloat(), in.readFloat());
+                        case InputQueue.CURSOR_CAPTURE -> InputQueue.apply(input, kind, in.readUnsignedByte(), 0, 0.0f, 0.0f);
+                        case InputQueue.KEY, InputQueue.MOUSE_BUTTON ->
+                                InputQueue.apply(input, kind, in.readShort(), in.readUnsignedByte(), 0.0f, 0.0f);
+                        default -> throw new IOException("Corrupt input trace: record type " + kind);
+                    }
+                }
+            } catch (EOFException e) {
+                // A recording cut short by a crash still replays up to its last whole step.
+                ended = true;
+                return Float.NaN;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public long steps() {
+            return steps;
+        }
+
+        // Null when the recording did not end cleanly.
+        public Vector3f finalPosition() {
+            return finalPosition;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.minecraftclone.engine;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+// What a replayed trace cost; stored as a properties file so a baseline can be checked in and diffed.
+public record PerfReport(long steps, long frames, double frameP50Millis, double frameP99Millis, long chunksLoaded,
+                         double chunkGenMillisPerChunk, double allocatedMegabytesPerSecond) {
+
+    // Allocation is per simulated second, which a fixed timestep makes the same for every replay of a trace.
+    public static PerfReport of(long steps, float stepSeconds, long[] frameNanos, int frameCount, long chunksLoaded,
+                                long chunkLoadNanos, long allocatedBytes) {
+        long[] sorted = Arrays.copyOf(frameNanos, frameCount);
+        Arrays.sort(sorted);
+        double simulatedSeconds = Math.max(stepSeconds, steps * stepSeconds);
+        return new PerfReport(steps, frameCount, percentileMillis(sorted, 50), percentileMillis(sorted, 99), chunksLoaded,
+                chunksLoaded == 0 ? 0.0 : chunkLoadNanos / 1.0e6 / chunksLoaded,
+                allocatedBytes / (1024.0 * 1024.0) / simulatedSeconds);
+    }
+
+    private static double percentileMillis(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)] / 1.0e6;
+    }
+
+    public void write(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("steps", Long.toString(steps));
+        properties.setProperty("frames", Long.toString(frames));
+        properties.setProperty("frameP50Millis", format(frameP50Millis));
+        properties.setProperty("frameP99Millis", format(frameP99Millis));
+        properties.setProperty("chunksLoaded", Long.toString(chunksLoaded));
+        properties.setProperty("chunkGenMillisPerChunk", format(chunkGenMillisPerChunk));
+        properties.setProperty("allocatedMegabytesPerSecond", format(allocatedMegabytesPerSecond));
+        try (Writer out = Files.newBufferedWriter(file)) {
+            properties.store(out, "replay performance report");
+        }
+    }
+
+    public static PerfReport read(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(file)) {
+            properties.load(in);
+        }
+        try {
+            return new PerfReport(Long.parseLong(required(properties, "steps", file)),
+                    Long.parseLong(required(properties, "frames", file)),
+                    Double.parseDouble(required(properties, "frameP50Millis", file)),
+                    Double.parseDouble(required(properties, "frameP99Millis", file)),
+                    Long.parseLong(required(properties, "chunksLoaded", file)),
+                    Double.parseDouble(required(properties, "chunkGenMillisPerChunk", file)),
+                    Double.parseDouble(required(properties, "allocatedMegabytesPerSecond", file)));
+        } catch (NumberFormatException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String required(Properties properties, String key, Path file) throws IOException {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IOException(file + " has no " + key);
+        }
+        return value;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    // Sums allocation over every live thread, generation workers included; a thread that exits mid-run is not counted.
+    public static final class AllocationCounter {
+        private final com.sun.management.ThreadMXBean threads;
+        private final Map<Long, Long> start;
+
+        public AllocationCounter() {
+            this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            this.start = sample();
+        }
+
+        public long allocatedBytes() {
+            long total = 0L;
+            for (Map.Entry<Long, Long> thread : sample().entrySet()) {
+                total += thread.getValue() - start.getOrDefault(thread.getKey(), 0L);
+            }
+            return total;
+        }
+
+        private Map<Long, Long> sample() {
+            long[] ids = threads.getAllThreadIds();
+            long[] bytes = threads.getThreadAllocatedBytes(ids);
+            Map<Long, Long> sample = new HashMap<>();
+            for (int i = 0; i < ids.length; i++) {
+                if (bytes[i] >= 0L) {
+                    sample.put(ids[i], bytes[i]);
+                }
+            }
+            return sample;
+        }
+    }
+}
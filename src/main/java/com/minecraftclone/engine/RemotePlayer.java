@@ -0,0 +1,79 @@
+package com.minecraftclone.engine;
+
+import com.minecraftclone.graphics.Camera;
+import com.minecraftclone.player.Player;
+import com.minecraftclone.world.World;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_LAST;
+import static org.lwjgl.glfw.GLFW.GLFW_MOUSE_BUTTON_LAST;
+import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
+
+// A player simulated on a server for a client elsewhere: the client posts the events GLFW gave it and every step drains
+// them into Window.Input exactly as Simulation does, so both sides move the player the same way.
+public final class RemotePlayer {
+    private final Player player;
+    private final Camera camera;
+    private final InputQueue inputs;
+    private final Window.Input input;
+
+    public RemotePlayer(Player player) {
+        this.player = player;
+        // Player.update keeps a camera in sync; nothing here ever renders through it.
+        this.camera = new Camera((float) Math.toRadians(70.0f), 16.0f / 9.0f, 0.1f, 500.0f);
+        this.inputs = new InputQueue();
+        this.input = new Window.Input();
+    }
+
+    public Player player() {
+        return player;
+    }
+
+    public InputQueue inputs() {
+        return inputs;
+    }
+
+    public void step(World world, float deltaTime) {
+        input.resetPerFrameStates();
+        inputs.drainInto(input, null);
+        player.update(input, world, deltaTime, camera);
+    }
+
+    // The player and what is held down. Press and release edges are not carried: step() clears them before it runs.
+    public void write(DataOutput out) throws IOException {
+        player.writeState(out);
+        out.writeBoolean(input.isCursorCaptured());
+        writeHeld(out, GLFW_KEY_LAST, false);
+        writeHeld(out, GLFW_MOUSE_BUTTON_LAST, true);
+    }
+
+    public static RemotePlayer read(DataInput in) throws IOException {
+        RemotePlayer remote = new RemotePlayer(Player.readState(in));
+        remote.input.onCursorCaptured(in.readBoolean());
+        for (int keys = in.readUnsignedShort(); keys > 0; keys--) {
+            remote.input.onKey(in.readUnsignedShort(), GLFW_PRESS);
+        }
+        for (int buttons = in.readUnsignedShort(); buttons > 0; buttons--) {
+            remote.input.onMouseButton(in.readUnsignedShort(), GLFW_PRESS);
+        }
+        return remote;
+    }
+
+    private void writeHeld(DataOutput out, int last, boolean buttons) throws IOException {
+        int held = 0;
+        for (int code = 0; code <= last; code++) {
+            if (buttons ? input.isMouseDown(code) : input.isKeyDown(code)) {
+                held++;
+            }
+        }
+        out.writeShort(held);
+        for (int code = 0; code <= last; code++) {
+            if (buttons ? input.isMouseDown(code) : input.isKeyDown(code)) {
+                out.writeShort(code);
+            }
+        }
+    }
+}
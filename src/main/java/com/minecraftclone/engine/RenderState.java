@@ -0,0 +1,25 @@
+package com.minecraftclone.engine;
+
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.ChunkMeshQueue;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+import java.util.List;
+
+// Everything the GL thread needs for a frame, copied out by the simulation so neither side waits on the other.
+public record RenderState(Matrix4f view, Vector3f cameraPosition, float renderDistance, List<Chunk> visibleChunks,
+                          ChunkMeshQueue.Batch meshes, int steps, long simulationNanos, int chunkLoads, int remeshes,
+                          int pendingChunkWork, long autosaveSnapshotNanos) {
+
+    // Replaces a state the render thread never took: camera and chunk list are newer, GL work and counters accumulate.
+    RenderState after(RenderState older) {
+        return new RenderState(view, cameraPosition, renderDistance, visibleChunks, meshes.after(older.meshes),
+                steps + older.steps, simulationNanos + older.simulationNanos, chunkLoads + older.chunkLoads,
+                remeshes + older.remeshes, pendingChunkWork, autosaveSnapshotNanos + older.autosaveSnapshotNanos);
+    }
+
+    public long averageStepNanos() {
+        return steps == 0 ? 0L : simulationNanos / steps;
+    }
+}
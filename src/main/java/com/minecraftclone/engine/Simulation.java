@@ -0,0 +1,256 @@
+package com.minecraftclone.engine;
+
+import com.minecraftclone.graphics.Camera;
+import com.minecraftclone.player.Player;
+import com.minecraftclone.world.Autosaver;
+import com.minecraftclone.world.BlockType;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.ChunkMeshQueue;
+import com.minecraftclone.world.EditHistory;
+import com.minecraftclone.world.ParticleSystem;
+import com.minecraftclone.world.RayCastResult;
+import com.minecraftclone.world.Raycaster;
+import com.minecraftclone.world.World;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.glfw.GLFW;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Owns the player and the world's update side; the GL thread only ever sees the RenderStates published here.
+public final class Simulation {
+    public static final long DEFAULT_STEP_NANOS = 1_000_000_000L / 60L;
+    private static final int MAX_CATCH_UP_STEPS = 4;
+
+    private static final float BLOCK_ACTION_COOLDOWN = 0.18f;
+    private static final float TICK_INTERVAL = 1.0f / 20.0f;
+    private static final int MAX_TICKS_PER_STEP = 5;
+    private static final int BREAK_PARTICLES = 24;
+    private static final int PLACE_PARTICLES = 8;
+    private static final BlockType[] PLACEABLE_BLOCKS = {
+            BlockType.STONE, BlockType.DIRT, BlockType.SAND, BlockType.GLASS, BlockType.WATER
+    };
+
+    private final World world;
+    private final Player player;
+    private final Camera camera;
+    private final Autosaver autosaver;
+    private final InputQueue inputs;
+    private final Window.Input input;
+    private final ChunkMeshQueue meshQueue;
+    private final ParticleSystem particles;
+    private final EditHistory history;
+    private final AtomicReference<RenderState> latest;
+    private float elapsedSinceBlockAction;
+    private float tickAccumulator;
+    private BlockType selectedBlock = BlockType.STONE;
+    private int lastVisibleCount;
+    private InputTrace.Writer recorder;
+    private InputTrace.Reader replay;
+    private volatile boolean replayFinished;
+    private volatile boolean running;
+    private volatile Throwable failure;
+    private Thread thread;
+
+    public Simulation(World world, Player player, Camera camera, Autosaver autosaver, InputQueue inputs) {
+        this.world = world;
+        this.player = player;
+        this.camera = camera;
+        this.autosaver = autosaver;
+        this.inputs = inputs;
+        this.input = new Window.Input();
+        this.meshQueue = new ChunkMeshQueue();
+        // Seeded from the world, so a replayed trace spawns the same particles.
+        this.particles = new ParticleSystem(ParticleSystem.DEFAULT_CAPACITY, world.getGenerator().seed());
+        this.history = new EditHistory(world);
+        this.latest = new AtomicReference<>();
+        world.setMeshQueue(meshQueue);
+    }
+
+    // Set before start(); from then on the trace, not the input queue, decides what each step sees.
+    public void setReplay(InputTrace.Reader trace) {
+        replay = trace;
+    }
+
+    public void setRecorder(InputTrace.Writer trace) {
+        recorder = trace;
+    }
+
+    public boolean isReplayFinished() {
+        return replayFinished;
+    }
+
+    public Vector3f playerPosition() {
+        return player.getPosition();
+    }
+
+    public ParticleSystem particles() {
+        return particles;
+    }
+
+    public void step(float deltaTime) {
+        long start = System.nanoTime();
+        input.resetPerFrameStates();
+        if (replay != null) {
+            deltaTime = replay.nextStep(input);
+            if (Float.isNaN(deltaTime)) {
+                replayFinished = true;
+                return;
+            }
+        } else {
+            inputs.drainInto(input, recorder);
+            if (recorder != null) {
+                recorder.endStep(deltaTime);
+            }
+        }
+        for (int i = 0; i < PLACEABLE_BLOCKS.length; i++) {
+            if (input.isKeyPressed(GLFW.GLFW_KEY_1 + i)) {
+                selectedBlock = PLACEABLE_BLOCKS[i];
+            }
+        }
+
+        player.update(input, world, deltaTime, camera);
+        handleUndo();
+        handleBlockInteractions(deltaTime);
+        runBlockTicks(deltaTime);
+        particles.update(world, deltaTime);
+        particles.publish();
+        world.update(player.getPosition(), player.getVelocity(), player.getViewDirection(), player.isSprinting());
+        long autosaveNanos = autosaver != null && autosaver.update(System.nanoTime()) ? autosaver.lastSnapshotNanos() : 0L;
+
+        Vector3f cameraPosition = camera.getPosition();
+        List<Chunk> visible = world.collectVisibleChunks(cameraPosition, new ArrayList<>(lastVisibleCount + 16));
+        lastVisibleCount = visible.size();
+        int remeshes = world.getLastRemeshes();
+        publish(new RenderState(new Matrix4f(camera.getViewMatrix()), cameraPosition, world.getRenderDistance(), visible,
+                meshQueue.drain(), 1, System.nanoTime() - start, world.getChunkLoader().lastLoaded(), remeshes,
+                world.getChunkLoader().queuedRequests() + remeshes, autosaveNanos));
+    }
+
+    private void publish(RenderState state) {
+        while (true) {
+            RenderState previous = latest.get();
+            RenderState next = previous == null ? state : state.after(previous);
+            if (latest.compareAndSet(previous, next)) {
+                return;
+            }
+        }
+    }
+
+    // Null when nothing was published since the last call; the caller keeps drawing the state it already has.
+    public RenderState takeLatest() {
+        return latest.getAndSet(null);
+    }
+
+    public void start(long stepNanos) {
+        running = true;
+        thread = new Thread(() -> run(stepNanos), "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Fixed timestep: every step advances the same simulated time, so a recorded session replays identically.
+    private void run(long stepNanos) {
+        float stepSeconds = stepNanos / 1_000_000_000.0f;
+        long deadline = System.nanoTime();
+        try {
+            while (running && !replayFinished) {
+                step(stepSeconds);
+                deadline += stepNanos;
+                long wait;
+                while (running && (wait = deadline - System.nanoTime()) > 0L) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (System.nanoTime() - deadline > MAX_CATCH_UP_STEPS * stepNanos) {
+                    // Too far behind to catch up without a burst of steps; the game runs slow instead.
+                    deadline = System.nanoTime();
+                }
+            }
+        } catch (Throwable t) {
+            failure = t;
+        }
+    }
+
+    public void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    public void checkFailure() {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("Simulation thread failed", cause);
+        }
+    }
+
+    private void handleUndo() {
+        if (!input.isKeyDown(GLFW.GLFW_KEY_LEFT_CONTROL) && !input.isKeyDown(GLFW.GLFW_KEY_RIGHT_CONTROL)) {
+            return;
+        }
+        if (input.isKeyPressed(GLFW.GLFW_KEY_Z)) {
+            history.undo();
+        } else if (input.isKeyPressed(GLFW.GLFW_KEY_Y)) {
+            history.redo();
+        }
+    }
+
+    private void handleBlockInteractions(float deltaTime) {
+        elapsedSinceBlockAction += deltaTime;
+        if (elapsedSinceBlockAction < BLOCK_ACTION_COOLDOWN) {
+            return;
+        }
+
+        if (!input.isCursorCaptured()) {
+            return;
+        }
+
+        Vector3f eyePos = player.getEyePosition();
+        Vector3f viewDir = player.getViewDirection();
+        RayCastResult hit = Raycaster.raycast(world, eyePos, viewDir, 5.0f);
+
+        if (!hit.isHit()) {
+            return;
+        }
+
+        if (input.isMousePressed(GLFW.GLFW_MOUSE_BUTTON_1)) {
+            BlockType broken = world.getBlock(hit.blockX(), hit.blockY(), hit.blockZ());
+            history.setBlock(hit.blockX(), hit.blockY(), hit.blockZ(), BlockType.AIR);
+            particles.spawnBurst(hit.blockX(), hit.blockY(), hit.blockZ(), broken, BREAK_PARTICLES);
+            elapsedSinceBlockAction = 0.0f;
+        } else if (input.isMousePressed(GLFW.GLFW_MOUSE_BUTTON_2)) {
+            int targetX = hit.adjacentX();
+            int targetY = hit.adjacentY();
+            int targetZ = hit.adjacentZ();
+            if (!player.intersectsBlock(targetX, targetY, targetZ)) {
+                history.setBlock(targetX, targetY, targetZ, selectedBlock);
+                particles.spawnDust(targetX, targetY, targetZ, selectedBlock, PLACE_PARTICLES);
+                elapsedSinceBlockAction = 0.0f;
+            }
+        }
+    }
+
+    private void runBlockTicks(float deltaTime) {
+        tickAccumulator += deltaTime;
+        int ticks = 0;
+        while (tickAccumulator >= TICK_INTERVAL && ticks < MAX_TICKS_PER_STEP) {
+            world.tick();
+            tickAccumulator -= TICK_INTERVAL;
+            ticks++;
+        }
+        if (ticks == MAX_TICKS_PER_STEP) {
+            tickAccumulator = 0.0f;
+        }
+    }
+}
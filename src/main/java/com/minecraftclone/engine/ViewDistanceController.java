@@ -0,0 +1,77 @@
+package com.minecraftclone.engine;
+
+import com.minecraftclone.world.World;
+
+public final class ViewDistanceController {
+    public static final double DEFAULT_TARGET_FRAME_MILLIS = 1000.0 / 60.0;
+
+    private static final double SMOOTHING = 0.1;
+    private static final double SHRINK_RATIO = 1.1;
+    private static final double GROW_RATIO = 0.6;
+    private static final long EVALUATION_INTERVAL_NANOS = 500_000_000L;
+    private static final long SHRINK_COOLDOWN_NANOS = 1_000_000_000L;
+    private static final long GROW_COOLDOWN_NANOS = 3_000_000_000L;
+
+    private final World world;
+    private final double targetFrameNanos;
+    private final boolean logging;
+    private double averageFrameNanos;
+    private double averageWorkNanos;
+    private long lastEvaluation;
+    private long lastChange;
+    private int backlog;
+
+    public ViewDistanceController(World world, double targetFrameMillis, boolean logging) {
+        this.world = world;
+        this.targetFrameNanos = targetFrameMillis * 1_000_000.0;
+        this.logging = logging;
+        this.averageFrameNanos = targetFrameNanos;
+        this.averageWorkNanos = targetFrameNanos * GROW_RATIO;
+    }
+
+    public double averageFrameMillis() {
+        return averageFrameNanos / 1_000_000.0;
+    }
+
+    public double averageWorkMillis() {
+        return averageWorkNanos / 1_000_000.0;
+    }
+
+    public void onFrame(long frameNanos, long workNanos, int pendingChunkWork, long now) {
+        averageFrameNanos += (frameNanos - averageFrameNanos) * SMOOTHING;
+        averageWorkNanos += (workNanos - averageWorkNanos) * SMOOTHING;
+        backlog = pendingChunkWork;
+        if (lastEvaluation == 0L) {
+            lastEvaluation = now;
+            lastChange = now;
+            return;
+        }
+        if (now - lastEvaluation < EVALUATION_INTERVAL_NANOS) {
+            return;
+        }
+        lastEvaluation = now;
+
+        int current = world.getViewDistance();
+        // Frame time covers vsync waits; work time is what the view distance actually costs.
+        boolean overBudget = averageFrameNanos > targetFrameNanos * SHRINK_RATIO
+                || averageWorkNanos > targetFrameNanos;
+        boolean headroom = averageWorkNanos < targetFrameNanos * GROW_RATIO
+                && averageFrameNanos <= targetFrameNanos * SHRINK_RATIO
+                && backlog == 0;
+        if (overBudget && current > World.MIN_VIEW_DISTANCE_CHUNKS && now - lastChange >= SHRINK_COOLDOWN_NANOS) {
+            apply(current, current - 1, "shrink", now);
+        } else if (headroom && current < World.MAX_VIEW_DISTANCE_CHUNKS && now - lastChange >= GROW_COOLDOWN_NANOS) {
+            apply(current, current + 1, "grow", now);
+        }
+    }
+
+    private void apply(int from, int to, String decision, long now) {
+        world.setViewDistance(to);
+        lastChange = now;
+        if (logging) {
+            System.out.printf("[view] %s %d -> %d chunks: frame %.2f ms, work %.2f ms, target %.2f ms, backlog %d%n",
+                    decision, from, to, averageFrameMillis(), averageWorkMillis(),
+                    targetFrameNanos / 1_000_000.0, backlog);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.lwjgl.opengl.GL;
 
 import java.util.Arrays;
 
+import static com.minecraftclone.graphics.GlCalls.glViewport;
 import static org.lwjgl.glfw.GLFW.*;
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.system.MemoryUtil.NULL;
@@ -21,8 +22,7 @@ public final class Window {
     private long handle;
     private final Input input;
     private boolean cursorCaptured;
-    private float mouseDeltaX;
-    private float mouseDeltaY;
+    private InputQueue forward;
     private double lastMouseX;
     private double lastMouseY;
     private boolean resized;
@@ -69,12 +69,9 @@ public final class Window {
                 if (key < 0) {
                     return;
                 }
-                if (action == GLFW_PRESS) {
-                    input.keyStates[key] = true;
-                    input.keyPressed[key] = true;
-                } else if (action == GLFW_RELEASE) {
-                    input.keyStates[key] = false;
-                    input.keyReleased[key] = true;
+                input.onKey(key, action);
+                if (forward != null && action != GLFW_REPEAT) {
+                    forward.postKey(key, action);
                 }
             }
         };
@@ -86,12 +83,9 @@ public final class Window {
                 if (button < 0 || button >= input.mouseStates.length) {
                     return;
                 }
-                if (action == GLFW_PRESS) {
-                    input.mouseStates[button] = true;
-                    input.mousePressed[button] = true;
-                } else if (action == GLFW_RELEASE) {
-                    input.mouseStates[button] = false;
-                    input.mouseReleased[button] = true;
+                input.onMouseButton(button, action);
+                if (forward != null) {
+                    forward.postMouseButton(button, action);
                 }
             }
         };
@@ -105,8 +99,12 @@ public final class Window {
                         lastMouseX = xpos;
                         lastMouseY = ypos;
                     }
-                    mouseDeltaX += (float) (xpos - lastMouseX);
-                    mouseDeltaY += (float) (ypos - lastMouseY);
+                    float deltaX = (float) (xpos - lastMouseX);
+                    float deltaY = (float) (ypos - lastMouseY);
+                    input.onMouseMoved(deltaX, deltaY);
+                    if (forward != null) {
+                        forward.postMouseMove(deltaX, deltaY);
+                    }
                 }
                 lastMouseX = xpos;
                 lastMouseY = ypos;
@@ -122,8 +120,6 @@ public final class Window {
     }
 
     public void beginFrame() {
-        mouseDeltaX = 0.0f;
-        mouseDeltaY = 0.0f;
         input.resetPerFrameStates();
         resized = false;
     }
@@ -157,6 +153,14 @@ public final class Window {
         return input;
     }
 
+    // Events are still applied to this window's own input; the queue gets a copy for the simulation thread.
+    void forwardInput(InputQueue queue) {
+        forward = queue;
+        if (queue != null) {
+            queue.postCursorCaptured(cursorCaptured);
+        }
+    }
+
     public int getWidth() {
         return width;
     }
@@ -172,8 +176,10 @@ public final class Window {
     public void setCursorCaptured(boolean capture) {
         this.cursorCaptured = capture;
         glfwSetInputMode(handle, GLFW_CURSOR, capture ? GLFW_CURSOR_DISABLED : GLFW_CURSOR_NORMAL);
-        Arrays.fill(input.mousePressed, false);
-        Arrays.fill(input.mouseReleased, false);
+        input.onCursorCaptured(capture);
+        if (forward != null) {
+            forward.postCursorCaptured(capture);
+        }
         if (capture) {
             lastMouseX = Double.NaN;
             lastMouseY = Double.NaN;
@@ -181,15 +187,11 @@ public final class Window {
     }
 
     public float consumeMouseDeltaX() {
-        float dx = mouseDeltaX;
-        mouseDeltaX = 0.0f;
-        return dx;
+        return input.consumeMouseDeltaX();
     }
 
     public float consumeMouseDeltaY() {
-        float dy = mouseDeltaY;
-        mouseDeltaY = 0.0f;
-        return dy;
+        return input.consumeMouseDeltaY();
     }
 
     public boolean wasResized() {
@@ -221,14 +223,73 @@ public final class Window {
         private final boolean[] mousePressed = new boolean[MAX_BUTTONS];
         private final boolean[] mouseReleased = new boolean[MAX_BUTTONS];
 
-        private Input() {
+        private boolean cursorCaptured;
+        private float mouseDeltaX;
+        private float mouseDeltaY;
+
+        Input() {
         }
 
-        private void resetPerFrameStates() {
+        void resetPerFrameStates() {
             Arrays.fill(keyPressed, false);
             Arrays.fill(keyReleased, false);
             Arrays.fill(mousePressed, false);
             Arrays.fill(mouseReleased, false);
+            mouseDeltaX = 0.0f;
+            mouseDeltaY = 0.0f;
+        }
+
+        void onKey(int key, int action) {
+            if (key < 0 || key >= keyStates.length) {
+                return;
+            }
+            if (action == GLFW_PRESS) {
+                keyStates[key] = true;
+                keyPressed[key] = true;
+            } else if (action == GLFW_RELEASE) {
+                keyStates[key] = false;
+                keyReleased[key] = true;
+            }
+        }
+
+        void onMouseButton(int button, int action) {
+            if (button < 0 || button >= mouseStates.length) {
+                return;
+            }
+            if (action == GLFW_PRESS) {
+                mouseStates[button] = true;
+                mousePressed[button] = true;
+            } else if (action == GLFW_RELEASE) {
+                mouseStates[button] = false;
+                mouseReleased[button] = true;
+            }
+        }
+
+        void onMouseMoved(float deltaX, float deltaY) {
+            mouseDeltaX += deltaX;
+            mouseDeltaY += deltaY;
+        }
+
+        void onCursorCaptured(boolean captured) {
+            cursorCaptured = captured;
+            Arrays.fill(mousePressed, false);
+            Arrays.fill(mouseReleased, false);
+        }
+
+        public boolean isCursorCaptured() {
+            return cursorCaptured;
+        }
+
+        public float consumeMouseDeltaX() {
+            float dx = mouseDeltaX;
+            mouseDeltaX = 0.0f;
+            return dx;
+        }
+
+        public float consumeMouseDeltaY() {
+            float dy = mouseDeltaY;
+            mouseDeltaY = 0.0f;
+            return dy;
         }
 
         public boolean isKeyDown(int key) {
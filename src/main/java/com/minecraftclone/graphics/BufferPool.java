@@ -0,0 +1,123 @@
+package com.minecraftclone.graphics;
+
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+public final class BufferPool {
+    public static final int MIN_SIZE_CLASS = 12;
+    public static final int MAX_SIZE_CLASS = 24;
+    public static final int DEFAULT_BUFFERS_PER_CLASS = 16;
+
+    private static final BufferPool SHARED = new BufferPool(DEFAULT_BUFFERS_PER_CLASS,
+            Boolean.getBoolean("minecraftclone.debugBuffers"));
+
+    private final ArrayDeque<ByteBuffer>[] freeLists;
+    private final int buffersPerClass;
+    private final boolean leakDetection;
+    private final Map<ByteBuffer, Throwable> outstanding;
+    private int outstandingCount;
+    private long acquires;
+    private long misses;
+    private long pooledBytes;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public BufferPool(int buffersPerClass, boolean leakDetection) {
+        this.freeLists = new ArrayDeque[MAX_SIZE_CLASS - MIN_SIZE_CLASS + 1];
+        for (int i = 0; i < freeLists.length; i++) {
+            freeLists[i] = new ArrayDeque<>();
+        }
+        this.buffersPerClass = buffersPerClass;
+        this.leakDetection = leakDetection;
+        this.outstanding = new IdentityHashMap<>();
+    }
+
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    public synchronized ByteBuffer acquire(int minimumBytes) {
+        int sizeClass = sizeClass(minimumBytes);
+        acquires++;
+        ByteBuffer buffer = null;
+        if (sizeClass <= MAX_SIZE_CLASS) {
+            buffer = freeLists[sizeClass - MIN_SIZE_CLASS].pollFirst();
+        }
+        if (buffer == null) {
+            misses++;
+            int capacity = sizeClass <= MAX_SIZE_CLASS ? 1 << sizeClass : minimumBytes;
+            buffer = MemoryUtil.memAlloc(capacity).order(ByteOrder.nativeOrder());
+        } else {
+            pooledBytes -= buffer.capacity();
+        }
+        buffer.clear();
+        outstandingCount++;
+        if (leakDetection) {
+            outstanding.put(buffer, new Throwable("Buffer of " + buffer.capacity() + " bytes acquired here"));
+        }
+        return buffer;
+    }
+
+    public synchronized void release(ByteBuffer buffer) {
+        if (leakDetection && outstanding.remove(buffer) == null) {
+            throw new IllegalStateException("Buffer released twice or not acquired from this pool");
+        }
+        outstandingCount--;
+        int capacity = buffer.capacity();
+        int sizeClass = Integer.numberOfTrailingZeros(capacity);
+        boolean pooledSize = Integer.bitCount(capacity) == 1 && sizeClass >= MIN_SIZE_CLASS && sizeClass <= MAX_SIZE_CLASS;
+        ArrayDeque<ByteBuffer> freeList = pooledSize ? freeLists[sizeClass - MIN_SIZE_CLASS] : null;
+        if (freeList != null && freeList.size() < buffersPerClass) {
+            freeList.addFirst(buffer);
+            pooledBytes += capacity;
+        } else {
+            MemoryUtil.memFree(buffer);
+        }
+    }
+
+    public synchronized int outstandingBuffers() {
+        return outstandingCount;
+    }
+
+    public synchronized long acquires() {
+        return acquires;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long pooledBytes() {
+        return pooledBytes;
+    }
+
+    public synchronized int reportLeaks() {
+        if (!leakDetection) {
+            return outstandingCount;
+        }
+        for (Throwable origin : outstanding.values()) {
+            System.err.println("Leaked pooled buffer:");
+            origin.printStackTrace();
+        }
+        return outstanding.size();
+    }
+
+    public synchronized void trim() {
+        for (ArrayDeque<ByteBuffer> freeList : freeLists) {
+            ByteBuffer buffer;
+            while ((buffer = freeList.pollFirst()) != null) {
+                MemoryUtil.memFree(buffer);
+            }
+        }
+        pooledBytes = 0L;
+    }
+
+    private static int sizeClass(int bytes) {
+        int sizeClass = 32 - Integer.numberOfLeadingZeros(Math.max(bytes, 1) - 1);
+        return Math.max(sizeClass, MIN_SIZE_CLASS);
+    }
+}
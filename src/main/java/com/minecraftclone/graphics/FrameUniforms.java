@@ -0,0 +1,68 @@
+package com.minecraftclone.graphics;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+import static com.minecraftclone.graphics.GlCalls.glBindBuffer;
+import static com.minecraftclone.graphics.GlCalls.glBindBufferBase;
+import static com.minecraftclone.graphics.GlCalls.glBufferData;
+import static com.minecraftclone.graphics.GlCalls.glBufferSubData;
+import static com.minecraftclone.graphics.GlCalls.glDeleteBuffers;
+import static com.minecraftclone.graphics.GlCalls.glGenBuffers;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL31.GL_UNIFORM_BUFFER;
+
+// Per-frame shader inputs in one std140 block, shared by every program that declares FrameData.
+public final class FrameUniforms {
+    public static final String BLOCK_NAME = "FrameData";
+    public static final int BINDING = 0;
+
+    private static final int PROJECTION_OFFSET = 0;
+    private static final int VIEW_OFFSET = 64;
+    private static final int CAMERA_POSITION_OFFSET = 128;
+    private static final int FOG_START_OFFSET = 140;
+    private static final int FOG_END_OFFSET = 144;
+    private static final int SIZE_BYTES = 160;
+
+    private final int bufferId;
+    private final ByteBuffer data;
+
+    public FrameUniforms() {
+        this.data = MemoryUtil.memCalloc(SIZE_BYTES);
+        this.bufferId = glGenBuffers();
+        glBindBuffer(GL_UNIFORM_BUFFER, bufferId);
+        glBufferData(GL_UNIFORM_BUFFER, SIZE_BYTES, GL_DYNAMIC_DRAW);
+        // Also leaves the buffer on the generic GL_UNIFORM_BUFFER target, which nothing else binds, so upload needs no bind.
+        glBindBufferBase(GL_UNIFORM_BUFFER, BINDING, bufferId);
+    }
+
+    public void setProjection(Matrix4f projection) {
+        projection.get(PROJECTION_OFFSET, data);
+    }
+
+    public void setView(Matrix4f view) {
+        view.get(VIEW_OFFSET, data);
+    }
+
+    public void setCameraPosition(Vector3f position) {
+        data.putFloat(CAMERA_POSITION_OFFSET, position.x)
+                .putFloat(CAMERA_POSITION_OFFSET + 4, position.y)
+                .putFloat(CAMERA_POSITION_OFFSET + 8, position.z);
+    }
+
+    public void setFog(float start, float end) {
+        data.putFloat(FOG_START_OFFSET, start).putFloat(FOG_END_OFFSET, end);
+    }
+
+    public void upload() {
+        glBufferSubData(GL_UNIFORM_BUFFER, 0L, data);
+    }
+
+    public void cleanup() {
+        glDeleteBuffers(bufferId);
+        MemoryUtil.memFree(data);
+    }
+}
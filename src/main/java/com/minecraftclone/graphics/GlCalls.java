@@ -0,0 +1,308 @@
+package com.minecraftclone.graphics;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL33;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+// The GL functions the game uses, each counted as it is made. Callers import these statically in place of the LWJGL
+// ones, which a single-static import shadows, so a call site reads the same and cannot be left out of the count.
+public final class GlCalls {
+    // GL is only called from the thread that owns the context, so a plain counter is enough.
+    private static long calls;
+
+    private GlCalls() {
+    }
+
+    public static long drain() {
+        long drained = calls;
+        calls = 0L;
+        return drained;
+    }
+
+    public static void glEnable(int capability) {
+        calls++;
+        GL11.glEnable(capability);
+    }
+
+    public static void glDisable(int capability) {
+        calls++;
+        GL11.glDisable(capability);
+    }
+
+    public static void glCullFace(int mode) {
+        calls++;
+        GL11.glCullFace(mode);
+    }
+
+    public static void glClearColor(float red, float green, float blue, float alpha) {
+        calls++;
+        GL11.glClearColor(red, green, blue, alpha);
+    }
+
+    public static void glClear(int mask) {
+        calls++;
+        GL11.glClear(mask);
+    }
+
+    public static void glBlendFunc(int sourceFactor, int destinationFactor) {
+        calls++;
+        GL11.glBlendFunc(sourceFactor, destinationFactor);
+    }
+
+    public static void glDepthMask(boolean flag) {
+        calls++;
+        GL11.glDepthMask(flag);
+    }
+
+    public static void glViewport(int x, int y, int width, int height) {
+        calls++;
+        GL11.glViewport(x, y, width, height);
+    }
+
+    public static int glGenTextures() {
+        calls++;
+        return GL11.glGenTextures();
+    }
+
+    public static void glBindTexture(int target, int texture) {
+        calls++;
+        GL11.glBindTexture(target, texture);
+    }
+
+    public static void glPixelStorei(int name, int value) {
+        calls++;
+        GL11.glPixelStorei(name, value);
+    }
+
+    public static void glTexParameteri(int target, int name, int value) {
+        calls++;
+        GL11.glTexParameteri(target, name, value);
+    }
+
+    public static void glDeleteTextures(int texture) {
+        calls++;
+        GL11.glDeleteTextures(texture);
+    }
+
+    public static void glDrawArrays(int mode, int first, int count) {
+        calls++;
+        GL11.glDrawArrays(mode, first, count);
+    }
+
+    public static void glDrawElements(int mode, int count, int type, long indices) {
+        calls++;
+        GL11.glDrawElements(mode, count, type, indices);
+    }
+
+    public static void glTexImage3D(int target, int level, int internalFormat, int width, int height, int depth,
+                                    int border, int format, int type, ByteBuffer pixels) {
+        calls++;
+        GL12.glTexImage3D(target, level, internalFormat, width, height, depth, border, format, type, pixels);
+    }
+
+    public static void glTexSubImage3D(int target, int level, int xOffset, int yOffset, int zOffset, int width,
+                                       int height, int depth, int format, int type, ByteBuffer pixels) {
+        calls++;
+        GL12.glTexSubImage3D(target, level, xOffset, yOffset, zOffset, width, height, depth, format, type, pixels);
+    }
+
+    public static void glActiveTexture(int texture) {
+        calls++;
+        GL13.glActiveTexture(texture);
+    }
+
+    public static int glGenBuffers() {
+        calls++;
+        return GL15.glGenBuffers();
+    }
+
+    public static void glBindBuffer(int target, int buffer) {
+        calls++;
+        GL15.glBindBuffer(target, buffer);
+    }
+
+    public static void glBufferData(int target, long size, int usage) {
+        calls++;
+        GL15.glBufferData(target, size, usage);
+    }
+
+    public static void glBufferData(int target, ByteBuffer data, int usage) {
+        calls++;
+        GL15.glBufferData(target, data, usage);
+    }
+
+    public static void glBufferData(int target, IntBuffer data, int usage) {
+        calls++;
+        GL15.glBufferData(target, data, usage);
+    }
+
+    public static void glBufferData(int target, FloatBuffer data, int usage) {
+        calls++;
+        GL15.glBufferData(target, data, usage);
+    }
+
+    public static void glBufferSubData(int target, long offset, ByteBuffer data) {
+        calls++;
+        GL15.glBufferSubData(target, offset, data);
+    }
+
+    public static void glDeleteBuffers(int buffer) {
+        calls++;
+        GL15.glDeleteBuffers(buffer);
+    }
+
+    public static void glEnableVertexAttribArray(int index) {
+        calls++;
+        GL20.glEnableVertexAttribArray(index);
+    }
+
+    public static void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride,
+                                             long pointer) {
+        calls++;
+        GL20.glVertexAttribPointer(index, size, type, normalized, stride, pointer);
+    }
+
+    public static int glCreateShader(int type) {
+        calls++;
+        return GL20.glCreateShader(type);
+    }
+
+    public static void glShaderSource(int shader, CharSequence source) {
+        calls++;
+        GL20.glShaderSource(shader, source);
+    }
+
+    public static void glCompileShader(int shader) {
+        calls++;
+        GL20.glCompileShader(shader);
+    }
+
+    public static int glGetShaderi(int shader, int name) {
+        calls++;
+        return GL20.glGetShaderi(shader, name);
+    }
+
+    public static String glGetShaderInfoLog(int shader) {
+        calls++;
+        return GL20.glGetShaderInfoLog(shader);
+    }
+
+    public static void glDeleteShader(int shader) {
+        calls++;
+        GL20.glDeleteShader(shader);
+    }
+
+    public static int glCreateProgram() {
+        calls++;
+        return GL20.glCreateProgram();
+    }
+
+    public static void glAttachShader(int program, int shader) {
+        calls++;
+        GL20.glAttachShader(program, shader);
+    }
+
+    public static void glDetachShader(int program, int shader) {
+        calls++;
+        GL20.glDetachShader(program, shader);
+    }
+
+    public static void glLinkProgram(int program) {
+        calls++;
+        GL20.glLinkProgram(program);
+    }
+
+    public static int glGetProgrami(int program, int name) {
+        calls++;
+        return GL20.glGetProgrami(program, name);
+    }
+
+    public static String glGetProgramInfoLog(int program) {
+        calls++;
+        return GL20.glGetProgramInfoLog(program);
+    }
+
+    public static void glDeleteProgram(int program) {
+        calls++;
+        GL20.glDeleteProgram(program);
+    }
+
+    public static void glUseProgram(int program) {
+        calls++;
+        GL20.glUseProgram(program);
+    }
+
+    public static int glGetUniformLocation(int program, CharSequence name) {
+        calls++;
+        return GL20.glGetUniformLocation(program, name);
+    }
+
+    public static void glUniform1i(int location, int value) {
+        calls++;
+        GL20.glUniform1i(location, value);
+    }
+
+    public static void glUniform3f(int location, float x, float y, float z) {
+        calls++;
+        GL20.glUniform3f(location, x, y, z);
+    }
+
+    public static int glGenVertexArrays() {
+        calls++;
+        return GL30.glGenVertexArrays();
+    }
+
+    public static void glBindVertexArray(int array) {
+        calls++;
+        GL30.glBindVertexArray(array);
+    }
+
+    public static void glDeleteVertexArrays(int array) {
+        calls++;
+        GL30.glDeleteVertexArrays(array);
+    }
+
+    public static void glVertexAttribIPointer(int index, int size, int type, int stride, long pointer) {
+        calls++;
+        GL30.glVertexAttribIPointer(index, size, type, stride, pointer);
+    }
+
+    public static void glGenerateMipmap(int target) {
+        calls++;
+        GL30.glGenerateMipmap(target);
+    }
+
+    public static void glBindBufferBase(int target, int index, int buffer) {
+        calls++;
+        GL30.glBindBufferBase(target, index, buffer);
+    }
+
+    public static int glGetUniformBlockIndex(int program, CharSequence blockName) {
+        calls++;
+        return GL31.glGetUniformBlockIndex(program, blockName);
+    }
+
+    public static void glUniformBlockBinding(int program, int blockIndex, int binding) {
+        calls++;
+        GL31.glUniformBlockBinding(program, blockIndex, binding);
+    }
+
+    public static void glDrawArraysInstanced(int mode, int first, int count, int instanceCount) {
+        calls++;
+        GL31.glDrawArraysInstanced(mode, first, count, instanceCount);
+    }
+
+    public static void glVertexAttribDivisor(int index, int divisor) {
+        calls++;
+        GL33.glVertexAttribDivisor(index, divisor);
+    }
+}
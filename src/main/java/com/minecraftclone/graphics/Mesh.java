@@ -3,77 +3,125 @@ package com.minecraftclone.graphics;
 import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
-import org.lwjgl.system.MemoryUtil;
 
-import java.nio.FloatBuffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 
+import static com.minecraftclone.graphics.GlCalls.glBindBuffer;
+import static com.minecraftclone.graphics.GlCalls.glBindVertexArray;
+import static com.minecraftclone.graphics.GlCalls.glBufferData;
+import static com.minecraftclone.graphics.GlCalls.glDeleteBuffers;
+import static com.minecraftclone.graphics.GlCalls.glDeleteVertexArrays;
+import static com.minecraftclone.graphics.GlCalls.glDrawArrays;
+import static com.minecraftclone.graphics.GlCalls.glDrawElements;
+import static com.minecraftclone.graphics.GlCalls.glEnableVertexAttribArray;
+import static com.minecraftclone.graphics.GlCalls.glGenBuffers;
+import static com.minecraftclone.graphics.GlCalls.glGenVertexArrays;
+import static com.minecraftclone.graphics.GlCalls.glVertexAttribIPointer;
+import static com.minecraftclone.graphics.GlCalls.glVertexAttribPointer;
 import static org.lwjgl.opengl.GL15.*;
-import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
-import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
 import static org.lwjgl.opengl.GL30.*;
 
 public final class Mesh {
+    // Position as three floats, then the face in the low byte and the texture layer in the high 16 bits of one int.
+    public static final int VERTEX_BYTES = 3 * Float.BYTES + Integer.BYTES;
+
     private int vaoId;
     private int vboId;
+    private int eboId;
     private int vertexCount;
+    private int indexCount;
+    private boolean indexed;
 
     public Mesh() {
         this.vaoId = 0;
         this.vboId = 0;
+        this.eboId = 0;
         this.vertexCount = 0;
+        this.indexCount = 0;
+    }
+
+    public void upload(ByteBuffer vertices, int count) {
+        uploadVertices(vertices, count);
+        indexCount = 0;
+        indexed = false;
     }
 
-    public void upload(float[] vertices) {
+    public void uploadIndexed(ByteBuffer vertices, int count) {
+        uploadVertices(vertices, count);
+        indexCount = 0;
+        indexed = true;
+    }
+
+    public void updateIndices(IntBuffer indices) {
         if (vaoId == 0) {
-            vaoId = glGenVertexArrays();
+            return;
         }
-        if (vboId == 0) {
-            vboId = glGenBuffers();
+        if (eboId == 0) {
+            eboId = glGenBuffers();
         }
-        vertexCount = vertices.length / 9;
+        indexCount = indices.remaining();
 
         glBindVertexArray(vaoId);
-        glBindBuffer(GL_ARRAY_BUFFER, vboId);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, eboId);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_DYNAMIC_DRAW);
+        glBindVertexArray(0);
+    }
 
-        FloatBuffer buffer = MemoryUtil.memAllocFloat(vertices.length);
-        buffer.put(vertices).flip();
-        glBufferData(GL_ARRAY_BUFFER, buffer, GL_STATIC_DRAW);
-        MemoryUtil.memFree(buffer);
+    private void uploadVertices(ByteBuffer vertices, int count) {
+        if (vaoId == 0) {
+            vaoId = glGenVertexArrays();
+            vboId = glGenBuffers();
+        }
+        vertexCount = count;
 
-        int stride = 9 * Float.BYTES;
+        glBindVertexArray(vaoId);
+        glBindBuffer(GL_ARRAY_BUFFER, vboId);
+        glBufferData(GL_ARRAY_BUFFER, vertices, GL_STATIC_DRAW);
 
         glEnableVertexAttribArray(0);
-        glVertexAttribPointer(0, 3, GL_FLOAT, false, stride, 0L);
+        glVertexAttribPointer(0, 3, GL_FLOAT, false, VERTEX_BYTES, 0L);
 
         glEnableVertexAttribArray(1);
-        glVertexAttribPointer(1, 3, GL_FLOAT, false, stride, 3L * Float.BYTES);
-
-        glEnableVertexAttribArray(2);
-        glVertexAttribPointer(2, 3, GL_FLOAT, false, stride, 6L * Float.BYTES);
+        glVertexAttribIPointer(1, 1, GL_UNSIGNED_INT, VERTEX_BYTES, 3L * Float.BYTES);
 
         glBindBuffer(GL_ARRAY_BUFFER, 0);
         glBindVertexArray(0);
     }
 
+    // Leaves the VAO bound: the next draw binds its own, and a pass ends with unbind().
     public void render() {
         if (vaoId == 0 || vertexCount == 0) {
             return;
         }
         glBindVertexArray(vaoId);
-        glDrawArrays(GL_TRIANGLES, 0, vertexCount);
+        if (indexed) {
+            glDrawElements(GL_TRIANGLES, indexCount, GL_UNSIGNED_INT, 0L);
+        } else {
+            glDrawArrays(GL_TRIANGLES, 0, vertexCount);
+        }
+    }
+
+    public static void unbind() {
         glBindVertexArray(0);
     }
 
     public void cleanup() {
         if (vaoId != 0) {
-            glDisableVertexAttribArray(0);
+            // Deleting the VAO drops its attribute state; the bound VAO may be another mesh's after a draw pass.
             glBindBuffer(GL_ARRAY_BUFFER, 0);
             glDeleteBuffers(vboId);
+            if (eboId != 0) {
+                glDeleteBuffers(eboId);
+            }
             glBindVertexArray(0);
             glDeleteVertexArrays(vaoId);
             vaoId = 0;
             vboId = 0;
+            eboId = 0;
             vertexCount = 0;
+            indexCount = 0;
+            indexed = false;
         }
     }
 }
@@ -0,0 +1,92 @@
+package com.minecraftclone.graphics;
+
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import static com.minecraftclone.graphics.GlCalls.glBindBuffer;
+import static com.minecraftclone.graphics.GlCalls.glBindVertexArray;
+import static com.minecraftclone.graphics.GlCalls.glBufferData;
+import static com.minecraftclone.graphics.GlCalls.glBufferSubData;
+import static com.minecraftclone.graphics.GlCalls.glDeleteBuffers;
+import static com.minecraftclone.graphics.GlCalls.glDeleteVertexArrays;
+import static com.minecraftclone.graphics.GlCalls.glDrawArraysInstanced;
+import static com.minecraftclone.graphics.GlCalls.glEnableVertexAttribArray;
+import static com.minecraftclone.graphics.GlCalls.glGenBuffers;
+import static com.minecraftclone.graphics.GlCalls.glGenVertexArrays;
+import static com.minecraftclone.graphics.GlCalls.glVertexAttribDivisor;
+import static com.minecraftclone.graphics.GlCalls.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLE_STRIP;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL15.*;
+
+// Draws every live particle as a camera-facing quad in one instanced call; the instance buffer is re-streamed each frame.
+public final class ParticleRenderer {
+    // Per instance: x, y, z and size as floats, then RGBA as four normalized bytes.
+    public static final int INSTANCE_BYTES = 4 * Float.BYTES + 4;
+    private static final float[] CORNERS = {-0.5f, -0.5f, 0.5f, -0.5f, -0.5f, 0.5f, 0.5f, 0.5f};
+
+    private final int vaoId;
+    private final int cornerBufferId;
+    private final int instanceBufferId;
+    private final long instanceBytes;
+
+    public ParticleRenderer(int capacity) {
+        this.instanceBytes = (long) capacity * INSTANCE_BYTES;
+        this.vaoId = glGenVertexArrays();
+        this.cornerBufferId = glGenBuffers();
+        this.instanceBufferId = glGenBuffers();
+        glBindVertexArray(vaoId);
+
+        glBindBuffer(GL_ARRAY_BUFFER, cornerBufferId);
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            FloatBuffer corners = stack.mallocFloat(CORNERS.length);
+            corners.put(CORNERS).flip();
+            glBufferData(GL_ARRAY_BUFFER, corners, GL_STATIC_DRAW);
+        }
+        glEnableVertexAttribArray(0);
+        glVertexAttribPointer(0, 2, GL_FLOAT, false, 2 * Float.BYTES, 0L);
+
+        glBindBuffer(GL_ARRAY_BUFFER, instanceBufferId);
+        glBufferData(GL_ARRAY_BUFFER, instanceBytes, GL_STREAM_DRAW);
+        glEnableVertexAttribArray(1);
+        glVertexAttribPointer(1, 4, GL_FLOAT, false, INSTANCE_BYTES, 0L);
+        glVertexAttribDivisor(1, 1);
+        glEnableVertexAttribArray(2);
+        glVertexAttribPointer(2, 4, GL_UNSIGNED_BYTE, true, INSTANCE_BYTES, 4L * Float.BYTES);
+        glVertexAttribDivisor(2, 1);
+
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindVertexArray(0);
+    }
+
+    // Uploads the first count instances of the buffer; its position is ignored and its limit left as it was.
+    public void render(ShaderProgram shader, ByteBuffer instances, int count) {
+        if (count == 0) {
+            return;
+        }
+        shader.bind();
+        glBindBuffer(GL_ARRAY_BUFFER, instanceBufferId);
+        // Orphaning the old storage lets the driver keep last frame's draw reading it while this upload goes elsewhere.
+        glBufferData(GL_ARRAY_BUFFER, instanceBytes, GL_STREAM_DRAW);
+        int limit = instances.limit();
+        instances.position(0).limit(count * INSTANCE_BYTES);
+        glBufferSubData(GL_ARRAY_BUFFER, 0L, instances);
+        instances.limit(limit);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindVertexArray(vaoId);
+        glDrawArraysInstanced(GL_TRIANGLE_STRIP, 0, CORNERS.length / 2, count);
+        glBindVertexArray(0);
+        shader.unbind();
+    }
+
+    public void cleanup() {
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glDeleteBuffers(cornerBufferId);
+        glDeleteBuffers(instanceBufferId);
+        glBindVertexArray(0);
+        glDeleteVertexArrays(vaoId);
+    }
+}
@@ -1,83 +1,117 @@
 package com.minecraftclone.graphics;
 
-import org.joml.Matrix4f;
 import org.joml.Vector3f;
-import org.lwjgl.opengl.GL20;
-import org.lwjgl.system.MemoryStack;
 
-import java.nio.FloatBuffer;
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+import static com.minecraftclone.graphics.GlCalls.glAttachShader;
+import static com.minecraftclone.graphics.GlCalls.glCompileShader;
+import static com.minecraftclone.graphics.GlCalls.glCreateProgram;
+import static com.minecraftclone.graphics.GlCalls.glCreateShader;
+import static com.minecraftclone.graphics.GlCalls.glDeleteProgram;
+import static com.minecraftclone.graphics.GlCalls.glDeleteShader;
+import static com.minecraftclone.graphics.GlCalls.glDetachShader;
+import static com.minecraftclone.graphics.GlCalls.glGetProgramInfoLog;
+import static com.minecraftclone.graphics.GlCalls.glGetProgrami;
+import static com.minecraftclone.graphics.GlCalls.glGetShaderInfoLog;
+import static com.minecraftclone.graphics.GlCalls.glGetShaderi;
+import static com.minecraftclone.graphics.GlCalls.glGetUniformBlockIndex;
+import static com.minecraftclone.graphics.GlCalls.glGetUniformLocation;
+import static com.minecraftclone.graphics.GlCalls.glLinkProgram;
+import static com.minecraftclone.graphics.GlCalls.glShaderSource;
+import static com.minecraftclone.graphics.GlCalls.glUniform1i;
+import static com.minecraftclone.graphics.GlCalls.glUniform3f;
+import static com.minecraftclone.graphics.GlCalls.glUniformBlockBinding;
+import static com.minecraftclone.graphics.GlCalls.glUseProgram;
 import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL31.GL_INVALID_INDEX;
 
 public final class ShaderProgram {
-    private final int programId;
-    private final Map<String, Integer> uniformLocations;
+    private static final String RESOURCE_DIRECTORY = "/shaders/";
+    private static final String VERTEX_SUFFIX = ".vert";
+    private static final String FRAGMENT_SUFFIX = ".frag";
+
+    private final String name;
+    private final Path sourceDirectory;
+    private final List<Uniform> uniforms;
+    private final Map<String, Integer> blockBindings;
+    private int programId;
+    private long sourceModified;
+
+    private ShaderProgram(String name, Path sourceDirectory, int programId) {
+        this.name = name;
+        this.sourceDirectory = sourceDirectory;
+        this.programId = programId;
+        this.uniforms = new ArrayList<>();
+        this.blockBindings = new LinkedHashMap<>();
+        this.sourceModified = sourceModified();
+    }
+
+    public static ShaderProgram createChunkShader() {
+        return load("chunk", null);
+    }
+
+    // With a source directory the program can be hot-reloaded from it; otherwise it is read from the classpath.
+    public static ShaderProgram load(String name, Path sourceDirectory) {
+        return new ShaderProgram(name, sourceDirectory, link(readSource(name, sourceDirectory, VERTEX_SUFFIX),
+                readSource(name, sourceDirectory, FRAGMENT_SUFFIX)));
+    }
+
+    private static String readSource(String name, Path sourceDirectory, String suffix) {
+        try {
+            if (sourceDirectory != null) {
+                return Files.readString(sourceDirectory.resolve(name + suffix));
+            }
+            try (InputStream in = ShaderProgram.class.getResourceAsStream(RESOURCE_DIRECTORY + name + suffix)) {
+                if (in == null) {
+                    throw new IllegalStateException("Missing shader source " + RESOURCE_DIRECTORY + name + suffix);
+                }
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int link(String vertexSource, String fragmentSource) {
+        int vertexShaderId = compileShader(vertexSource, GL_VERTEX_SHADER);
+        int fragmentShaderId;
+        try {
+            fragmentShaderId = compileShader(fragmentSource, GL_FRAGMENT_SHADER);
+        } catch (IllegalStateException e) {
+            glDeleteShader(vertexShaderId);
+            throw e;
+        }
 
-    private ShaderProgram(int vertexShaderId, int fragmentShaderId) {
-        this.programId = glCreateProgram();
+        int programId = glCreateProgram();
         if (programId == 0) {
             throw new IllegalStateException("Could not create shader program");
         }
-
         glAttachShader(programId, vertexShaderId);
         glAttachShader(programId, fragmentShaderId);
         glLinkProgram(programId);
 
-        int linkStatus = glGetProgrami(programId, GL_LINK_STATUS);
-        if (linkStatus == GL_FALSE) {
-            String infoLog = glGetProgramInfoLog(programId);
-            throw new IllegalStateException("Shader program linking failed: " + infoLog);
-        }
-
         glDetachShader(programId, vertexShaderId);
         glDetachShader(programId, fragmentShaderId);
         glDeleteShader(vertexShaderId);
         glDeleteShader(fragmentShaderId);
 
-        this.uniformLocations = new HashMap<>();
-    }
-
-    public static ShaderProgram createChunkShader() {
-        String vertexShaderSource = "#version 330 core\n" +
-                "layout(location = 0) in vec3 inPosition;\n" +
-                "layout(location = 1) in vec3 inNormal;\n" +
-                "layout(location = 2) in vec3 inColor;\n" +
-                "uniform mat4 projection;\n" +
-                "uniform mat4 view;\n" +
-                "uniform vec3 chunkOffset;\n" +
-                "out vec3 fragColor;\n" +
-                "out vec3 fragNormal;\n" +
-                "out vec3 fragPosition;\n" +
-                "void main() {\n" +
-                "    vec3 worldPos = chunkOffset + inPosition;\n" +
-                "    fragColor = inColor;\n" +
-                "    fragNormal = inNormal;\n" +
-                "    fragPosition = worldPos;\n" +
-                "    gl_Position = projection * view * vec4(worldPos, 1.0);\n" +
-                "}";
-
-        String fragmentShaderSource = "#version 330 core\n" +
-                "in vec3 fragColor;\n" +
-                "in vec3 fragNormal;\n" +
-                "in vec3 fragPosition;\n" +
-                "uniform vec3 cameraPosition;\n" +
-                "out vec4 outColor;\n" +
-                "void main() {\n" +
-                "    vec3 lightDir = normalize(vec3(0.4, 1.0, 0.3));\n" +
-                "    float diff = max(dot(normalize(fragNormal), lightDir), 0.2);\n" +
-                "    vec3 baseColor = fragColor * diff;\n" +
-                "    float distanceToCamera = length(fragPosition - cameraPosition);\n" +
-                "    float fogFactor = clamp((distanceToCamera - 45.0) / 160.0, 0.0, 1.0);\n" +
-                "    vec3 fogColor = vec3(0.53, 0.81, 0.92);\n" +
-                "    vec3 finalColor = mix(baseColor, fogColor, fogFactor);\n" +
-                "    outColor = vec4(finalColor, 1.0);\n" +
-                "}";
-
-        int vertexShaderId = compileShader(vertexShaderSource, GL_VERTEX_SHADER);
-        int fragmentShaderId = compileShader(fragmentShaderSource, GL_FRAGMENT_SHADER);
-        return new ShaderProgram(vertexShaderId, fragmentShaderId);
+        int linkStatus = glGetProgrami(programId, GL_LINK_STATUS);
+        if (linkStatus == GL_FALSE) {
+            String infoLog = glGetProgramInfoLog(programId);
+            glDeleteProgram(programId);
+            throw new IllegalStateException("Shader program linking failed: " + infoLog);
+        }
+        return programId;
     }
 
     private static int compileShader(String source, int type) {
@@ -88,53 +122,134 @@ public final class ShaderProgram {
         int status = glGetShaderi(shaderId, GL_COMPILE_STATUS);
         if (status == GL_FALSE) {
             String infoLog = glGetShaderInfoLog(shaderId);
+            glDeleteShader(shaderId);
             throw new IllegalStateException("Shader compilation failed: " + infoLog);
         }
         return shaderId;
     }
 
-    public void bind() {
-        glUseProgram(programId);
+    public IntUniform intUniform(String uniformName) {
+        return register(new IntUniform(uniformName));
     }
 
-    public void unbind() {
-        glUseProgram(0);
+    public Vec3Uniform vec3Uniform(String uniformName) {
+        return register(new Vec3Uniform(uniformName));
+    }
+
+    private <T extends Uniform> T register(T uniform) {
+        uniform.location = glGetUniformLocation(programId, uniform.name);
+        if (uniform.location < 0) {
+            throw new IllegalArgumentException("Uniform not found: " + uniform.name);
+        }
+        uniforms.add(uniform);
+        return uniform;
     }
 
-    public void setUniform(String name, Matrix4f value) {
-        int location = getUniformLocation(name);
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            FloatBuffer buffer = stack.mallocFloat(16);
-            value.get(buffer);
-            glUniformMatrix4fv(location, false, buffer);
+    public void bindUniformBlock(String blockName, int binding) {
+        int index = glGetUniformBlockIndex(programId, blockName);
+        if (index == GL_INVALID_INDEX) {
+            throw new IllegalArgumentException("Uniform block not found: " + blockName);
         }
+        glUniformBlockBinding(programId, index, binding);
+        blockBindings.put(blockName, binding);
+    }
+
+    public boolean isReloadable() {
+        return sourceDirectory != null;
     }
 
-    public void setUniform(String name, Vector3f value) {
-        int location = getUniformLocation(name);
-        glUniform3f(location, value.x, value.y, value.z);
+    public boolean reloadIfChanged() {
+        if (sourceDirectory == null || sourceModified() == sourceModified) {
+            return false;
+        }
+        return reload();
     }
 
-    public void setUniform(String name, float x, float y, float z) {
-        int location = getUniformLocation(name);
-        glUniform3f(location, x, y, z);
+    // Links the new sources first; on a compile or link error the old program keeps running.
+    public boolean reload() {
+        sourceModified = sourceModified();
+        int reloaded;
+        try {
+            reloaded = link(readSource(name, sourceDirectory, VERTEX_SUFFIX), readSource(name, sourceDirectory, FRAGMENT_SUFFIX));
+        } catch (IllegalStateException | UncheckedIOException e) {
+            System.err.println("[shader] " + name + " reload failed, keeping the previous program: " + e.getMessage());
+            return false;
+        }
+        glDeleteProgram(programId);
+        programId = reloaded;
+        for (Uniform uniform : uniforms) {
+            // A uniform the new source no longer uses resolves to -1, which GL ignores on upload.
+            uniform.location = glGetUniformLocation(programId, uniform.name);
+            if (uniform.location < 0) {
+                System.err.println("[shader] " + name + ": uniform " + uniform.name + " is no longer active");
+            }
+        }
+        for (Map.Entry<String, Integer> block : blockBindings.entrySet()) {
+            int index = glGetUniformBlockIndex(programId, block.getKey());
+            if (index != GL_INVALID_INDEX) {
+                glUniformBlockBinding(programId, index, block.getValue());
+            }
+        }
+        System.out.println("[shader] reloaded " + name);
+        return true;
     }
 
-    private int getUniformLocation(String name) {
-        Integer cached = uniformLocations.get(name);
-        if (cached != null) {
-            return cached;
+    private long sourceModified() {
+        if (sourceDirectory == null) {
+            return 0L;
         }
-        int location = glGetUniformLocation(programId, name);
-        if (location < 0) {
-            throw new IllegalArgumentException("Uniform not found: " + name);
+        try {
+            return Math.max(Files.getLastModifiedTime(sourceDirectory.resolve(name + VERTEX_SUFFIX)).toMillis(),
+                    Files.getLastModifiedTime(sourceDirectory.resolve(name + FRAGMENT_SUFFIX)).toMillis());
+        } catch (IOException e) {
+            return sourceModified;
         }
-        uniformLocations.put(name, location);
-        return location;
+    }
+
+    public void bind() {
+        glUseProgram(programId);
+    }
+
+    public void unbind() {
+        glUseProgram(0);
     }
 
     public void cleanup() {
         unbind();
         glDeleteProgram(programId);
     }
+
+    public abstract static class Uniform {
+        final String name;
+        int location;
+
+        private Uniform(String name) {
+            this.name = name;
+        }
+    }
+
+    // Also how a sampler is pointed at a texture unit.
+    public static final class IntUniform extends Uniform {
+        private IntUniform(String name) {
+            super(name);
+        }
+
+        public void set(int value) {
+            glUniform1i(location, value);
+        }
+    }
+
+    public static final class Vec3Uniform extends Uniform {
+        private Vec3Uniform(String name) {
+            super(name);
+        }
+
+        public void set(float x, float y, float z) {
+            glUniform3f(location, x, y, z);
+        }
+
+        public void set(Vector3f value) {
+            set(value.x, value.y, value.z);
+        }
+    }
 }
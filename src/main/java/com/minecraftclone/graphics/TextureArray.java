@@ -0,0 +1,59 @@
+package com.minecraftclone.graphics;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static com.minecraftclone.graphics.GlCalls.glActiveTexture;
+import static com.minecraftclone.graphics.GlCalls.glBindTexture;
+import static com.minecraftclone.graphics.GlCalls.glDeleteTextures;
+import static com.minecraftclone.graphics.GlCalls.glGenTextures;
+import static com.minecraftclone.graphics.GlCalls.glGenerateMipmap;
+import static com.minecraftclone.graphics.GlCalls.glPixelStorei;
+import static com.minecraftclone.graphics.GlCalls.glTexImage3D;
+import static com.minecraftclone.graphics.GlCalls.glTexParameteri;
+import static com.minecraftclone.graphics.GlCalls.glTexSubImage3D;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.GL_TEXTURE_WRAP_R;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL30.GL_TEXTURE_2D_ARRAY;
+
+// One GL_TEXTURE_2D_ARRAY holding every block tile as a layer, so all chunks draw with a single bind.
+public final class TextureArray {
+    private final int textureId;
+    private final int layers;
+
+    // Every tile is size x size RGBA8, as TextureImages builds them.
+    public TextureArray(int size, List<ByteBuffer> tiles) {
+        this.layers = tiles.size();
+        this.textureId = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D_ARRAY, textureId);
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+        glTexImage3D(GL_TEXTURE_2D_ARRAY, 0, GL_RGBA8, size, size, Math.max(layers, 1), 0, GL_RGBA, GL_UNSIGNED_BYTE,
+                (ByteBuffer) null);
+        for (int layer = 0; layer < layers; layer++) {
+            glTexSubImage3D(GL_TEXTURE_2D_ARRAY, 0, 0, 0, layer, size, size, 1, GL_RGBA, GL_UNSIGNED_BYTE, tiles.get(layer));
+        }
+        glGenerateMipmap(GL_TEXTURE_2D_ARRAY);
+        // Nearest within a level keeps the pixel look up close; blending between levels keeps distant faces calm.
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MIN_FILTER, GL_NEAREST_MIPMAP_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_S, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_T, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_R, GL_REPEAT);
+        glBindTexture(GL_TEXTURE_2D_ARRAY, 0);
+    }
+
+    public int layers() {
+        return layers;
+    }
+
+    public void bind(int unit) {
+        glActiveTexture(GL_TEXTURE0 + unit);
+        glBindTexture(GL_TEXTURE_2D_ARRAY, textureId);
+    }
+
+    public void cleanup() {
+        glBindTexture(GL_TEXTURE_2D_ARRAY, 0);
+        glDeleteTextures(textureId);
+    }
+}
@@ -0,0 +1,55 @@
+package com.minecraftclone.graphics;
+
+import org.lwjgl.stb.STBImage;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+// Square RGBA8 tiles for TextureArray, built without GL so they can be prepared on any thread.
+public final class TextureImages {
+    private static final int CHANNELS = 4;
+
+    private TextureImages() {
+    }
+
+    // Null when the bytes are not an image stb can read or not size x size.
+    public static ByteBuffer decode(byte[] encoded, int size) {
+        ByteBuffer source = MemoryUtil.memAlloc(encoded.length);
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            source.put(encoded).flip();
+            IntBuffer width = stack.mallocInt(1);
+            IntBuffer height = stack.mallocInt(1);
+            IntBuffer channels = stack.mallocInt(1);
+            ByteBuffer pixels = STBImage.stbi_load_from_memory(source, width, height, channels, CHANNELS);
+            if (pixels == null) {
+                return null;
+            }
+            try {
+                if (width.get(0) != size || height.get(0) != size) {
+                    return null;
+                }
+                // Copied out so stb's allocation is freed here and the tile is an ordinary buffer.
+                ByteBuffer tile = ByteBuffer.allocateDirect(size * size * CHANNELS).order(ByteOrder.nativeOrder());
+                // A duplicate, so pixels keeps position 0: stbi_image_free frees the buffer's address, which follows it.
+                tile.put(pixels.duplicate()).flip();
+                return tile;
+            } finally {
+                STBImage.stbi_image_free(pixels);
+            }
+        } finally {
+            MemoryUtil.memFree(source);
+        }
+    }
+
+    // rgba packs red in the low byte up to alpha in the high one.
+    public static ByteBuffer solid(int size, int rgba) {
+        ByteBuffer tile = ByteBuffer.allocateDirect(size * size * CHANNELS).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < size * size; i++) {
+            tile.putInt(rgba);
+        }
+        return tile.flip();
+    }
+}
@@ -0,0 +1,101 @@
+package com.minecraftclone.graphics;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+public final class TranslucentMesh {
+    public static final int VERTICES_PER_QUAD = 4;
+    public static final int INDICES_PER_QUAD = 6;
+
+    private static final long UNSORTED = Long.MIN_VALUE;
+
+    private final Mesh mesh;
+    private final BufferPool pool;
+    private float[] quadCenters;
+    private long[] sortKeys;
+    private int quadCount;
+    private long sortKey;
+
+    public TranslucentMesh(BufferPool pool) {
+        this.mesh = new Mesh();
+        this.pool = pool;
+        this.quadCenters = new float[0];
+        this.sortKeys = new long[0];
+        this.sortKey = UNSORTED;
+    }
+
+    public void upload(ByteBuffer vertices, float[] centers, int quads) {
+        quadCount = quads;
+        quadCenters = centers;
+        if (sortKeys.length < quads) {
+            sortKeys = new long[quads];
+        }
+        sortKey = UNSORTED;
+        if (quads > 0) {
+            mesh.uploadIndexed(vertices, quads * VERTICES_PER_QUAD);
+        }
+    }
+
+    public boolean isEmpty() {
+        return quadCount == 0;
+    }
+
+    public int quadCount() {
+        return quadCount;
+    }
+
+    public boolean sortIfNeeded(long cameraKey, float cameraX, float cameraY, float cameraZ) {
+        if (quadCount == 0 || cameraKey == sortKey) {
+            return false;
+        }
+        sortKey = cameraKey;
+        ByteBuffer indexBytes = pool.acquire(quadCount * INDICES_PER_QUAD * Integer.BYTES);
+        try {
+            IntBuffer indices = indexBytes.asIntBuffer();
+            int count = sortBackToFront(quadCenters, quadCount, cameraX, cameraY, cameraZ, sortKeys, indices);
+            indices.limit(count);
+            mesh.updateIndices(indices);
+        } finally {
+            pool.release(indexBytes);
+        }
+        return true;
+    }
+
+    public static int sortBackToFront(float[] centers, int quads, float cameraX, float cameraY, float cameraZ,
+                                      long[] scratch, IntBuffer indicesOut) {
+        for (int quad = 0; quad < quads; quad++) {
+            float dx = centers[quad * 3] - cameraX;
+            float dy = centers[quad * 3 + 1] - cameraY;
+            float dz = centers[quad * 3 + 2] - cameraZ;
+            float distanceSquared = dx * dx + dy * dy + dz * dz;
+            // Non-negative float bits order like the floats themselves, so one primitive sort suffices.
+            scratch[quad] = ((long) Float.floatToRawIntBits(distanceSquared) << 32) | quad;
+        }
+        Arrays.sort(scratch, 0, quads);
+
+        int offset = 0;
+        for (int i = quads - 1; i >= 0; i--) {
+            int base = (int) scratch[i] * VERTICES_PER_QUAD;
+            indicesOut.put(offset++, base);
+            indicesOut.put(offset++, base + 1);
+            indicesOut.put(offset++, base + 2);
+            indicesOut.put(offset++, base);
+            indicesOut.put(offset++, base + 2);
+            indicesOut.put(offset++, base + 3);
+        }
+        return offset;
+    }
+
+    public void render() {
+        if (quadCount > 0) {
+            mesh.render();
+        }
+    }
+
+    public void cleanup() {
+        mesh.cleanup();
+        quadCount = 0;
+        sortKey = UNSORTED;
+    }
+}
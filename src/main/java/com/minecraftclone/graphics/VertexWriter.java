@@ -0,0 +1,58 @@
+package com.minecraftclone.graphics;
+
+import java.nio.ByteBuffer;
+
+public final class VertexWriter {
+    public static final int VERTEX_BYTES = Mesh.VERTEX_BYTES;
+
+    private final BufferPool pool;
+    private ByteBuffer buffer;
+    private int vertexCount;
+
+    public VertexWriter(BufferPool pool, int expectedVertices) {
+        this.pool = pool;
+        this.buffer = pool.acquire(Math.max(expectedVertices, 1) * VERTEX_BYTES);
+    }
+
+    // face is the chunk face index, 0-5; the shader derives the normal and the texture coordinates from it.
+    public void vertex(float x, float y, float z, int face, int layer) {
+        if (buffer.remaining() < VERTEX_BYTES) {
+            grow();
+        }
+        buffer.putFloat(x).putFloat(y).putFloat(z).putInt(face | layer << 16);
+        vertexCount++;
+    }
+
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    public ByteBuffer contents() {
+        ensureOpen();
+        ByteBuffer view = buffer.duplicate().order(buffer.order());
+        view.flip();
+        return view;
+    }
+
+    public void release() {
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void grow() {
+        ensureOpen();
+        ByteBuffer larger = pool.acquire(buffer.capacity() * 2);
+        buffer.flip();
+        larger.put(buffer);
+        pool.release(buffer);
+        buffer = larger;
+    }
+
+    private void ensureOpen() {
+        if (buffer == null) {
+            throw new IllegalStateException("Vertex data was already released");
+        }
+    }
+}
@@ -5,6 +5,10 @@ import com.minecraftclone.graphics.Camera;
 import com.minecraftclone.world.World;
 import org.joml.Vector3f;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import static org.lwjgl.glfw.GLFW.*;
 
 public final class Player {
@@ -17,12 +21,17 @@ public final class Player {
     private static final float PLAYER_WIDTH = 0.6f;
     private static final float PLAYER_EYE_OFFSET = 1.55f;
     private static final float STEP_OFFSET = 0.5f;
+    // The same body in whole blocks, for planning routes it can walk: the free cells it needs to stand in and how
+    // high a jump lifts it. PLAYER_WIDTH is under one block, so any one-column gap fits it.
+    public static final int CLEARANCE_BLOCKS = (int) Math.ceil(PLAYER_HEIGHT);
+    public static final int CLIMB_BLOCKS = (int) (JUMP_STRENGTH * JUMP_STRENGTH / (2.0f * GRAVITY));
 
     private final Vector3f position;
     private final Vector3f velocity;
     private float yaw;
     private float pitch;
     private boolean onGround;
+    private boolean sprinting;
 
     public Player(Vector3f initialPosition) {
         this.position = new Vector3f(initialPosition);
@@ -31,9 +40,9 @@ public final class Player {
         this.pitch = 0.0f;
     }
 
-    public void update(Window window, World world, float deltaTime, Camera camera) {
-        handleMouse(window, camera);
-        handleMovement(window, world, deltaTime);
+    public void update(Window.Input input, World world, float deltaTime, Camera camera) {
+        handleMouse(input, camera);
+        handleMovement(input, world, deltaTime);
         applyPhysics(world, deltaTime);
         syncCamera(camera);
     }
@@ -46,6 +55,14 @@ public final class Player {
         return new Vector3f(position.x, position.y + PLAYER_EYE_OFFSET, position.z);
     }
 
+    public Vector3f getVelocity() {
+        return new Vector3f(velocity);
+    }
+
+    public boolean isSprinting() {
+        return sprinting;
+    }
+
     public Vector3f getViewDirection() {
         float yawRad = (float) Math.toRadians(yaw);
         float pitchRad = (float) Math.toRadians(pitch);
@@ -56,6 +73,28 @@ public final class Player {
         ).normalize();
     }
 
+    // Everything a step reads besides input and the world, so another process can carry on with this player.
+    public void writeState(DataOutput out) throws IOException {
+        out.writeFloat(position.x);
+        out.writeFloat(position.y);
+        out.writeFloat(position.z);
+        out.writeFloat(velocity.x);
+        out.writeFloat(velocity.y);
+        out.writeFloat(velocity.z);
+        out.writeFloat(yaw);
+        out.writeFloat(pitch);
+        out.writeBoolean(onGround);
+    }
+
+    public static Player readState(DataInput in) throws IOException {
+        Player player = new Player(new Vector3f(in.readFloat(), in.readFloat(), in.readFloat()));
+        player.velocity.set(in.readFloat(), in.readFloat(), in.readFloat());
+        player.yaw = in.readFloat();
+        player.pitch = in.readFloat();
+        player.onGround = in.readBoolean();
+        return player;
+    }
+
     public boolean intersectsBlock(int blockX, int blockY, int blockZ) {
         float minX = blockX;
         float maxX = blockX + 1.0f;
@@ -76,25 +115,19 @@ public final class Player {
                 && playerMaxZ > minZ && playerMinZ < maxZ;
     }
 
-    private void handleMouse(Window window, Camera camera) {
-        if (!window.isCursorCaptured()) {
+    private void handleMouse(Window.Input input, Camera camera) {
+        if (!input.isCursorCaptured()) {
             return;
         }
-        float deltaX = window.consumeMouseDeltaX();
-        float deltaY = window.consumeMouseDeltaY();
+        float deltaX = input.consumeMouseDeltaX();
+        float deltaY = input.consumeMouseDeltaY();
         yaw = (yaw + deltaX * MOUSE_SENSITIVITY) % 360.0f;
         pitch -= deltaY * MOUSE_SENSITIVITY;
         pitch = clamp(pitch, -89.0f, 89.0f);
         camera.setRotation(yaw, pitch);
     }
 
-    private void handleMovement(Window window, World world, float deltaTime) {
-        Window.Input input = window.getInput();
-
-        if (input.isKeyPressed(GLFW_KEY_GRAVE_ACCENT)) {
-            window.requestClose();
-        }
-
+    private void handleMovement(Window.Input input, World world, float deltaTime) {
         Vector3f forward = getForwardVector();
         Vector3f right = new Vector3f(forward).cross(new Vector3f(0.0f, 1.0f, 0.0f)).normalize();
 
@@ -113,7 +146,8 @@ public final class Player {
         }
 
         float speed = MOVE_SPEED;
-        if (input.isKeyDown(GLFW_KEY_LEFT_SHIFT)) {
+        sprinting = input.isKeyDown(GLFW_KEY_LEFT_SHIFT) && desiredVelocity.lengthSquared() > 0.0f;
+        if (sprinting) {
             speed *= SPRINT_MULTIPLIER;
         }
 
@@ -174,7 +208,7 @@ public final class Player {
         for (int x = startX; x < endX; x++) {
             for (int y = startY; y < endY; y++) {
                 for (int z = startZ; z < endZ; z++) {
-                    if (!world.isSolidBlock(x, y, z)) {
+                    if (!world.isCollidableBlock(x, y, z)) {
                         continue;
                     }
                     float blockMinX = x;
@@ -0,0 +1,118 @@
+package com.minecraftclone.server;
+
+import org.joml.Vector3f;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+
+// A player's session with whichever shard owns it. Input events are buffered and go out with the next step, and a
+// REDIRECT is followed transparently: the next shard already holds the player, keys held down included.
+public final class ShardClient implements AutoCloseable {
+    private final InetAddress host;
+    private final ShardCoordinator.Directory directory;
+    private final long playerId;
+    private final Vector3f position;
+    private ShardProtocol.Connection connection;
+    private int shard;
+    private long handoffs;
+
+    private ShardClient(InetAddress host, ShardCoordinator.Directory directory, long playerId) {
+        this.host = host;
+        this.directory = directory;
+        this.playerId = playerId;
+        this.position = new Vector3f();
+    }
+
+    // Spawns on the ground at x, z on the shard that owns it.
+    public static ShardClient join(InetAddress host, ShardCoordinator.Directory directory, long playerId, float x, float z)
+            throws IOException {
+        ShardClient client = new ShardClient(host, directory, playerId);
+        client.shard = directory.map().shardForPosition(x, z);
+        client.connection = ShardProtocol.connect(host, directory.ports()[client.shard]);
+        DataOutputStream out = client.connection.out;
+        out.writeByte(ShardProtocol.JOIN);
+        out.writeLong(playerId);
+        out.writeFloat(x);
+        out.writeFloat(z);
+        out.flush();
+        client.readReply();
+        return client;
+    }
+
+    public void key(int key, int action) throws IOException {
+        connection.out.writeByte(ShardProtocol.KEY);
+        connection.out.writeShort(key);
+        connection.out.writeByte(action);
+    }
+
+    public void mouseButton(int button, int action) throws IOException {
+        connection.out.writeByte(ShardProtocol.MOUSE_BUTTON);
+        connection.out.writeShort(button);
+        connection.out.writeByte(action);
+    }
+
+    public void mouseMove(float deltaX, float deltaY) throws IOException {
+        connection.out.writeByte(ShardProtocol.MOUSE_MOVE);
+        connection.out.writeFloat(deltaX);
+        connection.out.writeFloat(deltaY);
+    }
+
+    public void captureCursor(boolean captured) throws IOException {
+        connection.out.writeByte(ShardProtocol.CURSOR_CAPTURE);
+        connection.out.writeBoolean(captured);
+    }
+
+    // Applied by the block's owner, wherever this player is connected.
+    public void edit(int x, int y, int z, int blockId) throws IOException {
+        connection.out.writeByte(ShardProtocol.EDIT);
+        connection.out.writeInt(x);
+        connection.out.writeInt(y);
+        connection.out.writeInt(z);
+        connection.out.writeShort(blockId);
+    }
+
+    public void step(float deltaTime) throws IOException {
+        connection.out.writeByte(ShardProtocol.STEP);
+        connection.out.writeFloat(deltaTime);
+        connection.out.flush();
+        readReply();
+    }
+
+    private void readReply() throws IOException {
+        while (true) {
+            int reply = connection.in.readUnsignedByte();
+            if (reply == ShardProtocol.STATE) {
+                position.set(connection.in.readFloat(), connection.in.readFloat(), connection.in.readFloat());
+                return;
+            }
+            if (reply != ShardProtocol.REDIRECT) {
+                throw new IOException("Unexpected reply " + reply);
+            }
+            shard = connection.in.readUnsignedShort();
+            connection.close();
+            handoffs++;
+            connection = ShardProtocol.connect(host, directory.ports()[shard]);
+            connection.out.writeByte(ShardProtocol.RESUME);
+            connection.out.writeLong(playerId);
+            connection.out.flush();
+        }
+    }
+
+    public Vector3f position() {
+        return new Vector3f(position);
+    }
+
+    public int shard() {
+        return shard;
+    }
+
+    public long handoffs() {
+        return handoffs;
+    }
+
+    @Override
+    public void close() throws IOException {
+        connection.close();
+    }
+}
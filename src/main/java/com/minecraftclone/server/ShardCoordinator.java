@@ -0,0 +1,131 @@
+package com.minecraftclone.server;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+
+// Hands out the region map and where each shard listens. Shards register as they come up; a directory request, from
+// a shard or a client, waits until every shard has, so nobody ever sees a map with a shard missing.
+public final class ShardCoordinator implements AutoCloseable {
+    private final ShardMap map;
+    private final int[] ports;
+    private final ServerSocket socket;
+    private int registered;
+    private Thread acceptor;
+
+    public ShardCoordinator(ShardMap map) throws IOException {
+        this.map = map;
+        this.ports = new int[map.shards()];
+        this.socket = new ServerSocket(0, 64, InetAddress.getLoopbackAddress());
+    }
+
+    public record Directory(ShardMap map, int[] ports) {
+        void write(DataOutput out) throws IOException {
+            map.write(out);
+            for (int port : ports) {
+                out.writeShort(port);
+            }
+        }
+
+        static Directory read(DataInput in) throws IOException {
+            ShardMap map = ShardMap.read(in);
+            int[] ports = new int[map.shards()];
+            for (int i = 0; i < ports.length; i++) {
+                ports[i] = in.readUnsignedShort();
+            }
+            return new Directory(map, ports);
+        }
+    }
+
+    public static Directory directory(InetAddress host, int coordinatorPort) throws IOException {
+        try (ShardProtocol.Connection coordinator = ShardProtocol.connect(host, coordinatorPort)) {
+            coordinator.out.writeByte(ShardProtocol.DIRECTORY);
+            coordinator.out.flush();
+            return Directory.read(coordinator.in);
+        }
+    }
+
+    public int port() {
+        return socket.getLocalPort();
+    }
+
+    public void start() {
+        acceptor = new Thread(this::acceptLoop, "shard-coordinator");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private void acceptLoop() {
+        while (!socket.isClosed()) {
+            try {
+                Socket accepted = socket.accept();
+                Thread handler = new Thread(() -> serve(accepted), "shard-coordinator-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    System.err.println("Coordinator accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket accepted) {
+        try (ShardProtocol.Connection connection = new ShardProtocol.Connection(accepted)) {
+            int opcode = connection.in.readUnsignedByte();
+            if (opcode == ShardProtocol.REGISTER) {
+                register(connection.in.readUnsignedShort(), connection.in.readUnsignedShort());
+            } else if (opcode != ShardProtocol.DIRECTORY) {
+                throw new IOException("Unexpected message " + opcode);
+            }
+            awaitDirectory().write(connection.out);
+            connection.out.flush();
+        } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            System.err.println("Coordinator connection failed: " + e.getMessage());
+        }
+    }
+
+    private synchronized void register(int shard, int port) throws IOException {
+        if (shard >= ports.length) {
+            throw new IOException("Shard " + shard + " is not in a map of " + ports.length);
+        }
+        if (ports[shard] == 0) {
+            registered++;
+        }
+        ports[shard] = port;
+        notifyAll();
+    }
+
+    private synchronized Directory awaitDirectory() throws InterruptedException {
+        while (registered < ports.length) {
+            wait();
+        }
+        return new Directory(map, Arrays.copyOf(ports, ports.length));
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("usage: ShardCoordinator <shards> [region size in chunks, default "
+                    + ShardMap.DEFAULT_REGION_CHUNKS + "]");
+            System.exit(2);
+        }
+        int regionChunks = args.length > 1 ? Integer.parseInt(args[1]) : ShardMap.DEFAULT_REGION_CHUNKS;
+        try (ShardCoordinator coordinator = new ShardCoordinator(new ShardMap(Integer.parseInt(args[0]), regionChunks))) {
+            coordinator.start();
+            System.out.println("coordinator listening on " + coordinator.port());
+            coordinator.acceptor.join();
+        }
+    }
+}
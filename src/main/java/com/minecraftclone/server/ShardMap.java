@@ -0,0 +1,53 @@
+package com.minecraftclone.server;
+
+import com.minecraftclone.world.Chunk;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Which shard owns which region. Regions are squares of regionChunks x regionChunks chunks, dealt out along diagonals,
+// so every shard holds regions all over the map and all four neighbours of a region belong to other shards.
+public final class ShardMap {
+    public static final int DEFAULT_REGION_CHUNKS = 8;
+
+    private final int shards;
+    private final int regionChunks;
+
+    public ShardMap(int shards, int regionChunks) {
+        if (shards <= 0 || regionChunks <= 0) {
+            throw new IllegalArgumentException("Shard count and region size must be positive");
+        }
+        this.shards = shards;
+        this.regionChunks = regionChunks;
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    public int regionChunks() {
+        return regionChunks;
+    }
+
+    public int shardForChunk(int chunkX, int chunkZ) {
+        return Math.floorMod(Math.floorDiv(chunkX, regionChunks) + Math.floorDiv(chunkZ, regionChunks), shards);
+    }
+
+    public int shardForBlock(int worldX, int worldZ) {
+        return shardForChunk(Math.floorDiv(worldX, Chunk.SIZE), Math.floorDiv(worldZ, Chunk.SIZE));
+    }
+
+    public int shardForPosition(float x, float z) {
+        return shardForBlock((int) Math.floor(x), (int) Math.floor(z));
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeShort(shards);
+        out.writeShort(regionChunks);
+    }
+
+    static ShardMap read(DataInput in) throws IOException {
+        return new ShardMap(in.readUnsignedShort(), in.readUnsignedShort());
+    }
+}
@@ -0,0 +1,78 @@
+package com.minecraftclone.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+// Every message is an opcode byte and fixed big-endian fields. A connection's first message says what it is: a shard
+// registering or anyone asking the coordinator for the directory, a client joining or resuming on a shard, a peer
+// shard introducing itself, or a stats request.
+final class ShardProtocol {
+    // To the coordinator.
+    static final int REGISTER = 1;
+    static final int DIRECTORY = 2;
+
+    // Client to shard. Input events carry no reply; each STEP is answered with STATE or REDIRECT.
+    static final int JOIN = 10;
+    static final int RESUME = 11;
+    static final int KEY = 12;
+    static final int MOUSE_BUTTON = 13;
+    static final int MOUSE_MOVE = 14;
+    static final int CURSOR_CAPTURE = 15;
+    static final int STEP = 16;
+    static final int EDIT = 17;
+
+    // Shard to shard, always answered, so a peer link is strictly request then reply. MIRROR_EDIT travels on a link of
+    // its own whose handler never calls out, so an owner pushing edits can never wait on a shard that waits on it.
+    static final int PEER_HELLO = 20;
+    static final int MIRROR = 21;
+    static final int PEER_EDIT = 22;
+    static final int MIRROR_EDIT = 23;
+    static final int HANDOFF = 24;
+    static final int STATS = 25;
+    // The sender has dropped its mirror of a chunk and no longer wants its edits.
+    static final int UNMIRROR = 26;
+
+    // Replies.
+    static final int STATE = 30;
+    static final int REDIRECT = 31;
+    static final int ACK = 32;
+    static final int CHUNK = 33;
+
+    private ShardProtocol() {
+    }
+
+    static Connection connect(InetAddress host, int port) throws IOException {
+        return new Connection(new Socket(host, port));
+    }
+
+    static void expect(DataInputStream in, int opcode) throws IOException {
+        int received = in.readUnsignedByte();
+        if (received != opcode) {
+            throw new IOException("Expected message " + opcode + " but received " + received);
+        }
+    }
+
+    // Small messages, one flush per request: Nagle would hold every step back waiting for the previous reply's ACK.
+    static final class Connection implements AutoCloseable {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,548 @@
+package com.minecraftclone.server;
+
+import com.minecraftclone.engine.RemotePlayer;
+import com.minecraftclone.player.Player;
+import com.minecraftclone.world.BlockRegistry;
+import com.minecraftclone.world.Chunk;
+import com.minecraftclone.world.World;
+import org.joml.Vector3f;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// One process's share of the world: it generates and edits only the chunks in its own regions and simulates only the
+// players standing in them. Chunks it needs from across a region edge, for collision next to the border, are mirrored
+// read-only from their owner, which then forwards every edit to them. A player who walks into another shard's region
+// is handed to that shard with everything held down, and the client is told to reconnect there.
+public final class ShardServer implements AutoCloseable {
+    // Collision only looks a block or so around the player, so one ring of chunks is always enough.
+    private static final int PLAYER_CHUNK_RADIUS = 1;
+    // Power of two; chunks sharing a stripe just serialize their edits with each other.
+    private static final int EDIT_LOCK_STRIPES = 64;
+    // A chunk no player here has been near for this long is compressed if we own it and dropped if it is a mirror.
+    private static final float IDLE_SECONDS = 10.0f;
+    private static final long IDLE_NANOS = (long) (IDLE_SECONDS * 1.0e9);
+    private static final long HOUSEKEEPING_MILLIS = 1_000L;
+    private static final int DEMOTIONS_PER_PASS = 64;
+
+    private final int index;
+    private final ShardMap map;
+    private final int[] ports;
+    private final World world;
+    private final ServerSocket socket;
+    private final Link[] requestLinks;
+    private final Link[] updateLinks;
+    private final Map<Long, RemotePlayer> arriving;
+    // Chunk key to the shards mirroring it; guarded by itself.
+    private final Map<Long, Set<Integer>> mirroredBy;
+    // Mirrors being fetched, with the edits that arrived for them meanwhile; guarded by itself.
+    private final Map<Long, List<int[]>> fetching;
+    // Held across an owned edit and its forwarding, so mirrors receive a chunk's edits in the order they were set.
+    private final Object[] editLocks;
+    // Chunk key to when a player here last stood within reach of it.
+    private final Map<Long, Long> lastNeeded;
+    private final AtomicLong steps = new AtomicLong();
+    private final AtomicLong handoffsIn = new AtomicLong();
+    private final AtomicLong handoffsOut = new AtomicLong();
+    private final AtomicLong mirrorsFetched = new AtomicLong();
+    private final AtomicLong mirrorsServed = new AtomicLong();
+    private final AtomicLong mirrorsDropped = new AtomicLong();
+    private final AtomicLong edits = new AtomicLong();
+
+    private ShardServer(int index, ServerSocket socket, ShardCoordinator.Directory directory) {
+        this.index = index;
+        this.map = directory.map();
+        this.ports = directory.ports();
+        this.world = new World();
+        world.setIdleSeconds(IDLE_SECONDS);
+        world.setDemotionsPerUpdate(DEMOTIONS_PER_PASS);
+        this.socket = socket;
+        this.requestLinks = new Link[map.shards()];
+        this.updateLinks = new Link[map.shards()];
+        for (int shard = 0; shard < requestLinks.length; shard++) {
+            requestLinks[shard] = new Link(shard);
+            updateLinks[shard] = new Link(shard);
+        }
+        this.arriving = new ConcurrentHashMap<>();
+        this.mirroredBy = new HashMap<>();
+        this.fetching = new HashMap<>();
+        this.editLocks = new Object[EDIT_LOCK_STRIPES];
+        for (int stripe = 0; stripe < editLocks.length; stripe++) {
+            editLocks[stripe] = new Object();
+        }
+        this.lastNeeded = new ConcurrentHashMap<>();
+    }
+
+    public record Stats(long steps, long handoffsIn, long handoffsOut, long mirrorsFetched, long mirrorsServed,
+                        long mirrorsDropped, long edits, int residentChunks, int compressedChunks) {
+        void write(DataOutput out) throws IOException {
+            out.writeLong(steps);
+            out.writeLong(handoffsIn);
+            out.writeLong(handoffsOut);
+            out.writeLong(mirrorsFetched);
+            out.writeLong(mirrorsServed);
+            out.writeLong(mirrorsDropped);
+            out.writeLong(edits);
+            out.writeInt(residentChunks);
+            out.writeInt(compressedChunks);
+        }
+
+        static Stats read(DataInput in) throws IOException {
+            return new Stats(in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                    in.readLong(), in.readInt(), in.readInt());
+        }
+    }
+
+    // Registers with the coordinator and returns once every other shard has too; call serve() to start accepting.
+    public static ShardServer start(InetAddress coordinatorHost, int coordinatorPort, int index) throws IOException {
+        ServerSocket socket = new ServerSocket(0, 256, InetAddress.getLoopbackAddress());
+        try (ShardProtocol.Connection coordinator = ShardProtocol.connect(coordinatorHost, coordinatorPort)) {
+            coordinator.out.writeByte(ShardProtocol.REGISTER);
+            coordinator.out.writeShort(index);
+            coordinator.out.writeShort(socket.getLocalPort());
+            coordinator.out.flush();
+            return new ShardServer(index, socket, ShardCoordinator.Directory.read(coordinator.in));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    public static Stats stats(InetAddress host, int port) throws IOException {
+        try (ShardProtocol.Connection shard = ShardProtocol.connect(host, port)) {
+            shard.out.writeByte(ShardProtocol.STATS);
+            shard.out.flush();
+            return Stats.read(shard.in);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(steps.get(), handoffsIn.get(), handoffsOut.get(), mirrorsFetched.get(), mirrorsServed.get(),
+                mirrorsDropped.get(), edits.get(), world.getResidentChunkCount(), world.getCompressedChunkCount());
+    }
+
+    // A thread per connection: clients and peers alike block on their socket between messages.
+    public void serve() {
+        Thread housekeeping = new Thread(this::keepHouse, "shard-" + index + "-housekeeping");
+        housekeeping.setDaemon(true);
+        housekeeping.start();
+        while (!socket.isClosed()) {
+            try {
+                Socket accepted = socket.accept();
+                Thread handler = new Thread(() -> handle(accepted), "shard-" + index + "-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    System.err.println("Shard " + index + " accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handle(Socket accepted) {
+        try (ShardProtocol.Connection connection = new ShardProtocol.Connection(accepted)) {
+            int opcode = connection.in.readUnsignedByte();
+            switch (opcode) {
+                case ShardProtocol.JOIN, ShardProtocol.RESUME -> serveClient(opcode, connection.in, connection.out);
+                case ShardProtocol.PEER_HELLO -> servePeer(connection.in.readUnsignedShort(), connection.in, connection.out);
+                case ShardProtocol.STATS -> {
+                    stats().write(connection.out);
+                    connection.out.flush();
+                }
+                default -> throw new IOException("Unexpected first message " + opcode);
+            }
+        } catch (IOException e) {
+            // A client closing its connection, after a redirect or for good, is the normal way a session ends.
+        }
+    }
+
+    private void serveClient(int opcode, DataInputStream in, DataOutputStream out) throws IOException {
+        long playerId = in.readLong();
+        RemotePlayer remote;
+        if (opcode == ShardProtocol.JOIN) {
+            float x = in.readFloat();
+            float z = in.readFloat();
+            loadAround(x, z);
+            float y = world.getSurfaceHeight((int) Math.floor(x), (int) Math.floor(z)) + 1.0f;
+            remote = new RemotePlayer(new Player(new Vector3f(x, y, z)));
+        } else {
+            remote = arriving.remove(playerId);
+            if (remote == null) {
+                throw new IOException("Player " + playerId + " was not handed to shard " + index);
+            }
+        }
+        if (!reply(playerId, remote, out)) {
+            return;
+        }
+        while (true) {
+            int message = in.readUnsignedByte();
+            switch (message) {
+                case ShardProtocol.KEY -> remote.inputs().postKey(in.readUnsignedShort(), in.readUnsignedByte());
+                case ShardProtocol.MOUSE_BUTTON ->
+                        remote.inputs().postMouseButton(in.readUnsignedShort(), in.readUnsignedByte());
+                case ShardProtocol.MOUSE_MOVE -> remote.inputs().postMouseMove(in.readFloat(), in.readFloat());
+                case ShardProtocol.CURSOR_CAPTURE -> remote.inputs().postCursorCaptured(in.readBoolean());
+                case ShardProtocol.EDIT -> {
+                    int x = in.readInt();
+                    int y = in.readInt();
+                    int z = in.readInt();
+                    int blockId = in.readUnsignedShort();
+                    int owner = map.shardForBlock(x, z);
+                    if (owner == index) {
+                        applyOwned(x, y, z, blockId);
+                    } else {
+                        requestLinks[owner].edit(ShardProtocol.PEER_EDIT, x, y, z, blockId);
+                    }
+                }
+                case ShardProtocol.STEP -> {
+                    float deltaTime = in.readFloat();
+                    Vector3f position = remote.player().getPosition();
+                    loadAround(position.x, position.z);
+                    remote.step(world, deltaTime);
+                    steps.incrementAndGet();
+                    if (!reply(playerId, remote, out)) {
+                        return;
+                    }
+                }
+                default -> throw new IOException("Unexpected client message " + message);
+            }
+        }
+    }
+
+    // STATE while the player is still ours; otherwise the owner has taken the player over by the time REDIRECT goes out.
+    private boolean reply(long playerId, RemotePlayer remote, DataOutputStream out) throws IOException {
+        Vector3f position = remote.player().getPosition();
+        int owner = map.shardForPosition(position.x, position.z);
+        if (owner == index) {
+            out.writeByte(ShardProtocol.STATE);
+            out.writeFloat(position.x);
+            out.writeFloat(position.y);
+            out.writeFloat(position.z);
+            out.flush();
+            return true;
+        }
+        requestLinks[owner].handoff(playerId, remote);
+        handoffsOut.incrementAndGet();
+        out.writeByte(ShardProtocol.REDIRECT);
+        out.writeShort(owner);
+        out.flush();
+        return false;
+    }
+
+    private void servePeer(int shard, DataInputStream in, DataOutputStream out) throws IOException {
+        while (true) {
+            int message = in.readUnsignedByte();
+            switch (message) {
+                case ShardProtocol.MIRROR -> {
+                    int chunkX = in.readInt();
+                    int chunkZ = in.readInt();
+                    boolean owned = map.shardForChunk(chunkX, chunkZ) == index;
+                    if (owned) {
+                        // Subscribed before the copy is taken: any later edit is either in the copy or forwarded.
+                        synchronized (mirroredBy) {
+                            mirroredBy.computeIfAbsent(World.packChunkKey(chunkX, chunkZ), key -> new HashSet<>())
+                                    .add(shard);
+                        }
+                        world.ensureChunksAround(chunkX, chunkZ, 0);
+                        mirrorsServed.incrementAndGet();
+                    }
+                    out.writeByte(ShardProtocol.CHUNK);
+                    out.writeBoolean(owned);
+                    if (owned) {
+                        world.writeChunk(chunkX, chunkZ, out);
+                    }
+                }
+                case ShardProtocol.UNMIRROR -> {
+                    long key = World.packChunkKey(in.readInt(), in.readInt());
+                    synchronized (mirroredBy) {
+                        Set<Integer> subscribed = mirroredBy.get(key);
+                        if (subscribed != null && subscribed.remove(shard) && subscribed.isEmpty()) {
+                            mirroredBy.remove(key);
+                        }
+                    }
+                    out.writeByte(ShardProtocol.ACK);
+                }
+                case ShardProtocol.PEER_EDIT -> {
+                    applyOwned(in.readInt(), in.readInt(), in.readInt(), in.readUnsignedShort());
+                    out.writeByte(ShardProtocol.ACK);
+                }
+                case ShardProtocol.MIRROR_EDIT -> {
+                    applyMirrored(in.readInt(), in.readInt(), in.readInt(), in.readUnsignedShort());
+                    out.writeByte(ShardProtocol.ACK);
+                }
+                case ShardProtocol.HANDOFF -> {
+                    long playerId = in.readLong();
+                    arriving.put(playerId, RemotePlayer.read(in));
+                    handoffsIn.incrementAndGet();
+                    out.writeByte(ShardProtocol.ACK);
+                }
+                default -> throw new IOException("Unexpected peer message " + message);
+            }
+            out.flush();
+        }
+    }
+
+    // Sets a block in our own regions and sends it on to every shard mirroring its chunk.
+    private void applyOwned(int x, int y, int z, int blockId) throws IOException {
+        BlockRegistry registry = BlockRegistry.defaults();
+        if (blockId >= registry.size() || y < 0 || y >= Chunk.HEIGHT || map.shardForBlock(x, z) != index) {
+            return;
+        }
+        int chunkX = Math.floorDiv(x, Chunk.SIZE);
+        int chunkZ = Math.floorDiv(z, Chunk.SIZE);
+        world.ensureChunksAround(chunkX, chunkZ, 0);
+        long key = World.packChunkKey(chunkX, chunkZ);
+        // Safe to hold while forwarding: the mirror's MIRROR_EDIT handler never calls back out.
+        synchronized (editLocks[Long.hashCode(key * 0x9E3779B97F4A7C15L) & (EDIT_LOCK_STRIPES - 1)]) {
+            world.setBlock(x, y, z, registry.byId(blockId));
+            edits.incrementAndGet();
+            List<Integer> mirrors;
+            synchronized (mirroredBy) {
+                Set<Integer> subscribed = mirroredBy.get(key);
+                mirrors = subscribed == null ? List.of() : new ArrayList<>(subscribed);
+            }
+            for (int shard : mirrors) {
+                updateLinks[shard].edit(ShardProtocol.MIRROR_EDIT, x, y, z, blockId);
+            }
+        }
+    }
+
+    // An owner's edit to one of our mirrors. Never calls out; see ShardProtocol.MIRROR_EDIT.
+    private void applyMirrored(int x, int y, int z, int blockId) {
+        BlockRegistry registry = BlockRegistry.defaults();
+        if (blockId >= registry.size() || y < 0 || y >= Chunk.HEIGHT) {
+            return;
+        }
+        int chunkX = Math.floorDiv(x, Chunk.SIZE);
+        int chunkZ = Math.floorDiv(z, Chunk.SIZE);
+        // Applied under the same lock the fetch replays under, so an edit never lands ahead of older buffered ones.
+        synchronized (fetching) {
+            List<int[]> pending = fetching.get(World.packChunkKey(chunkX, chunkZ));
+            if (pending != null) {
+                pending.add(new int[]{x, y, z, blockId});
+                return;
+            }
+            // A chunk we no longer hold is simply fetched fresh, edits included, if it is needed again.
+            if (world.getLoadedChunk(chunkX, chunkZ) != null) {
+                world.setBlock(x, y, z, registry.byId(blockId));
+            }
+        }
+    }
+
+    private void loadAround(float x, float z) throws IOException {
+        int centerX = Math.floorDiv((int) Math.floor(x), Chunk.SIZE);
+        int centerZ = Math.floorDiv((int) Math.floor(z), Chunk.SIZE);
+        long now = System.nanoTime();
+        for (int chunkX = centerX - PLAYER_CHUNK_RADIUS; chunkX <= centerX + PLAYER_CHUNK_RADIUS; chunkX++) {
+            for (int chunkZ = centerZ - PLAYER_CHUNK_RADIUS; chunkZ <= centerZ + PLAYER_CHUNK_RADIUS; chunkZ++) {
+                // Marked before the check: housekeeping drops a mirror only while its mark is unchanged, so a chunk
+                // seen here as loaded stays loaded through this step.
+                lastNeeded.put(World.packChunkKey(chunkX, chunkZ), now);
+                if (world.getLoadedChunk(chunkX, chunkZ) != null) {
+                    continue;
+                }
+                int owner = map.shardForChunk(chunkX, chunkZ);
+                if (owner == index) {
+                    world.ensureChunksAround(chunkX, chunkZ, 0);
+                } else {
+                    mirror(owner, chunkX, chunkZ);
+                }
+            }
+        }
+    }
+
+    private void mirror(int owner, int chunkX, int chunkZ) throws IOException {
+        long key = World.packChunkKey(chunkX, chunkZ);
+        synchronized (fetching) {
+            // Another player's thread may already be fetching it; one copy is enough.
+            while (fetching.containsKey(key)) {
+                try {
+                    fetching.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for chunk " + chunkX + ", " + chunkZ);
+                }
+            }
+            if (world.getLoadedChunk(chunkX, chunkZ) != null) {
+                return;
+            }
+            fetching.put(key, new ArrayList<>());
+        }
+        try {
+            requestLinks[owner].mirror(chunkX, chunkZ);
+            mirrorsFetched.incrementAndGet();
+        } finally {
+            synchronized (fetching) {
+                // Replayed before the entry goes, so edits arriving from here on queue behind these.
+                if (world.getLoadedChunk(chunkX, chunkZ) != null) {
+                    BlockRegistry registry = BlockRegistry.defaults();
+                    for (int[] edit : fetching.get(key)) {
+                        world.setBlock(edit[0], edit[1], edit[2], registry.byId(edit[3]));
+                    }
+                }
+                fetching.remove(key);
+                fetching.notifyAll();
+            }
+        }
+    }
+
+    private void keepHouse() {
+        while (!socket.isClosed()) {
+            try {
+                Thread.sleep(HOUSEKEEPING_MILLIS);
+                dropIdleChunks(System.nanoTime());
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    System.err.println("Shard " + index + " could not drop idle chunks: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Mirrors no player here needs are dropped and unsubscribed from, so their owners stop forwarding edits; owned
+    // chunks are compressed once idle and the generator forgets them, so memory follows where players are.
+    private void dropIdleChunks(long now) throws IOException {
+        for (Map.Entry<Long, Long> entry : lastNeeded.entrySet()) {
+            long key = entry.getKey();
+            long seen = entry.getValue();
+            if (now - seen < IDLE_NANOS) {
+                continue;
+            }
+            int chunkX = World.unpackChunkX(key);
+            int chunkZ = World.unpackChunkZ(key);
+            int owner = map.shardForChunk(chunkX, chunkZ);
+            if (owner == index) {
+                lastNeeded.remove(key, seen);
+                continue;
+            }
+            // Under the fetch lock, so no forwarded edit lands in between and a new fetch of this chunk only
+            // subscribes again after the unsubscribe has gone out.
+            synchronized (fetching) {
+                if (fetching.containsKey(key)) {
+                    continue;
+                }
+                boolean[] dropped = new boolean[1];
+                lastNeeded.computeIfPresent(key, (k, last) -> {
+                    if (last != seen) {
+                        return last;
+                    }
+                    dropped[0] = world.unloadChunk(chunkX, chunkZ);
+                    return null;
+                });
+                if (dropped[0]) {
+                    requestLinks[owner].unmirror(chunkX, chunkZ);
+                    mirrorsDropped.incrementAndGet();
+                }
+            }
+        }
+        world.demoteIdleChunks(key -> lastNeeded.containsKey(key)
+                || map.shardForChunk(World.unpackChunkX(key), World.unpackChunkZ(key)) != index, now);
+        world.getGenerator().prune(lastNeeded::containsKey);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        for (int shard = 0; shard < requestLinks.length; shard++) {
+            requestLinks[shard].close();
+            updateLinks[shard].close();
+        }
+        world.cleanup();
+    }
+
+    // A connection this shard opens to another; the other end answers every request before the next is sent.
+    private final class Link {
+        private final int shard;
+        private ShardProtocol.Connection connection;
+
+        private Link(int shard) {
+            this.shard = shard;
+        }
+
+        synchronized void handoff(long playerId, RemotePlayer remote) throws IOException {
+            DataOutputStream out = connect().out;
+            out.writeByte(ShardProtocol.HANDOFF);
+            out.writeLong(playerId);
+            remote.write(out);
+            out.flush();
+            ShardProtocol.expect(connection.in, ShardProtocol.ACK);
+        }
+
+        synchronized void edit(int opcode, int x, int y, int z, int blockId) throws IOException {
+            DataOutputStream out = connect().out;
+            out.writeByte(opcode);
+            out.writeInt(x);
+            out.writeInt(y);
+            out.writeInt(z);
+            out.writeShort(blockId);
+            out.flush();
+            ShardProtocol.expect(connection.in, ShardProtocol.ACK);
+        }
+
+        synchronized void unmirror(int chunkX, int chunkZ) throws IOException {
+            DataOutputStream out = connect().out;
+            out.writeByte(ShardProtocol.UNMIRROR);
+            out.writeInt(chunkX);
+            out.writeInt(chunkZ);
+            out.flush();
+            ShardProtocol.expect(connection.in, ShardProtocol.ACK);
+        }
+
+        synchronized void mirror(int chunkX, int chunkZ) throws IOException {
+            DataOutputStream out = connect().out;
+            out.writeByte(ShardProtocol.MIRROR);
+            out.writeInt(chunkX);
+            out.writeInt(chunkZ);
+            out.flush();
+            ShardProtocol.expect(connection.in, ShardProtocol.CHUNK);
+            if (!connection.in.readBoolean()) {
+                throw new IOException("Shard " + shard + " does not own chunk " + chunkX + ", " + chunkZ);
+            }
+            world.readChunk(connection.in);
+        }
+
+        private ShardProtocol.Connection connect() throws IOException {
+            if (connection == null) {
+                connection = ShardProtocol.connect(InetAddress.getLoopbackAddress(), ports[shard]);
+                connection.out.writeByte(ShardProtocol.PEER_HELLO);
+                connection.out.writeShort(index);
+            }
+            return connection;
+        }
+
+        synchronized void close() throws IOException {
+            if (connection != null) {
+                connection.close();
+                connection = null;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: ShardServer <coordinator port> <shard index>");
+            System.exit(2);
+        }
+        try (ShardServer shard = start(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]),
+                Integer.parseInt(args[1]))) {
+            shard.serve();
+        }
+    }
+}
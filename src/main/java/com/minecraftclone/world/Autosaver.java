@@ -0,0 +1,113 @@
+package com.minecraftclone.world;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class Autosaver implements AutoCloseable {
+    public static final float DEFAULT_INTERVAL_SECONDS = 60.0f;
+
+    private final World world;
+    private final Path file;
+    private final ExecutorService writer;
+    private long intervalNanos;
+    private long lastSaveStart;
+    private CompletableFuture<SaveResult> inFlight;
+    private volatile SaveResult lastResult;
+    private long lastSnapshotNanos;
+    private int saves;
+
+    public Autosaver(World world, Path file) {
+        this.world = world;
+        this.file = file;
+        this.writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "autosave");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        setIntervalSeconds(DEFAULT_INTERVAL_SECONDS);
+        this.lastSaveStart = System.nanoTime();
+    }
+
+    public void setIntervalSeconds(float seconds) {
+        intervalNanos = (long) (Math.max(0.0f, seconds) * 1.0e9);
+    }
+
+    // Called once per frame; starts a save when the interval has passed and the previous one has finished. Nobody joins
+    // a periodic save, so a failure is reported here and the next interval tries again.
+    public boolean update(long now) {
+        if (now - lastSaveStart < intervalNanos || (inFlight != null && !inFlight.isDone())) {
+            return false;
+        }
+        saveAsync().whenComplete((result, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                System.err.println(cause.getMessage() + (cause.getCause() == null ? "" : ": " + cause.getCause()));
+            }
+        });
+        return true;
+    }
+
+    public CompletableFuture<SaveResult> saveAsync() {
+        long start = System.nanoTime();
+        lastSaveStart = start;
+        WorldSnapshot snapshot = world.snapshot();
+        long snapshotNanos = System.nanoTime() - start;
+        lastSnapshotNanos = snapshotNanos;
+        EditJournal journal = world.getEditJournal();
+        inFlight = CompletableFuture.supplyAsync(() -> write(snapshot, journal, snapshotNanos), writer);
+        saves++;
+        return inFlight;
+    }
+
+    private SaveResult write(WorldSnapshot snapshot, EditJournal journal, long snapshotNanos) {
+        long start = System.nanoTime();
+        try {
+            long bytes = snapshot.writeTo(file);
+            // Only once the save is durable can the journal forget the edits it now contains.
+            int journalRecords = journal == null ? 0 : journal.compact(snapshot::contains, snapshot.journalSequence());
+            SaveResult result = new SaveResult(snapshot.chunkCount(), bytes, snapshotNanos, System.nanoTime() - start, journalRecords);
+            lastResult = result;
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Autosave to " + file + " failed", e);
+        }
+    }
+
+    public boolean isSaving() {
+        return inFlight != null && !inFlight.isDone();
+    }
+
+    public SaveResult lastResult() {
+        return lastResult;
+    }
+
+    public long lastSnapshotNanos() {
+        return lastSnapshotNanos;
+    }
+
+    public int saves() {
+        return saves;
+    }
+
+    // A final synchronous save; the journal is then compacted down to nothing for every chunk that was saved.
+    @Override
+    public void close() {
+        try {
+            if (inFlight != null) {
+                inFlight.exceptionally(error -> null).join();
+            }
+            saveAsync().join();
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    public record SaveResult(int chunks, long bytes, long snapshotNanos, long writeNanos, int journalRecordsKept) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.minecraftclone.world;
+
+import java.util.Random;
+
+public interface BlockBehavior {
+    BlockBehavior NONE = new BlockBehavior() {
+    };
+
+    default boolean ticksRandomly() {
+        return false;
+    }
+
+    default void onScheduledTick(World world, int x, int y, int z) {
+    }
+
+    default void onRandomTick(World world, int x, int y, int z, Random random) {
+    }
+
+    default void onNeighborChanged(World world, int x, int y, int z) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.minecraftclone.world;
+
+public record BlockBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+    public BlockBox {
+        if (minX > maxX || minY > maxY || minZ > maxZ) {
+            throw new IllegalArgumentException("Empty box: min must not exceed max");
+        }
+    }
+
+    public static BlockBox of(int x1, int y1, int z1, int x2, int y2, int z2) {
+        return new BlockBox(Math.min(x1, x2), Math.min(y1, y2), Math.min(z1, z2),
+                Math.max(x1, x2), Math.max(y1, y2), Math.max(z1, z2));
+    }
+
+    public int sizeX() {
+        return maxX - minX + 1;
+    }
+
+    public int sizeY() {
+        return maxY - minY + 1;
+    }
+
+    public int sizeZ() {
+        return maxZ - minZ + 1;
+    }
+
+    public long volume() {
+        return (long) sizeX() * sizeY() * sizeZ();
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+}
@@ -0,0 +1,35 @@
+package com.minecraftclone.world;
+
+public record BlockPos(int x, int y, int z) {
+    private static final int HORIZONTAL_BITS = 26;
+    private static final int VERTICAL_BITS = 12;
+    private static final int X_SHIFT = HORIZONTAL_BITS + VERTICAL_BITS;
+    private static final long HORIZONTAL_MASK = (1L << HORIZONTAL_BITS) - 1L;
+    private static final long VERTICAL_MASK = (1L << VERTICAL_BITS) - 1L;
+
+    public long pack() {
+        return pack(x, y, z);
+    }
+
+    public static BlockPos unpack(long packed) {
+        return new BlockPos(unpackX(packed), unpackY(packed), unpackZ(packed));
+    }
+
+    public static long pack(int x, int y, int z) {
+        return ((x & HORIZONTAL_MASK) << X_SHIFT)
+                | ((z & HORIZONTAL_MASK) << VERTICAL_BITS)
+                | (y & VERTICAL_MASK);
+    }
+
+    public static int unpackX(long packed) {
+        return (int) (packed >> X_SHIFT);
+    }
+
+    public static int unpackY(long packed) {
+        return (int) (packed << (Long.SIZE - VERTICAL_BITS) >> (Long.SIZE - VERTICAL_BITS));
+    }
+
+    public static int unpackZ(long packed) {
+        return (int) (packed << HORIZONTAL_BITS >> X_SHIFT);
+    }
+}
@@ -0,0 +1,201 @@
+package com.minecraftclone.world;
+
+import org.joml.Vector3f;
+
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public final class BlockRegistry {
+    public static final String DEFAULT_RESOURCE = "/blocks.txt";
+    public static final int AIR_ID = 0;
+
+    public static final int FLAG_OPAQUE = 1;
+    public static final int FLAG_COLLIDABLE = 1 << 1;
+    public static final int FLAG_TRANSLUCENT = 1 << 2;
+    public static final int FLAG_FLUID = 1 << 3;
+    public static final int FLAG_RANDOM_TICKS = 1 << 4;
+
+    private static final int MAX_LIGHT = 15;
+
+    private final BlockType[] blocks;
+    private final Map<String, BlockType> byName;
+    // The FLAG_* bits of each block, indexed by id, for the paths that read ids straight out of chunk storage.
+    private final byte[] flags;
+
+    private BlockRegistry(BlockType[] blocks) {
+        this.blocks = blocks;
+        this.byName = new HashMap<>();
+        this.flags = new byte[blocks.length];
+        for (BlockType block : blocks) {
+            byName.put(block.name(), block);
+            flags[block.id()] = (byte) block.flags();
+        }
+    }
+
+    public static BlockRegistry defaults() {
+        return BlockType.registry();
+    }
+
+    public static BlockRegistry load(InputStream in, String source) throws IOException {
+        return load(new InputStreamReader(in, StandardCharsets.UTF_8), source);
+    }
+
+    public static BlockRegistry load(Reader reader, String source) throws IOException {
+        List<BlockType> definitions = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            definitions.add(parse(line.split("\\s+"), source, lineNumber));
+        }
+
+        BlockType[] blocks = new BlockType[definitions.size()];
+        for (BlockType block : definitions) {
+            if (block.id() >= blocks.length) {
+                throw new IOException(source + ": block ids must be dense from 0, found " + block.id() + " for " + block.name());
+            }
+            if (blocks[block.id()] != null) {
+                throw new IOException(source + ": duplicate block id " + block.id());
+            }
+            blocks[block.id()] = block;
+        }
+        if (blocks.length == 0 || !blocks[AIR_ID].name().equals("air")) {
+            throw new IOException(source + ": block id " + AIR_ID + " must be air");
+        }
+        return new BlockRegistry(blocks);
+    }
+
+    private static BlockType parse(String[] fields, String source, int lineNumber) throws IOException {
+        String where = source + ":" + lineNumber;
+        if (fields.length != 9) {
+            throw new IOException(where + ": expected 9 fields, found " + fields.length);
+        }
+        try {
+            int id = Integer.parseInt(fields[0]);
+            String name = fields[1].toLowerCase(Locale.ROOT);
+            Vector3f color = new Vector3f(Float.parseFloat(fields[2]), Float.parseFloat(fields[3]), Float.parseFloat(fields[4]));
+            float alpha = Float.parseFloat(fields[5]);
+            int flags = 0;
+            if (!fields[6].equals("-")) {
+                for (String flag : fields[6].split(",")) {
+                    flags |= switch (flag) {
+                        case "opaque" -> FLAG_OPAQUE;
+                        case "collidable" -> FLAG_COLLIDABLE;
+                        case "fluid" -> FLAG_FLUID;
+                        default -> throw new IOException(where + ": unknown flag " + flag);
+                    };
+                }
+            }
+            if ((flags & FLAG_OPAQUE) == 0 && id != AIR_ID) {
+                flags |= FLAG_TRANSLUCENT;
+            }
+            int light = Integer.parseInt(fields[7]);
+            if (id < 0 || id > Short.MAX_VALUE || light < 0 || light > MAX_LIGHT) {
+                throw new IOException(where + ": id or light level out of range");
+            }
+            BlockBehavior behavior = behavior(fields[8], where);
+            if (behavior.ticksRandomly()) {
+                flags |= FLAG_RANDOM_TICKS;
+            }
+            return new BlockType(id, name, color, alpha, flags, light, behavior);
+        } catch (NumberFormatException e) {
+            throw new IOException(where + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static BlockBehavior behavior(String name, String where) throws IOException {
+        return switch (name) {
+            case "none" -> BlockBehavior.NONE;
+            case "grass" -> new GrassBehavior();
+            case "falling" -> new FallingBlockBehavior();
+            case "fluid" -> new FluidBehavior();
+            default -> throw new IOException(where + ": unknown behavior " + name);
+        };
+    }
+
+    public int size() {
+        return blocks.length;
+    }
+
+    public BlockType byId(int id) {
+        return blocks[id];
+    }
+
+    public BlockType byName(String name) {
+        return byName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public int flags(int id) {
+        return flags[id];
+    }
+
+    public boolean isOpaque(int id) {
+        return (flags[id] & FLAG_OPAQUE) != 0;
+    }
+
+    public boolean isCollidable(int id) {
+        return (flags[id] & FLAG_COLLIDABLE) != 0;
+    }
+
+    public boolean isTranslucent(int id) {
+        return (flags[id] & FLAG_TRANSLUCENT) != 0;
+    }
+
+    public boolean isFluid(int id) {
+        return (flags[id] & FLAG_FLUID) != 0;
+    }
+
+    BlockType require(String name) {
+        BlockType block = byName(name);
+        if (block == null) {
+            throw new IllegalStateException("Block registry is missing required block " + name);
+        }
+        return block;
+    }
+
+    public void writeIdTable(DataOutput out) throws IOException {
+        out.writeShort(blocks.length);
+        for (BlockType block : blocks) {
+            out.writeShort(block.id());
+            out.writeUTF(block.name());
+        }
+    }
+
+    public int[] readIdRemap(DataInput in) throws IOException {
+        int count = in.readShort();
+        int[] remap = new int[0];
+        for (int i = 0; i < count; i++) {
+            int savedId = in.readShort();
+            String name = in.readUTF();
+            if (savedId < 0) {
+                throw new IOException("Invalid saved block id " + savedId);
+            }
+            if (savedId >= remap.length) {
+                int previousLength = remap.length;
+                remap = Arrays.copyOf(remap, savedId + 1);
+                Arrays.fill(remap, previousLength, remap.length, AIR_ID);
+            }
+            // Blocks removed since the save was written load as air rather than failing the whole file.
+            BlockType current = byName(name);
+            remap[savedId] = current == null ? AIR_ID : current.id();
+        }
+        return remap;
+    }
+}
@@ -0,0 +1,210 @@
+package com.minecraftclone.world;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+public final class BlockTickScheduler {
+    public static final int DEFAULT_RANDOM_TICKS_PER_SECTION = 3;
+
+    private static final Comparator<ScheduledTick> DUE_ORDER =
+            Comparator.comparingLong(ScheduledTick::dueTick).thenComparingLong(ScheduledTick::order);
+
+    private final PriorityQueue<ScheduledTick> scheduledTicks;
+    private final Set<Long> scheduledPositions;
+    private Set<Long> pendingNeighborUpdates;
+    private Set<Long> processingNeighborUpdates;
+    private final Set<Chunk> randomTickChunks;
+    private Chunk[] randomTickOrder;
+    private final Random random;
+
+    private long currentTick;
+    private long nextOrder;
+    private int randomTicksPerSection;
+
+    private int lastScheduledTicks;
+    private int lastNeighborUpdates;
+    private int lastRandomTickSections;
+
+    public BlockTickScheduler(long seed) {
+        this.scheduledTicks = new PriorityQueue<>(DUE_ORDER);
+        this.scheduledPositions = new HashSet<>();
+        this.pendingNeighborUpdates = new LinkedHashSet<>();
+        this.processingNeighborUpdates = new LinkedHashSet<>();
+        this.randomTickChunks = new LinkedHashSet<>();
+        this.randomTickOrder = new Chunk[0];
+        this.random = new Random(seed);
+        this.randomTicksPerSection = DEFAULT_RANDOM_TICKS_PER_SECTION;
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    public synchronized void setRandomTicksPerSection(int randomTicksPerSection) {
+        this.randomTicksPerSection = Math.max(0, randomTicksPerSection);
+    }
+
+    public synchronized int pendingScheduledTicks() {
+        return scheduledTicks.size();
+    }
+
+    public int lastScheduledTicks() {
+        return lastScheduledTicks;
+    }
+
+    public int lastNeighborUpdates() {
+        return lastNeighborUpdates;
+    }
+
+    public int lastRandomTickSections() {
+        return lastRandomTickSections;
+    }
+
+    public synchronized void schedule(int x, int y, int z, BlockType type, int delayTicks) {
+        long position = BlockPos.pack(x, y, z);
+        if (!scheduledPositions.add(position)) {
+            return;
+        }
+        long dueTick = currentTick + Math.max(1, delayTicks);
+        scheduledTicks.add(new ScheduledTick(dueTick, nextOrder++, position, type));
+    }
+
+    synchronized void onBlockChanged(Chunk chunk, int x, int y, int z, BlockType type) {
+        blockChanged(chunk, x, y, z, type);
+    }
+
+    // Cells given as ChunkDelta indices, already set in the chunk; one lock round for the whole batch.
+    synchronized void onBlocksChanged(Chunk chunk, int[] cells, int count) {
+        int baseX = chunk.chunkX() * Chunk.SIZE;
+        int baseZ = chunk.chunkZ() * Chunk.SIZE;
+        for (int i = 0; i < count; i++) {
+            int x = ChunkDelta.x(cells[i]);
+            int y = ChunkDelta.y(cells[i]);
+            int z = ChunkDelta.z(cells[i]);
+            blockChanged(chunk, baseX + x, y, baseZ + z, chunk.getBlock(x, y, z));
+        }
+    }
+
+    private void blockChanged(Chunk chunk, int x, int y, int z, BlockType type) {
+        if (type.ticksRandomly()) {
+            randomTickChunks.add(chunk);
+        }
+        pendingNeighborUpdates.add(BlockPos.pack(x, y, z));
+        pendingNeighborUpdates.add(BlockPos.pack(x - 1, y, z));
+        pendingNeighborUpdates.add(BlockPos.pack(x + 1, y, z));
+        pendingNeighborUpdates.add(BlockPos.pack(x, y - 1, z));
+        pendingNeighborUpdates.add(BlockPos.pack(x, y + 1, z));
+        pendingNeighborUpdates.add(BlockPos.pack(x, y, z - 1));
+        pendingNeighborUpdates.add(BlockPos.pack(x, y, z + 1));
+    }
+
+    synchronized void trackChunk(Chunk chunk) {
+        if (chunk.hasRandomTickingBlocks()) {
+            randomTickChunks.add(chunk);
+        }
+    }
+
+    synchronized void untrackChunk(Chunk chunk) {
+        randomTickChunks.remove(chunk);
+    }
+
+    synchronized void tick(World world) {
+        currentTick++;
+        lastScheduledTicks = runScheduledTicks(world);
+        lastNeighborUpdates = runNeighborUpdates(world);
+        lastRandomTickSections = runRandomTicks(world);
+    }
+
+    private int runScheduledTicks(World world) {
+        int processed = 0;
+        while (!scheduledTicks.isEmpty() && scheduledTicks.peek().dueTick() <= currentTick) {
+            ScheduledTick scheduled = scheduledTicks.poll();
+            scheduledPositions.remove(scheduled.position());
+            int x = BlockPos.unpackX(scheduled.position());
+            int y = BlockPos.unpackY(scheduled.position());
+            int z = BlockPos.unpackZ(scheduled.position());
+            BlockType type = world.getBlock(x, y, z);
+            if (type == scheduled.type()) {
+                type.behavior().onScheduledTick(world, x, y, z);
+            }
+            processed++;
+        }
+        return processed;
+    }
+
+    private int runNeighborUpdates(World world) {
+        // Swap sets so updates raised while processing are deferred to the next tick.
+        Set<Long> updates = pendingNeighborUpdates;
+        pendingNeighborUpdates = processingNeighborUpdates;
+        processingNeighborUpdates = updates;
+
+        int processed = 0;
+        for (long position : updates) {
+            int x = BlockPos.unpackX(position);
+            int y = BlockPos.unpackY(position);
+            int z = BlockPos.unpackZ(position);
+            world.getBlock(x, y, z).behavior().onNeighborChanged(world, x, y, z);
+            processed++;
+        }
+        updates.clear();
+        return processed;
+    }
+
+    private int runRandomTicks(World world) {
+        if (randomTicksPerSection == 0 || randomTickChunks.isEmpty()) {
+            return 0;
+        }
+        // Copied because a random tick's setBlock can track another chunk; the copy reuses one array across ticks.
+        int count = randomTickChunks.size();
+        if (randomTickOrder.length < count) {
+            randomTickOrder = new Chunk[count + count / 2];
+        }
+        Chunk[] chunks = randomTickChunks.toArray(randomTickOrder);
+        int sections = 0;
+        for (int c = 0; c < count; c++) {
+            Chunk chunk = chunks[c];
+            // A chunk demoted while this tick was already under way is skipped; its promoted copy is tracked anew.
+            if (chunk.isRetired() || !chunk.hasRandomTickingBlocks()) {
+                randomTickChunks.remove(chunk);
+                continue;
+            }
+            int baseX = chunk.chunkX() * Chunk.SIZE;
+            int baseZ = chunk.chunkZ() * Chunk.SIZE;
+            for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+                if (!chunk.hasRandomTickingBlocks(section)) {
+                    continue;
+                }
+                int baseY = section * Chunk.SECTION_HEIGHT;
+                for (int i = 0; i < randomTicksPerSection; i++) {
+                    int cell = random.nextInt(Chunk.SIZE * Chunk.SECTION_HEIGHT * Chunk.SIZE);
+                    int localX = cell % Chunk.SIZE;
+                    int localZ = (cell / Chunk.SIZE) % Chunk.SIZE;
+                    int localY = cell / (Chunk.SIZE * Chunk.SIZE);
+                    BlockType type = chunk.getBlock(localX, baseY + localY, localZ);
+                    if (type.ticksRandomly()) {
+                        type.behavior().onRandomTick(world, baseX + localX, baseY + localY, baseZ + localZ, random);
+                    }
+                }
+                sections++;
+            }
+        }
+        // Unloaded chunks are not kept alive by the array.
+        Arrays.fill(chunks, 0, count, null);
+        return sections;
+    }
+
+    synchronized void clear() {
+        scheduledTicks.clear();
+        scheduledPositions.clear();
+        pendingNeighborUpdates.clear();
+        randomTickChunks.clear();
+    }
+
+    private record ScheduledTick(long dueTick, long order, long position, BlockType type) {
+    }
+}
@@ -2,24 +2,109 @@ package com.minecraftclone.world;
 
 import org.joml.Vector3f;
 
-public enum BlockType {
-    AIR(new Vector3f(0.0f)),
-    GRASS(new Vector3f(0.45f, 0.72f, 0.26f)),
-    DIRT(new Vector3f(0.54f, 0.35f, 0.22f)),
-    STONE(new Vector3f(0.6f, 0.6f, 0.6f)),
-    BEDROCK(new Vector3f(0.1f, 0.1f, 0.1f));
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 
+public final class BlockType {
+    private static final BlockRegistry REGISTRY = loadDefaults();
+
+    public static final BlockType AIR = REGISTRY.require("air");
+    public static final BlockType GRASS = REGISTRY.require("grass");
+    public static final BlockType DIRT = REGISTRY.require("dirt");
+    public static final BlockType STONE = REGISTRY.require("stone");
+    public static final BlockType BEDROCK = REGISTRY.require("bedrock");
+    public static final BlockType SAND = REGISTRY.require("sand");
+    public static final BlockType WATER = REGISTRY.require("water");
+    public static final BlockType GLASS = REGISTRY.require("glass");
+    public static final BlockType LOG = REGISTRY.require("log");
+    public static final BlockType LEAVES = REGISTRY.require("leaves");
+    public static final BlockType COAL_ORE = REGISTRY.require("coal_ore");
+    public static final BlockType IRON_ORE = REGISTRY.require("iron_ore");
+
+    private final int id;
+    private final String name;
     private final Vector3f color;
+    private final float alpha;
+    private final int flags;
+    private final int lightEmission;
+    private final BlockBehavior behavior;
 
-    BlockType(Vector3f color) {
+    BlockType(int id, String name, Vector3f color, float alpha, int flags, int lightEmission, BlockBehavior behavior) {
+        this.id = id;
+        this.name = name;
         this.color = color;
+        this.alpha = alpha;
+        this.flags = flags;
+        this.lightEmission = lightEmission;
+        this.behavior = behavior;
+    }
+
+    static BlockRegistry registry() {
+        return REGISTRY;
+    }
+
+    private static BlockRegistry loadDefaults() {
+        try (InputStream in = BlockType.class.getResourceAsStream(BlockRegistry.DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing block definitions " + BlockRegistry.DEFAULT_RESOURCE);
+            }
+            return BlockRegistry.load(in, BlockRegistry.DEFAULT_RESOURCE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    int flags() {
+        return flags;
+    }
+
+    public boolean isOpaque() {
+        return (flags & BlockRegistry.FLAG_OPAQUE) != 0;
     }
 
-    public boolean isSolid() {
-        return this != AIR;
+    public boolean isCollidable() {
+        return (flags & BlockRegistry.FLAG_COLLIDABLE) != 0;
+    }
+
+    public boolean isTranslucent() {
+        return (flags & BlockRegistry.FLAG_TRANSLUCENT) != 0;
+    }
+
+    public boolean isFluid() {
+        return (flags & BlockRegistry.FLAG_FLUID) != 0;
+    }
+
+    public boolean ticksRandomly() {
+        return (flags & BlockRegistry.FLAG_RANDOM_TICKS) != 0;
+    }
+
+    public int lightEmission() {
+        return lightEmission;
+    }
+
+    public BlockBehavior behavior() {
+        return behavior;
     }
 
     public Vector3f color() {
         return color;
     }
+
+    public float alpha() {
+        return alpha;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
 }
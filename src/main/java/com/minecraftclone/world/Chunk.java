@@ -1,13 +1,19 @@
 package com.minecraftclone.world;
 
+import com.minecraftclone.graphics.BufferPool;
 import com.minecraftclone.graphics.Mesh;
 import com.minecraftclone.graphics.ShaderProgram;
+import com.minecraftclone.graphics.TranslucentMesh;
+import com.minecraftclone.graphics.VertexWriter;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class Chunk {
     public static final int SIZE = 16;
     public static final int HEIGHT = 96;
+    public static final int SECTION_HEIGHT = 16;
+    public static final int SECTION_COUNT = HEIGHT / SECTION_HEIGHT;
 
     private static final int[][] FACE_NORMALS = {
             {-1, 0, 0},
@@ -28,24 +34,63 @@ public final class Chunk {
     };
 
     private static final int[] QUAD_INDICES = {0, 1, 2, 0, 2, 3};
+    private static final int MIN_EXPECTED_VERTICES = 1024;
+    private static final int SECTION_VOLUME = SIZE * SECTION_HEIGHT * SIZE;
+    private static final BlockRegistry REGISTRY = BlockRegistry.defaults();
+    private static final int TYPE_COUNT = REGISTRY.size();
+    private static final int NO_BLOCK = -1;
+    private static final int ALL_SLICES = (1 << SIZE) - 1;
+    // Column bitmasks take two longs per (x, z): bits 0-63 are y 0-63, bits 0-31 of the second word y 64-95.
+    private static final int COLUMN_WORDS = 2;
 
     private final int chunkX;
     private final int chunkZ;
-    private final BlockType[][][] blocks;
+    // Block ids, one array per x slice indexed by cellIndex(y, z). Replaced, never mutated in place, while a snapshot
+    // shares it; see snapshot().
+    private volatile short[][] blocks;
+    private final int[] randomTickCounts;
+    private final int[] collidableCounts;
+    private final int[] sectionTypeCounts;
+    private final byte[] highestSolid;
+    private final byte[] highestOpaque;
+    private final long[] filledColumns;
+    private final long[] opaqueColumns;
+    private volatile byte[] fluidLevels;
     private final Mesh mesh;
-    private boolean dirty;
+    private final TranslucentMesh translucentMesh;
+    private final AtomicLong modificationStamp;
+    private volatile long meshedStamp;
+    private volatile long queuedStamp;
+    private volatile long lastTouchedNanos;
+    // The modification stamp as of lastTouchedNanos; a newer one is a write the idle check has not seen yet.
+    private volatile long touchedStamp;
+    private volatile boolean retired;
+    private boolean outerShared;
+    private int sharedSlices;
+    private boolean fluidsShared;
+    private int expectedOpaqueVertices;
+    private int expectedTranslucentVertices;
 
     public Chunk(int chunkX, int chunkZ) {
         this.chunkX = chunkX;
         this.chunkZ = chunkZ;
-        this.blocks = new BlockType[SIZE][HEIGHT][SIZE];
-        for (int x = 0; x < SIZE; x++) {
-            for (int y = 0; y < HEIGHT; y++) {
-                Arrays.fill(blocks[x][y], BlockType.AIR);
-            }
+        // Zeroed, which is air.
+        this.blocks = new short[SIZE][HEIGHT * SIZE];
+        this.randomTickCounts = new int[SECTION_COUNT];
+        this.collidableCounts = new int[SECTION_COUNT];
+        this.sectionTypeCounts = new int[SECTION_COUNT * TYPE_COUNT];
+        for (int section = 0; section < SECTION_COUNT; section++) {
+            sectionTypeCounts[section * TYPE_COUNT + BlockRegistry.AIR_ID] = SECTION_VOLUME;
         }
+        this.highestSolid = new byte[SIZE * SIZE];
+        this.highestOpaque = new byte[SIZE * SIZE];
+        Arrays.fill(highestSolid, (byte) NO_BLOCK);
+        Arrays.fill(highestOpaque, (byte) NO_BLOCK);
+        this.filledColumns = new long[SIZE * SIZE * COLUMN_WORDS];
+        this.opaqueColumns = new long[SIZE * SIZE * COLUMN_WORDS];
         this.mesh = new Mesh();
-        this.dirty = true;
+        this.translucentMesh = new TranslucentMesh(BufferPool.shared());
+        this.modificationStamp = new AtomicLong(1L);
     }
 
     public int chunkX() {
@@ -56,87 +101,416 @@ public final class Chunk {
         return chunkZ;
     }
 
-    public void setBlock(int x, int y, int z, BlockType type) {
+    public synchronized void setBlock(int x, int y, int z, BlockType type) {
+        if (y < 0 || y >= HEIGHT) {
+            return;
+        }
+        store(x, y, z, type, type.isFluid() ? FluidSimulator.SOURCE_LEVEL : 0);
+    }
+
+    synchronized void setFluid(int x, int y, int z, BlockType type, int level) {
         if (y < 0 || y >= HEIGHT) {
             return;
         }
-        blocks[x][y][z] = type;
-        dirty = true;
+        store(x, y, z, type, level);
+    }
+
+    private void store(int x, int y, int z, BlockType type, int fluidLevel) {
+        if ((sharedSlices & (1 << x)) != 0) {
+            unshareSlice(x);
+        }
+        short[] slice = blocks[x];
+        int cell = cellIndex(y, z);
+        int previous = slice[cell];
+        int id = type.id();
+        int section = y / SECTION_HEIGHT;
+        sectionTypeCounts[section * TYPE_COUNT + previous]--;
+        sectionTypeCounts[section * TYPE_COUNT + id]++;
+        slice[cell] = (short) id;
+        int flags = REGISTRY.flags(id);
+        int changedFlags = REGISTRY.flags(previous) ^ flags;
+        if ((changedFlags & BlockRegistry.FLAG_RANDOM_TICKS) != 0) {
+            randomTickCounts[section] += (flags & BlockRegistry.FLAG_RANDOM_TICKS) != 0 ? 1 : -1;
+        }
+        if ((changedFlags & BlockRegistry.FLAG_COLLIDABLE) != 0) {
+            boolean collidable = (flags & BlockRegistry.FLAG_COLLIDABLE) != 0;
+            collidableCounts[section] += collidable ? 1 : -1;
+            updateHeight(highestSolid, x, y, z, collidable, BlockRegistry.FLAG_COLLIDABLE);
+        }
+        if ((changedFlags & BlockRegistry.FLAG_OPAQUE) != 0) {
+            boolean opaque = (flags & BlockRegistry.FLAG_OPAQUE) != 0;
+            updateHeight(highestOpaque, x, y, z, opaque, BlockRegistry.FLAG_OPAQUE);
+            setColumnBit(opaqueColumns, x, y, z, opaque);
+        }
+        if ((previous == BlockRegistry.AIR_ID) != (id == BlockRegistry.AIR_ID)) {
+            setColumnBit(filledColumns, x, y, z, id != BlockRegistry.AIR_ID);
+        }
+        byte[] levels = fluidLevels;
+        if (levels == null && fluidLevel != 0) {
+            levels = new byte[SIZE * HEIGHT * SIZE];
+            fluidLevels = levels;
+        }
+        if (levels != null) {
+            if (fluidsShared) {
+                levels = levels.clone();
+                fluidLevels = levels;
+                fluidsShared = false;
+            }
+            levels[fluidIndex(x, y, z)] = (byte) fluidLevel;
+        }
+        // Bumped after the write so a reader that saw the old stamp re-checks and finds it moved.
+        modificationStamp.incrementAndGet();
+    }
+
+    // Copies the 16 outer references once, then one x slice (HEIGHT * SIZE ids) per slice first written after a snapshot.
+    private void unshareSlice(int x) {
+        short[][] current = blocks;
+        short[][] copy = outerShared ? current.clone() : current;
+        copy[x] = current[x].clone();
+        outerShared = false;
+        sharedSlices &= ~(1 << x);
+        blocks = copy;
+    }
+
+    // O(1): the snapshot shares the live arrays, and the next store() to each x slice copies it first.
+    synchronized ChunkSnapshot snapshot() {
+        outerShared = true;
+        sharedSlices = ALL_SLICES;
+        byte[] levels = fluidLevels;
+        fluidsShared = levels != null;
+        return new ChunkSnapshot(chunkX, chunkZ, blocks, levels);
+    }
+
+    private static void setColumnBit(long[] columns, int x, int y, int z, boolean set) {
+        int word = (x * SIZE + z) * COLUMN_WORDS + (y >>> 6);
+        long bit = 1L << y;
+        columns[word] = set ? columns[word] | bit : columns[word] & ~bit;
+    }
+
+    private void updateHeight(byte[] heights, int x, int y, int z, boolean filled, int flag) {
+        int column = x * SIZE + z;
+        int top = heights[column];
+        if (filled) {
+            if (y > top) {
+                heights[column] = (byte) y;
+            }
+            return;
+        }
+        if (y != top) {
+            return;
+        }
+        // Only clearing the top block needs a scan, and only down to the next filled one.
+        short[] slice = blocks[x];
+        int next = y - 1;
+        while (next >= 0 && (REGISTRY.flags(slice[cellIndex(next, z)]) & flag) == 0) {
+            next--;
+        }
+        heights[column] = (byte) next;
     }
 
     public BlockType getBlock(int x, int y, int z) {
+        return REGISTRY.byId(getBlockId(x, y, z));
+    }
+
+    public int getBlockId(int x, int y, int z) {
         if (y < 0 || y >= HEIGHT) {
-            return BlockType.AIR;
+            return BlockRegistry.AIR_ID;
+        }
+        return blocks[x][cellIndex(y, z)];
+    }
+
+    public boolean isCollidable(int x, int y, int z) {
+        return REGISTRY.isCollidable(getBlockId(x, y, z));
+    }
+
+    public int getFluidLevel(int x, int y, int z) {
+        byte[] levels = fluidLevels;
+        if (levels == null || y < 0 || y >= HEIGHT) {
+            return 0;
+        }
+        return levels[fluidIndex(x, y, z)];
+    }
+
+    public int getHighestSolidY(int x, int z) {
+        return highestSolid[x * SIZE + z];
+    }
+
+    public int getHighestOpaqueY(int x, int z) {
+        return highestOpaque[x * SIZE + z];
+    }
+
+    public int countInSection(int section, BlockType type) {
+        return sectionTypeCounts[section * TYPE_COUNT + type.id()];
+    }
+
+    public boolean isSectionEmpty(int section) {
+        return countInSection(section, BlockType.AIR) == SECTION_VOLUME;
+    }
+
+    public boolean hasCollidableBlocks(int section) {
+        return collidableCounts[section] > 0;
+    }
+
+    // Bit s is set when section s holds anything collidable; 0 means nothing in the chunk can stop a ray.
+    public int collidableSections() {
+        int sections = 0;
+        for (int section = 0; section < SECTION_COUNT; section++) {
+            if (collidableCounts[section] > 0) {
+                sections |= 1 << section;
+            }
         }
-        return blocks[x][y][z];
+        return sections;
     }
 
+    public boolean hasRandomTickingBlocks(int section) {
+        return randomTickCounts[section] > 0;
+    }
+
+    public boolean hasRandomTickingBlocks() {
+        for (int count : randomTickCounts) {
+            if (count > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long modificationStamp() {
+        return modificationStamp.get();
+    }
+
+    void touch(long now) {
+        lastTouchedNanos = now;
+        touchedStamp = modificationStamp.get();
+    }
+
+    // Any write since the last call counts as a touch at now. Every writer bumps the modification stamp, so fluid flow,
+    // region edits and history replays keep a chunk resident without each timing its own writes.
+    long lastTouchedNanos(long now) {
+        if (modificationStamp.get() != touchedStamp) {
+            touch(now);
+        }
+        return lastTouchedNanos;
+    }
+
+    // Set under the chunk lock when the chunk is compressed; writers that raced the demotion retry on the new copy.
+    void retire() {
+        retired = true;
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    // A mesh waiting in a ChunkMeshQueue counts as current, so the simulation does not rebuild it every step.
     public boolean isDirty() {
-        return dirty;
+        return Math.max(meshedStamp, queuedStamp) != modificationStamp.get();
+    }
+
+    void meshQueued(long stamp) {
+        queuedStamp = stamp;
     }
 
     public void markDirty() {
-        dirty = true;
+        modificationStamp.incrementAndGet();
     }
 
-    public void rebuildMesh(World world) {
-        FloatArrayBuilder builder = new FloatArrayBuilder();
+    public boolean isCurrent(ChunkMeshData data) {
+        return data.sourceStamp() == modificationStamp.get();
+    }
 
+    public boolean rebuildMesh(World world) {
+        return uploadMesh(buildMesh(world));
+    }
+
+    public ChunkMeshData buildMesh(World world) {
+        long stamp = modificationStamp.get();
+        BufferPool pool = BufferPool.shared();
+        VertexWriter opaque = new VertexWriter(pool, Math.max(expectedOpaqueVertices, MIN_EXPECTED_VERTICES));
+        VertexWriter translucent = new VertexWriter(pool, Math.max(expectedTranslucentVertices, MIN_EXPECTED_VERTICES));
+        FloatArrayBuilder quadCenters = new FloatArrayBuilder();
+        Chunk west = world.getLoadedChunk(chunkX - 1, chunkZ);
+        Chunk east = world.getLoadedChunk(chunkX + 1, chunkZ);
+        Chunk north = world.getLoadedChunk(chunkX, chunkZ - 1);
+        Chunk south = world.getLoadedChunk(chunkX, chunkZ + 1);
+        short[][] blocks = this.blocks;
+        TextureLayers textures = TextureLayers.defaults();
+
+        long[] visible = new long[FACE_NORMALS.length * COLUMN_WORDS];
         for (int x = 0; x < SIZE; x++) {
-            for (int y = 0; y < HEIGHT; y++) {
-                for (int z = 0; z < SIZE; z++) {
-                    BlockType block = blocks[x][y][z];
-                    if (!block.isSolid()) {
-                        continue;
-                    }
+            for (int z = 0; z < SIZE; z++) {
+                int column = (x * SIZE + z) * COLUMN_WORDS;
+                long filledLow = filledColumns[column];
+                long filledHigh = filledColumns[column + 1];
+                if ((filledLow | filledHigh) == 0L) {
+                    continue;
+                }
+                long opaqueLow = opaqueColumns[column];
+                long opaqueHigh = opaqueColumns[column + 1];
+                // A face is a candidate wherever the cell is filled and the cell it faces is not opaque.
+                cull(visible, 0, filledLow, filledHigh, opaqueWord(west, east, north, south, x - 1, z, 0),
+                        opaqueWord(west, east, north, south, x - 1, z, 1));
+                cull(visible, 1, filledLow, filledHigh, opaqueWord(west, east, north, south, x + 1, z, 0),
+                        opaqueWord(west, east, north, south, x + 1, z, 1));
+                // Below y = 0 counts as bedrock, above the top as air.
+                cull(visible, 2, filledLow, filledHigh, (opaqueLow << 1) | 1L, (opaqueHigh << 1) | (opaqueLow >>> 63));
+                cull(visible, 3, filledLow, filledHigh, (opaqueLow >>> 1) | (opaqueHigh << 63), opaqueHigh >>> 1);
+                cull(visible, 4, filledLow, filledHigh, opaqueWord(west, east, north, south, x, z - 1, 0),
+                        opaqueWord(west, east, north, south, x, z - 1, 1));
+                cull(visible, 5, filledLow, filledHigh, opaqueWord(west, east, north, south, x, z + 1, 0),
+                        opaqueWord(west, east, north, south, x, z + 1, 1));
+
+                for (int word = 0; word < COLUMN_WORDS; word++) {
+                    long cells = 0L;
                     for (int face = 0; face < FACE_NORMALS.length; face++) {
-                        int nx = FACE_NORMALS[face][0];
-                        int ny = FACE_NORMALS[face][1];
-                        int nz = FACE_NORMALS[face][2];
-
-                        int worldX = chunkX * SIZE + x;
-                        int worldZ = chunkZ * SIZE + z;
-                        if (world.isSolidBlock(worldX + nx, y + ny, worldZ + nz)) {
-                            continue;
+                        cells |= visible[face * COLUMN_WORDS + word];
+                    }
+                    while (cells != 0L) {
+                        int bit = Long.numberOfTrailingZeros(cells);
+                        cells &= cells - 1L;
+                        int y = word * Long.SIZE + bit;
+                        int id = blocks[x][cellIndex(y, z)];
+                        boolean opaqueBlock = REGISTRY.isOpaque(id);
+                        boolean translucentBlock = REGISTRY.isTranslucent(id);
+                        float topHeight = 1.0f;
+                        if (REGISTRY.isFluid(id) && getBlockId(x, y + 1, z) != id) {
+                            topHeight = getFluidLevel(x, y, z) / (float) (FluidSimulator.SOURCE_LEVEL + 1);
                         }
+                        for (int face = 0; face < FACE_NORMALS.length; face++) {
+                            if ((visible[face * COLUMN_WORDS + word] & (1L << bit)) == 0L) {
+                                continue;
+                            }
+                            int nx = FACE_NORMALS[face][0];
+                            int ny = FACE_NORMALS[face][1];
+                            int nz = FACE_NORMALS[face][2];
+                            // Only non-opaque blocks can face their own kind through a non-opaque neighbour (water to water).
+                            if (!opaqueBlock && neighborBlockId(west, east, north, south, x + nx, y + ny, z + nz) == id) {
+                                continue;
+                            }
 
-                        float[][] vertices = FACE_VERTICES[face];
-                        for (int index : QUAD_INDICES) {
-                            float[] v = vertices[index];
-                            builder.add(
-                                    x + v[0], y + v[1], z + v[2],
-                                    nx, ny, nz,
-                                    block.color().x, block.color().y, block.color().z
-                            );
+                            float[][] vertices = FACE_VERTICES[face];
+                            int layer = textures.layer(id, face);
+                            if (translucentBlock) {
+                                for (float[] v : vertices) {
+                                    translucent.vertex(x + v[0], y + v[1] * topHeight, z + v[2], face, layer);
+                                }
+                                quadCenters.add(x + 0.5f + nx * 0.5f, y + (0.5f + ny * 0.5f) * topHeight, z + 0.5f + nz * 0.5f);
+                                continue;
+                            }
+                            for (int index : QUAD_INDICES) {
+                                float[] v = vertices[index];
+                                opaque.vertex(x + v[0], y + v[1] * topHeight, z + v[2], face, layer);
+                            }
                         }
                     }
                 }
             }
         }
 
-        float[] vertexData = builder.toArray();
-        mesh.upload(vertexData);
-        dirty = false;
+        expectedOpaqueVertices = opaque.vertexCount();
+        expectedTranslucentVertices = translucent.vertexCount();
+        return new ChunkMeshData(stamp, opaque, translucent, quadCenters.toArray());
+    }
+
+    private static void cull(long[] visible, int face, long filledLow, long filledHigh, long coverLow, long coverHigh) {
+        visible[face * COLUMN_WORDS] = filledLow & ~coverLow;
+        visible[face * COLUMN_WORDS + 1] = filledHigh & ~coverHigh;
     }
 
-    public void render(ShaderProgram shader) {
-        shader.setUniform("chunkOffset", chunkX * SIZE, 0.0f, chunkZ * SIZE);
+    private long opaqueWord(Chunk west, Chunk east, Chunk north, Chunk south, int x, int z, int word) {
+        Chunk owner = this;
+        if (x < 0) {
+            owner = west;
+            x += SIZE;
+        } else if (x >= SIZE) {
+            owner = east;
+            x -= SIZE;
+        } else if (z < 0) {
+            owner = north;
+            z += SIZE;
+        } else if (z >= SIZE) {
+            owner = south;
+            z -= SIZE;
+        }
+        return owner == null ? 0L : owner.opaqueColumns[(x * SIZE + z) * COLUMN_WORDS + word];
+    }
+
+    private int neighborBlockId(Chunk west, Chunk east, Chunk north, Chunk south, int x, int y, int z) {
+        if (y < 0) {
+            return BlockType.BEDROCK.id();
+        }
+        Chunk owner = this;
+        if (x < 0) {
+            owner = west;
+            x += SIZE;
+        } else if (x >= SIZE) {
+            owner = east;
+            x -= SIZE;
+        } else if (z < 0) {
+            owner = north;
+            z += SIZE;
+        } else if (z >= SIZE) {
+            owner = south;
+            z -= SIZE;
+        }
+        return owner == null ? BlockRegistry.AIR_ID : owner.getBlockId(x, y, z);
+    }
+
+    public boolean uploadMesh(ChunkMeshData data) {
+        try {
+            if (retired || !isCurrent(data)) {
+                return false;
+            }
+            mesh.upload(data.opaqueVertices(), data.opaqueVertexCount());
+            translucentMesh.upload(data.translucentVertices(), data.quadCenters(), data.translucentQuadCount());
+            meshedStamp = data.sourceStamp();
+            return true;
+        } finally {
+            data.release();
+        }
+    }
+
+    public void render(ShaderProgram.Vec3Uniform chunkOffset) {
+        chunkOffset.set(chunkX * SIZE, 0.0f, chunkZ * SIZE);
         mesh.render();
     }
 
+    public boolean hasTranslucentGeometry() {
+        return !translucentMesh.isEmpty();
+    }
+
+    public boolean sortTranslucent(int cameraBlockX, int cameraBlockY, int cameraBlockZ, float cameraX, float cameraY, float cameraZ) {
+        long cameraKey = BlockPos.pack(cameraBlockX, cameraBlockY, cameraBlockZ);
+        return translucentMesh.sortIfNeeded(cameraKey, cameraX - chunkX * SIZE, cameraY, cameraZ - chunkZ * SIZE);
+    }
+
+    public void renderTranslucent(ShaderProgram.Vec3Uniform chunkOffset) {
+        chunkOffset.set(chunkX * SIZE, 0.0f, chunkZ * SIZE);
+        translucentMesh.render();
+    }
+
     public void cleanup() {
         mesh.cleanup();
+        translucentMesh.cleanup();
+    }
+
+    static int cellIndex(int y, int z) {
+        return y * SIZE + z;
+    }
+
+    static int fluidIndex(int x, int y, int z) {
+        return (x * HEIGHT + y) * SIZE + z;
     }
 
     private static final class FloatArrayBuilder {
-        private float[] data = new float[1024];
+        private float[] data = new float[96];
         private int size;
 
-        void add(float... values) {
-            ensureCapacity(size + values.length);
-            for (float value : values) {
-                data[size++] = value;
-            }
+        void add(float x, float y, float z) {
+            ensureCapacity(size + 3);
+            data[size++] = x;
+            data[size++] = y;
+            data[size++] = z;
         }
 
         float[] toArray() {
@@ -0,0 +1,241 @@
+package com.minecraftclone.world;
+
+import java.util.Arrays;
+
+// The cells one history step changed in one chunk, as runs of consecutive cell indices that all went from one block
+// id to another. Each run is four varints: the gap since the previous run, its length, the old id and the new id, so a
+// single edit costs four bytes and a filled run of one layer costs hardly more.
+final class ChunkDelta {
+    static final int WEST = 1;
+    static final int EAST = 2;
+    static final int NORTH = 4;
+    static final int SOUTH = 8;
+    // Object headers, the array header and the fields, as a 64-bit JVM with compressed references lays them out.
+    private static final int OVERHEAD_BYTES = 56;
+
+    final int chunkX;
+    final int chunkZ;
+    final int cells;
+    private final byte[] runs;
+
+    private ChunkDelta(int chunkX, int chunkZ, byte[] runs, int cells) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.runs = runs;
+        this.cells = cells;
+    }
+
+    // Same order as Chunk's block array and RegionEditor's loops, so region edits arrive already sorted.
+    static int index(int x, int y, int z) {
+        return (x * Chunk.HEIGHT + y) * Chunk.SIZE + z;
+    }
+
+    static int x(int index) {
+        return index / (Chunk.HEIGHT * Chunk.SIZE);
+    }
+
+    static int y(int index) {
+        return index / Chunk.SIZE % Chunk.HEIGHT;
+    }
+
+    static int z(int index) {
+        return index % Chunk.SIZE;
+    }
+
+    long bytes() {
+        return runs.length + OVERHEAD_BYTES;
+    }
+
+    void forEachRun(RunVisitor visitor) {
+        int[] position = {0};
+        int end = 0;
+        while (position[0] < runs.length) {
+            int start = end + readVarint(position);
+            int length = readVarint(position);
+            int oldId = readVarint(position);
+            int newId = readVarint(position);
+            visitor.run(start, length, oldId, newId);
+            end = start + length;
+        }
+    }
+
+    private int readVarint(int[] position) {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            byte next = runs[position[0]++];
+            value |= (next & 0x7f) << shift;
+            if (next >= 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    // The chunk borders a cell lies on, whose neighbours' meshes have to be rebuilt along with it.
+    static int borders(int index) {
+        int x = x(index);
+        int z = z(index);
+        return (x == 0 ? WEST : 0) | (x == Chunk.SIZE - 1 ? EAST : 0) | (z == 0 ? NORTH : 0) | (z == Chunk.SIZE - 1 ? SOUTH : 0);
+    }
+
+    @FunctionalInterface
+    interface RunVisitor {
+        void run(int start, int length, int oldId, int newId);
+    }
+
+    // Collects one chunk's edits in the order they were made; a cell edited more than once keeps its first old id
+    // and its last new id, and one that ends where it started is left out.
+    static final class Builder {
+        final int chunkX;
+        final int chunkZ;
+        private int[] indices;
+        private short[] oldIds;
+        private short[] newIds;
+        private int size;
+        private boolean ordered;
+
+        Builder(int chunkX, int chunkZ) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.indices = new int[16];
+            this.oldIds = new short[16];
+            this.newIds = new short[16];
+            this.ordered = true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(int index, BlockType previous, BlockType next) {
+            if (size == indices.length) {
+                int capacity = size * 2;
+                indices = Arrays.copyOf(indices, capacity);
+                oldIds = Arrays.copyOf(oldIds, capacity);
+                newIds = Arrays.copyOf(newIds, capacity);
+            }
+            if (size > 0 && index < indices[size - 1]) {
+                ordered = false;
+            }
+            indices[size] = index;
+            oldIds[size] = (short) previous.id();
+            newIds[size] = (short) next.id();
+            size++;
+        }
+
+        void addAll(Builder other) {
+            for (int i = 0; i < other.size; i++) {
+                if (size == indices.length) {
+                    int capacity = Math.max(size * 2, size + other.size - i);
+                    indices = Arrays.copyOf(indices, capacity);
+                    oldIds = Arrays.copyOf(oldIds, capacity);
+                    newIds = Arrays.copyOf(newIds, capacity);
+                }
+                if (size > 0 && other.indices[i] < indices[size - 1]) {
+                    ordered = false;
+                }
+                indices[size] = other.indices[i];
+                oldIds[size] = other.oldIds[i];
+                newIds[size] = other.newIds[i];
+                size++;
+            }
+        }
+
+        // Null when nothing in the chunk ended up different.
+        ChunkDelta build() {
+            if (!ordered) {
+                sort();
+            }
+            RunWriter writer = new RunWriter();
+            int cells = 0;
+            int i = 0;
+            while (i < size) {
+                int index = indices[i];
+                int oldId = oldIds[i] & 0xffff;
+                while (i + 1 < size && indices[i + 1] == index) {
+                    i++;
+                }
+                int newId = newIds[i] & 0xffff;
+                i++;
+                if (oldId != newId) {
+                    writer.add(index, oldId, newId);
+                    cells++;
+                }
+            }
+            return cells == 0 ? null : new ChunkDelta(chunkX, chunkZ, writer.finish(), cells);
+        }
+
+        // By index, keeping edits to one cell in the order they were made.
+        private void sort() {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = (long) indices[i] << 32 | i;
+            }
+            Arrays.sort(keys);
+            int[] sortedIndices = new int[size];
+            short[] sortedOld = new short[size];
+            short[] sortedNew = new short[size];
+            for (int i = 0; i < size; i++) {
+                int from = (int) keys[i];
+                sortedIndices[i] = indices[from];
+                sortedOld[i] = oldIds[from];
+                sortedNew[i] = newIds[from];
+            }
+            indices = sortedIndices;
+            oldIds = sortedOld;
+            newIds = sortedNew;
+            ordered = true;
+        }
+    }
+
+    private static final class RunWriter {
+        private byte[] bytes = new byte[16];
+        private int length;
+        private int end;
+        private int runStart = -1;
+        private int runLength;
+        private int runOld;
+        private int runNew;
+
+        void add(int index, int oldId, int newId) {
+            if (runLength > 0 && index == runStart + runLength && oldId == runOld && newId == runNew) {
+                runLength++;
+                return;
+            }
+            flush();
+            runStart = index;
+            runLength = 1;
+            runOld = oldId;
+            runNew = newId;
+        }
+
+        byte[] finish() {
+            flush();
+            return Arrays.copyOf(bytes, length);
+        }
+
+        private void flush() {
+            if (runLength == 0) {
+                return;
+            }
+            writeVarint(runStart - end);
+            writeVarint(runLength);
+            writeVarint(runOld);
+            writeVarint(runNew);
+            end = runStart + runLength;
+            runLength = 0;
+        }
+
+        private void writeVarint(int value) {
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7f) != 0) {
+                bytes[length++] = (byte) (value & 0x7f | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.minecraftclone.world;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+public final class ChunkLoadScheduler {
+    public static final int DEFAULT_LOADS_PER_UPDATE = 2;
+    public static final float DEFAULT_DIRECTION_WEIGHT = 0.6f;
+    public static final float DEFAULT_PREFETCH_SECONDS = 2.5f;
+
+    private static final float MIN_HEADING_SPEED_SQUARED = 0.25f;
+    private static final int HEADING_BUCKETS = 16;
+    private static final int NO_HEADING = HEADING_BUCKETS;
+
+    private final PriorityQueue<LoadRequest> queue;
+    private final Set<Long> queued;
+    private int loadsPerUpdate;
+    private float directionWeight;
+    private float prefetchSeconds;
+    // What the queued plan was made for; null when the next update must re-plan.
+    private PlanInputs planned;
+
+    private int lastLoaded;
+    private int lastCancelled;
+    private long totalLoaded;
+    private long totalCancelled;
+    private long totalPrefetched;
+    private long totalLoadNanos;
+
+    public ChunkLoadScheduler() {
+        this.queue = new PriorityQueue<>();
+        this.queued = new HashSet<>();
+        this.loadsPerUpdate = DEFAULT_LOADS_PER_UPDATE;
+        this.directionWeight = DEFAULT_DIRECTION_WEIGHT;
+        this.prefetchSeconds = DEFAULT_PREFETCH_SECONDS;
+    }
+
+    public void setLoadsPerUpdate(int loadsPerUpdate) {
+        this.loadsPerUpdate = Math.max(1, loadsPerUpdate);
+    }
+
+    public void setDirectionWeight(float directionWeight) {
+        this.directionWeight = Math.max(0.0f, Math.min(0.95f, directionWeight));
+        planned = null;
+    }
+
+    public void setPrefetchSeconds(float prefetchSeconds) {
+        this.prefetchSeconds = Math.max(0.0f, prefetchSeconds);
+        planned = null;
+    }
+
+    public int queuedRequests() {
+        return queue.size();
+    }
+
+    public int lastLoaded() {
+        return lastLoaded;
+    }
+
+    public int lastCancelled() {
+        return lastCancelled;
+    }
+
+    public long totalLoaded() {
+        return totalLoaded;
+    }
+
+    public long totalCancelled() {
+        return totalCancelled;
+    }
+
+    public long totalPrefetched() {
+        return totalPrefetched;
+    }
+
+    // Time the updating thread spent waiting for generation or promotion of the chunks it loaded.
+    public long totalLoadNanos() {
+        return totalLoadNanos;
+    }
+
+    public int update(World world, float x, float z, float velocityX, float velocityZ,
+                      float viewX, float viewZ, boolean sprinting, int viewDistance) {
+        int centerChunkX = Math.floorDiv((int) Math.floor(x), Chunk.SIZE);
+        int centerChunkZ = Math.floorDiv((int) Math.floor(z), Chunk.SIZE);
+
+        float headingX = viewX;
+        float headingZ = viewZ;
+        boolean moving = velocityX * velocityX + velocityZ * velocityZ > MIN_HEADING_SPEED_SQUARED;
+        if (moving) {
+            headingX = velocityX;
+            headingZ = velocityZ;
+        }
+        float headingLength = (float) Math.sqrt(headingX * headingX + headingZ * headingZ);
+        int headingBucket = NO_HEADING;
+        if (headingLength > 1.0e-4f) {
+            headingX /= headingLength;
+            headingZ /= headingLength;
+            double angle = Math.atan2(headingZ, headingX);
+            headingBucket = Math.floorMod((int) Math.round(angle / (Math.PI * 2.0) * HEADING_BUCKETS), HEADING_BUCKETS);
+        } else {
+            headingX = 0.0f;
+            headingZ = 0.0f;
+        }
+        boolean prefetch = sprinting && moving && prefetchSeconds > 0.0f;
+
+        // Re-plan only when the inputs that shape the plan change, not every frame.
+        PlanInputs inputs = new PlanInputs(centerChunkX, centerChunkZ, headingBucket, prefetch, viewDistance);
+        if (!inputs.equals(planned)) {
+            plan(world, x, z, centerChunkX, centerChunkZ, headingX, headingZ,
+                    prefetch ? velocityX * prefetchSeconds : 0.0f,
+                    prefetch ? velocityZ * prefetchSeconds : 0.0f, viewDistance);
+            planned = inputs;
+        } else {
+            lastCancelled = 0;
+        }
+
+        int loaded = 0;
+        while (loaded < loadsPerUpdate && !queue.isEmpty()) {
+            LoadRequest request = queue.poll();
+            queued.remove(request.key());
+            int chunkX = World.unpackChunkX(request.key());
+            int chunkZ = World.unpackChunkZ(request.key());
+            if (world.getLoadedChunk(chunkX, chunkZ) != null) {
+                continue;
+            }
+            long start = System.nanoTime();
+            world.getOrCreateChunk(chunkX, chunkZ);
+            totalLoadNanos += System.nanoTime() - start;
+            if (request.prefetch()) {
+                totalPrefetched++;
+            }
+            loaded++;
+        }
+        lastLoaded = loaded;
+        totalLoaded += loaded;
+        return loaded;
+    }
+
+    public void clear() {
+        queue.clear();
+        queued.clear();
+        planned = null;
+    }
+
+    private void plan(World world, float x, float z, int centerChunkX, int centerChunkZ,
+                      float headingX, float headingZ, float aheadX, float aheadZ, int viewDistance) {
+        List<LoadRequest> requests = new ArrayList<>();
+        Set<Long> requested = new HashSet<>();
+        addRegion(world, requested, requests, x, z, centerChunkX, centerChunkZ, headingX, headingZ, viewDistance, false);
+        if (aheadX != 0.0f || aheadZ != 0.0f) {
+            int aheadChunkX = Math.floorDiv((int) Math.floor(x + aheadX), Chunk.SIZE);
+            int aheadChunkZ = Math.floorDiv((int) Math.floor(z + aheadZ), Chunk.SIZE);
+            addRegion(world, requested, requests, x, z, aheadChunkX, aheadChunkZ, headingX, headingZ, viewDistance, true);
+        }
+
+        int cancelled = 0;
+        for (Long previous : queued) {
+            if (!requested.contains(previous)) {
+                cancelled++;
+            }
+        }
+        lastCancelled = cancelled;
+        totalCancelled += cancelled;
+
+        queue.clear();
+        queued.clear();
+        queue.addAll(requests);
+        queued.addAll(requested);
+    }
+
+    private void addRegion(World world, Set<Long> requested, List<LoadRequest> requests,
+                           float x, float z, int regionChunkX, int regionChunkZ,
+                           float headingX, float headingZ, int radius, boolean prefetch) {
+        for (int chunkZ = regionChunkZ - radius; chunkZ <= regionChunkZ + radius; chunkZ++) {
+            for (int chunkX = regionChunkX - radius; chunkX <= regionChunkX + radius; chunkX++) {
+                long key = World.packChunkKey(chunkX, chunkZ);
+                if (requested.contains(key) || world.getLoadedChunk(chunkX, chunkZ) != null) {
+                    continue;
+                }
+                float dx = chunkX * Chunk.SIZE + Chunk.SIZE * 0.5f - x;
+                float dz = chunkZ * Chunk.SIZE + Chunk.SIZE * 0.5f - z;
+                float distance = (float) Math.sqrt(dx * dx + dz * dz);
+                float alignment = distance > Chunk.SIZE ? (dx * headingX + dz * headingZ) / distance : 1.0f;
+                requested.add(key);
+                requests.add(new LoadRequest(key, distance * (1.0f - directionWeight * alignment), prefetch));
+            }
+        }
+    }
+
+    private record PlanInputs(int centerChunkX, int centerChunkZ, int headingBucket, boolean prefetch,
+                              int viewDistance) {
+    }
+
+    private record LoadRequest(long key, float priority, boolean prefetch) implements Comparable<LoadRequest> {
+        @Override
+        public int compareTo(LoadRequest other) {
+            return Float.compare(priority, other.priority);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.minecraftclone.world;
+
+import com.minecraftclone.graphics.TranslucentMesh;
+import com.minecraftclone.graphics.VertexWriter;
+
+import java.nio.ByteBuffer;
+
+public final class ChunkMeshData {
+    private final long sourceStamp;
+    private final VertexWriter opaque;
+    private final VertexWriter translucent;
+    private final float[] quadCenters;
+
+    ChunkMeshData(long sourceStamp, VertexWriter opaque, VertexWriter translucent, float[] quadCenters) {
+        this.sourceStamp = sourceStamp;
+        this.opaque = opaque;
+        this.translucent = translucent;
+        this.quadCenters = quadCenters;
+    }
+
+    public long sourceStamp() {
+        return sourceStamp;
+    }
+
+    public ByteBuffer opaqueVertices() {
+        return opaque.contents();
+    }
+
+    public int opaqueVertexCount() {
+        return opaque.vertexCount();
+    }
+
+    public ByteBuffer translucentVertices() {
+        return translucent.contents();
+    }
+
+    public int translucentQuadCount() {
+        return translucent.vertexCount() / TranslucentMesh.VERTICES_PER_QUAD;
+    }
+
+    public float[] quadCenters() {
+        return quadCenters;
+    }
+
+    public void release() {
+        opaque.release();
+        translucent.release();
+    }
+}
@@ -0,0 +1,77 @@
+package com.minecraftclone.world;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Collects GL work on the simulation thread: meshes built but not yet uploaded, and chunks whose buffers must be freed.
+public final class ChunkMeshQueue {
+    private List<Chunk> meshedChunks = new ArrayList<>();
+    private List<ChunkMeshData> meshes = new ArrayList<>();
+    private List<Chunk> released = new ArrayList<>();
+
+    void addMesh(Chunk chunk, ChunkMeshData data) {
+        meshedChunks.add(chunk);
+        meshes.add(data);
+    }
+
+    void release(Chunk chunk) {
+        released.add(chunk);
+    }
+
+    public Batch drain() {
+        if (meshes.isEmpty() && released.isEmpty()) {
+            return Batch.EMPTY;
+        }
+        Batch batch = new Batch(meshedChunks, meshes, released);
+        meshedChunks = new ArrayList<>();
+        meshes = new ArrayList<>();
+        released = new ArrayList<>();
+        return batch;
+    }
+
+    public record Batch(List<Chunk> meshedChunks, List<ChunkMeshData> meshes, List<Chunk> released) {
+        public static final Batch EMPTY = new Batch(List.of(), List.of(), List.of());
+
+        public int size() {
+            return meshes.size() + released.size();
+        }
+
+        // For a batch the render thread never picked up: its work runs first, then this one's.
+        public Batch after(Batch older) {
+            if (older.size() == 0) {
+                return this;
+            }
+            if (size() == 0) {
+                return older;
+            }
+            List<Chunk> chunks = new ArrayList<>(older.meshedChunks);
+            chunks.addAll(meshedChunks);
+            List<ChunkMeshData> data = new ArrayList<>(older.meshes);
+            data.addAll(meshes);
+            List<Chunk> freed = new ArrayList<>(older.released);
+            freed.addAll(released);
+            return new Batch(chunks, data, freed);
+        }
+
+        // GL thread only. A mesh built before a later edit or a demotion is dropped by uploadMesh.
+        public int apply() {
+            int uploaded = 0;
+            for (int i = 0; i < meshes.size(); i++) {
+                if (meshedChunks.get(i).uploadMesh(meshes.get(i))) {
+                    uploaded++;
+                }
+            }
+            for (Chunk chunk : released) {
+                chunk.cleanup();
+            }
+            return uploaded;
+        }
+
+        // Headless callers: returns the mesh buffers to the pool without touching GL.
+        public void discard() {
+            for (ChunkMeshData data : meshes) {
+                data.release();
+            }
+        }
+    }
+}
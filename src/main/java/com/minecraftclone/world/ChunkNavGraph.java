@@ -0,0 +1,425 @@
+package com.minecraftclone.world;
+
+import com.minecraftclone.player.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Cells a player-sized body can stand in within one chunk, plus the entrances along its four borders. It is built from
+// this chunk's blocks alone, so an edit only stales this graph; moves across a border are checked against both graphs
+// while searching.
+final class ChunkNavGraph {
+    static final int WEST = 0;
+    static final int EAST = 1;
+    static final int NORTH = 2;
+    static final int SOUTH = 3;
+    static final int[] SIDE_DX = {-1, 1, 0, 0};
+    static final int[] SIDE_DZ = {0, 0, -1, 1};
+    static final int MAX_DROP_BLOCKS = 3;
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final int COLUMNS = Chunk.SIZE * Chunk.SIZE;
+    private static final int COLUMN_WORDS = (Chunk.HEIGHT + Long.SIZE - 1) / Long.SIZE;
+
+    final int chunkX;
+    final int chunkZ;
+    private final long[] solid;
+    private final int[] columnStart;
+    private final byte[] cellY;
+    private final short[] cellColumn;
+    private final Entrance[] entrances;
+    private final int[] entranceCosts;
+    private final int[] sideEntrance;
+
+    private ChunkNavGraph(Chunk chunk) {
+        this.chunkX = chunk.chunkX();
+        this.chunkZ = chunk.chunkZ();
+        this.solid = new long[COLUMNS * COLUMN_WORDS];
+        this.columnStart = new int[COLUMNS + 1];
+        byte[] ys = new byte[COLUMNS * 2];
+        short[] columns = new short[ys.length];
+        int count = 0;
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                int column = x * Chunk.SIZE + z;
+                int top = chunk.getHighestSolidY(x, z);
+                for (int y = 0; y <= top; y++) {
+                    if (chunk.isCollidable(x, y, z)) {
+                        solid[column * COLUMN_WORDS + (y >>> 6)] |= 1L << y;
+                    }
+                }
+                columnStart[column] = count;
+                for (int y = 0; y <= top + 1 && y < Chunk.HEIGHT; y++) {
+                    if (isSolid(column, y - 1) && isClear(column, y, y + Player.CLEARANCE_BLOCKS - 1)) {
+                        if (count == ys.length) {
+                            ys = Arrays.copyOf(ys, count * 2);
+                            columns = Arrays.copyOf(columns, count * 2);
+                        }
+                        ys[count] = (byte) y;
+                        columns[count] = (short) column;
+                        count++;
+                    }
+                }
+            }
+        }
+        columnStart[COLUMNS] = count;
+        this.cellY = Arrays.copyOf(ys, count);
+        this.cellColumn = Arrays.copyOf(columns, count);
+        this.sideEntrance = new int[4 * count];
+        this.entrances = findEntrances();
+        this.entranceCosts = new int[entrances.length * entrances.length];
+        for (Entrance from : entrances) {
+            int[] distances = distances(from.representative, false);
+            for (Entrance to : entrances) {
+                entranceCosts[from.index * entrances.length + to.index] = distances[to.representative];
+            }
+        }
+    }
+
+    // Reads the chunk without its lock; a racing edit bumps the edit count, so the caller drops this graph again.
+    static ChunkNavGraph build(Chunk chunk) {
+        return new ChunkNavGraph(chunk);
+    }
+
+    int cellCount() {
+        return cellY.length;
+    }
+
+    Entrance[] entrances() {
+        return entrances;
+    }
+
+    int entranceCost(Entrance from, Entrance to) {
+        return entranceCosts[from.index * entrances.length + to.index];
+    }
+
+    int worldX(int cell) {
+        return chunkX * Chunk.SIZE + cellColumn[cell] / Chunk.SIZE;
+    }
+
+    int worldY(int cell) {
+        return cellY[cell];
+    }
+
+    int worldZ(int cell) {
+        return chunkZ * Chunk.SIZE + cellColumn[cell] % Chunk.SIZE;
+    }
+
+    // The cell at these feet, or the one a short fall below them; -1 when there is nothing to stand on.
+    int cellNear(int localX, int y, int localZ) {
+        int column = localX * Chunk.SIZE + localZ;
+        for (int cell = columnStart[column + 1] - 1; cell >= columnStart[column]; cell--) {
+            if (cellY[cell] <= y) {
+                return y - cellY[cell] <= MAX_DROP_BLOCKS ? cell : -1;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isSolid(int column, int y) {
+        if (y < 0) {
+            return true;
+        }
+        if (y >= Chunk.HEIGHT) {
+            return false;
+        }
+        return (solid[column * COLUMN_WORDS + (y >>> 6)] & (1L << y)) != 0L;
+    }
+
+    private boolean isClear(int column, int fromY, int toY) {
+        for (int y = fromY; y <= toY; y++) {
+            if (isSolid(column, y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Cost of stepping between horizontally adjacent cells, or -1 when the body cannot make the move: a climb needs
+    // head room for the jump in the column it leaves, a drop needs the column it falls down to be clear.
+    static int moveCost(ChunkNavGraph fromGraph, int fromColumn, int fromY, ChunkNavGraph toGraph, int toColumn, int toY) {
+        int rise = toY - fromY;
+        if (rise > Player.CLIMB_BLOCKS || rise < -MAX_DROP_BLOCKS) {
+            return -1;
+        }
+        if (rise > 0 && !fromGraph.isClear(fromColumn, fromY + Player.CLEARANCE_BLOCKS, toY + Player.CLEARANCE_BLOCKS - 1)) {
+            return -1;
+        }
+        if (rise < 0 && !toGraph.isClear(toColumn, toY + Player.CLEARANCE_BLOCKS, fromY + Player.CLEARANCE_BLOCKS - 1)) {
+            return -1;
+        }
+        return 1 + Math.abs(rise);
+    }
+
+    private int localCost(int from, int to) {
+        return moveCost(this, cellColumn[from], cellY[from], this, cellColumn[to], cellY[to]);
+    }
+
+    // Dijkstra over this chunk only: costs from the cell to every cell, or with reverse set, from every cell to it.
+    int[] distances(int source, boolean reverse) {
+        int[] cost = new int[cellY.length];
+        Arrays.fill(cost, UNREACHABLE);
+        cost[source] = 0;
+        CellHeap open = new CellHeap();
+        open.push(0, source);
+        while (!open.isEmpty()) {
+            long entry = open.pop();
+            int cell = CellHeap.cell(entry);
+            int g = CellHeap.priority(entry);
+            if (g > cost[cell]) {
+                continue;
+            }
+            int column = cellColumn[cell];
+            int x = column / Chunk.SIZE;
+            int z = column % Chunk.SIZE;
+            for (int side = 0; side < 4; side++) {
+                int nx = x + SIDE_DX[side];
+                int nz = z + SIDE_DZ[side];
+                if (nx < 0 || nx >= Chunk.SIZE || nz < 0 || nz >= Chunk.SIZE) {
+                    continue;
+                }
+                int next = nx * Chunk.SIZE + nz;
+                for (int neighbour = columnStart[next]; neighbour < columnStart[next + 1]; neighbour++) {
+                    int step = reverse ? localCost(neighbour, cell) : localCost(cell, neighbour);
+                    if (step > 0 && g + step < cost[neighbour]) {
+                        cost[neighbour] = g + step;
+                        open.push(g + step, neighbour);
+                    }
+                }
+            }
+        }
+        return cost;
+    }
+
+    // A* between two cells of this chunk; the cells from start to goal inclusive, or null when the chunk alone
+    // does not connect them.
+    int[] findPath(int start, int goal) {
+        int[] cost = new int[cellY.length];
+        int[] parent = new int[cellY.length];
+        Arrays.fill(cost, UNREACHABLE);
+        cost[start] = 0;
+        parent[start] = -1;
+        int goalColumn = cellColumn[goal];
+        int goalX = goalColumn / Chunk.SIZE;
+        int goalZ = goalColumn % Chunk.SIZE;
+        CellHeap open = new CellHeap();
+        open.push(0, start);
+        while (!open.isEmpty()) {
+            long entry = open.pop();
+            int cell = CellHeap.cell(entry);
+            if (cell == goal) {
+                int length = 0;
+                for (int at = goal; at != -1; at = parent[at]) {
+                    length++;
+                }
+                int[] path = new int[length];
+                for (int at = goal; at != -1; at = parent[at]) {
+                    path[--length] = at;
+                }
+                return path;
+            }
+            int g = cost[cell];
+            int column = cellColumn[cell];
+            int x = column / Chunk.SIZE;
+            int z = column % Chunk.SIZE;
+            if (CellHeap.priority(entry) > g + Math.abs(x - goalX) + Math.abs(z - goalZ) + Math.abs(cellY[cell] - cellY[goal])) {
+                continue;
+            }
+            for (int side = 0; side < 4; side++) {
+                int nx = x + SIDE_DX[side];
+                int nz = z + SIDE_DZ[side];
+                if (nx < 0 || nx >= Chunk.SIZE || nz < 0 || nz >= Chunk.SIZE) {
+                    continue;
+                }
+                int next = nx * Chunk.SIZE + nz;
+                for (int neighbour = columnStart[next]; neighbour < columnStart[next + 1]; neighbour++) {
+                    int step = localCost(cell, neighbour);
+                    if (step > 0 && g + step < cost[neighbour]) {
+                        cost[neighbour] = g + step;
+                        parent[neighbour] = cell;
+                        int estimate = Math.abs(nx - goalX) + Math.abs(nz - goalZ) + Math.abs(cellY[neighbour] - cellY[goal]);
+                        open.push(g + step + estimate, neighbour);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int borderColumn(int side, int along) {
+        return switch (side) {
+            case WEST -> along;
+            case EAST -> (Chunk.SIZE - 1) * Chunk.SIZE + along;
+            case NORTH -> along * Chunk.SIZE;
+            default -> along * Chunk.SIZE + Chunk.SIZE - 1;
+        };
+    }
+
+    private static int along(int side, int column) {
+        return side == WEST || side == EAST ? column % Chunk.SIZE : column / Chunk.SIZE;
+    }
+
+    // One entrance per run of border cells that can walk to each other along the border, represented by its middle
+    // cell; the abstract search plans between representatives and refinement fixes up the exact cells.
+    private Entrance[] findEntrances() {
+        Arrays.fill(sideEntrance, -1);
+        List<Entrance> found = new ArrayList<>();
+        int[] run = new int[Chunk.SIZE * 4];
+        for (int side = 0; side < 4; side++) {
+            for (int along = 0; along < Chunk.SIZE; along++) {
+                int column = borderColumn(side, along);
+                for (int seed = columnStart[column]; seed < columnStart[column + 1]; seed++) {
+                    if (sideEntrance[side * cellY.length + seed] != -1) {
+                        continue;
+                    }
+                    int index = found.size();
+                    sideEntrance[side * cellY.length + seed] = index;
+                    run[0] = seed;
+                    int size = 1;
+                    for (int i = 0; i < size; i++) {
+                        int cell = run[i];
+                        int at = along(side, cellColumn[cell]);
+                        for (int next = at - 1; next <= at + 1; next += 2) {
+                            if (next < 0 || next >= Chunk.SIZE) {
+                                continue;
+                            }
+                            int nextColumn = borderColumn(side, next);
+                            for (int other = columnStart[nextColumn]; other < columnStart[nextColumn + 1]; other++) {
+                                if (sideEntrance[side * cellY.length + other] == -1
+                                        && localCost(cell, other) > 0 && localCost(other, cell) > 0) {
+                                    sideEntrance[side * cellY.length + other] = index;
+                                    if (size == run.length) {
+                                        run = Arrays.copyOf(run, size * 2);
+                                    }
+                                    run[size++] = other;
+                                }
+                            }
+                        }
+                    }
+                    int[] cells = Arrays.copyOf(run, size);
+                    int middle = cells[0];
+                    int lowest = Chunk.SIZE;
+                    int highest = -1;
+                    for (int cell : cells) {
+                        lowest = Math.min(lowest, along(side, cellColumn[cell]));
+                        highest = Math.max(highest, along(side, cellColumn[cell]));
+                    }
+                    int centre = (lowest + highest) / 2;
+                    for (int cell : cells) {
+                        if (Math.abs(along(side, cellColumn[cell]) - centre) < Math.abs(along(side, cellColumn[middle]) - centre)) {
+                            middle = cell;
+                        }
+                    }
+                    found.add(new Entrance(this, index, side, cells, middle));
+                }
+            }
+        }
+        return found.toArray(new Entrance[0]);
+    }
+
+    // Moves out of this entrance into the neighbouring chunk on its side, the cheapest one per entrance reached there.
+    List<Crossing> crossings(Entrance from, ChunkNavGraph neighbour) {
+        int opposite = from.side ^ 1;
+        List<Crossing> crossings = new ArrayList<>(2);
+        for (int cell : from.cells) {
+            int column = cellColumn[cell];
+            int otherColumn = borderColumn(opposite, along(from.side, column));
+            for (int other = neighbour.columnStart[otherColumn]; other < neighbour.columnStart[otherColumn + 1]; other++) {
+                int cost = moveCost(this, column, cellY[cell], neighbour, otherColumn, neighbour.cellY[other]);
+                if (cost < 0) {
+                    continue;
+                }
+                Entrance to = neighbour.entrances[neighbour.sideEntrance[opposite * neighbour.cellY.length + other]];
+                int existing = -1;
+                for (int i = 0; i < crossings.size(); i++) {
+                    if (crossings.get(i).to() == to) {
+                        existing = i;
+                    }
+                }
+                if (existing == -1) {
+                    crossings.add(new Crossing(to, cell, other, cost));
+                } else if (cost < crossings.get(existing).cost()) {
+                    crossings.set(existing, new Crossing(to, cell, other, cost));
+                }
+            }
+        }
+        return crossings;
+    }
+
+    static final class Entrance {
+        final ChunkNavGraph graph;
+        final int index;
+        final int side;
+        final int[] cells;
+        final int representative;
+
+        private Entrance(ChunkNavGraph graph, int index, int side, int[] cells, int representative) {
+            this.graph = graph;
+            this.index = index;
+            this.side = side;
+            this.cells = cells;
+            this.representative = representative;
+        }
+    }
+
+    record Crossing(Entrance to, int fromCell, int toCell, int cost) {
+    }
+
+    // Binary min-heap of (priority, cell) packed into longs, so the searches allocate no node objects.
+    private static final class CellHeap {
+        private long[] entries = new long[64];
+        private int size;
+
+        static int priority(long entry) {
+            return (int) (entry >>> 32);
+        }
+
+        static int cell(long entry) {
+            return (int) entry;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int priority, int cell) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            long entry = ((long) priority << 32) | cell;
+            int at = size++;
+            while (at > 0) {
+                int parent = (at - 1) >>> 1;
+                if (entries[parent] <= entry) {
+                    break;
+                }
+                entries[at] = entries[parent];
+                at = parent;
+            }
+            entries[at] = entry;
+        }
+
+        long pop() {
+            long top = entries[0];
+            long last = entries[--size];
+            int at = 0;
+            while (true) {
+                int child = at * 2 + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && entries[child + 1] < entries[child]) {
+                    child++;
+                }
+                if (entries[child] >= last) {
+                    break;
+                }
+                entries[at] = entries[child];
+                at = child;
+            }
+            entries[at] = last;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.minecraftclone.world;
+
+// Frozen view of a chunk's storage at a save point; the chunk copies before writing into anything shared here.
+final class ChunkSnapshot {
+    private final int chunkX;
+    private final int chunkZ;
+    private final short[][] blocks;
+    private final byte[] fluidLevels;
+
+    ChunkSnapshot(int chunkX, int chunkZ, short[][] blocks, byte[] fluidLevels) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.blocks = blocks;
+        this.fluidLevels = fluidLevels;
+    }
+
+    int chunkX() {
+        return chunkX;
+    }
+
+    int chunkZ() {
+        return chunkZ;
+    }
+
+    int getBlockId(int x, int y, int z) {
+        return blocks[x][Chunk.cellIndex(y, z)];
+    }
+
+    int getFluidLevel(int x, int y, int z) {
+        return fluidLevels == null ? 0 : fluidLevels[Chunk.fluidIndex(x, y, z)];
+    }
+}
@@ -0,0 +1,57 @@
+package com.minecraftclone.world;
+
+import java.util.Arrays;
+
+public final class Clipboard {
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final BlockType[] blocks;
+
+    public Clipboard(int sizeX, int sizeY, int sizeZ) {
+        if (sizeX <= 0 || sizeY <= 0 || sizeZ <= 0) {
+            throw new IllegalArgumentException("Clipboard dimensions must be positive");
+        }
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.blocks = new BlockType[sizeX * sizeY * sizeZ];
+        Arrays.fill(blocks, BlockType.AIR);
+    }
+
+    public int sizeX() {
+        return sizeX;
+    }
+
+    public int sizeY() {
+        return sizeY;
+    }
+
+    public int sizeZ() {
+        return sizeZ;
+    }
+
+    public int volume() {
+        return blocks.length;
+    }
+
+    public BlockType get(int x, int y, int z) {
+        return blocks[index(x, y, z)];
+    }
+
+    public void set(int x, int y, int z, BlockType type) {
+        blocks[index(x, y, z)] = type;
+    }
+
+    BlockType get(int index) {
+        return blocks[index];
+    }
+
+    void set(int index, BlockType type) {
+        blocks[index] = type;
+    }
+
+    int index(int x, int y, int z) {
+        return (y * sizeZ + z) * sizeX + x;
+    }
+}
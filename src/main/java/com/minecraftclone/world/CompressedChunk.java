@@ -0,0 +1,125 @@
+package com.minecraftclone.world;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+final class CompressedChunk {
+    private static final int INITIAL_CAPACITY = 2048;
+    private static final int MAX_RUN = 0xff;
+
+    private final int chunkX;
+    private final int chunkZ;
+    private final byte[] runs;
+
+    private CompressedChunk(int chunkX, int chunkZ, byte[] runs) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.runs = runs;
+    }
+
+    // Columns are stored bottom-up as (id, fluid level, length) runs; terrain columns collapse to a handful each.
+    static CompressedChunk compress(ChunkSnapshot chunk) {
+        byte[] out = new byte[INITIAL_CAPACITY];
+        int size = 0;
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                int y = 0;
+                while (y < Chunk.HEIGHT) {
+                    int id = chunk.getBlockId(x, y, z);
+                    int level = chunk.getFluidLevel(x, y, z);
+                    int end = y + 1;
+                    while (end < Chunk.HEIGHT && end - y < MAX_RUN
+                            && chunk.getBlockId(x, end, z) == id && chunk.getFluidLevel(x, end, z) == level) {
+                        end++;
+                    }
+                    if (size + 4 > out.length) {
+                        out = Arrays.copyOf(out, out.length * 2);
+                    }
+                    size = putRun(out, size, id, level, end - y);
+                    y = end;
+                }
+            }
+        }
+        return new CompressedChunk(chunk.chunkX(), chunk.chunkZ(), Arrays.copyOf(out, size));
+    }
+
+    private static int putRun(byte[] out, int size, int id, int level, int length) {
+        if (id < 0x80) {
+            out[size++] = (byte) id;
+        } else {
+            out[size++] = (byte) (0x80 | (id >>> 8));
+            out[size++] = (byte) id;
+        }
+        out[size++] = (byte) level;
+        out[size++] = (byte) length;
+        return size;
+    }
+
+    Chunk inflate() {
+        BlockRegistry registry = BlockRegistry.defaults();
+        Chunk chunk = new Chunk(chunkX, chunkZ);
+        int position = 0;
+        for (int x = 0; x < Chunk.SIZE; x++) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                int y = 0;
+                while (y < Chunk.HEIGHT) {
+                    int id = runs[position++] & 0xff;
+                    if ((id & 0x80) != 0) {
+                        id = ((id & 0x7f) << 8) | (runs[position++] & 0xff);
+                    }
+                    int level = runs[position++];
+                    int end = y + (runs[position++] & 0xff);
+                    if (id != BlockRegistry.AIR_ID || level != 0) {
+                        BlockType type = registry.byId(id);
+                        for (; y < end; y++) {
+                            chunk.setFluid(x, y, z, type, level);
+                        }
+                    }
+                    y = end;
+                }
+            }
+        }
+        return chunk;
+    }
+
+    int chunkX() {
+        return chunkX;
+    }
+
+    int chunkZ() {
+        return chunkZ;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(chunkX);
+        out.writeInt(chunkZ);
+        out.writeInt(runs.length);
+        out.write(runs);
+    }
+
+    // Ids are rewritten through the save's remap table, which can change their varint width.
+    static CompressedChunk read(DataInput in, int[] remap) throws IOException {
+        int chunkX = in.readInt();
+        int chunkZ = in.readInt();
+        byte[] saved = new byte[in.readInt()];
+        in.readFully(saved);
+        byte[] out = new byte[saved.length + saved.length / 2 + 4];
+        int size = 0;
+        int position = 0;
+        while (position < saved.length) {
+            int id = saved[position++] & 0xff;
+            if ((id & 0x80) != 0) {
+                id = ((id & 0x7f) << 8) | (saved[position++] & 0xff);
+            }
+            int mapped = id < remap.length ? remap[id] : BlockRegistry.AIR_ID;
+            size = putRun(out, size, mapped, saved[position++], saved[position++] & 0xff);
+        }
+        return new CompressedChunk(chunkX, chunkZ, Arrays.copyOf(out, size));
+    }
+
+    int sizeBytes() {
+        return runs.length;
+    }
+}
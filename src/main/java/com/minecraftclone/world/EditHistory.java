@@ -0,0 +1,248 @@
+package com.minecraftclone.world;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Undo and redo for edits made through it, or through a RegionEditor it is attached to. A step keeps only the cells it
+// changed, chunk by chunk, as ChunkDeltas; once undo and redo together hold more than the budget, the oldest undo
+// steps are dropped first.
+public final class EditHistory {
+    public static final long DEFAULT_BUDGET_BYTES = 16L << 20;
+    private static final int STEP_OVERHEAD_BYTES = 48;
+
+    private final World world;
+    private final long budgetBytes;
+    private final ArrayDeque<Step> undo;
+    private final ArrayDeque<Step> redo;
+    private Map<Long, ChunkDelta.Builder> open;
+    private int openDepth;
+    private long usedBytes;
+    private long droppedSteps;
+
+    public EditHistory(World world) {
+        this(world, DEFAULT_BUDGET_BYTES);
+    }
+
+    public EditHistory(World world, long budgetBytes) {
+        this.world = world;
+        this.budgetBytes = budgetBytes;
+        this.undo = new ArrayDeque<>();
+        this.redo = new ArrayDeque<>();
+    }
+
+    public synchronized int undoSteps() {
+        return undo.size();
+    }
+
+    public synchronized int redoSteps() {
+        return redo.size();
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    public long budgetBytes() {
+        return budgetBytes;
+    }
+
+    // Steps dropped to stay within the budget, including any too large to keep at all.
+    public synchronized long droppedSteps() {
+        return droppedSteps;
+    }
+
+    // Everything edited until the matching endStep() is undone as one step. Steps nest; only the outermost counts.
+    public synchronized void beginStep() {
+        if (openDepth++ == 0) {
+            open = new HashMap<>();
+        }
+    }
+
+    public synchronized void endStep() {
+        if (openDepth == 0) {
+            throw new IllegalStateException("endStep() without beginStep()");
+        }
+        if (--openDepth == 0) {
+            Map<Long, ChunkDelta.Builder> builders = open;
+            open = null;
+            commit(builders.values());
+        }
+    }
+
+    public void setBlock(int worldX, int worldY, int worldZ, BlockType type) {
+        BlockType previous = world.exchangeBlock(worldX, worldY, worldZ, type);
+        if (previous == null || previous == type) {
+            return;
+        }
+        ChunkDelta.Builder builder = new ChunkDelta.Builder(Math.floorDiv(worldX, Chunk.SIZE), Math.floorDiv(worldZ, Chunk.SIZE));
+        builder.add(ChunkDelta.index(Math.floorMod(worldX, Chunk.SIZE), worldY, Math.floorMod(worldZ, Chunk.SIZE)),
+                previous, type);
+        record(List.of(builder));
+    }
+
+    // One region operation's edits, one builder per chunk it covered; null entries are chunks it left alone.
+    synchronized void record(List<ChunkDelta.Builder> builders) {
+        if (open == null) {
+            commit(builders);
+            return;
+        }
+        for (ChunkDelta.Builder builder : builders) {
+            if (builder != null) {
+                open.computeIfAbsent(World.packChunkKey(builder.chunkX, builder.chunkZ),
+                        key -> new ChunkDelta.Builder(builder.chunkX, builder.chunkZ)).addAll(builder);
+            }
+        }
+    }
+
+    private void commit(Iterable<ChunkDelta.Builder> builders) {
+        List<ChunkDelta> deltas = new ArrayList<>();
+        long bytes = STEP_OVERHEAD_BYTES;
+        for (ChunkDelta.Builder builder : builders) {
+            ChunkDelta delta = builder == null ? null : builder.build();
+            if (delta != null) {
+                deltas.add(delta);
+                bytes += delta.bytes() + Integer.BYTES;
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        usedBytes -= bytes(redo);
+        redo.clear();
+        if (bytes > budgetBytes) {
+            droppedSteps++;
+            return;
+        }
+        undo.push(new Step(deltas.toArray(new ChunkDelta[0]), bytes));
+        usedBytes += bytes;
+        trim();
+    }
+
+    private void trim() {
+        while (usedBytes > budgetBytes && !undo.isEmpty()) {
+            usedBytes -= undo.removeLast().bytes;
+            droppedSteps++;
+        }
+        while (usedBytes > budgetBytes && !redo.isEmpty()) {
+            usedBytes -= redo.removeLast().bytes;
+            droppedSteps++;
+        }
+    }
+
+    private static long bytes(ArrayDeque<Step> steps) {
+        long bytes = 0L;
+        for (Step step : steps) {
+            bytes += step.bytes;
+        }
+        return bytes;
+    }
+
+    public synchronized Result undo() {
+        return move(undo, redo, true);
+    }
+
+    public synchronized Result redo() {
+        return move(redo, undo, false);
+    }
+
+    private Result move(ArrayDeque<Step> from, ArrayDeque<Step> to, boolean reverse) {
+        if (openDepth > 0) {
+            throw new IllegalStateException("Cannot undo or redo inside an open step");
+        }
+        Step step = from.poll();
+        if (step == null) {
+            return Result.NONE;
+        }
+        Result result = apply(step, reverse);
+        to.push(step);
+        return result;
+    }
+
+    // Each chunk is rewritten under its lock in one pass and remeshed once; block ticks and fluids then hear of every
+    // cell rewritten, as for setBlock. A cell that no longer holds what the step left there was changed since, by a
+    // block tick or another editor; it is skipped rather than overwritten.
+    private Result apply(Step step, boolean reverse) {
+        EditJournal journal = world.getEditJournal();
+        Replay replay = new Replay(journal, world.getBlockTicks().currentTick(), reverse);
+        for (ChunkDelta delta : step.deltas) {
+            Chunk chunk = world.getOrCreateChunk(delta.chunkX, delta.chunkZ);
+            while (true) {
+                synchronized (chunk) {
+                    if (!chunk.isRetired()) {
+                        replay.chunk = chunk;
+                        replay.changed = 0;
+                        delta.forEachRun(replay);
+                        break;
+                    }
+                }
+                chunk = world.getOrCreateChunk(delta.chunkX, delta.chunkZ);
+            }
+            world.onCellsChanged(chunk, replay.changedCells, replay.changed);
+        }
+        if (journal != null) {
+            journal.awaitDurable(replay.journalSequence);
+        }
+        return new Result(replay.cells, step.deltas.length, replay.conflicts);
+    }
+
+    public record Result(int cells, int chunks, int conflicts) {
+        public static final Result NONE = new Result(0, 0, 0);
+
+        public boolean isApplied() {
+            return chunks > 0;
+        }
+    }
+
+    private record Step(ChunkDelta[] deltas, long bytes) {
+    }
+
+    private static final class Replay implements ChunkDelta.RunVisitor {
+        private final EditJournal journal;
+        private final long tick;
+        private final boolean reverse;
+        private final BlockRegistry registry;
+        private Chunk chunk;
+        // The current chunk's rewritten cells; reused from chunk to chunk.
+        private int[] changedCells = new int[64];
+        private int changed;
+        private int cells;
+        private int conflicts;
+        private long journalSequence;
+
+        private Replay(EditJournal journal, long tick, boolean reverse) {
+            this.journal = journal;
+            this.tick = tick;
+            this.reverse = reverse;
+            this.registry = BlockType.registry();
+        }
+
+        @Override
+        public void run(int start, int length, int oldId, int newId) {
+            BlockType expected = registry.byId(reverse ? newId : oldId);
+            BlockType target = registry.byId(reverse ? oldId : newId);
+            for (int index = start; index < start + length; index++) {
+                int x = ChunkDelta.x(index);
+                int y = ChunkDelta.y(index);
+                int z = ChunkDelta.z(index);
+                if (chunk.getBlock(x, y, z) != expected) {
+                    conflicts++;
+                    continue;
+                }
+                chunk.setBlock(x, y, z, target);
+                if (changed == changedCells.length) {
+                    changedCells = Arrays.copyOf(changedCells, changed * 2);
+                }
+                changedCells[changed++] = index;
+                cells++;
+                if (journal != null) {
+                    journalSequence = journal.append(chunk.chunkX() * Chunk.SIZE + x, y, chunk.chunkZ() * Chunk.SIZE + z,
+                            expected, target, tick);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.minecraftclone.world;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+import java.util.zip.CRC32C;
+
+public final class EditJournal implements AutoCloseable {
+    public enum SyncPolicy {
+        // Written to the OS on every group commit but never forced: survives a process crash, not power loss.
+        NEVER,
+        // Forced once per group commit, so at most one commit interval of edits can be lost.
+        GROUP,
+        // World.setBlock waits until its record is forced; concurrent writers share one fsync.
+        EVERY_EDIT
+    }
+
+    public static final long DEFAULT_COMMIT_INTERVAL_MILLIS = 50L;
+
+    private static final int MAGIC = 0x4D434A31;
+    private static final int VERSION = 1;
+    private static final int RECORD_BYTES = 26;
+    private static final int CHECKED_BYTES = RECORD_BYTES - Integer.BYTES;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    // Full buffers a writer may leave queued before awaitDurable commits on its thread instead of waiting for the
+    // committer; also how many emptied buffers are kept for reuse.
+    private static final int MAX_QUEUED_BUFFERS = 4;
+
+    private final Path path;
+    private final SyncPolicy policy;
+    private final Object commitLock;
+    private final Thread committer;
+    private final CRC32C checksum;
+    private FileChannel channel;
+    // The buffer appends go to, the full ones queued ahead of it for the next commit, and emptied ones for reuse;
+    // all guarded by this.
+    private ByteBuffer pending;
+    private final ArrayDeque<ByteBuffer> filled;
+    private final ArrayDeque<ByteBuffer> spare;
+    private volatile int filledCount;
+    // Record sequences count from the first record ever written; the file holds those after fileBaseSequence.
+    private long appendedSequence;
+    private long fileBaseSequence;
+    private volatile long committedSequence;
+    private volatile IOException failure;
+    private volatile boolean closed;
+    private List<Record> recovered;
+    private final long truncatedBytes;
+    private long commits;
+    private long syncs;
+
+    private EditJournal(Path path, SyncPolicy policy, long commitIntervalMillis, FileChannel channel,
+                        List<Record> recovered, long truncatedBytes) {
+        this.path = path;
+        this.policy = policy;
+        this.commitLock = new Object();
+        this.checksum = new CRC32C();
+        this.channel = channel;
+        this.pending = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        this.filled = new ArrayDeque<>();
+        this.spare = new ArrayDeque<>();
+        this.recovered = recovered;
+        this.truncatedBytes = truncatedBytes;
+        this.appendedSequence = recovered.size();
+        this.committedSequence = recovered.size();
+        this.committer = new Thread(() -> runCommitter(commitIntervalMillis), "edit-journal");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    public static EditJournal open(Path path, SyncPolicy policy) throws IOException {
+        return open(path, policy, DEFAULT_COMMIT_INTERVAL_MILLIS);
+    }
+
+    public static EditJournal open(Path path, SyncPolicy policy, long commitIntervalMillis) throws IOException {
+        if (!Files.exists(path) || Files.size(path) == 0L) {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            writeFully(channel, ByteBuffer.wrap(header()));
+            channel.force(true);
+            return new EditJournal(path, policy, commitIntervalMillis, channel, new ArrayList<>(), 0L);
+        }
+
+        byte[] bytes = Files.readAllBytes(path);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+            throw new IOException(path + " is not an edit journal");
+        }
+        int[] remap = BlockRegistry.defaults().readIdRemap(in);
+        int headerBytes = bytes.length - in.available();
+
+        List<Record> records = new ArrayList<>();
+        ByteBuffer data = ByteBuffer.wrap(bytes, headerBytes, bytes.length - headerBytes);
+        CRC32C crc = new CRC32C();
+        while (data.remaining() >= RECORD_BYTES) {
+            int start = data.position();
+            crc.reset();
+            crc.update(bytes, start, CHECKED_BYTES);
+            Record record = new Record(data.getInt(), data.getShort(), data.getInt(),
+                    remap(remap, data.getShort()), remap(remap, data.getShort()), data.getLong());
+            if (data.getInt() != (int) crc.getValue()) {
+                // A torn or corrupt record ends the journal; anything after it was never acknowledged as durable.
+                data.position(start);
+                break;
+            }
+            records.add(record);
+        }
+        long validBytes = data.position();
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+        if (validBytes < bytes.length) {
+            channel.truncate(validBytes);
+            channel.force(true);
+        }
+        channel.position(validBytes);
+        return new EditJournal(path, policy, commitIntervalMillis, channel, records, bytes.length - validBytes);
+    }
+
+    private static int remap(int[] remap, int savedId) {
+        return savedId >= 0 && savedId < remap.length ? remap[savedId] : BlockRegistry.AIR_ID;
+    }
+
+    private static byte[] header() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        BlockRegistry.defaults().writeIdTable(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public SyncPolicy policy() {
+        return policy;
+    }
+
+    public ReplayResult replay(World world) {
+        if (world.getEditJournal() == this) {
+            throw new IllegalStateException("Replay the journal before attaching it, or the replay is journaled again");
+        }
+        BlockRegistry registry = BlockRegistry.defaults();
+        int conflicts = 0;
+        for (Record record : recovered) {
+            world.getOrCreateChunk(Math.floorDiv(record.x(), Chunk.SIZE), Math.floorDiv(record.z(), Chunk.SIZE));
+            if (world.getBlock(record.x(), record.y(), record.z()).id() != record.oldId()) {
+                conflicts++;
+            }
+            world.setBlock(record.x(), record.y(), record.z(), registry.byId(record.newId()));
+        }
+        ReplayResult result = new ReplayResult(recovered.size(), conflicts, truncatedBytes);
+        recovered = new ArrayList<>();
+        return result;
+    }
+
+    // Called under the chunk lock, so it never does I/O: a full buffer is queued for the committer, which is woken
+    // early, and writing goes on in a fresh one. awaitDurable, outside the lock, is where a backlog pushes back.
+    long append(int x, int y, int z, BlockType previous, BlockType type, long tick) {
+        checkFailure();
+        synchronized (this) {
+            return writeRecord(x, y, z, (short) previous.id(), (short) type.id(), tick);
+        }
+    }
+
+    // One chunk's cells from a region edit, taking this lock once: cells are ChunkDelta indices and previous and types
+    // block ids. Called under the chunk lock, like append; returns the sequence of the last record.
+    long appendAll(int chunkX, int chunkZ, int[] cells, short[] previous, short[] types, int count, long tick) {
+        checkFailure();
+        int baseX = chunkX * Chunk.SIZE;
+        int baseZ = chunkZ * Chunk.SIZE;
+        synchronized (this) {
+            long sequence = appendedSequence;
+            for (int i = 0; i < count; i++) {
+                sequence = writeRecord(baseX + ChunkDelta.x(cells[i]), ChunkDelta.y(cells[i]),
+                        baseZ + ChunkDelta.z(cells[i]), previous[i], types[i], tick);
+            }
+            return sequence;
+        }
+    }
+
+    private void checkFailure() {
+        IOException error = failure;
+        if (error != null) {
+            throw new UncheckedIOException("Edit journal " + path + " failed", error);
+        }
+    }
+
+    // Under this lock.
+    private long writeRecord(int x, int y, int z, short previousId, short typeId, long tick) {
+        if (pending.remaining() < RECORD_BYTES) {
+            filled.add(pending);
+            filledCount = filled.size();
+            pending = spare.isEmpty() ? ByteBuffer.allocateDirect(BUFFER_BYTES) : spare.poll();
+            notifyAll();
+        }
+        int start = pending.position();
+        pending.putInt(x).putShort((short) y).putInt(z).putShort(previousId).putShort(typeId).putLong(tick);
+        checksum.reset();
+        checksum.update(pending.duplicate().position(start).limit(start + CHECKED_BYTES));
+        pending.putInt((int) checksum.getValue());
+        return ++appendedSequence;
+    }
+
+    void awaitDurable(long sequence) {
+        if (filledCount >= MAX_QUEUED_BUFFERS) {
+            // A burst the committer is not keeping up with is written on the writer's thread.
+            commit();
+        }
+        if (policy == SyncPolicy.EVERY_EDIT && committedSequence < sequence) {
+            synchronized (commitLock) {
+                if (committedSequence < sequence) {
+                    commitLocked();
+                }
+            }
+        }
+    }
+
+    public void commit() {
+        synchronized (commitLock) {
+            commitLocked();
+        }
+    }
+
+    private void commitLocked() {
+        long upTo;
+        List<ByteBuffer> writing;
+        synchronized (this) {
+            writing = new ArrayList<>(filled.size() + 1);
+            writing.addAll(filled);
+            writing.add(pending);
+            filled.clear();
+            filledCount = 0;
+            pending = spare.isEmpty() ? ByteBuffer.allocateDirect(BUFFER_BYTES) : spare.poll();
+            upTo = appendedSequence;
+        }
+        try {
+            boolean wrote = false;
+            for (ByteBuffer buffer : writing) {
+                buffer.flip();
+                wrote |= buffer.hasRemaining();
+                writeFully(channel, buffer);
+            }
+            if (wrote && policy != SyncPolicy.NEVER) {
+                channel.force(false);
+                syncs++;
+            }
+            if (wrote) {
+                commits++;
+            }
+        } catch (IOException e) {
+            failure = e;
+            throw new UncheckedIOException("Edit journal " + path + " failed", e);
+        } finally {
+            synchronized (this) {
+                for (ByteBuffer buffer : writing) {
+                    if (spare.size() < MAX_QUEUED_BUFFERS) {
+                        spare.add(buffer.clear());
+                    }
+                }
+            }
+        }
+        committedSequence = upTo;
+    }
+
+    public int compact(LongPredicate persistedChunk) throws IOException {
+        return compact(persistedChunk, Long.MAX_VALUE);
+    }
+
+    // Drops records of persisted chunks up to a save point taken with lastSequence(); later ones still replay on top.
+    // A save point is only meaningful until the next compaction, which renumbers the records it keeps.
+    public int compact(LongPredicate persistedChunk, long throughSequence) throws IOException {
+        synchronized (commitLock) {
+            commitLocked();
+            long fileEnd = committedSequence;
+            List<Record> records = readRecords();
+            // Only the first old block and the last new block of each position matter for replay.
+            Map<Long, Record> merged = new LinkedHashMap<>();
+            Map<Long, Long> lastSequence = new HashMap<>();
+            long sequence = fileBaseSequence;
+            for (Record record : records) {
+                long key = BlockPos.pack(record.x(), record.y(), record.z());
+                Record earlier = merged.remove(key);
+                merged.put(key, earlier == null ? record : new Record(record.x(), record.y(), record.z(),
+                        earlier.oldId(), record.newId(), record.tick()));
+                lastSequence.put(key, ++sequence);
+            }
+
+            Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+            int kept = 0;
+            try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(out, ByteBuffer.wrap(header()));
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+                CRC32C crc = new CRC32C();
+                for (Record record : merged.values()) {
+                    int chunkX = Math.floorDiv(record.x(), Chunk.SIZE);
+                    int chunkZ = Math.floorDiv(record.z(), Chunk.SIZE);
+                    boolean persisted = persistedChunk.test(World.packChunkKey(chunkX, chunkZ));
+                    boolean saved = persisted
+                            && lastSequence.get(BlockPos.pack(record.x(), record.y(), record.z())) <= throughSequence;
+                    // A net no-op only cancels out over regenerated terrain; a saved chunk may hold the middle value.
+                    if (saved || (!persisted && record.oldId() == record.newId())) {
+                        continue;
+                    }
+                    if (buffer.remaining() < RECORD_BYTES) {
+                        buffer.flip();
+                        writeFully(out, buffer);
+                        buffer.clear();
+                    }
+                    int start = buffer.position();
+                    buffer.putInt(record.x()).putShort((short) record.y()).putInt(record.z())
+                            .putShort((short) record.oldId()).putShort((short) record.newId()).putLong(record.tick());
+                    crc.reset();
+                    crc.update(buffer.array(), start, CHECKED_BYTES);
+                    buffer.putInt((int) crc.getValue());
+                    kept++;
+                }
+                buffer.flip();
+                writeFully(out, buffer);
+                out.force(true);
+            }
+            // The rename is the commit point: a crash before it leaves the old journal intact.
+            channel.close();
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            fileBaseSequence = fileEnd - kept;
+            return kept;
+        }
+    }
+
+    private List<Record> readRecords() throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        in.readInt();
+        in.readShort();
+        int[] remap = BlockRegistry.defaults().readIdRemap(in);
+        ByteBuffer data = ByteBuffer.wrap(bytes, bytes.length - in.available(), in.available());
+        List<Record> records = new ArrayList<>(data.remaining() / RECORD_BYTES);
+        while (data.remaining() >= RECORD_BYTES) {
+            records.add(new Record(data.getInt(), data.getShort(), data.getInt(),
+                    remap(remap, data.getShort()), remap(remap, data.getShort()), data.getLong()));
+            data.getInt();
+        }
+        return records;
+    }
+
+    public synchronized long lastSequence() {
+        return appendedSequence;
+    }
+
+    public long commits() {
+        synchronized (commitLock) {
+            return commits;
+        }
+    }
+
+    public long syncs() {
+        synchronized (commitLock) {
+            return syncs;
+        }
+    }
+
+    public long sizeBytes() throws IOException {
+        synchronized (commitLock) {
+            return channel.size();
+        }
+    }
+
+    private void runCommitter(long intervalMillis) {
+        while (!closed) {
+            try {
+                synchronized (this) {
+                    // Woken early by an append that fills a buffer.
+                    if (filled.isEmpty()) {
+                        wait(intervalMillis);
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (failure != null || closed) {
+                continue;
+            }
+            try {
+                commit();
+            } catch (UncheckedIOException e) {
+                // Kept in failure; the next append reports it to the game thread.
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        committer.interrupt();
+        synchronized (commitLock) {
+            try {
+                commitLocked();
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public record ReplayResult(int records, int conflicts, long truncatedBytes) {
+    }
+
+    private record Record(int x, int y, int z, int oldId, int newId, long tick) {
+    }
+}
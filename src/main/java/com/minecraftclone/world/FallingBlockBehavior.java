@@ -0,0 +1,26 @@
+package com.minecraftclone.world;
+
+final class FallingBlockBehavior implements BlockBehavior {
+    private static final int FALL_DELAY_TICKS = 2;
+
+    @Override
+    public void onNeighborChanged(World world, int x, int y, int z) {
+        if (canFall(world, x, y, z)) {
+            world.scheduleTick(x, y, z, FALL_DELAY_TICKS);
+        }
+    }
+
+    @Override
+    public void onScheduledTick(World world, int x, int y, int z) {
+        if (!canFall(world, x, y, z)) {
+            return;
+        }
+        BlockType type = world.getBlock(x, y, z);
+        world.setBlock(x, y, z, BlockType.AIR);
+        world.setBlock(x, y - 1, z, type);
+    }
+
+    private static boolean canFall(World world, int x, int y, int z) {
+        return y > 0 && !world.isCollidableBlock(x, y - 1, z);
+    }
+}
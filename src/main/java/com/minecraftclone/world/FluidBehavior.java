@@ -0,0 +1,8 @@
+package com.minecraftclone.world;
+
+final class FluidBehavior implements BlockBehavior {
+    @Override
+    public void onNeighborChanged(World world, int x, int y, int z) {
+        world.getFluids().activate(x, y, z);
+    }
+}
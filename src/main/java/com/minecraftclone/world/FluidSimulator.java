@@ -0,0 +1,205 @@
+package com.minecraftclone.world;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public final class FluidSimulator {
+    public static final int SOURCE_LEVEL = 8;
+    public static final int FALLING_LEVEL = SOURCE_LEVEL - 1;
+    public static final int DEFAULT_CELL_BUDGET = 4096;
+
+    private static final int[][] HORIZONTAL_OFFSETS = {
+            {-1, 0},
+            {1, 0},
+            {0, -1},
+            {0, 1}
+    };
+
+    private Set<Long> activeCells;
+    private Set<Long> nextActiveCells;
+    private final Set<Long> touchedChunks;
+    private int cellBudget;
+
+    private int lastProcessedCells;
+    private int lastChangedCells;
+    private long totalProcessedCells;
+    private long totalChangedCells;
+
+    public FluidSimulator() {
+        this.activeCells = new LinkedHashSet<>();
+        this.nextActiveCells = new LinkedHashSet<>();
+        this.touchedChunks = new HashSet<>();
+        this.cellBudget = DEFAULT_CELL_BUDGET;
+    }
+
+    public void setCellBudget(int cellBudget) {
+        this.cellBudget = Math.max(1, cellBudget);
+    }
+
+    public int activeCellCount() {
+        return activeCells.size() + nextActiveCells.size();
+    }
+
+    public int lastProcessedCells() {
+        return lastProcessedCells;
+    }
+
+    public int lastChangedCells() {
+        return lastChangedCells;
+    }
+
+    public long totalProcessedCells() {
+        return totalProcessedCells;
+    }
+
+    public long totalChangedCells() {
+        return totalChangedCells;
+    }
+
+    void activate(int x, int y, int z) {
+        nextActiveCells.add(BlockPos.pack(x, y, z));
+    }
+
+    void tick(World world) {
+        if (activeCells.isEmpty()) {
+            Set<Long> swap = activeCells;
+            activeCells = nextActiveCells;
+            nextActiveCells = swap;
+        } else {
+            // Cells left over from an exhausted budget keep their place ahead of new activations.
+            activeCells.addAll(nextActiveCells);
+            nextActiveCells.clear();
+        }
+
+        int processed = 0;
+        lastChangedCells = 0;
+        Iterator<Long> iterator = activeCells.iterator();
+        while (iterator.hasNext() && processed < cellBudget) {
+            long position = iterator.next();
+            iterator.remove();
+            update(world, BlockPos.unpackX(position), BlockPos.unpackY(position), BlockPos.unpackZ(position));
+            processed++;
+        }
+        lastProcessedCells = processed;
+        totalProcessedCells += processed;
+        totalChangedCells += lastChangedCells;
+
+        for (long key : touchedChunks) {
+            world.markDirty(World.unpackChunkX(key), World.unpackChunkZ(key));
+        }
+        touchedChunks.clear();
+    }
+
+    void clear() {
+        activeCells.clear();
+        nextActiveCells.clear();
+        touchedChunks.clear();
+    }
+
+    private void update(World world, int x, int y, int z) {
+        BlockType type = world.getBlock(x, y, z);
+        if (!type.isFluid()) {
+            return;
+        }
+        int level = world.getFluidLevel(x, y, z);
+        if (level != SOURCE_LEVEL) {
+            int inflow = computeInflow(world, type, x, y, z);
+            if (inflow <= 0) {
+                write(world, x, y, z, BlockType.AIR, 0);
+                activateFluidNeighbors(world, type, x, y, z);
+                return;
+            }
+            if (inflow != level) {
+                level = inflow;
+                write(world, x, y, z, type, level);
+                activateFluidNeighbors(world, type, x, y, z);
+            }
+        }
+        spread(world, type, level, x, y, z);
+    }
+
+    private int computeInflow(World world, BlockType type, int x, int y, int z) {
+        if (world.getBlock(x, y + 1, z) == type) {
+            return FALLING_LEVEL;
+        }
+        int inflow = 0;
+        for (int[] offset : HORIZONTAL_OFFSETS) {
+            int neighborX = x + offset[0];
+            int neighborZ = z + offset[1];
+            if (world.getBlock(neighborX, y, neighborZ) == type) {
+                inflow = Math.max(inflow, world.getFluidLevel(neighborX, y, neighborZ) - 1);
+            }
+        }
+        return inflow;
+    }
+
+    private void spread(World world, BlockType type, int level, int x, int y, int z) {
+        BlockType below = world.getBlock(x, y - 1, z);
+        if (y > 0 && below == BlockType.AIR) {
+            write(world, x, y - 1, z, type, FALLING_LEVEL);
+            activate(x, y - 1, z);
+            return;
+        }
+        if (!below.isCollidable()) {
+            return;
+        }
+        int spreadLevel = level - 1;
+        if (spreadLevel <= 0) {
+            return;
+        }
+        for (int[] offset : HORIZONTAL_OFFSETS) {
+            int neighborX = x + offset[0];
+            int neighborZ = z + offset[1];
+            if (world.getBlock(neighborX, y, neighborZ) == BlockType.AIR) {
+                write(world, neighborX, y, neighborZ, type, spreadLevel);
+                activate(neighborX, y, neighborZ);
+            }
+        }
+    }
+
+    private void activateFluidNeighbors(World world, BlockType type, int x, int y, int z) {
+        if (world.getBlock(x, y + 1, z) == type) {
+            activate(x, y + 1, z);
+        }
+        if (world.getBlock(x, y - 1, z) == type) {
+            activate(x, y - 1, z);
+        }
+        for (int[] offset : HORIZONTAL_OFFSETS) {
+            if (world.getBlock(x + offset[0], y, z + offset[1]) == type) {
+                activate(x + offset[0], y, z + offset[1]);
+            }
+        }
+    }
+
+    private void write(World world, int x, int y, int z, BlockType type, int level) {
+        int chunkX = Math.floorDiv(x, Chunk.SIZE);
+        int chunkZ = Math.floorDiv(z, Chunk.SIZE);
+        Chunk chunk = world.getLoadedChunk(chunkX, chunkZ);
+        if (chunk == null) {
+            return;
+        }
+        int localX = Math.floorMod(x, Chunk.SIZE);
+        int localZ = Math.floorMod(z, Chunk.SIZE);
+        synchronized (chunk) {
+            if (chunk.isRetired()) {
+                return;
+            }
+            chunk.setFluid(localX, y, localZ, type, level);
+        }
+        lastChangedCells++;
+
+        touchedChunks.add(World.packChunkKey(chunkX, chunkZ));
+        if (localX == 0) {
+            touchedChunks.add(World.packChunkKey(chunkX - 1, chunkZ));
+        } else if (localX == Chunk.SIZE - 1) {
+            touchedChunks.add(World.packChunkKey(chunkX + 1, chunkZ));
+        }
+        if (localZ == 0) {
+            touchedChunks.add(World.packChunkKey(chunkX, chunkZ - 1));
+        } else if (localZ == Chunk.SIZE - 1) {
+            touchedChunks.add(World.packChunkKey(chunkX, chunkZ + 1));
+        }
+    }
+}
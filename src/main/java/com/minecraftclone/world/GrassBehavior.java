@@ -0,0 +1,29 @@
+package com.minecraftclone.world;
+
+import java.util.Random;
+
+final class GrassBehavior implements BlockBehavior {
+    private static final int SPREAD_ATTEMPTS = 4;
+
+    @Override
+    public boolean ticksRandomly() {
+        return true;
+    }
+
+    @Override
+    public void onRandomTick(World world, int x, int y, int z, Random random) {
+        if (world.isOpaqueBlock(x, y + 1, z)) {
+            world.setBlock(x, y, z, BlockType.DIRT);
+            return;
+        }
+        for (int attempt = 0; attempt < SPREAD_ATTEMPTS; attempt++) {
+            int targetX = x + random.nextInt(3) - 1;
+            int targetY = y + random.nextInt(5) - 3;
+            int targetZ = z + random.nextInt(3) - 1;
+            if (world.getBlock(targetX, targetY, targetZ) == BlockType.DIRT
+                    && !world.isOpaqueBlock(targetX, targetY + 1, targetZ)) {
+                world.setBlock(targetX, targetY, targetZ, BlockType.GRASS);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.minecraftclone.world;
+
+import java.util.List;
+
+// Feet positions from start to goal, one block apart horizontally; cost counts a step as 1 plus the blocks climbed or dropped.
+public record NavPath(List<BlockPos> blocks, int cost, int expandedEntrances) {
+    public static NavPath none(int expandedEntrances) {
+        return new NavPath(List.of(), -1, expandedEntrances);
+    }
+
+    public boolean isFound() {
+        return !blocks.isEmpty();
+    }
+}
@@ -0,0 +1,277 @@
+package com.minecraftclone.world;
+
+import com.minecraftclone.graphics.ParticleRenderer;
+import org.joml.Vector3f;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Fixed-capacity particle pool kept as parallel arrays; live particles are packed at the front, so spawning and
+// expiring never allocate and one loop updates all of them.
+public final class ParticleSystem {
+    public static final int DEFAULT_CAPACITY = 16_384;
+
+    private static final float GRAVITY = 20.0f;
+    private static final float AIR_DRAG = 0.98f;
+    private static final float GROUND_FRICTION = 0.7f;
+    private static final float BOUNCE = 0.3f;
+    private static final float MIN_LIFETIME = 0.6f;
+    private static final float MAX_LIFETIME = 1.4f;
+    private static final float MIN_SIZE = 0.08f;
+    private static final float MAX_SIZE = 0.16f;
+    private static final float BURST_SPEED = 3.0f;
+    private static final float DUST_SPEED = 0.8f;
+    private static final float DUST_OFFSET = 0.05f;
+    private static final int CHUNK_CACHE_WIDTH = 8;
+
+    private final int capacity;
+    private final float[] x;
+    private final float[] y;
+    private final float[] z;
+    private final float[] velocityX;
+    private final float[] velocityY;
+    private final float[] velocityZ;
+    private final float[] life;
+    private final float[] size;
+    private final int[] color;
+    private final Random random;
+    private final AtomicReference<Frame> ready;
+    private Frame back;
+    private Frame front;
+    private int count;
+    private long dropped;
+    private final Chunk[] chunkCache;
+
+    public ParticleSystem(int capacity, long seed) {
+        this.capacity = capacity;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.z = new float[capacity];
+        this.velocityX = new float[capacity];
+        this.velocityY = new float[capacity];
+        this.velocityZ = new float[capacity];
+        this.life = new float[capacity];
+        this.size = new float[capacity];
+        this.color = new int[capacity];
+        this.random = new Random(seed);
+        this.chunkCache = new Chunk[CHUNK_CACHE_WIDTH * CHUNK_CACHE_WIDTH];
+        this.back = new Frame(capacity);
+        this.front = new Frame(capacity);
+        this.ready = new AtomicReference<>(new Frame(capacity));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    // Particles a full pool had no room for.
+    public long dropped() {
+        return dropped;
+    }
+
+    // Fragments of a broken block flying out of the space it left.
+    public void spawnBurst(int blockX, int blockY, int blockZ, BlockType type, int particles) {
+        for (int n = 0; n < particles; n++) {
+            float offsetX = random.nextFloat();
+            float offsetY = random.nextFloat();
+            float offsetZ = random.nextFloat();
+            spawn(blockX + offsetX, blockY + offsetY, blockZ + offsetZ, (offsetX - 0.5f) * BURST_SPEED,
+                    offsetY * BURST_SPEED, (offsetZ - 0.5f) * BURST_SPEED, type);
+        }
+    }
+
+    // Dust puffing off the faces of a placed block; it starts just outside them, since the block is now solid.
+    public void spawnDust(int blockX, int blockY, int blockZ, BlockType type, int particles) {
+        for (int n = 0; n < particles; n++) {
+            // Any face but the bottom one, which usually rests on the ground.
+            int face = random.nextInt(5);
+            if (face >= 2) {
+                face++;
+            }
+            float outward = (face & 1) == 0 ? -DUST_OFFSET : 1.0f + DUST_OFFSET;
+            float direction = (face & 1) == 0 ? -DUST_SPEED : DUST_SPEED;
+            float offsetX = face / 2 == 0 ? outward : random.nextFloat();
+            float offsetY = face / 2 == 1 ? outward : random.nextFloat();
+            float offsetZ = face / 2 == 2 ? outward : random.nextFloat();
+            spawn(blockX + offsetX, blockY + offsetY, blockZ + offsetZ, face / 2 == 0 ? direction : 0.0f,
+                    face / 2 == 1 ? direction : 0.0f, face / 2 == 2 ? direction : 0.0f, type);
+        }
+    }
+
+    // A full pool skips the particle rather than growing or evicting.
+    private void spawn(float px, float py, float pz, float vx, float vy, float vz, BlockType type) {
+        if (count == capacity) {
+            dropped++;
+            return;
+        }
+        int i = count++;
+        x[i] = px;
+        y[i] = py;
+        z[i] = pz;
+        velocityX[i] = vx;
+        velocityY[i] = vy;
+        velocityZ[i] = vz;
+        life[i] = MIN_LIFETIME + random.nextFloat() * (MAX_LIFETIME - MIN_LIFETIME);
+        size[i] = MIN_SIZE + random.nextFloat() * (MAX_SIZE - MIN_SIZE);
+        Vector3f base = type.color();
+        float shade = 0.75f + random.nextFloat() * 0.25f;
+        color[i] = packColor(base.x * shade, base.y * shade, base.z * shade, type.alpha());
+    }
+
+    private static int packColor(float red, float green, float blue, float alpha) {
+        return channel(red) | channel(green) << 8 | channel(blue) << 16 | channel(alpha) << 24;
+    }
+
+    private static int channel(float value) {
+        return Math.round(Math.min(1.0f, Math.max(0.0f, value)) * 255.0f);
+    }
+
+    // A particle only tests the world when it crosses into a new cell on an axis; the cell it is in is known free.
+    public void update(World world, float deltaTime) {
+        float drag = (float) Math.pow(AIR_DRAG, deltaTime * 60.0f);
+        float fall = GRAVITY * deltaTime;
+        int i = 0;
+        while (i < count) {
+            float remaining = life[i] - deltaTime;
+            if (remaining <= 0.0f) {
+                remove(i);
+                continue;
+            }
+            life[i] = remaining;
+            float vx = velocityX[i] * drag;
+            float vy = (velocityY[i] - fall) * drag;
+            float vz = velocityZ[i] * drag;
+            float px = x[i];
+            float py = y[i];
+            float pz = z[i];
+            int cellX = (int) Math.floor(px);
+            int cellY = (int) Math.floor(py);
+            int cellZ = (int) Math.floor(pz);
+
+            float nextY = py + vy * deltaTime;
+            int nextCellY = (int) Math.floor(nextY);
+            if (nextCellY != cellY && isSolid(world, cellX, nextCellY, cellZ)) {
+                // Landed or hit a ceiling: settle against the face and let the ground slow it down.
+                nextY = vy < 0.0f ? cellY : cellY + 0.999f;
+                vy = -vy * BOUNCE;
+                vx *= GROUND_FRICTION;
+                vz *= GROUND_FRICTION;
+            } else {
+                cellY = nextCellY;
+            }
+            float nextX = px + vx * deltaTime;
+            int nextCellX = (int) Math.floor(nextX);
+            if (nextCellX != cellX && isSolid(world, nextCellX, cellY, cellZ)) {
+                nextX = px;
+                vx = -vx * BOUNCE;
+            } else {
+                cellX = nextCellX;
+            }
+            float nextZ = pz + vz * deltaTime;
+            int nextCellZ = (int) Math.floor(nextZ);
+            if (nextCellZ != cellZ && isSolid(world, cellX, cellY, nextCellZ)) {
+                nextZ = pz;
+                vz = -vz * BOUNCE;
+            }
+            x[i] = nextX;
+            y[i] = nextY;
+            z[i] = nextZ;
+            velocityX[i] = vx;
+            velocityY[i] = vy;
+            velocityZ[i] = vz;
+            i++;
+        }
+        // Dropped every update, so a chunk demoted or replaced meanwhile is looked up again.
+        Arrays.fill(chunkCache, null);
+    }
+
+    // Moves the last live particle into the hole, so the live range stays packed.
+    private void remove(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        z[i] = z[last];
+        velocityX[i] = velocityX[last];
+        velocityY[i] = velocityY[last];
+        velocityZ[i] = velocityZ[last];
+        life[i] = life[last];
+        size[i] = size[last];
+        color[i] = color[last];
+    }
+
+    // Chunks by their coordinates modulo the cache width; particles only exist near the player, so a chunk lookup,
+    // which boxes its key, happens about once per chunk per update instead of once per particle.
+    private boolean isSolid(World world, int worldX, int worldY, int worldZ) {
+        if (worldY < 0) {
+            return true;
+        }
+        if (worldY >= Chunk.HEIGHT) {
+            return false;
+        }
+        int chunkX = Math.floorDiv(worldX, Chunk.SIZE);
+        int chunkZ = Math.floorDiv(worldZ, Chunk.SIZE);
+        int slot = Math.floorMod(chunkX, CHUNK_CACHE_WIDTH) * CHUNK_CACHE_WIDTH + Math.floorMod(chunkZ, CHUNK_CACHE_WIDTH);
+        Chunk chunk = chunkCache[slot];
+        if (chunk == null || chunk.chunkX() != chunkX || chunk.chunkZ() != chunkZ) {
+            chunk = world.getLoadedChunk(chunkX, chunkZ);
+            if (chunk == null) {
+                return false;
+            }
+            chunkCache[slot] = chunk;
+        }
+        return chunk.getBlock(Math.floorMod(worldX, Chunk.SIZE), worldY, Math.floorMod(worldZ, Chunk.SIZE)).isCollidable();
+    }
+
+    // Writes the live particles into the simulation's spare frame and swaps it in as the newest one for the renderer.
+    public void publish() {
+        ByteBuffer data = back.data;
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            data.putFloat(offset, x[i])
+                    .putFloat(offset + 4, y[i])
+                    .putFloat(offset + 8, z[i])
+                    .putFloat(offset + 12, size[i])
+                    .putInt(offset + 16, color[i]);
+            offset += ParticleRenderer.INSTANCE_BYTES;
+        }
+        back.count = count;
+        back.fresh = true;
+        back = ready.getAndSet(back);
+    }
+
+    // Render thread: the newest published frame, or the one it already has when nothing new was published. Three
+    // frames rotate between the two threads, so neither ever waits and none is written while it is being read.
+    public Frame acquireFrame() {
+        if (ready.get().fresh) {
+            front.fresh = false;
+            front = ready.getAndSet(front);
+        }
+        return front;
+    }
+
+    public static final class Frame {
+        private final ByteBuffer data;
+        private int count;
+        private boolean fresh;
+
+        private Frame(int capacity) {
+            this.data = ByteBuffer.allocateDirect(capacity * ParticleRenderer.INSTANCE_BYTES).order(ByteOrder.nativeOrder());
+        }
+
+        public int count() {
+            return count;
+        }
+
+        // In ParticleRenderer's instance layout from index 0; only the first count() instances are meaningful.
+        public ByteBuffer data() {
+            return data;
+        }
+    }
+}
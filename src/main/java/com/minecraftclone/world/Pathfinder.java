@@ -0,0 +1,291 @@
+package com.minecraftclone.world;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hierarchical A*: plans over chunk border entrances using cached per-chunk graphs, then refines each chunk's stretch
+// with a local search. Only resident chunks are walkable; paths never load or promote a chunk.
+public final class Pathfinder implements AutoCloseable {
+    private static final int MAX_EXPANDED_ENTRANCES = 20_000;
+
+    private final World world;
+    private final ExecutorService workers;
+    private final Map<Long, ChunkNavGraph> graphs;
+    // Only chunks with a graph being built have an entry, dropped when the last of their builds finishes.
+    private final Map<Long, Build> builds;
+    private final AtomicLong graphBuilds;
+    private final AtomicLong graphBuildNanos;
+
+    public Pathfinder(World world, int threads) {
+        this.world = world;
+        AtomicInteger created = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads), task -> {
+            Thread thread = new Thread(task, "pathfinder-" + created.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.graphs = new ConcurrentHashMap<>();
+        this.builds = new ConcurrentHashMap<>();
+        this.graphBuilds = new AtomicLong();
+        this.graphBuildNanos = new AtomicLong();
+        world.setPathfinder(this);
+    }
+
+    public CompletableFuture<NavPath> findPath(BlockPos start, BlockPos goal) {
+        return CompletableFuture.supplyAsync(() -> search(start, goal), workers);
+    }
+
+    public int cachedGraphs() {
+        return graphs.size();
+    }
+
+    public long graphBuilds() {
+        return graphBuilds.get();
+    }
+
+    public long graphBuildNanos() {
+        return graphBuildNanos.get();
+    }
+
+    // Called by World after the edit is applied, so a graph built from then on sees it.
+    void invalidate(int chunkX, int chunkZ) {
+        // Under the key's lock in builds, so a build that finishes concurrently either sees the edit or is removed.
+        builds.compute(World.packChunkKey(chunkX, chunkZ), (key, build) -> {
+            graphs.remove(key);
+            if (build != null) {
+                build.edits++;
+            }
+            return build;
+        });
+    }
+
+    private ChunkNavGraph graph(int chunkX, int chunkZ) {
+        long key = World.packChunkKey(chunkX, chunkZ);
+        Chunk chunk = world.getLoadedChunk(chunkX, chunkZ);
+        if (chunk == null) {
+            graphs.remove(key);
+            return null;
+        }
+        ChunkNavGraph graph = graphs.get(key);
+        if (graph != null) {
+            return graph;
+        }
+        long[] editsBefore = new long[1];
+        builds.compute(key, (k, build) -> {
+            Build started = build == null ? new Build() : build;
+            started.builders++;
+            editsBefore[0] = started.edits;
+            return started;
+        });
+        long start = System.nanoTime();
+        ChunkNavGraph built = ChunkNavGraph.build(chunk);
+        graphBuildNanos.addAndGet(System.nanoTime() - start);
+        graphBuilds.incrementAndGet();
+        builds.compute(key, (k, build) -> {
+            // An edit during the build may be missing from it: use it for this search but do not cache it.
+            if (build.edits == editsBefore[0]) {
+                graphs.put(k, built);
+            }
+            return --build.builders == 0 ? null : build;
+        });
+        return built;
+    }
+
+    public NavPath search(BlockPos start, BlockPos goal) {
+        // One graph per chunk for the whole search, even if an edit replaces the cached one meanwhile.
+        Map<Long, ChunkNavGraph> view = new HashMap<>();
+        ChunkNavGraph startGraph = graphAt(view, Math.floorDiv(start.x(), Chunk.SIZE), Math.floorDiv(start.z(), Chunk.SIZE));
+        ChunkNavGraph goalGraph = graphAt(view, Math.floorDiv(goal.x(), Chunk.SIZE), Math.floorDiv(goal.z(), Chunk.SIZE));
+        if (startGraph == null || goalGraph == null) {
+            return NavPath.none(0);
+        }
+        int startCell = startGraph.cellNear(Math.floorMod(start.x(), Chunk.SIZE), start.y(), Math.floorMod(start.z(), Chunk.SIZE));
+        int goalCell = goalGraph.cellNear(Math.floorMod(goal.x(), Chunk.SIZE), goal.y(), Math.floorMod(goal.z(), Chunk.SIZE));
+        if (startCell < 0 || goalCell < 0) {
+            return NavPath.none(0);
+        }
+        if (startGraph == goalGraph) {
+            int[] local = startGraph.findPath(startCell, goalCell);
+            if (local != null) {
+                List<BlockPos> blocks = new ArrayList<>(local.length);
+                append(blocks, startGraph, local);
+                return new NavPath(blocks, cost(blocks), 0);
+            }
+        }
+
+        int goalX = goalGraph.worldX(goalCell);
+        int goalY = goalGraph.worldY(goalCell);
+        int goalZ = goalGraph.worldZ(goalCell);
+        int[] toGoal = goalGraph.distances(goalCell, true);
+        int[] fromStart = startGraph.distances(startCell, false);
+        Map<ChunkNavGraph.Entrance, Node> nodes = new HashMap<>();
+        PriorityQueue<Node> open = new PriorityQueue<>();
+        for (ChunkNavGraph.Entrance entrance : startGraph.entrances()) {
+            int cost = fromStart[entrance.representative];
+            if (cost != ChunkNavGraph.UNREACHABLE) {
+                relax(nodes, open, entrance, cost, null, -1, -1, goalX, goalY, goalZ);
+            }
+        }
+        Node best = null;
+        int bestCost = ChunkNavGraph.UNREACHABLE;
+        int expanded = 0;
+        while (!open.isEmpty()) {
+            Node node = open.poll();
+            if (node.closed) {
+                continue;
+            }
+            if (node.estimate >= bestCost || expanded++ == MAX_EXPANDED_ENTRANCES) {
+                break;
+            }
+            node.closed = true;
+            ChunkNavGraph graph = node.entrance.graph;
+            if (graph == goalGraph) {
+                int remaining = toGoal[node.entrance.representative];
+                if (remaining != ChunkNavGraph.UNREACHABLE && node.cost + remaining < bestCost) {
+                    bestCost = node.cost + remaining;
+                    best = node;
+                }
+            }
+            for (ChunkNavGraph.Entrance next : graph.entrances()) {
+                int cost = graph.entranceCost(node.entrance, next);
+                if (next != node.entrance && cost != ChunkNavGraph.UNREACHABLE) {
+                    relax(nodes, open, next, node.cost + cost, node, -1, -1, goalX, goalY, goalZ);
+                }
+            }
+            int side = node.entrance.side;
+            ChunkNavGraph neighbour = graphAt(view, graph.chunkX + ChunkNavGraph.SIDE_DX[side],
+                    graph.chunkZ + ChunkNavGraph.SIDE_DZ[side]);
+            if (neighbour != null) {
+                for (ChunkNavGraph.Crossing crossing : graph.crossings(node.entrance, neighbour)) {
+                    relax(nodes, open, crossing.to(), node.cost + crossing.cost(), node, crossing.fromCell(),
+                            crossing.toCell(), goalX, goalY, goalZ);
+                }
+            }
+        }
+        if (best == null) {
+            return NavPath.none(expanded);
+        }
+        return refine(best, startGraph, startCell, goalGraph, goalCell, expanded);
+    }
+
+    private ChunkNavGraph graphAt(Map<Long, ChunkNavGraph> view, int chunkX, int chunkZ) {
+        long key = World.packChunkKey(chunkX, chunkZ);
+        ChunkNavGraph graph = view.get(key);
+        if (graph == null && !view.containsKey(key)) {
+            graph = graph(chunkX, chunkZ);
+            view.put(key, graph);
+        }
+        return graph;
+    }
+
+    private static void relax(Map<ChunkNavGraph.Entrance, Node> nodes, PriorityQueue<Node> open,
+                              ChunkNavGraph.Entrance entrance, int cost, Node parent, int fromCell, int toCell,
+                              int goalX, int goalY, int goalZ) {
+        Node existing = nodes.get(entrance);
+        if (existing != null && existing.cost <= cost) {
+            return;
+        }
+        if (existing != null) {
+            // Superseded, not removed: PriorityQueue.remove is linear.
+            existing.closed = true;
+        }
+        ChunkNavGraph graph = entrance.graph;
+        int cell = entrance.representative;
+        int heuristic = Math.abs(graph.worldX(cell) - goalX) + Math.abs(graph.worldY(cell) - goalY)
+                + Math.abs(graph.worldZ(cell) - goalZ);
+        Node node = new Node(entrance, cost, cost + heuristic, parent, fromCell, toCell);
+        nodes.put(entrance, node);
+        open.add(node);
+    }
+
+    // The abstract path only fixes where it crosses each border; every stretch between crossings stays inside one
+    // chunk, so a local search over that chunk's graph fills it in.
+    private static NavPath refine(Node best, ChunkNavGraph startGraph, int startCell, ChunkNavGraph goalGraph,
+                                  int goalCell, int expanded) {
+        ArrayDeque<Node> chain = new ArrayDeque<>();
+        for (Node node = best; node != null; node = node.parent) {
+            chain.push(node);
+        }
+        List<BlockPos> blocks = new ArrayList<>();
+        ChunkNavGraph graph = startGraph;
+        int cell = startCell;
+        for (Node node : chain) {
+            if (node.fromCell < 0) {
+                continue;
+            }
+            int[] stretch = graph.findPath(cell, node.fromCell);
+            if (stretch == null) {
+                return NavPath.none(expanded);
+            }
+            append(blocks, graph, stretch);
+            graph = node.entrance.graph;
+            cell = node.toCell;
+        }
+        int[] stretch = goalGraph.findPath(cell, goalCell);
+        if (graph != goalGraph || stretch == null) {
+            return NavPath.none(expanded);
+        }
+        append(blocks, goalGraph, stretch);
+        return new NavPath(blocks, cost(blocks), expanded);
+    }
+
+    private static void append(List<BlockPos> blocks, ChunkNavGraph graph, int[] cells) {
+        for (int cell : cells) {
+            blocks.add(new BlockPos(graph.worldX(cell), graph.worldY(cell), graph.worldZ(cell)));
+        }
+    }
+
+    private static int cost(List<BlockPos> blocks) {
+        int cost = 0;
+        for (int i = 1; i < blocks.size(); i++) {
+            cost += 1 + Math.abs(blocks.get(i).y() - blocks.get(i - 1).y());
+        }
+        return cost;
+    }
+
+    @Override
+    public void close() {
+        world.setPathfinder(null);
+        workers.shutdownNow();
+    }
+
+    private static final class Build {
+        private long edits;
+        private int builders;
+    }
+
+    private static final class Node implements Comparable<Node> {
+        private final ChunkNavGraph.Entrance entrance;
+        private final int cost;
+        private final int estimate;
+        private final Node parent;
+        // The border move that reached this entrance from the parent's chunk; -1 for a move within one chunk.
+        private final int fromCell;
+        private final int toCell;
+        private boolean closed;
+
+        private Node(ChunkNavGraph.Entrance entrance, int cost, int estimate, Node parent, int fromCell, int toCell) {
+            this.entrance = entrance;
+            this.cost = cost;
+            this.estimate = estimate;
+            this.parent = parent;
+            this.fromCell = fromCell;
+            this.toCell = toCell;
+        }
+
+        @Override
+        public int compareTo(Node other) {
+            return Integer.compare(estimate, other.estimate);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.minecraftclone.world;
+
+import java.util.Arrays;
+
+// Rays in and hits out as flat primitive arrays, reused from tick to tick: filling and reading a batch allocates
+// nothing once it has grown to its working size.
+public final class RayBatch {
+    // Per ray in results(): the hit block's x, y, z, the empty cell the ray came from, and the block id (MISS if none).
+    public static final int RESULT_STRIDE = 7;
+    public static final int MISS = -1;
+    private static final int RAY_STRIDE = 7;
+
+    private float[] rays;
+    private int[] results;
+    private float[] distances;
+    private int size;
+
+    public RayBatch(int capacity) {
+        int initial = Math.max(capacity, 1);
+        this.rays = new float[initial * RAY_STRIDE];
+        this.results = new int[initial * RESULT_STRIDE];
+        this.distances = new float[initial];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // The direction need not be normalized; a zero direction always misses.
+    public int add(float originX, float originY, float originZ, float directionX, float directionY, float directionZ,
+                   float maxDistance) {
+        if (size == distances.length) {
+            int capacity = size * 2;
+            rays = Arrays.copyOf(rays, capacity * RAY_STRIDE);
+            results = Arrays.copyOf(results, capacity * RESULT_STRIDE);
+            distances = Arrays.copyOf(distances, capacity);
+        }
+        int base = size * RAY_STRIDE;
+        rays[base] = originX;
+        rays[base + 1] = originY;
+        rays[base + 2] = originZ;
+        rays[base + 3] = directionX;
+        rays[base + 4] = directionY;
+        rays[base + 5] = directionZ;
+        rays[base + 6] = maxDistance;
+        return size++;
+    }
+
+    // A hit means something collidable stands between the two points.
+    public int addLineOfSight(float fromX, float fromY, float fromZ, float toX, float toY, float toZ) {
+        float dx = toX - fromX;
+        float dy = toY - fromY;
+        float dz = toZ - fromZ;
+        return add(fromX, fromY, fromZ, dx, dy, dz, (float) Math.sqrt(dx * dx + dy * dy + dz * dz));
+    }
+
+    float ray(int index, int field) {
+        return rays[index * RAY_STRIDE + field];
+    }
+
+    void setHit(int index, int blockX, int blockY, int blockZ, int fromX, int fromY, int fromZ, int blockId,
+                float distance) {
+        int base = index * RESULT_STRIDE;
+        results[base] = blockX;
+        results[base + 1] = blockY;
+        results[base + 2] = blockZ;
+        results[base + 3] = fromX;
+        results[base + 4] = fromY;
+        results[base + 5] = fromZ;
+        results[base + 6] = blockId;
+        distances[index] = distance;
+    }
+
+    void setMiss(int index, float maxDistance) {
+        int base = index * RESULT_STRIDE;
+        Arrays.fill(results, base, base + RESULT_STRIDE, 0);
+        results[base + 6] = MISS;
+        distances[index] = maxDistance;
+    }
+
+    public boolean isHit(int index) {
+        return results[index * RESULT_STRIDE + 6] != MISS;
+    }
+
+    public int blockX(int index) {
+        return results[index * RESULT_STRIDE];
+    }
+
+    public int blockY(int index) {
+        return results[index * RESULT_STRIDE + 1];
+    }
+
+    public int blockZ(int index) {
+        return results[index * RESULT_STRIDE + 2];
+    }
+
+    public int adjacentX(int index) {
+        return results[index * RESULT_STRIDE + 3];
+    }
+
+    public int adjacentY(int index) {
+        return results[index * RESULT_STRIDE + 4];
+    }
+
+    public int adjacentZ(int index) {
+        return results[index * RESULT_STRIDE + 5];
+    }
+
+    public int blockId(int index) {
+        return results[index * RESULT_STRIDE + 6];
+    }
+
+    // Along the normalized direction to where the ray entered the hit block; the ray's full length on a miss.
+    public float distance(int index) {
+        return distances[index];
+    }
+
+    // size() * RESULT_STRIDE meaningful entries, laid out as described on RESULT_STRIDE.
+    public int[] results() {
+        return results;
+    }
+
+    public float[] distances() {
+        return distances;
+    }
+}
@@ -0,0 +1,259 @@
+package com.minecraftclone.world;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Casts a RayBatch in parallel. Each ray walks the voxel grid exactly (every cell it passes through, in order), but
+// before stepping through a cell it asks the cell's chunk and section whether anything there is collidable: a chunk
+// with nothing collidable, or one that is not resident, is crossed in one jump, and so is an empty 16^3 section.
+// Like the pathfinder, rays only see resident chunks and never load or promote one.
+public final class RayQueries {
+    private static final BlockRegistry REGISTRY = BlockRegistry.defaults();
+    private static final int RAYS_PER_TASK = 256;
+    private static final int CHUNK_CACHE_WIDTH = 16;
+
+    private final World world;
+    private final ForkJoinPool pool;
+
+    public RayQueries(World world) {
+        this(world, ForkJoinPool.commonPool());
+    }
+
+    public RayQueries(World world, ForkJoinPool pool) {
+        this.world = world;
+        this.pool = pool;
+    }
+
+    public void cast(RayBatch batch) {
+        if (batch.size() > 0) {
+            pool.invoke(new Slice(world, batch, 0, batch.size()));
+        }
+    }
+
+    private static final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient World world;
+        private final transient RayBatch batch;
+        private final int from;
+        private final int to;
+
+        Slice(World world, RayBatch batch, int from, int to) {
+            this.world = world;
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= RAYS_PER_TASK) {
+                Walker walker = new Walker(world);
+                for (int i = from; i < to; i++) {
+                    walker.cast(batch, i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Slice(world, batch, from, middle), new Slice(world, batch, middle, to));
+        }
+    }
+
+    // One ray at a time, Amanatides-Woo style: t is the distance at which the ray entered the current cell, and
+    // tMax per axis where it crosses into the next cell along that axis.
+    private static final class Walker {
+        private final World world;
+        private final Chunk[] cachedChunks;
+        private final long[] cachedKeys;
+        private final boolean[] cached;
+        private double originX;
+        private double originY;
+        private double originZ;
+        private double directionX;
+        private double directionY;
+        private double directionZ;
+        private int stepX;
+        private int stepY;
+        private int stepZ;
+        private double deltaX;
+        private double deltaY;
+        private double deltaZ;
+        private double tMaxX;
+        private double tMaxY;
+        private double tMaxZ;
+        private double t;
+        private int x;
+        private int y;
+        private int z;
+        private int previousX;
+        private int previousY;
+        private int previousZ;
+
+        private Walker(World world) {
+            this.world = world;
+            this.cachedChunks = new Chunk[CHUNK_CACHE_WIDTH * CHUNK_CACHE_WIDTH];
+            this.cachedKeys = new long[CHUNK_CACHE_WIDTH * CHUNK_CACHE_WIDTH];
+            this.cached = new boolean[CHUNK_CACHE_WIDTH * CHUNK_CACHE_WIDTH];
+        }
+
+        private void cast(RayBatch batch, int index) {
+            float maxDistance = batch.ray(index, 6);
+            double dx = batch.ray(index, 3);
+            double dy = batch.ray(index, 4);
+            double dz = batch.ray(index, 5);
+            double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (length == 0.0 || !(maxDistance > 0.0f)) {
+                batch.setMiss(index, maxDistance);
+                return;
+            }
+            originX = batch.ray(index, 0);
+            originY = batch.ray(index, 1);
+            originZ = batch.ray(index, 2);
+            directionX = dx / length;
+            directionY = dy / length;
+            directionZ = dz / length;
+            stepX = (int) Math.signum(directionX);
+            stepY = (int) Math.signum(directionY);
+            stepZ = (int) Math.signum(directionZ);
+            deltaX = stepX == 0 ? Double.POSITIVE_INFINITY : 1.0 / Math.abs(directionX);
+            deltaY = stepY == 0 ? Double.POSITIVE_INFINITY : 1.0 / Math.abs(directionY);
+            deltaZ = stepZ == 0 ? Double.POSITIVE_INFINITY : 1.0 / Math.abs(directionZ);
+            x = (int) Math.floor(originX);
+            y = (int) Math.floor(originY);
+            z = (int) Math.floor(originZ);
+            t = 0.0;
+            resetBoundaries();
+
+            // The cell the ray starts in is never a hit, as with Raycaster.
+            step();
+            while (t <= maxDistance) {
+                if (y < 0 || y >= Chunk.HEIGHT) {
+                    // Below or above the world nothing is collidable; only a ray heading back in can still hit.
+                    if (y < 0 ? stepY <= 0 : stepY >= 0) {
+                        break;
+                    }
+                    int columnX = x & -Chunk.SIZE;
+                    int columnZ = z & -Chunk.SIZE;
+                    skip(columnX, y < 0 ? Integer.MIN_VALUE : Chunk.HEIGHT, columnZ,
+                            columnX + Chunk.SIZE - 1, y < 0 ? -1 : Integer.MAX_VALUE, columnZ + Chunk.SIZE - 1);
+                    continue;
+                }
+                Chunk chunk = chunk(Math.floorDiv(x, Chunk.SIZE), Math.floorDiv(z, Chunk.SIZE));
+                int section = y / Chunk.SECTION_HEIGHT;
+                if (chunk == null || !chunk.hasCollidableBlocks(section)) {
+                    int chunkMinX = x & -Chunk.SIZE;
+                    int chunkMinZ = z & -Chunk.SIZE;
+                    if (chunk == null || chunk.collidableSections() == 0) {
+                        skip(chunkMinX, 0, chunkMinZ, chunkMinX + Chunk.SIZE - 1, Chunk.HEIGHT - 1, chunkMinZ + Chunk.SIZE - 1);
+                    } else {
+                        int sectionMinY = section * Chunk.SECTION_HEIGHT;
+                        skip(chunkMinX, sectionMinY, chunkMinZ, chunkMinX + Chunk.SIZE - 1,
+                                sectionMinY + Chunk.SECTION_HEIGHT - 1, chunkMinZ + Chunk.SIZE - 1);
+                    }
+                    continue;
+                }
+                int id = chunk.getBlockId(x & (Chunk.SIZE - 1), y, z & (Chunk.SIZE - 1));
+                if (REGISTRY.isCollidable(id)) {
+                    batch.setHit(index, x, y, z, previousX, previousY, previousZ, id, (float) t);
+                    return;
+                }
+                step();
+            }
+            batch.setMiss(index, maxDistance);
+        }
+
+        private void step() {
+            previousX = x;
+            previousY = y;
+            previousZ = z;
+            if (tMaxX <= tMaxY && tMaxX <= tMaxZ) {
+                t = tMaxX;
+                x += stepX;
+                tMaxX += deltaX;
+            } else if (tMaxY <= tMaxZ) {
+                t = tMaxY;
+                y += stepY;
+                tMaxY += deltaY;
+            } else {
+                t = tMaxZ;
+                z += stepZ;
+                tMaxZ += deltaZ;
+            }
+        }
+
+        // Moves to the first cell past a box known to hold nothing collidable, landing in the state step() would
+        // have reached after walking through it cell by cell.
+        private void skip(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            double exitX = exit(originX, stepX, deltaX, minX, maxX);
+            double exitY = exit(originY, stepY, deltaY, minY, maxY);
+            double exitZ = exit(originZ, stepZ, deltaZ, minZ, maxZ);
+            double exit = Math.max(t, Math.min(exitX, Math.min(exitY, exitZ)));
+            int insideX = clamp(Math.floor(originX + directionX * exit), minX, maxX);
+            int insideY = clamp(Math.floor(originY + directionY * exit), minY, maxY);
+            int insideZ = clamp(Math.floor(originZ + directionZ * exit), minZ, maxZ);
+            previousX = insideX;
+            previousY = insideY;
+            previousZ = insideZ;
+            x = insideX;
+            y = insideY;
+            z = insideZ;
+            if (exitX <= exitY && exitX <= exitZ) {
+                previousX = stepX > 0 ? maxX : minX;
+                x = previousX + stepX;
+            } else if (exitY <= exitZ) {
+                previousY = stepY > 0 ? maxY : minY;
+                y = previousY + stepY;
+            } else {
+                previousZ = stepZ > 0 ? maxZ : minZ;
+                z = previousZ + stepZ;
+            }
+            t = exit;
+            resetBoundaries();
+        }
+
+        private static double exit(double origin, int step, double delta, int min, int max) {
+            if (step > 0) {
+                return max == Integer.MAX_VALUE ? Double.POSITIVE_INFINITY : (max + 1.0 - origin) * delta;
+            }
+            if (step < 0) {
+                return min == Integer.MIN_VALUE ? Double.POSITIVE_INFINITY : (origin - min) * delta;
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+
+        private static int clamp(double value, int min, int max) {
+            return (int) Math.max(min, Math.min(max, value));
+        }
+
+        private void resetBoundaries() {
+            tMaxX = boundary(originX, stepX, deltaX, x);
+            tMaxY = boundary(originY, stepY, deltaY, y);
+            tMaxZ = boundary(originZ, stepZ, deltaZ, z);
+        }
+
+        private static double boundary(double origin, int step, double delta, int cell) {
+            if (step > 0) {
+                return (cell + 1.0 - origin) * delta;
+            }
+            if (step < 0) {
+                return (origin - cell) * delta;
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+
+        // Direct-mapped by chunk coordinates, including chunks that turned out not to be resident, so a task's rays
+        // look each chunk up about once instead of boxing a map key per cell.
+        private Chunk chunk(int chunkX, int chunkZ) {
+            int slot = Math.floorMod(chunkX, CHUNK_CACHE_WIDTH) * CHUNK_CACHE_WIDTH + Math.floorMod(chunkZ, CHUNK_CACHE_WIDTH);
+            long key = World.packChunkKey(chunkX, chunkZ);
+            if (cached[slot] && cachedKeys[slot] == key) {
+                return cachedChunks[slot];
+            }
+            Chunk chunk = world.getLoadedChunk(chunkX, chunkZ);
+            cached[slot] = true;
+            cachedKeys[slot] = key;
+            cachedChunks[slot] = chunk;
+            return chunk;
+        }
+    }
+}
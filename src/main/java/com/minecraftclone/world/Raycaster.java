@@ -32,7 +32,7 @@ public final class Raycaster {
                 continue;
             }
 
-            if (world.isSolidBlock(blockX, blockY, blockZ)) {
+            if (world.isCollidableBlock(blockX, blockY, blockZ)) {
                 return new RayCastResult(true, blockX, blockY, blockZ, previousX, previousY, previousZ);
             }
 
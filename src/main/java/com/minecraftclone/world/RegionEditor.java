@@ -0,0 +1,270 @@
+package com.minecraftclone.world;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public final class RegionEditor {
+    private final World world;
+    private final ForkJoinPool pool;
+    private volatile EditHistory history;
+
+    public RegionEditor(World world) {
+        this(world, ForkJoinPool.commonPool());
+    }
+
+    public RegionEditor(World world, ForkJoinPool pool) {
+        this.world = world;
+        this.pool = pool;
+    }
+
+    // From then on every operation but copy() is recorded as one undo step.
+    public void setHistory(EditHistory history) {
+        this.history = history;
+    }
+
+    public int fill(BlockBox box, BlockType type) {
+        return apply(box, (x, y, z, current) -> type);
+    }
+
+    public int fillSphere(int centerX, int centerY, int centerZ, int radius, BlockType type) {
+        long radiusSquared = (long) radius * radius;
+        BlockBox box = BlockBox.of(centerX - radius, centerY - radius, centerZ - radius,
+                centerX + radius, centerY + radius, centerZ + radius);
+        return apply(box, (x, y, z, current) -> {
+            long dx = x - centerX;
+            long dy = y - centerY;
+            long dz = z - centerZ;
+            return dx * dx + dy * dy + dz * dz <= radiusSquared ? type : current;
+        });
+    }
+
+    public int replace(BlockBox box, BlockType from, BlockType to) {
+        return apply(box, (x, y, z, current) -> current == from ? to : current);
+    }
+
+    public int paste(Clipboard clipboard, int originX, int originY, int originZ, boolean includeAir) {
+        BlockBox box = new BlockBox(originX, originY, originZ,
+                originX + clipboard.sizeX() - 1, originY + clipboard.sizeY() - 1, originZ + clipboard.sizeZ() - 1);
+        return apply(box, (x, y, z, current) -> {
+            BlockType type = clipboard.get(x - originX, y - originY, z - originZ);
+            return type == BlockType.AIR && !includeAir ? current : type;
+        });
+    }
+
+    public Clipboard copy(BlockBox box) {
+        Clipboard clipboard = new Clipboard(box.sizeX(), box.sizeY(), box.sizeZ());
+        BlockBox clamped = clampToWorldHeight(box);
+        if (clamped == null) {
+            return clipboard;
+        }
+        Chunk[] chunks = collectChunks(clamped, false);
+        pool.invoke(new ChunkBatch(new Batch(world, chunks, null, null, clamped, (x, y, z, current) -> {
+            clipboard.set(x - box.minX(), y - box.minY(), z - box.minZ(), current);
+            return current;
+        }, null, 0L), 0, chunks.length));
+        return clipboard;
+    }
+
+    public int apply(BlockBox box, CellOperation operation) {
+        BlockBox clamped = clampToWorldHeight(box);
+        if (clamped == null) {
+            return 0;
+        }
+        Chunk[] chunks = collectChunks(clamped, true);
+        EditHistory recordTo = history;
+        ChunkDelta.Builder[] recorded = recordTo == null ? null : new ChunkDelta.Builder[chunks.length];
+        CellList[] changedCells = new CellList[chunks.length];
+        EditJournal journal = world.getEditJournal();
+        int changed = pool.invoke(new ChunkBatch(new Batch(world, chunks, recorded, changedCells, clamped, operation,
+                journal, world.getBlockTicks().currentTick()), 0, chunks.length));
+        if (recorded != null) {
+            recordTo.record(Arrays.asList(recorded));
+        }
+
+        long journalSequence = 0L;
+        for (int i = 0; i < chunks.length; i++) {
+            CellList cells = changedCells[i];
+            if (cells != null) {
+                // chunks[i] is the copy that was edited, should the one collected have been demoted meanwhile.
+                world.onCellsChanged(chunks[i], cells.cells, cells.size);
+                journalSequence = Math.max(journalSequence, cells.journalSequence);
+            }
+        }
+        if (journal != null) {
+            journal.awaitDurable(journalSequence);
+        }
+        return changed;
+    }
+
+    private Chunk[] collectChunks(BlockBox box, boolean create) {
+        int minChunkX = Math.floorDiv(box.minX(), Chunk.SIZE);
+        int maxChunkX = Math.floorDiv(box.maxX(), Chunk.SIZE);
+        int minChunkZ = Math.floorDiv(box.minZ(), Chunk.SIZE);
+        int maxChunkZ = Math.floorDiv(box.maxZ(), Chunk.SIZE);
+        int countX = maxChunkX - minChunkX + 1;
+        int countZ = maxChunkZ - minChunkZ + 1;
+
+        Chunk[] chunks = new Chunk[countX * countZ];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        CompletableFuture<Chunk>[] missing = new CompletableFuture[chunks.length];
+        for (int dz = 0; dz < countZ; dz++) {
+            for (int dx = 0; dx < countX; dx++) {
+                Chunk chunk = world.getChunk(minChunkX + dx, minChunkZ + dz);
+                if (chunk == null && create) {
+                    missing[dz * countX + dx] = world.getGenerator().generate(minChunkX + dx, minChunkZ + dz);
+                }
+                chunks[dz * countX + dx] = chunk;
+            }
+        }
+        for (int i = 0; i < chunks.length; i++) {
+            if (missing[i] != null) {
+                chunks[i] = world.addChunk(missing[i].join());
+            }
+        }
+        return chunks;
+    }
+
+    private static BlockBox clampToWorldHeight(BlockBox box) {
+        int minY = Math.max(box.minY(), 0);
+        int maxY = Math.min(box.maxY(), Chunk.HEIGHT - 1);
+        if (minY > maxY) {
+            return null;
+        }
+        return new BlockBox(box.minX(), minY, box.minZ(), box.maxX(), maxY, box.maxZ());
+    }
+
+    @FunctionalInterface
+    public interface CellOperation {
+        BlockType apply(int x, int y, int z, BlockType current);
+    }
+
+    // What every task of one operation shares. recorded holds a builder per chunk and changedCells the cells each
+    // chunk had changed, both filled in by the task that edits it; both null when only reading.
+    private record Batch(World world, Chunk[] chunks, ChunkDelta.Builder[] recorded, CellList[] changedCells,
+                         BlockBox box, CellOperation operation, EditJournal journal, long tick) {
+    }
+
+    private static final class ChunkBatch extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Batch batch;
+        private final int from;
+        private final int to;
+
+        ChunkBatch(Batch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= 1) {
+                return from < to && batch.chunks[from] != null ? applyToChunk(from) : 0;
+            }
+            int middle = (from + to) >>> 1;
+            ChunkBatch left = new ChunkBatch(batch, from, middle);
+            left.fork();
+            int right = new ChunkBatch(batch, middle, to).compute();
+            return left.join() + right;
+        }
+
+        // The whole pass holds the chunk lock, as setBlock does, so no edit lands between a read and its write and the
+        // undo step records what was really replaced. A chunk demoted before the lock was taken is edited in its new
+        // copy instead.
+        private int applyToChunk(int slot) {
+            Chunk chunk = batch.chunks[slot];
+            while (true) {
+                synchronized (chunk) {
+                    if (!chunk.isRetired()) {
+                        batch.chunks[slot] = chunk;
+                        return applyToChunk(slot, chunk);
+                    }
+                }
+                chunk = batch.world.getOrCreateChunk(chunk.chunkX(), chunk.chunkZ());
+            }
+        }
+
+        private int applyToChunk(int slot, Chunk chunk) {
+            BlockBox box = batch.box;
+            ChunkDelta.Builder builder = null;
+            if (batch.recorded != null) {
+                builder = new ChunkDelta.Builder(chunk.chunkX(), chunk.chunkZ());
+                batch.recorded[slot] = builder;
+            }
+            CellList cells = null;
+            if (batch.changedCells != null) {
+                cells = new CellList(batch.journal != null);
+                batch.changedCells[slot] = cells;
+            }
+            int baseX = chunk.chunkX() * Chunk.SIZE;
+            int baseZ = chunk.chunkZ() * Chunk.SIZE;
+            int minX = Math.max(box.minX() - baseX, 0);
+            int maxX = Math.min(box.maxX() - baseX, Chunk.SIZE - 1);
+            int minZ = Math.max(box.minZ() - baseZ, 0);
+            int maxZ = Math.min(box.maxZ() - baseZ, Chunk.SIZE - 1);
+
+            int changed = 0;
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = box.minY(); y <= box.maxY(); y++) {
+                    for (int z = minZ; z <= maxZ; z++) {
+                        BlockType current = chunk.getBlock(x, y, z);
+                        BlockType next = batch.operation.apply(baseX + x, y, baseZ + z, current);
+                        if (next != current) {
+                            chunk.setBlock(x, y, z, next);
+                            int index = ChunkDelta.index(x, y, z);
+                            if (builder != null) {
+                                builder.add(index, current, next);
+                            }
+                            if (cells != null) {
+                                cells.add(index, current, next);
+                            }
+                            changed++;
+                        }
+                    }
+                }
+            }
+            if (cells != null && batch.journal != null && cells.size > 0) {
+                cells.journalSequence = batch.journal.appendAll(chunk.chunkX(), chunk.chunkZ(), cells.cells,
+                        cells.previous, cells.types, cells.size, batch.tick);
+            }
+            return changed;
+        }
+    }
+
+    // A chunk's changed cells for the world to notify and, with ids, the block ids each held before and after for
+    // the journal.
+    private static final class CellList {
+        private int[] cells;
+        private short[] previous;
+        private short[] types;
+        private int size;
+        private long journalSequence;
+
+        CellList(boolean ids) {
+            cells = new int[64];
+            if (ids) {
+                previous = new short[64];
+                types = new short[64];
+            }
+        }
+
+        void add(int cell, BlockType before, BlockType after) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+                if (previous != null) {
+                    previous = Arrays.copyOf(previous, size * 2);
+                    types = Arrays.copyOf(types, size * 2);
+                }
+            }
+            cells[size] = cell;
+            if (previous != null) {
+                previous[size] = (short) before.id();
+                types[size] = (short) after.id();
+            }
+            size++;
+        }
+    }
+}
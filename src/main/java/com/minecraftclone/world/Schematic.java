@@ -0,0 +1,145 @@
+package com.minecraftclone.world;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+public final class Schematic {
+    private static final int MAGIC = 0x4D435343;
+    private static final int VERSION = 1;
+
+    private Schematic() {
+    }
+
+    public static void write(Clipboard clipboard, Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(clipboard, out);
+        }
+    }
+
+    public static Clipboard read(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    public static void write(Clipboard clipboard, OutputStream target) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            DeflaterOutputStream deflated = new DeflaterOutputStream(target, deflater);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(deflated));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(clipboard.sizeX());
+            out.writeInt(clipboard.sizeY());
+            out.writeInt(clipboard.sizeZ());
+
+            Map<BlockType, Integer> paletteIndices = new HashMap<>();
+            List<BlockType> palette = new ArrayList<>();
+            for (int i = 0; i < clipboard.volume(); i++) {
+                BlockType type = clipboard.get(i);
+                if (!paletteIndices.containsKey(type)) {
+                    paletteIndices.put(type, palette.size());
+                    palette.add(type);
+                }
+            }
+            // Blocks are stored by name so files survive renumbering in the block registry.
+            out.writeShort(palette.size());
+            for (BlockType type : palette) {
+                out.writeUTF(type.name());
+            }
+
+            int index = 0;
+            while (index < clipboard.volume()) {
+                BlockType type = clipboard.get(index);
+                int run = 1;
+                while (index + run < clipboard.volume() && clipboard.get(index + run) == type) {
+                    run++;
+                }
+                writeVarInt(out, run);
+                writeVarInt(out, paletteIndices.get(type));
+                index += run;
+            }
+            out.flush();
+            deflated.finish();
+            target.flush();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static Clipboard read(InputStream source) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(source)));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a schematic file");
+        }
+        int version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported schematic version " + version);
+        }
+        int sizeX = in.readInt();
+        int sizeY = in.readInt();
+        int sizeZ = in.readInt();
+        if (sizeX <= 0 || sizeY <= 0 || sizeZ <= 0 || (long) sizeX * sizeY * sizeZ > Integer.MAX_VALUE) {
+            throw new IOException("Invalid schematic dimensions " + sizeX + "x" + sizeY + "x" + sizeZ);
+        }
+
+        int paletteSize = in.readShort();
+        BlockType[] palette = new BlockType[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            String name = in.readUTF();
+            palette[i] = BlockRegistry.defaults().byName(name);
+            if (palette[i] == null) {
+                throw new IOException("Unknown block type in schematic: " + name);
+            }
+        }
+
+        Clipboard clipboard = new Clipboard(sizeX, sizeY, sizeZ);
+        int index = 0;
+        while (index < clipboard.volume()) {
+            int run = readVarInt(in);
+            int paletteIndex = readVarInt(in);
+            if (run <= 0 || index + run > clipboard.volume() || paletteIndex >= paletteSize) {
+                throw new IOException("Corrupt schematic run at cell " + index);
+            }
+            BlockType type = palette[paletteIndex];
+            for (int i = 0; i < run; i++) {
+                clipboard.set(index++, type);
+            }
+        }
+        return clipboard;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
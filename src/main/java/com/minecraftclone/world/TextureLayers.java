@@ -0,0 +1,124 @@
+package com.minecraftclone.world;
+
+import com.minecraftclone.graphics.TextureImages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Which layer of the block texture array each face of each block samples. A block's top looks for <name>_top, its
+// bottom for <name>_bottom and its sides for <name>_side, each falling back to <name>; a block with none of them
+// gets a flat tile of its blocks.txt color. Faces that resolve to the same texture share one layer.
+public final class TextureLayers {
+    public static final String RESOURCE_DIRECTORY = "/textures/";
+    public static final String EXTENSION = ".png";
+    public static final int TILE_SIZE = 16;
+    // Chunk's face order.
+    private static final int FACES = 6;
+    private static final int BOTTOM = 2;
+    private static final int TOP = 3;
+
+    private final List<Layer> layers;
+    private final short[] faceLayers;
+
+    private TextureLayers(List<Layer> layers, short[] faceLayers) {
+        this.layers = layers;
+        this.faceLayers = faceLayers;
+    }
+
+    public static TextureLayers defaults() {
+        return Defaults.LAYERS;
+    }
+
+    // hasTexture answers whether RESOURCE_DIRECTORY + name + EXTENSION exists; nothing here touches GL or the files.
+    public static TextureLayers assign(BlockRegistry registry, Predicate<String> hasTexture) {
+        List<Layer> layers = new ArrayList<>();
+        Map<String, Integer> byTexture = new HashMap<>();
+        short[] faceLayers = new short[registry.size() * FACES];
+        for (int id = 0; id < registry.size(); id++) {
+            if (id == BlockRegistry.AIR_ID) {
+                continue;
+            }
+            BlockType block = registry.byId(id);
+            for (int face = 0; face < FACES; face++) {
+                String suffix = face == TOP ? "_top" : face == BOTTOM ? "_bottom" : "_side";
+                String texture = block.name() + suffix;
+                boolean found = hasTexture.test(texture);
+                if (!found) {
+                    texture = block.name();
+                    found = hasTexture.test(texture);
+                }
+                Integer layer = byTexture.get(texture);
+                if (layer == null) {
+                    layer = layers.size();
+                    if (layer > Short.MAX_VALUE) {
+                        throw new IllegalStateException("Too many block textures: " + layer);
+                    }
+                    byTexture.put(texture, layer);
+                    layers.add(new Layer(texture, found, packColor(block)));
+                }
+                faceLayers[id * FACES + face] = (short) (int) layer;
+            }
+        }
+        return new TextureLayers(List.copyOf(layers), faceLayers);
+    }
+
+    private static int packColor(BlockType block) {
+        return channel(block.color().x) | channel(block.color().y) << 8 | channel(block.color().z) << 16
+                | channel(block.alpha()) << 24;
+    }
+
+    private static int channel(float value) {
+        return Math.round(Math.min(1.0f, Math.max(0.0f, value)) * 255.0f);
+    }
+
+    public int layer(int blockId, int face) {
+        return faceLayers[blockId * FACES + face];
+    }
+
+    public int layerCount() {
+        return layers.size();
+    }
+
+    public List<Layer> layers() {
+        return layers;
+    }
+
+    // Every layer's RGBA8 pixels in layer order. Decoding is plain CPU work, so it runs off the render thread; a
+    // texture that is missing or fails to decode becomes its block's flat tile rather than failing startup.
+    public List<ByteBuffer> loadImages() {
+        List<ByteBuffer> images = new ArrayList<>(layers.size());
+        for (Layer layer : layers) {
+            ByteBuffer image = null;
+            if (layer.found()) {
+                String resource = RESOURCE_DIRECTORY + layer.texture() + EXTENSION;
+                try (InputStream in = TextureLayers.class.getResourceAsStream(resource)) {
+                    image = in == null ? null : TextureImages.decode(in.readAllBytes(), TILE_SIZE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (image == null) {
+                    System.err.println("[textures] " + resource + " is not a " + TILE_SIZE + "x" + TILE_SIZE
+                            + " image, using a flat tile");
+                }
+            }
+            images.add(image != null ? image : TextureImages.solid(TILE_SIZE, layer.fallbackColor()));
+        }
+        return images;
+    }
+
+    // fallbackColor is RGBA packed from the low byte up, as the flat tile stores it.
+    public record Layer(String texture, boolean found, int fallbackColor) {
+    }
+
+    private static final class Defaults {
+        private static final TextureLayers LAYERS = assign(BlockRegistry.defaults(),
+                texture -> TextureLayers.class.getResource(RESOURCE_DIRECTORY + texture + EXTENSION) != null);
+    }
+}
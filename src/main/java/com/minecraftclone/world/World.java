@@ -3,40 +3,339 @@ package com.minecraftclone.world;
 import com.minecraftclone.graphics.ShaderProgram;
 import org.joml.Vector3f;
 
-import java.util.HashMap;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongPredicate;
 
 public final class World {
-    private static final int VIEW_DISTANCE_CHUNKS = 4;
-    private static final float MAX_RENDER_DISTANCE_SQUARED = (VIEW_DISTANCE_CHUNKS * Chunk.SIZE * 1.3f) * (VIEW_DISTANCE_CHUNKS * Chunk.SIZE * 1.3f);
+    public static final int DEFAULT_VIEW_DISTANCE_CHUNKS = 4;
+    public static final int MIN_VIEW_DISTANCE_CHUNKS = 2;
+    public static final int MAX_VIEW_DISTANCE_CHUNKS = 16;
+    private static final BlockRegistry REGISTRY = BlockRegistry.defaults();
+    private static final float RENDER_DISTANCE_SCALE = 1.3f;
+    public static final float DEFAULT_IDLE_SECONDS = 30.0f;
+    public static final int DEFAULT_DEMOTIONS_PER_UPDATE = 4;
+    // Chunks this far past the view stay resident so edge meshing and decoration never touch the compressed tier.
+    private static final int RESIDENT_MARGIN_CHUNKS = 2;
+    private static final long RESIDENCY_CHECK_NANOS = 1_000_000_000L;
+
+    // Pre-generated saves must use it too, or the seams show where they meet chunks generated in game.
+    public static final long DEFAULT_SEED = 1337L;
 
     private final Map<Long, Chunk> chunks;
+    private final Map<Long, CompressedChunk> compressedChunks;
+    private final Object residencyLock;
+    private final BlockTickScheduler blockTicks;
+    private final FluidSimulator fluids;
+    private final ChunkLoadScheduler chunkLoader;
+    private final ForkJoinPool generatorPool;
+    private final WorldGenerator generator;
+    private final List<Chunk> translucentChunks;
+    private volatile EditJournal editJournal;
+    private volatile ChunkMeshQueue meshQueue;
+    private volatile Pathfinder pathfinder;
+    private volatile int viewDistance;
+    private volatile float renderDistanceSquared;
+    private int lastRemeshes;
+    private long lastCenterChunk;
+    private long idleNanos;
+    private int demotionsPerUpdate;
+    private long lastResidencyCheck;
+    private long compressedBytes;
+    private long demotions;
+    private long promotions;
+    private long promotionNanos;
+    private int lastTranslucentSorts;
+    private long lastTranslucentSortNanos;
 
     public World() {
-        this.chunks = new HashMap<>();
+        this.chunks = new ConcurrentHashMap<>();
+        this.compressedChunks = new ConcurrentHashMap<>();
+        this.residencyLock = new Object();
+        this.blockTicks = new BlockTickScheduler(DEFAULT_SEED);
+        this.fluids = new FluidSimulator();
+        this.chunkLoader = new ChunkLoadScheduler();
+        // A pool of its own: callers block on generation, some from common-pool tasks such as region edits and ray
+        // batches, and must never be holding the workers its stages run on.
+        this.generatorPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        this.generator = new WorldGenerator(DEFAULT_SEED, generatorPool);
+        this.translucentChunks = new ArrayList<>();
+        setViewDistance(DEFAULT_VIEW_DISTANCE_CHUNKS);
+        setIdleSeconds(DEFAULT_IDLE_SECONDS);
+        this.demotionsPerUpdate = DEFAULT_DEMOTIONS_PER_UPDATE;
     }
 
-    public void update(Vector3f playerPosition) {
+    public void update(Vector3f playerPosition, Vector3f velocity, Vector3f viewDirection, boolean sprinting) {
         int chunkX = Math.floorDiv((int) Math.floor(playerPosition.x), Chunk.SIZE);
         int chunkZ = Math.floorDiv((int) Math.floor(playerPosition.z), Chunk.SIZE);
-        ensureChunksAround(chunkX, chunkZ, VIEW_DISTANCE_CHUNKS);
-        rebuildDirtyChunks(chunkX, chunkZ, VIEW_DISTANCE_CHUNKS + 1);
+        chunkLoader.update(this, playerPosition.x, playerPosition.z, velocity.x, velocity.z,
+                viewDirection.x, viewDirection.z, sprinting, viewDistance);
+        lastRemeshes = rebuildDirtyChunks(chunkX, chunkZ, viewDistance + 1);
+        long centerChunk = packChunkKey(chunkX, chunkZ);
+        if (centerChunk != lastCenterChunk) {
+            lastCenterChunk = centerChunk;
+            // Keep one ring past the view so edge chunks can still decorate against their neighbours' surfaces.
+            generator.prune(chunkX, chunkZ, viewDistance + RESIDENT_MARGIN_CHUNKS);
+        }
+        long now = System.nanoTime();
+        if (now - lastResidencyCheck >= RESIDENCY_CHECK_NANOS) {
+            lastResidencyCheck = now;
+            demoteIdleChunks(chunkX, chunkZ, now);
+        }
+    }
+
+    public void setIdleSeconds(float seconds) {
+        idleNanos = (long) (Math.max(0.0f, seconds) * 1.0e9);
+    }
+
+    public void setDemotionsPerUpdate(int demotions) {
+        demotionsPerUpdate = Math.max(0, demotions);
+    }
+
+    public int demoteIdleChunks(int centerChunkX, int centerChunkZ, long now) {
+        int keepRadius = viewDistance + RESIDENT_MARGIN_CHUNKS;
+        return demoteIdleChunks(key -> Math.max(Math.abs(unpackChunkX(key) - centerChunkX),
+                Math.abs(unpackChunkZ(key) - centerChunkZ)) <= keepRadius, now);
+    }
+
+    // For a world with no one player to centre on, such as a shard's; keep takes packChunkKey keys.
+    public int demoteIdleChunks(LongPredicate keep, long now) {
+        int demoted = 0;
+        for (Map.Entry<Long, Chunk> entry : chunks.entrySet()) {
+            if (demoted >= demotionsPerUpdate) {
+                break;
+            }
+            Chunk chunk = entry.getValue();
+            if (keep.test(entry.getKey()) || now - chunk.lastTouchedNanos(now) < idleNanos) {
+                continue;
+            }
+            if (demote(chunk)) {
+                demoted++;
+            }
+        }
+        return demoted;
+    }
+
+    private boolean demote(Chunk chunk) {
+        long key = packChunkKey(chunk.chunkX(), chunk.chunkZ());
+        synchronized (residencyLock) {
+            synchronized (chunk) {
+                if (chunk.isRetired() || chunks.get(key) != chunk) {
+                    return false;
+                }
+                CompressedChunk compressed = CompressedChunk.compress(chunk.snapshot());
+                // Publish the compressed copy before unmapping so a lookup always finds one tier or the other.
+                compressedChunks.put(key, compressed);
+                chunks.remove(key);
+                chunk.retire();
+                compressedBytes += compressed.sizeBytes();
+                demotions++;
+            }
+        }
+        release(chunk);
+        return true;
+    }
+
+    // Drops a resident chunk without keeping a copy, for one held only as a copy of another world's, such as a
+    // shard's mirror of a chunk it does not own. False when it was not resident.
+    public boolean unloadChunk(int chunkX, int chunkZ) {
+        long key = packChunkKey(chunkX, chunkZ);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            return false;
+        }
+        synchronized (residencyLock) {
+            synchronized (chunk) {
+                if (chunk.isRetired() || chunks.get(key) != chunk) {
+                    return false;
+                }
+                chunks.remove(key);
+                chunk.retire();
+            }
+        }
+        release(chunk);
+        return true;
+    }
+
+    private void release(Chunk chunk) {
+        blockTicks.untrackChunk(chunk);
+        ChunkMeshQueue queue = meshQueue;
+        if (queue != null) {
+            queue.release(chunk);
+        } else {
+            chunk.cleanup();
+        }
+    }
+
+    private Chunk promote(long key) {
+        if (!compressedChunks.containsKey(key)) {
+            // Promotion maps the chunk before dropping the compressed copy, so a miss here means it is resident or absent.
+            return chunks.get(key);
+        }
+        Chunk chunk;
+        synchronized (residencyLock) {
+            Chunk resident = chunks.get(key);
+            if (resident != null) {
+                return resident;
+            }
+            CompressedChunk compressed = compressedChunks.get(key);
+            if (compressed == null) {
+                return null;
+            }
+            long start = System.nanoTime();
+            chunk = compressed.inflate();
+            chunk.touch(start);
+            chunks.put(key, chunk);
+            compressedChunks.remove(key);
+            compressedBytes -= compressed.sizeBytes();
+            promotions++;
+            promotionNanos += System.nanoTime() - start;
+        }
+        // Outside the residency lock: the tick thread may hold the scheduler lock while reading blocks.
+        blockTicks.trackChunk(chunk);
+        return chunk;
+    }
+
+    public int getResidentChunkCount() {
+        return chunks.size();
+    }
+
+    public int getCompressedChunkCount() {
+        return compressedChunks.size();
+    }
+
+    public long getCompressedBytes() {
+        synchronized (residencyLock) {
+            return compressedBytes;
+        }
+    }
+
+    public long getDemotions() {
+        synchronized (residencyLock) {
+            return demotions;
+        }
+    }
+
+    public long getPromotions() {
+        synchronized (residencyLock) {
+            return promotions;
+        }
+    }
+
+    public long getPromotionNanos() {
+        synchronized (residencyLock) {
+            return promotionNanos;
+        }
+    }
+
+    public int getViewDistance() {
+        return viewDistance;
+    }
+
+    public void setViewDistance(int chunks) {
+        viewDistance = Math.max(MIN_VIEW_DISTANCE_CHUNKS, Math.min(MAX_VIEW_DISTANCE_CHUNKS, chunks));
+        float renderDistance = getRenderDistance();
+        renderDistanceSquared = renderDistance * renderDistance;
+    }
+
+    public float getRenderDistance() {
+        return viewDistance * Chunk.SIZE * RENDER_DISTANCE_SCALE;
+    }
+
+    public int getLastRemeshes() {
+        return lastRemeshes;
+    }
+
+    public ChunkLoadScheduler getChunkLoader() {
+        return chunkLoader;
+    }
+
+    public void tick() {
+        blockTicks.tick(this);
+        fluids.tick(this);
     }
 
-    public void render(ShaderProgram shader, Vector3f cameraPosition) {
+    public BlockTickScheduler getBlockTicks() {
+        return blockTicks;
+    }
+
+    public FluidSimulator getFluids() {
+        return fluids;
+    }
+
+    public void scheduleTick(int worldX, int worldY, int worldZ, int delayTicks) {
+        if (worldY < 0 || worldY >= Chunk.HEIGHT) {
+            return;
+        }
+        blockTicks.schedule(worldX, worldY, worldZ, getBlock(worldX, worldY, worldZ), delayTicks);
+    }
+
+    // Runs on the simulation thread; the render thread draws the list without touching the chunk map.
+    public List<Chunk> collectVisibleChunks(Vector3f cameraPosition, List<Chunk> out) {
         int cameraChunkX = Math.floorDiv((int) Math.floor(cameraPosition.x), Chunk.SIZE);
         int cameraChunkZ = Math.floorDiv((int) Math.floor(cameraPosition.z), Chunk.SIZE);
+        float maxDistanceSquared = renderDistanceSquared;
         for (Chunk chunk : chunks.values()) {
             float dx = (chunk.chunkX() - cameraChunkX) * Chunk.SIZE;
             float dz = (chunk.chunkZ() - cameraChunkZ) * Chunk.SIZE;
-            float distanceSquared = dx * dx + dz * dz;
-            if (distanceSquared > MAX_RENDER_DISTANCE_SQUARED) {
-                continue;
+            if (dx * dx + dz * dz <= maxDistanceSquared) {
+                out.add(chunk);
+            }
+        }
+        return out;
+    }
+
+    public void render(List<Chunk> visible, ShaderProgram.Vec3Uniform chunkOffset) {
+        for (Chunk chunk : visible) {
+            chunk.render(chunkOffset);
+        }
+    }
+
+    public void renderTranslucent(List<Chunk> visible, ShaderProgram.Vec3Uniform chunkOffset, Vector3f cameraPosition) {
+        translucentChunks.clear();
+        for (Chunk chunk : visible) {
+            if (chunk.hasTranslucentGeometry()) {
+                translucentChunks.add(chunk);
+            }
+        }
+        translucentChunks.sort(Comparator.comparingDouble((Chunk chunk) -> {
+            float centerX = chunk.chunkX() * Chunk.SIZE + Chunk.SIZE * 0.5f - cameraPosition.x;
+            float centerZ = chunk.chunkZ() * Chunk.SIZE + Chunk.SIZE * 0.5f - cameraPosition.z;
+            return centerX * centerX + centerZ * centerZ;
+        }).reversed());
+
+        int cameraBlockX = (int) Math.floor(cameraPosition.x);
+        int cameraBlockY = (int) Math.floor(cameraPosition.y);
+        int cameraBlockZ = (int) Math.floor(cameraPosition.z);
+        lastTranslucentSorts = 0;
+        lastTranslucentSortNanos = 0L;
+        for (Chunk chunk : translucentChunks) {
+            long start = System.nanoTime();
+            if (chunk.sortTranslucent(cameraBlockX, cameraBlockY, cameraBlockZ,
+                    cameraPosition.x, cameraPosition.y, cameraPosition.z)) {
+                lastTranslucentSorts++;
+                lastTranslucentSortNanos += System.nanoTime() - start;
             }
-            chunk.render(shader);
+            chunk.renderTranslucent(chunkOffset);
         }
     }
 
+    public int getLastTranslucentSorts() {
+        return lastTranslucentSorts;
+    }
+
+    public long getLastTranslucentSortNanos() {
+        return lastTranslucentSortNanos;
+    }
+
     public BlockType getBlock(int worldX, int worldY, int worldZ) {
         if (worldY < 0 || worldY >= Chunk.HEIGHT) {
             return worldY < 0 ? BlockType.BEDROCK : BlockType.AIR;
@@ -50,20 +349,168 @@ public final class World {
         return chunk.getBlock(localX, worldY, localZ);
     }
 
-    public boolean isSolidBlock(int worldX, int worldY, int worldZ) {
-        return getBlock(worldX, worldY, worldZ).isSolid();
+    public int getFluidLevel(int worldX, int worldY, int worldZ) {
+        Chunk chunk = getChunkFor(worldX, worldZ);
+        if (chunk == null) {
+            return 0;
+        }
+        int localX = Math.floorMod(worldX, Chunk.SIZE);
+        int localZ = Math.floorMod(worldZ, Chunk.SIZE);
+        return chunk.getFluidLevel(localX, worldY, localZ);
+    }
+
+    public int getSurfaceHeight(int worldX, int worldZ) {
+        Chunk chunk = getChunkFor(worldX, worldZ);
+        if (chunk == null) {
+            return -1;
+        }
+        return chunk.getHighestSolidY(Math.floorMod(worldX, Chunk.SIZE), Math.floorMod(worldZ, Chunk.SIZE));
+    }
+
+    public int getHighestOpaqueY(int worldX, int worldZ) {
+        Chunk chunk = getChunkFor(worldX, worldZ);
+        if (chunk == null) {
+            return -1;
+        }
+        return chunk.getHighestOpaqueY(Math.floorMod(worldX, Chunk.SIZE), Math.floorMod(worldZ, Chunk.SIZE));
+    }
+
+    public boolean isSectionEmpty(int chunkX, int section, int chunkZ) {
+        Chunk chunk = getLoadedChunk(chunkX, chunkZ);
+        return chunk == null || section < 0 || section >= Chunk.SECTION_COUNT || chunk.isSectionEmpty(section);
+    }
+
+    public BlockPos findNearestBlock(BlockType type, int worldX, int worldY, int worldZ, int radius) {
+        int minY = Math.max(0, worldY - radius);
+        int maxY = Math.min(Chunk.HEIGHT - 1, worldY + radius);
+        if (minY > maxY) {
+            return null;
+        }
+        List<SectionCandidate> candidates = new ArrayList<>();
+        for (int chunkX = Math.floorDiv(worldX - radius, Chunk.SIZE); chunkX <= Math.floorDiv(worldX + radius, Chunk.SIZE); chunkX++) {
+            for (int chunkZ = Math.floorDiv(worldZ - radius, Chunk.SIZE); chunkZ <= Math.floorDiv(worldZ + radius, Chunk.SIZE); chunkZ++) {
+                Chunk chunk = getLoadedChunk(chunkX, chunkZ);
+                if (chunk == null) {
+                    continue;
+                }
+                for (int section = minY / Chunk.SECTION_HEIGHT; section <= maxY / Chunk.SECTION_HEIGHT; section++) {
+                    if (chunk.countInSection(section, type) == 0) {
+                        continue;
+                    }
+                    long dx = axisDistance(worldX, chunkX * Chunk.SIZE, Chunk.SIZE);
+                    long dy = axisDistance(worldY, section * Chunk.SECTION_HEIGHT, Chunk.SECTION_HEIGHT);
+                    long dz = axisDistance(worldZ, chunkZ * Chunk.SIZE, Chunk.SIZE);
+                    candidates.add(new SectionCandidate(dx * dx + dy * dy + dz * dz, chunk, section));
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingLong(SectionCandidate::distanceSquared));
+
+        long bestDistanceSquared = (long) radius * radius + 1L;
+        BlockPos best = null;
+        for (SectionCandidate candidate : candidates) {
+            // Sections are visited nearest-first, so once one cannot beat the best hit none can.
+            if (candidate.distanceSquared() >= bestDistanceSquared) {
+                break;
+            }
+            Chunk chunk = candidate.chunk();
+            int baseX = chunk.chunkX() * Chunk.SIZE;
+            int baseZ = chunk.chunkZ() * Chunk.SIZE;
+            int fromY = Math.max(minY, candidate.section() * Chunk.SECTION_HEIGHT);
+            int toY = Math.min(maxY, candidate.section() * Chunk.SECTION_HEIGHT + Chunk.SECTION_HEIGHT - 1);
+            for (int localX = 0; localX < Chunk.SIZE; localX++) {
+                long dx = baseX + localX - worldX;
+                for (int y = fromY; y <= toY; y++) {
+                    long dy = y - worldY;
+                    for (int localZ = 0; localZ < Chunk.SIZE; localZ++) {
+                        if (chunk.getBlock(localX, y, localZ) != type) {
+                            continue;
+                        }
+                        long dz = baseZ + localZ - worldZ;
+                        long distanceSquared = dx * dx + dy * dy + dz * dz;
+                        if (distanceSquared < bestDistanceSquared) {
+                            bestDistanceSquared = distanceSquared;
+                            best = new BlockPos(baseX + localX, y, baseZ + localZ);
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static long axisDistance(int point, int min, int size) {
+        if (point < min) {
+            return min - point;
+        }
+        if (point >= min + size) {
+            return point - (min + size - 1);
+        }
+        return 0L;
+    }
+
+    public int getBlockId(int worldX, int worldY, int worldZ) {
+        if (worldY < 0 || worldY >= Chunk.HEIGHT) {
+            return worldY < 0 ? BlockType.BEDROCK.id() : BlockRegistry.AIR_ID;
+        }
+        Chunk chunk = getChunkFor(worldX, worldZ);
+        if (chunk == null) {
+            return BlockRegistry.AIR_ID;
+        }
+        return chunk.getBlockId(Math.floorMod(worldX, Chunk.SIZE), worldY, Math.floorMod(worldZ, Chunk.SIZE));
+    }
+
+    public boolean isCollidableBlock(int worldX, int worldY, int worldZ) {
+        return REGISTRY.isCollidable(getBlockId(worldX, worldY, worldZ));
+    }
+
+    public boolean isOpaqueBlock(int worldX, int worldY, int worldZ) {
+        return REGISTRY.isOpaque(getBlockId(worldX, worldY, worldZ));
     }
 
     public void setBlock(int worldX, int worldY, int worldZ, BlockType type) {
+        exchangeBlock(worldX, worldY, worldZ, type);
+    }
+
+    // The block that was there before, or null above or below the world; EditHistory records exactly what it replaced.
+    BlockType exchangeBlock(int worldX, int worldY, int worldZ, BlockType type) {
         if (worldY < 0 || worldY >= Chunk.HEIGHT) {
-            return;
+            return null;
         }
         int chunkX = Math.floorDiv(worldX, Chunk.SIZE);
         int chunkZ = Math.floorDiv(worldZ, Chunk.SIZE);
         Chunk chunk = getOrCreateChunk(chunkX, chunkZ);
         int localX = Math.floorMod(worldX, Chunk.SIZE);
         int localZ = Math.floorMod(worldZ, Chunk.SIZE);
-        chunk.setBlock(localX, worldY, localZ, type);
+        EditJournal journal = editJournal;
+        long journalSequence = 0L;
+        BlockType previous;
+        while (true) {
+            synchronized (chunk) {
+                if (!chunk.isRetired()) {
+                    previous = chunk.getBlock(localX, worldY, localZ);
+                    if (previous == type) {
+                        return previous;
+                    }
+                    chunk.setBlock(localX, worldY, localZ, type);
+                    // Appended under the chunk lock so records for one block are in the order they were applied.
+                    if (journal != null) {
+                        journalSequence = journal.append(worldX, worldY, worldZ, previous, type, blockTicks.currentTick());
+                    }
+                    break;
+                }
+            }
+            chunk = getOrCreateChunk(chunkX, chunkZ);
+        }
+        if (journal != null) {
+            journal.awaitDurable(journalSequence);
+        }
+        Pathfinder paths = pathfinder;
+        if (paths != null) {
+            paths.invalidate(chunkX, chunkZ);
+        }
+        // Outside the chunk lock: the tick thread takes the scheduler lock before chunk locks.
+        blockTicks.onBlockChanged(chunk, worldX, worldY, worldZ, type);
 
         if (localX == 0) {
             markDirty(chunkX - 1, chunkZ);
@@ -75,6 +522,7 @@ public final class World {
         } else if (localZ == Chunk.SIZE - 1) {
             markDirty(chunkX, chunkZ + 1);
         }
+        return previous;
     }
 
     public void cleanup() {
@@ -82,9 +530,19 @@ public final class World {
             chunk.cleanup();
         }
         chunks.clear();
+        synchronized (residencyLock) {
+            compressedChunks.clear();
+            compressedBytes = 0L;
+        }
+        chunkLoader.clear();
+        generator.clear();
+        blockTicks.clear();
+        fluids.clear();
+        // Generation already started finishes; the world takes no more chunks after this.
+        generatorPool.shutdown();
     }
 
-    private void ensureChunksAround(int centerChunkX, int centerChunkZ, int radius) {
+    public void ensureChunksAround(int centerChunkX, int centerChunkZ, int radius) {
         for (int dz = -radius; dz <= radius; dz++) {
             for (int dx = -radius; dx <= radius; dx++) {
                 int targetChunkX = centerChunkX + dx;
@@ -94,38 +552,192 @@ public final class World {
         }
     }
 
-    private void rebuildDirtyChunks(int centerChunkX, int centerChunkZ, int radius) {
+    private int rebuildDirtyChunks(int centerChunkX, int centerChunkZ, int radius) {
         int radiusSquared = radius * radius;
+        int rebuilt = 0;
         for (Chunk chunk : chunks.values()) {
             int dx = chunk.chunkX() - centerChunkX;
             int dz = chunk.chunkZ() - centerChunkZ;
             if (dx * dx + dz * dz > radiusSquared) {
                 continue;
             }
-            if (chunk.isDirty()) {
+            if (!chunk.isDirty()) {
+                continue;
+            }
+            ChunkMeshQueue queue = meshQueue;
+            if (queue == null) {
                 chunk.rebuildMesh(this);
+            } else {
+                ChunkMeshData data = chunk.buildMesh(this);
+                chunk.meshQueued(data.sourceStamp());
+                queue.addMesh(chunk, data);
             }
+            rebuilt++;
         }
+        return rebuilt;
     }
 
-    private Chunk getOrCreateChunk(int chunkX, int chunkZ) {
+    Chunk getOrCreateChunk(int chunkX, int chunkZ) {
         long key = packChunkKey(chunkX, chunkZ);
-        return chunks.computeIfAbsent(key, k -> {
-            Chunk chunk = new Chunk(chunkX, chunkZ);
-            populateChunk(chunk);
-            chunk.rebuildMesh(this);
-            return chunk;
-        });
+        Chunk existing = chunks.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        existing = promote(key);
+        if (existing != null) {
+            return existing;
+        }
+        // Generate outside the map so readers never wait on population; racing callers share one generation.
+        Chunk chunk = generator.generate(chunkX, chunkZ).join();
+        chunk.touch(System.nanoTime());
+        existing = chunks.putIfAbsent(key, chunk);
+        if (existing != null) {
+            return existing;
+        }
+        blockTicks.trackChunk(chunk);
+        return chunk;
     }
 
-    private Chunk getChunkFor(int worldX, int worldZ) {
-        int chunkX = Math.floorDiv(worldX, Chunk.SIZE);
-        int chunkZ = Math.floorDiv(worldZ, Chunk.SIZE);
+    public EditJournal getEditJournal() {
+        return editJournal;
+    }
+
+    public void setEditJournal(EditJournal journal) {
+        editJournal = journal;
+    }
+
+    // Every edit from then on invalidates the edited chunk's navigation graph.
+    void setPathfinder(Pathfinder paths) {
+        pathfinder = paths;
+    }
+
+    // With a queue set, meshing and demotion leave every GL call to whichever thread applies the queue's batches.
+    public void setMeshQueue(ChunkMeshQueue queue) {
+        meshQueue = queue;
+    }
+
+    // Cheap enough for the game thread: every chunk is only marked copy-on-write, nothing is copied or encoded here.
+    public WorldSnapshot snapshot() {
+        EditJournal journal = editJournal;
+        // Taken before the chunks: an edit journaled after this point may or may not be in the snapshot, so it is kept.
+        long journalSequence = journal == null ? 0L : journal.lastSequence();
+        synchronized (residencyLock) {
+            List<ChunkSnapshot> resident = new ArrayList<>(chunks.size());
+            for (Chunk chunk : chunks.values()) {
+                resident.add(chunk.snapshot());
+            }
+            return new WorldSnapshot(resident, new ArrayList<>(compressedChunks.values()), journalSequence);
+        }
+    }
+
+    // Saved chunks enter the compressed tier and are promoted on first access; call before replaying the journal.
+    public int loadSave(Path file) throws IOException {
+        List<CompressedChunk> saved = WorldSnapshot.read(file);
+        synchronized (residencyLock) {
+            for (CompressedChunk chunk : saved) {
+                long key = packChunkKey(chunk.chunkX(), chunk.chunkZ());
+                if (chunks.containsKey(key)) {
+                    continue;
+                }
+                CompressedChunk replaced = compressedChunks.put(key, chunk);
+                if (replaced != null) {
+                    compressedBytes -= replaced.sizeBytes();
+                }
+                compressedBytes += chunk.sizeBytes();
+            }
+        }
+        return saved.size();
+    }
+
+    // A resident chunk's blocks in the save encoding, for another world to install with readChunk. False when the
+    // chunk is not resident here.
+    public boolean writeChunk(int chunkX, int chunkZ, DataOutput out) throws IOException {
+        Chunk chunk = getLoadedChunk(chunkX, chunkZ);
+        if (chunk == null) {
+            return false;
+        }
+        CompressedChunk.compress(chunk.snapshot()).write(out);
+        return true;
+    }
+
+    // Both ends run the same block registry, so ids are taken as they are. A chunk already resident here is kept and
+    // the one read is dropped; returns whether it was installed.
+    public boolean readChunk(DataInput in) throws IOException {
+        int[] identity = new int[BlockRegistry.defaults().size()];
+        for (int id = 0; id < identity.length; id++) {
+            identity[id] = id;
+        }
+        Chunk chunk = CompressedChunk.read(in, identity).inflate();
+        chunk.touch(System.nanoTime());
+        if (chunks.putIfAbsent(packChunkKey(chunk.chunkX(), chunk.chunkZ()), chunk) != null) {
+            return false;
+        }
+        blockTicks.trackChunk(chunk);
+        return true;
+    }
+
+    public WorldGenerator getGenerator() {
+        return generator;
+    }
+
+    Chunk getChunk(int chunkX, int chunkZ) {
         long key = packChunkKey(chunkX, chunkZ);
-        return chunks.get(key);
+        Chunk chunk = chunks.get(key);
+        return chunk != null ? chunk : promote(key);
+    }
+
+    // Returns the chunk now installed, which is another caller's when one got there first.
+    Chunk addChunk(Chunk chunk) {
+        chunk.touch(System.nanoTime());
+        Chunk existing = chunks.putIfAbsent(packChunkKey(chunk.chunkX(), chunk.chunkZ()), chunk);
+        if (existing != null) {
+            return existing;
+        }
+        blockTicks.trackChunk(chunk);
+        return chunk;
     }
 
-    private void markDirty(int chunkX, int chunkZ) {
+    // What setBlock does after the write, for batch writers that set cells (ChunkDelta indices) straight in the chunk:
+    // block ticks, and through them fluids, hear of every changed cell, and a neighbour is remeshed only when a changed
+    // cell lies on the border it shares. Call outside the chunk lock, as setBlock does.
+    void onCellsChanged(Chunk chunk, int[] cells, int count) {
+        if (count == 0) {
+            return;
+        }
+        int chunkX = chunk.chunkX();
+        int chunkZ = chunk.chunkZ();
+        Pathfinder paths = pathfinder;
+        if (paths != null) {
+            paths.invalidate(chunkX, chunkZ);
+        }
+        blockTicks.onBlocksChanged(chunk, cells, count);
+        int borders = 0;
+        for (int i = 0; i < count; i++) {
+            borders |= ChunkDelta.borders(cells[i]);
+        }
+        if ((borders & ChunkDelta.WEST) != 0) {
+            markDirty(chunkX - 1, chunkZ);
+        }
+        if ((borders & ChunkDelta.EAST) != 0) {
+            markDirty(chunkX + 1, chunkZ);
+        }
+        if ((borders & ChunkDelta.NORTH) != 0) {
+            markDirty(chunkX, chunkZ - 1);
+        }
+        if ((borders & ChunkDelta.SOUTH) != 0) {
+            markDirty(chunkX, chunkZ + 1);
+        }
+    }
+
+    public Chunk getLoadedChunk(int chunkX, int chunkZ) {
+        return chunks.get(packChunkKey(chunkX, chunkZ));
+    }
+
+    private Chunk getChunkFor(int worldX, int worldZ) {
+        return getChunk(Math.floorDiv(worldX, Chunk.SIZE), Math.floorDiv(worldZ, Chunk.SIZE));
+    }
+
+    void markDirty(int chunkX, int chunkZ) {
         long key = packChunkKey(chunkX, chunkZ);
         Chunk chunk = chunks.get(key);
         if (chunk != null) {
@@ -133,47 +745,18 @@ public final class World {
         }
     }
 
-    private static long packChunkKey(int chunkX, int chunkZ) {
+    public static long packChunkKey(int chunkX, int chunkZ) {
         return (((long) chunkX) << 32) ^ (chunkZ & 0xffffffffL);
     }
 
-    private void populateChunk(Chunk chunk) {
-        int baseX = chunk.chunkX() * Chunk.SIZE;
-        int baseZ = chunk.chunkZ() * Chunk.SIZE;
-        for (int localX = 0; localX < Chunk.SIZE; localX++) {
-            for (int localZ = 0; localZ < Chunk.SIZE; localZ++) {
-                int worldX = baseX + localX;
-                int worldZ = baseZ + localZ;
-
-        double noise = Math.sin(worldX * 0.08) * 2.2
-            + Math.cos(worldZ * 0.08) * 2.2
-            + Math.sin(worldX * 0.017) * Math.cos(worldZ * 0.017) * 6.0;
-        int surfaceHeight = clampToInt(Math.round(40 + noise), 4, Chunk.HEIGHT - 2);
-
-                for (int y = 0; y < Chunk.HEIGHT; y++) {
-                    BlockType type = BlockType.AIR;
-                    if (y == 0) {
-                        type = BlockType.BEDROCK;
-                    } else if (y < surfaceHeight - 4) {
-                        type = BlockType.STONE;
-                    } else if (y < surfaceHeight - 1) {
-                        type = BlockType.DIRT;
-                    } else if (y == surfaceHeight - 1) {
-                        type = BlockType.GRASS;
-                    }
-                    chunk.setBlock(localX, y, localZ, type);
-                }
-            }
-        }
+    public static int unpackChunkX(long key) {
+        return (int) (key >> 32);
     }
 
-    private static int clampToInt(long value, int min, int max) {
-        if (value < min) {
-            return min;
-        }
-        if (value > max) {
-            return max;
-        }
-        return (int) value;
+    public static int unpackChunkZ(long key) {
+        return (int) key;
+    }
+
+    private record SectionCandidate(long distanceSquared, Chunk chunk, int section) {
     }
 }
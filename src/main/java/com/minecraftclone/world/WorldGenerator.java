@@ -0,0 +1,379 @@
+package com.minecraftclone.world;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongPredicate;
+
+public final class WorldGenerator {
+    public enum Stage {
+        TERRAIN,
+        CARVING,
+        ORES,
+        DECORATED
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private static final long CAVE_SALT = 0x5DEECE66DL;
+    private static final long ORE_SALT = 0x2545F4914F6CDD1DL;
+    private static final long TREE_SALT = 0x9E3779B97F4A7C15L;
+
+    // A cave worm walks at most MAX_CAVE_STEPS blocks from its origin chunk, so it can reach this many chunks away.
+    private static final int MAX_CAVE_STEPS = 48;
+    private static final double MAX_CAVE_RADIUS = 3.0;
+    private static final int CAVE_RANGE = (int) Math.ceil((Chunk.SIZE + MAX_CAVE_STEPS + MAX_CAVE_RADIUS) / Chunk.SIZE);
+    private static final int CAVE_CHANCE = 3;
+
+    private static final OreVein[] ORE_VEINS = {
+            new OreVein(BlockType.COAL_ORE, 10, 5, 60, 8),
+            new OreVein(BlockType.IRON_ORE, 5, 5, 32, 5)
+    };
+
+    private static final int MAX_TREES_PER_CHUNK = 3;
+    private static final int CANOPY_RADIUS = 2;
+
+    private final long seed;
+    private final Executor executor;
+    private final ConcurrentHashMap<Long, ChunkTasks> tasks;
+
+    public WorldGenerator(long seed, Executor executor) {
+        this.seed = seed;
+        this.executor = executor;
+        this.tasks = new ConcurrentHashMap<>();
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public CompletableFuture<Chunk> generate(int chunkX, int chunkZ) {
+        return stage(chunkX, chunkZ, Stage.DECORATED).thenApply(proto -> proto.chunk);
+    }
+
+    public int trackedChunks() {
+        return tasks.size();
+    }
+
+    public void prune(int centerChunkX, int centerChunkZ, int radius) {
+        prune(key -> Math.max(Math.abs(World.unpackChunkX(key) - centerChunkX),
+                Math.abs(World.unpackChunkZ(key) - centerChunkZ)) <= radius);
+    }
+
+    // keep takes World.packChunkKey keys.
+    public void prune(LongPredicate keep) {
+        // Output depends only on the seed, so a pruned chunk that is needed again is simply regenerated.
+        tasks.entrySet().removeIf(entry -> !keep.test(entry.getKey()) && entry.getValue().isSettled());
+    }
+
+    // Drops one chunk's finished stages; a later request for it regenerates the same blocks.
+    public void forget(int chunkX, int chunkZ) {
+        tasks.computeIfPresent(World.packChunkKey(chunkX, chunkZ), (key, entry) -> entry.isSettled() ? null : entry);
+    }
+
+    public void clear() {
+        tasks.clear();
+    }
+
+    private CompletableFuture<ProtoChunk> stage(int chunkX, int chunkZ, Stage stage) {
+        ChunkTasks entry = tasks.computeIfAbsent(World.packChunkKey(chunkX, chunkZ), key -> new ChunkTasks());
+        CompletableFuture<ProtoChunk> existing = entry.stages.get(stage.ordinal());
+        if (existing != null) {
+            return existing;
+        }
+        // Claim the slot before wiring dependencies so no lock is held while neighbours are requested.
+        CompletableFuture<ProtoChunk> promise = new CompletableFuture<>();
+        if (!entry.stages.compareAndSet(stage.ordinal(), null, promise)) {
+            return entry.stages.get(stage.ordinal());
+        }
+        CompletableFuture<ProtoChunk> work = switch (stage) {
+            case TERRAIN -> CompletableFuture.supplyAsync(() -> terrain(new ProtoChunk(new Chunk(chunkX, chunkZ))), executor);
+            case CARVING -> stage(chunkX, chunkZ, Stage.TERRAIN).thenApplyAsync(this::carve, executor);
+            case ORES -> stage(chunkX, chunkZ, Stage.CARVING).thenApplyAsync(this::ores, executor);
+            case DECORATED -> decorateWhenReady(chunkX, chunkZ);
+        };
+        work.whenComplete((proto, failure) -> {
+            if (failure != null) {
+                promise.completeExceptionally(failure);
+            } else {
+                promise.complete(proto);
+            }
+        });
+        return promise;
+    }
+
+    private CompletableFuture<ProtoChunk> decorateWhenReady(int chunkX, int chunkZ) {
+        // Trees may hang over chunk borders, so decoration waits for every neighbour's final surface.
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        CompletableFuture<ProtoChunk>[] neighbors = new CompletableFuture[9];
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                neighbors[(dz + 1) * 3 + dx + 1] = stage(chunkX + dx, chunkZ + dz, Stage.ORES);
+            }
+        }
+        return CompletableFuture.allOf(neighbors).thenApplyAsync(ignored -> {
+            ProtoChunk[] ready = new ProtoChunk[neighbors.length];
+            for (int i = 0; i < ready.length; i++) {
+                ready[i] = neighbors[i].join();
+            }
+            return decorate(ready);
+        }, executor);
+    }
+
+    private ProtoChunk terrain(ProtoChunk proto) {
+        Chunk chunk = proto.chunk;
+        int baseX = chunk.chunkX() * Chunk.SIZE;
+        int baseZ = chunk.chunkZ() * Chunk.SIZE;
+        for (int localX = 0; localX < Chunk.SIZE; localX++) {
+            for (int localZ = 0; localZ < Chunk.SIZE; localZ++) {
+                int surfaceHeight = surfaceHeight(baseX + localX, baseZ + localZ);
+                chunk.setBlock(localX, 0, localZ, BlockType.BEDROCK);
+                for (int y = 1; y < surfaceHeight; y++) {
+                    BlockType type;
+                    if (y < surfaceHeight - 4) {
+                        type = BlockType.STONE;
+                    } else if (y < surfaceHeight - 1) {
+                        type = BlockType.DIRT;
+                    } else {
+                        type = BlockType.GRASS;
+                    }
+                    chunk.setBlock(localX, y, localZ, type);
+                }
+            }
+        }
+        return proto;
+    }
+
+    static int surfaceHeight(int worldX, int worldZ) {
+        double noise = StrictMath.sin(worldX * 0.08) * 2.2
+                + StrictMath.cos(worldZ * 0.08) * 2.2
+                + StrictMath.sin(worldX * 0.017) * StrictMath.cos(worldZ * 0.017) * 6.0;
+        return (int) Math.max(4, Math.min(Chunk.HEIGHT - 2, Math.round(40 + noise)));
+    }
+
+    private ProtoChunk carve(ProtoChunk proto) {
+        Chunk chunk = proto.chunk;
+        // Worms are a pure function of their origin chunk, so every chunk they cross replays the same path.
+        for (int dz = -CAVE_RANGE; dz <= CAVE_RANGE; dz++) {
+            for (int dx = -CAVE_RANGE; dx <= CAVE_RANGE; dx++) {
+                carveWorm(chunk, chunk.chunkX() + dx, chunk.chunkZ() + dz);
+            }
+        }
+        return proto;
+    }
+
+    private void carveWorm(Chunk chunk, int originChunkX, int originChunkZ) {
+        Random random = random(originChunkX, originChunkZ, CAVE_SALT);
+        if (random.nextInt(CAVE_CHANCE) != 0) {
+            return;
+        }
+        double x = originChunkX * Chunk.SIZE + random.nextInt(Chunk.SIZE);
+        double y = 12 + random.nextInt(28);
+        double z = originChunkZ * Chunk.SIZE + random.nextInt(Chunk.SIZE);
+        double yaw = random.nextDouble() * Math.PI * 2.0;
+        double pitch = (random.nextDouble() - 0.5) * 0.5;
+        int steps = MAX_CAVE_STEPS / 2 + random.nextInt(MAX_CAVE_STEPS / 2);
+        for (int step = 0; step < steps; step++) {
+            double radius = 1.5 + StrictMath.sin(step * Math.PI / steps) * (MAX_CAVE_RADIUS - 1.5);
+            carveSphere(chunk, x, y, z, radius);
+            x += StrictMath.cos(yaw) * StrictMath.cos(pitch);
+            y += StrictMath.sin(pitch);
+            z += StrictMath.sin(yaw) * StrictMath.cos(pitch);
+            yaw += (random.nextDouble() - 0.5) * 0.5;
+            pitch = pitch * 0.7 + (random.nextDouble() - 0.5) * 0.3;
+        }
+    }
+
+    private static void carveSphere(Chunk chunk, double centerX, double centerY, double centerZ, double radius) {
+        int baseX = chunk.chunkX() * Chunk.SIZE;
+        int baseZ = chunk.chunkZ() * Chunk.SIZE;
+        int minX = Math.max((int) Math.floor(centerX - radius), baseX);
+        int maxX = Math.min((int) Math.floor(centerX + radius), baseX + Chunk.SIZE - 1);
+        int minZ = Math.max((int) Math.floor(centerZ - radius), baseZ);
+        int maxZ = Math.min((int) Math.floor(centerZ + radius), baseZ + Chunk.SIZE - 1);
+        if (minX > maxX || minZ > maxZ) {
+            return;
+        }
+        int minY = Math.max((int) Math.floor(centerY - radius), 1);
+        int maxY = Math.min((int) Math.floor(centerY + radius), Chunk.HEIGHT - 1);
+        double radiusSquared = radius * radius;
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    double dx = x + 0.5 - centerX;
+                    double dy = y + 0.5 - centerY;
+                    double dz = z + 0.5 - centerZ;
+                    if (dx * dx + dy * dy + dz * dz > radiusSquared) {
+                        continue;
+                    }
+                    BlockType existing = chunk.getBlock(x - baseX, y, z - baseZ);
+                    if (existing == BlockType.STONE || existing == BlockType.DIRT || existing == BlockType.GRASS) {
+                        chunk.setBlock(x - baseX, y, z - baseZ, BlockType.AIR);
+                    }
+                }
+            }
+        }
+    }
+
+    private ProtoChunk ores(ProtoChunk proto) {
+        Chunk chunk = proto.chunk;
+        for (int dz = -1; dz <= 1; dz++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                placeOres(chunk, chunk.chunkX() + dx, chunk.chunkZ() + dz);
+            }
+        }
+        proto.captureSurface();
+        return proto;
+    }
+
+    private void placeOres(Chunk chunk, int originChunkX, int originChunkZ) {
+        Random random = random(originChunkX, originChunkZ, ORE_SALT);
+        int baseX = chunk.chunkX() * Chunk.SIZE;
+        int baseZ = chunk.chunkZ() * Chunk.SIZE;
+        for (OreVein vein : ORE_VEINS) {
+            for (int i = 0; i < vein.veinsPerChunk(); i++) {
+                int x = originChunkX * Chunk.SIZE + random.nextInt(Chunk.SIZE);
+                int y = vein.minY() + random.nextInt(vein.maxY() - vein.minY());
+                int z = originChunkZ * Chunk.SIZE + random.nextInt(Chunk.SIZE);
+                for (int block = 0; block < vein.size(); block++) {
+                    int localX = x - baseX;
+                    int localZ = z - baseZ;
+                    if (localX >= 0 && localX < Chunk.SIZE && localZ >= 0 && localZ < Chunk.SIZE
+                            && y > 0 && y < Chunk.HEIGHT && chunk.getBlock(localX, y, localZ) == BlockType.STONE) {
+                        chunk.setBlock(localX, y, localZ, vein.block());
+                    }
+                    switch (random.nextInt(6)) {
+                        case 0 -> x++;
+                        case 1 -> x--;
+                        case 2 -> y++;
+                        case 3 -> y--;
+                        case 4 -> z++;
+                        default -> z--;
+                    }
+                }
+            }
+        }
+    }
+
+    private ProtoChunk decorate(ProtoChunk[] neighborhood) {
+        ProtoChunk proto = neighborhood[4];
+        Chunk chunk = proto.chunk;
+        // Trunks go in before any canopy so overlapping trees resolve the same way whichever is listed first.
+        for (int pass = 0; pass < 2; pass++) {
+            for (ProtoChunk origin : neighborhood) {
+                placeTrees(chunk, origin, pass == 0);
+            }
+        }
+        return proto;
+    }
+
+    private void placeTrees(Chunk chunk, ProtoChunk origin, boolean trunks) {
+        int originChunkX = origin.chunkX;
+        int originChunkZ = origin.chunkZ;
+        Random random = random(originChunkX, originChunkZ, TREE_SALT);
+        int trees = random.nextInt(MAX_TREES_PER_CHUNK + 1);
+        for (int i = 0; i < trees; i++) {
+            int localX = random.nextInt(Chunk.SIZE);
+            int localZ = random.nextInt(Chunk.SIZE);
+            int trunkHeight = 4 + random.nextInt(3);
+            int ground = origin.surfaceHeight(localX, localZ);
+            if (ground < 0 || origin.surfaceBlock(localX, localZ) != BlockType.GRASS.id()
+                    || ground + trunkHeight + 2 >= Chunk.HEIGHT) {
+                continue;
+            }
+            int x = originChunkX * Chunk.SIZE + localX;
+            int z = originChunkZ * Chunk.SIZE + localZ;
+            int top = ground + trunkHeight;
+            if (trunks) {
+                for (int y = ground + 1; y <= top; y++) {
+                    placeDecoration(chunk, x, y, z, BlockType.LOG);
+                }
+                continue;
+            }
+            for (int y = top - 2; y <= top + 1; y++) {
+                int radius = y < top ? CANOPY_RADIUS : CANOPY_RADIUS - 1;
+                for (int dx = -radius; dx <= radius; dx++) {
+                    for (int dz = -radius; dz <= radius; dz++) {
+                        if (radius == CANOPY_RADIUS && Math.abs(dx) == radius && Math.abs(dz) == radius) {
+                            continue;
+                        }
+                        placeDecoration(chunk, x + dx, y, z + dz, BlockType.LEAVES);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void placeDecoration(Chunk chunk, int worldX, int y, int worldZ, BlockType type) {
+        int localX = worldX - chunk.chunkX() * Chunk.SIZE;
+        int localZ = worldZ - chunk.chunkZ() * Chunk.SIZE;
+        if (localX < 0 || localX >= Chunk.SIZE || localZ < 0 || localZ >= Chunk.SIZE) {
+            return;
+        }
+        BlockType existing = chunk.getBlock(localX, y, localZ);
+        if (existing == BlockType.AIR || (type == BlockType.LOG && existing == BlockType.LEAVES)) {
+            chunk.setBlock(localX, y, localZ, type);
+        }
+    }
+
+    private Random random(int chunkX, int chunkZ, long salt) {
+        long mixed = seed ^ salt;
+        mixed = (mixed ^ chunkX * 0xBF58476D1CE4E5B9L) * 0x94D049BB133111EBL;
+        mixed = (mixed ^ chunkZ * 0xC2B2AE3D27D4EB4FL) * 0xBF58476D1CE4E5B9L;
+        return new Random(mixed ^ (mixed >>> 31));
+    }
+
+    private static final class ChunkTasks {
+        private final AtomicReferenceArray<CompletableFuture<ProtoChunk>> stages = new AtomicReferenceArray<>(STAGES.length);
+
+        boolean isSettled() {
+            for (int i = 0; i < stages.length(); i++) {
+                CompletableFuture<ProtoChunk> stage = stages.get(i);
+                if (stage != null && !stage.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class ProtoChunk {
+        private final Chunk chunk;
+        private final int chunkX;
+        private final int chunkZ;
+        private final byte[] surfaceHeights;
+        private final byte[] surfaceBlocks;
+
+        ProtoChunk(Chunk chunk) {
+            this.chunk = chunk;
+            this.chunkX = chunk.chunkX();
+            this.chunkZ = chunk.chunkZ();
+            this.surfaceHeights = new byte[Chunk.SIZE * Chunk.SIZE];
+            this.surfaceBlocks = new byte[Chunk.SIZE * Chunk.SIZE];
+        }
+
+        // Neighbours read this copy instead of the live chunk, which may already be growing its own trees.
+        void captureSurface() {
+            for (int x = 0; x < Chunk.SIZE; x++) {
+                for (int z = 0; z < Chunk.SIZE; z++) {
+                    int height = chunk.getHighestSolidY(x, z);
+                    surfaceHeights[x * Chunk.SIZE + z] = (byte) height;
+                    surfaceBlocks[x * Chunk.SIZE + z] = (byte) (height < 0 ? BlockType.AIR.id() : chunk.getBlock(x, height, z).id());
+                }
+            }
+        }
+
+        int surfaceHeight(int x, int z) {
+            return surfaceHeights[x * Chunk.SIZE + z];
+        }
+
+        int surfaceBlock(int x, int z) {
+            return surfaceBlocks[x * Chunk.SIZE + z];
+        }
+    }
+
+    private record OreVein(BlockType block, int veinsPerChunk, int minY, int maxY, int size) {
+    }
+}
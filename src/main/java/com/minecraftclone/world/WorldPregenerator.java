@@ -0,0 +1,157 @@
+package com.minecraftclone.world;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+// Generates the square of chunks within radiusChunks of the spawn chunk into a world save, one ring at a time
+// outward. Rings generate on all threads but are written in a fixed order, and generation depends only on the seed,
+// so the save is byte for byte the same whatever the thread count. Memory follows the length of a ring, not the
+// area: decorating a ring needs only its two neighbouring rings, and everything further in is forgotten once
+// written. A checkpoint after every ring lets a stopped run continue where it left off.
+public final class WorldPregenerator {
+    private static final int CHECKPOINT_MAGIC = 0x4D435047;
+
+    private final long seed;
+    private final int radiusChunks;
+    private final int threads;
+
+    public WorldPregenerator(long seed, int radiusChunks, int threads) {
+        if (radiusChunks < 0 || threads <= 0) {
+            throw new IllegalArgumentException("Radius must not be negative and threads must be positive");
+        }
+        this.seed = seed;
+        this.radiusChunks = radiusChunks;
+        this.threads = threads;
+    }
+
+    public record Progress(int ringsDone, int rings, long chunksDone, long chunks, long chunksThisRun,
+                           long elapsedNanos) {
+        public double chunksPerSecond() {
+            return elapsedNanos == 0L ? 0.0 : chunksThisRun * 1.0e9 / elapsedNanos;
+        }
+
+        public long etaNanos() {
+            return chunksThisRun == 0L ? 0L : (long) ((double) elapsedNanos / chunksThisRun * (chunks - chunksDone));
+        }
+    }
+
+    private record Checkpoint(long seed, int radiusChunks, int ringsDone, WorldSaveWriter.Position position) {
+    }
+
+    public static Path checkpointFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".pregen");
+    }
+
+    public static long chunkCount(int radiusChunks) {
+        long side = 2L * radiusChunks + 1L;
+        return side * side;
+    }
+
+    // Returns the finished save's size. Progress is reported after every ring, on the calling thread.
+    public long run(Path file, Consumer<Progress> progress) throws IOException {
+        Path checkpointFile = checkpointFile(file);
+        Checkpoint checkpoint = Files.exists(checkpointFile) ? readCheckpoint(checkpointFile) : null;
+        if (checkpoint != null && (checkpoint.seed() != seed || checkpoint.radiusChunks() != radiusChunks)) {
+            throw new IOException(checkpointFile + " is from a run with another seed or radius; delete it and "
+                    + WorldSaveWriter.partialFile(file) + " to start over");
+        }
+        int firstRing = checkpoint == null ? 0 : checkpoint.ringsDone();
+        long alreadyDone = firstRing == 0 ? 0L : chunkCount(firstRing - 1);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        WorldGenerator generator = new WorldGenerator(seed, pool);
+        long start = System.nanoTime();
+        try (WorldSaveWriter writer = checkpoint == null ? WorldSaveWriter.create(file)
+                : WorldSaveWriter.resume(file, checkpoint.position())) {
+            List<CompletableFuture<Chunk>> next = firstRing <= radiusChunks ? generate(generator, firstRing) : List.of();
+            for (int ring = firstRing; ring <= radiusChunks; ring++) {
+                List<CompletableFuture<Chunk>> current = next;
+                // The next ring generates while this one is written.
+                next = ring < radiusChunks ? generate(generator, ring + 1) : List.of();
+                for (CompletableFuture<Chunk> chunk : current) {
+                    writer.append(chunk.join());
+                }
+                if (ring > 0) {
+                    for (int[] chunk : ring(ring - 1)) {
+                        generator.forget(chunk[0], chunk[1]);
+                    }
+                }
+                writeCheckpoint(checkpointFile, new Checkpoint(seed, radiusChunks, ring + 1, writer.sync()));
+                long done = chunkCount(ring);
+                progress.accept(new Progress(ring + 1, radiusChunks + 1, done, chunkCount(radiusChunks),
+                        done - alreadyDone, System.nanoTime() - start));
+            }
+            long bytes = writer.finish();
+            Files.deleteIfExists(checkpointFile);
+            return bytes;
+        } finally {
+            pool.shutdownNow();
+            generator.clear();
+        }
+    }
+
+    private static List<CompletableFuture<Chunk>> generate(WorldGenerator generator, int ring) {
+        List<int[]> chunks = ring(ring);
+        List<CompletableFuture<Chunk>> futures = new ArrayList<>(chunks.size());
+        for (int[] chunk : chunks) {
+            futures.add(generator.generate(chunk[0], chunk[1]));
+        }
+        return futures;
+    }
+
+    // The 8 * ring chunks at Chebyshev distance ring from the spawn chunk, clockwise from the north-west corner.
+    static List<int[]> ring(int ring) {
+        List<int[]> chunks = new ArrayList<>(Math.max(1, 8 * ring));
+        if (ring == 0) {
+            chunks.add(new int[]{0, 0});
+            return chunks;
+        }
+        for (int x = -ring; x < ring; x++) {
+            chunks.add(new int[]{x, -ring});
+        }
+        for (int z = -ring; z < ring; z++) {
+            chunks.add(new int[]{ring, z});
+        }
+        for (int x = ring; x > -ring; x--) {
+            chunks.add(new int[]{x, ring});
+        }
+        for (int z = ring; z > -ring; z--) {
+            chunks.add(new int[]{-ring, z});
+        }
+        return chunks;
+    }
+
+    private static Checkpoint readCheckpoint(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) {
+                throw new IOException(file + " is not a pre-generation checkpoint");
+            }
+            return new Checkpoint(in.readLong(), in.readInt(), in.readInt(),
+                    new WorldSaveWriter.Position(in.readLong(), in.readInt()));
+        }
+    }
+
+    // Written after the chunks it counts are durable, and renamed into place, so it never claims more than is there.
+    private static void writeCheckpoint(Path file, Checkpoint checkpoint) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeLong(checkpoint.seed());
+            out.writeInt(checkpoint.radiusChunks());
+            out.writeInt(checkpoint.ringsDone());
+            out.writeLong(checkpoint.position().bytes());
+            out.writeInt(checkpoint.position().chunks());
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,114 @@
+package com.minecraftclone.world;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Builds a world save a chunk at a time, for saves too large to hold in memory, in the same format WorldSnapshot
+// writes. Chunks go to a ".partial" file next to the save; finish() patches the chunk count into the header and its
+// rename is the commit point. Closing without finishing leaves the partial file for resume().
+public final class WorldSaveWriter implements AutoCloseable {
+    private static final int BUFFER_BYTES = 256 * 1024;
+
+    private final Path file;
+    private final Path partial;
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final int countOffset;
+    private int chunkCount;
+
+    // Where a partial save is durable up to; resume() continues from exactly here.
+    public record Position(long bytes, int chunks) {
+    }
+
+    private WorldSaveWriter(Path file, FileChannel channel, int countOffset, int chunkCount) {
+        this.file = file;
+        this.partial = partialFile(file);
+        this.channel = channel;
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_BYTES));
+        this.countOffset = countOffset;
+        this.chunkCount = chunkCount;
+    }
+
+    public static Path partialFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".partial");
+    }
+
+    public static WorldSaveWriter create(Path file) throws IOException {
+        byte[] header = header();
+        FileChannel channel = FileChannel.open(partialFile(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        WorldSaveWriter writer = new WorldSaveWriter(file, channel, header.length, 0);
+        writer.out.write(header);
+        writer.out.writeInt(0);
+        return writer;
+    }
+
+    // Anything written past the position, by a run that stopped before its next sync, is cut off.
+    public static WorldSaveWriter resume(Path file, Position position) throws IOException {
+        byte[] header = header();
+        FileChannel channel = FileChannel.open(partialFile(file), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer existing = ByteBuffer.allocate(header.length);
+            channel.read(existing, 0L);
+            if (existing.hasRemaining() || !Arrays.equals(existing.array(), header)
+                    || channel.size() < position.bytes()) {
+                throw new IOException(partialFile(file) + " does not match its checkpoint");
+            }
+            channel.truncate(position.bytes());
+            channel.position(position.bytes());
+            return new WorldSaveWriter(file, channel, header.length, position.chunks());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static byte[] header() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WorldSnapshot.writeHeader(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    public void append(Chunk chunk) throws IOException {
+        CompressedChunk.compress(chunk.snapshot()).write(out);
+        chunkCount++;
+    }
+
+    public int chunkCount() {
+        return chunkCount;
+    }
+
+    public Position sync() throws IOException {
+        out.flush();
+        channel.force(false);
+        return new Position(channel.position(), chunkCount);
+    }
+
+    public long finish() throws IOException {
+        out.flush();
+        ByteBuffer count = ByteBuffer.allocate(Integer.BYTES).putInt(0, chunkCount);
+        channel.write(count, countOffset);
+        channel.force(true);
+        channel.close();
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            out.flush();
+            channel.close();
+        }
+    }
+}
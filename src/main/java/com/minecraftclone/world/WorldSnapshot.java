@@ -0,0 +1,99 @@
+package com.minecraftclone.world;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public final class WorldSnapshot {
+    private static final int MAGIC = 0x4D435331;
+    private static final int VERSION = 1;
+    private static final int BUFFER_BYTES = 256 * 1024;
+
+    private final List<ChunkSnapshot> resident;
+    private final List<CompressedChunk> compressed;
+    private final long journalSequence;
+    private Set<Long> chunkKeys;
+
+    WorldSnapshot(List<ChunkSnapshot> resident, List<CompressedChunk> compressed, long journalSequence) {
+        this.resident = resident;
+        this.compressed = compressed;
+        this.journalSequence = journalSequence;
+    }
+
+    public int chunkCount() {
+        return resident.size() + compressed.size();
+    }
+
+    public long journalSequence() {
+        return journalSequence;
+    }
+
+    public synchronized boolean contains(long chunkKey) {
+        if (chunkKeys == null) {
+            chunkKeys = new HashSet<>();
+            for (ChunkSnapshot chunk : resident) {
+                chunkKeys.add(World.packChunkKey(chunk.chunkX(), chunk.chunkZ()));
+            }
+            for (CompressedChunk chunk : compressed) {
+                chunkKeys.add(World.packChunkKey(chunk.chunkX(), chunk.chunkZ()));
+            }
+        }
+        return chunkKeys.contains(chunkKey);
+    }
+
+    // Encodes the frozen chunks off the game thread; the rename is the commit point, as for journal compaction.
+    public long writeTo(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_BYTES));
+            writeHeader(out);
+            out.writeInt(chunkCount());
+            for (ChunkSnapshot chunk : resident) {
+                CompressedChunk.compress(chunk).write(out);
+            }
+            for (CompressedChunk chunk : compressed) {
+                chunk.write(out);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(file);
+    }
+
+    // Everything before the chunk count, which WorldSaveWriter patches in once it knows it.
+    static void writeHeader(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        BlockRegistry.defaults().writeIdTable(out);
+    }
+
+    static List<CompressedChunk> read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException(file + " is not a world save");
+            }
+            int[] remap = BlockRegistry.defaults().readIdRemap(in);
+            int count = in.readInt();
+            List<CompressedChunk> chunks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                chunks.add(CompressedChunk.read(in, remap));
+            }
+            return chunks;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+#version 330 core
+in vec3 fragTexCoord;
+in vec3 fragNormal;
+in vec3 fragPosition;
+layout(std140) uniform FrameData {
+    mat4 projection;
+    mat4 view;
+    vec3 cameraPosition;
+    float fogStart;
+    float fogEnd;
+};
+uniform sampler2DArray blockTextures;
+out vec4 outColor;
+void main() {
+    vec4 texel = texture(blockTextures, fragTexCoord);
+    vec3 lightDir = normalize(vec3(0.4, 1.0, 0.3));
+    float diff = max(dot(normalize(fragNormal), lightDir), 0.2);
+    vec3 baseColor = texel.rgb * diff;
+    float distanceToCamera = length(fragPosition - cameraPosition);
+    float fogFactor = clamp((distanceToCamera - fogStart) / max(fogEnd - fogStart, 1.0), 0.0, 1.0);
+    vec3 fogColor = vec3(0.53, 0.81, 0.92);
+    vec3 finalColor = mix(baseColor, fogColor, fogFactor);
+    outColor = vec4(finalColor, texel.a);
+}
@@ -0,0 +1,36 @@
+#version 330 core
+layout(location = 0) in vec3 inPosition;
+// Bits 0-7: the face, in Chunk's order (-X, +X, -Y, +Y, -Z, +Z); bits 16-31: the texture array layer.
+layout(location = 1) in uint inFaceLayer;
+// Mirrors FrameUniforms; std140 offsets 0, 64, 128, 140, 144.
+layout(std140) uniform FrameData {
+    mat4 projection;
+    mat4 view;
+    vec3 cameraPosition;
+    float fogStart;
+    float fogEnd;
+};
+uniform vec3 chunkOffset;
+out vec3 fragTexCoord;
+out vec3 fragNormal;
+out vec3 fragPosition;
+const vec3 NORMALS[6] = vec3[6](vec3(-1.0, 0.0, 0.0), vec3(1.0, 0.0, 0.0), vec3(0.0, -1.0, 0.0),
+        vec3(0.0, 1.0, 0.0), vec3(0.0, 0.0, -1.0), vec3(0.0, 0.0, 1.0));
+void main() {
+    uint face = inFaceLayer & 0xFFu;
+    vec3 worldPos = chunkOffset + inPosition;
+    // One texture repeat per block along the face's two axes; u runs left to right as seen from outside, and side
+    // faces count v down from the top edge so the image stands upright. The sampler wraps, so no fract is needed.
+    vec2 uv;
+    if (face < 2u) {
+        uv = vec2(face == 0u ? inPosition.z : -inPosition.z, -inPosition.y);
+    } else if (face < 4u) {
+        uv = inPosition.xz;
+    } else {
+        uv = vec2(face == 4u ? -inPosition.x : inPosition.x, -inPosition.y);
+    }
+    fragTexCoord = vec3(uv, float(inFaceLayer >> 16u));
+    fragNormal = NORMALS[face];
+    fragPosition = worldPos;
+    gl_Position = projection * view * vec4(worldPos, 1.0);
+}
@@ -0,0 +1,17 @@
+#version 330 core
+in vec4 fragColor;
+in vec3 fragPosition;
+layout(std140) uniform FrameData {
+    mat4 projection;
+    mat4 view;
+    vec3 cameraPosition;
+    float fogStart;
+    float fogEnd;
+};
+out vec4 outColor;
+void main() {
+    float distanceToCamera = length(fragPosition - cameraPosition);
+    float fogFactor = clamp((distanceToCamera - fogStart) / max(fogEnd - fogStart, 1.0), 0.0, 1.0);
+    vec3 fogColor = vec3(0.53, 0.81, 0.92);
+    outColor = vec4(mix(fragColor.rgb, fogColor, fogFactor), 1.0);
+}
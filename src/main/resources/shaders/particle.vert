@@ -0,0 +1,23 @@
+#version 330 core
+layout(location = 0) in vec2 inCorner;
+layout(location = 1) in vec4 inInstance;
+layout(location = 2) in vec4 inColor;
+// Mirrors FrameUniforms; std140 offsets 0, 64, 128, 140, 144.
+layout(std140) uniform FrameData {
+    mat4 projection;
+    mat4 view;
+    vec3 cameraPosition;
+    float fogStart;
+    float fogEnd;
+};
+out vec4 fragColor;
+out vec3 fragPosition;
+void main() {
+    // The rows of the view rotation are the camera's right and up axes, so every quad faces the camera.
+    vec3 right = vec3(view[0][0], view[1][0], view[2][0]);
+    vec3 up = vec3(view[0][1], view[1][1], view[2][1]);
+    vec3 worldPos = inInstance.xyz + (right * inCorner.x + up * inCorner.y) * inInstance.w;
+    fragColor = inColor;
+    fragPosition = worldPos;
+    gl_Position = projection * view * vec4(worldPos, 1.0);
+}